@@ -25,27 +25,45 @@
 package com.github.samsonkim.lib.productinfoingestion;
 
 import com.github.samsonkim.lib.productinfoingestion.exception.ProductInfoIngestionException;
+import com.github.samsonkim.lib.productinfoingestion.integration.StoreFactory;
 import com.github.samsonkim.lib.productinfoingestion.integration.StoreFactoryImpl;
-import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings;
-import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.pipeline.StageMetrics;
+import com.github.samsonkim.lib.productinfoingestion.service.IngestionMode;
 import com.github.samsonkim.lib.productinfoingestion.service.ProductCatalogIntegrationService;
 import com.github.samsonkim.lib.productinfoingestion.service.ProductCatalogIntegrationServiceImpl;
+import com.github.samsonkim.lib.productinfoingestion.watcher.DropFolderListener;
+import com.github.samsonkim.lib.productinfoingestion.watcher.DropFolderWatcher;
 import com.github.samsonkim.lib.productinfoingestion.writer.JacksonJsonWriter;
+import com.github.samsonkim.lib.productinfoingestion.writer.JsonException;
 import com.github.samsonkim.lib.productinfoingestion.writer.JsonWriter;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Command line application to demonstrate parsing a file to a Collection of ProductRecords
  */
 public class ProductInfoIngestionApp {
     private static final String USER = "ProductInfoIngestionApp";
+    private static final String WATCH_OPTION = "--watch";
+    private static final String NDJSON_OPTION = "--ndjson";
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
 
-    public static void main(String[] args) throws ProductInfoIngestionException, IOException {
+    private final StoreFactory storeFactory = new StoreFactoryImpl();
+    private final JsonWriter jsonWriter = new JacksonJsonWriter();
+
+    public static void main(String[] args) throws ProductInfoIngestionException, IOException, InterruptedException {
         if (args.length == 0 ||
                 Optional.of(args[0])
                         .filter(s -> s.length() > 0)
@@ -54,40 +72,167 @@ public class ProductInfoIngestionApp {
             System.exit(1);
         }
 
-        String fileName = args[0];
-
         ProductInfoIngestionApp app = new ProductInfoIngestionApp();
+
+        if (WATCH_OPTION.equals(args[0])) {
+            if (args.length < 3) {
+                System.err.println(String.format("Usage: %s <drop folder> <output folder>", WATCH_OPTION));
+                System.exit(1);
+            }
+            app.watch(Paths.get(args[1]), Paths.get(args[2]));
+            return;
+        }
+
+        if (NDJSON_OPTION.equals(args[0])) {
+            if (args.length < 2) {
+                System.err.println(String.format("Usage: %s <file name>", NDJSON_OPTION));
+                System.exit(1);
+            }
+            app.run(args[1], true);
+            return;
+        }
+
+        String fileName = args[0];
         app.run(fileName);
     }
 
     /**
      * Main entry point of application.  Input filename needs "sample" to resolve to
-     * sample store integration
+     * sample store integration, see StoreFactory.findStoreId
      *
      * @param fileName
      * @throws IOException
      * @throws ProductInfoIngestionException
      */
     public void run(String fileName) throws IOException, ProductInfoIngestionException {
-        JsonWriter jsonWriter = new JacksonJsonWriter();
+        run(fileName, false);
+    }
 
-        UUID storeId = null;
-        String jsonFileName = null;
+    /**
+     * Main entry point of application, see run(String)
+     *
+     * @param fileName
+     * @param ndjson write newline delimited json (sample.ndjson), one ProductRecord per line, rather than a json list
+     * @throws IOException
+     * @throws ProductInfoIngestionException if no store is found for the file name, or ingestion fails
+     */
+    public void run(String fileName, boolean ndjson) throws IOException, ProductInfoIngestionException {
+        //resolve the store before the output file is opened, so an unknown store leaves no output behind
+        UUID storeId = storeFactory.findStoreId(fileName)
+                .orElseThrow(() -> new ProductInfoIngestionException(
+                        String.format("No store found for file name. fileName=%s", fileName), null));
+        String outputFileName = ndjson ? "sample.ndjson" : "sample.json";
+
+        long count = ingest(storeId, fileName, outputFileName, ndjson);
+
+        System.out.println(String.format("Processed %s records", count));
+    }
 
-        if (fileName.contains("sample")) {
-            storeId = SampleStoreSettings.STORE_ID;
-            jsonFileName = "sample.json";
+    /**
+     * Long running mode, ingests files as they land in the store folders under the drop folder
+     * until the JVM shuts down.  Each file is written to the output folder as &lt;file name&gt;.json
+     *
+     * @param dropFolder directory holding a folder per store, e.g. "sample"
+     * @param outputFolder
+     * @throws IOException if the watcher stops on an error, so the process exits rather than idle
+     * @throws InterruptedException
+     */
+    public void watch(Path dropFolder, Path outputFolder) throws IOException, InterruptedException {
+        Files.createDirectories(outputFolder);
+        CountDownLatch stopped = new CountDownLatch(1);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+
+        DropFolderWatcher watcher = new DropFolderWatcher(dropFolder, storeFactory,
+                (storeId, file) -> ingest(storeId, file.toString(),
+                        outputFolder.resolve(file.getFileName() + ".json").toString(), false),
+                new DropFolderListener() {
+                    @Override
+                    public void onIngested(UUID storeId, Path file) {
+                        System.out.println(String.format("Ingested %s", file));
+                    }
+
+                    @Override
+                    public void onFailed(UUID storeId, Path file, Exception e) {
+                        System.err.println(String.format("Failed to ingest %s: %s", file, e));
+                    }
+
+                    @Override
+                    public void onUnknownStore(Path directory) {
+                        System.err.println(String.format("No store for drop folder %s", directory));
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        System.err.println(String.format("Error watching %s, retrying: %s", dropFolder, e));
+                    }
+
+                    @Override
+                    public void onStopped(Exception e) {
+                        if (e != null) {
+                            failure.set(e);
+                            stopped.countDown();
+                        }
+                    }
+                });
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                System.err.println(String.format("Failed to stop watching %s: %s", dropFolder, e));
+            }
+            stopped.countDown();
+        }));
+
+        watcher.start();
+        System.out.println(String.format("Watching %s", dropFolder));
+        stopped.await();
+
+        if (failure.get() != null) {
+            watcher.close();
+            throw new IOException(String.format("Stopped watching %s", dropFolder), failure.get());
         }
+    }
 
+    private long ingest(UUID storeId, String fileName, String outputFileName, boolean ndjson)
+            throws IOException, ProductInfoIngestionException {
         ProductCatalogIntegrationService productCatalogIntegrationService =
-                new ProductCatalogIntegrationServiceImpl(new StoreFactoryImpl());
-        List<ProductRecord> productRecords = productCatalogIntegrationService.ingestProductCatalog(storeId, fileName, USER);
+                new ProductCatalogIntegrationServiceImpl(storeFactory, IngestionMode.PIPELINED);
+        Path outputFile = Paths.get(outputFileName);
 
-        String json = jsonWriter.writeValueAsString(productRecords);
-        try (PrintWriter out = new PrintWriter(jsonFileName)) {
-            out.println(json);
+        //Records are encoded straight to the file as they arrive, overlapping with reading and mapping the rest of the file
+        boolean finished = false;
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(outputFile), OUTPUT_BUFFER_SIZE);
+             JsonWriter.ArrayOutput out = ndjson ? jsonWriter.openLines(outputStream) : jsonWriter.openArray(outputStream)) {
+            long count = productCatalogIntegrationService.ingestProductCatalog(storeId, fileName, USER, productRecord -> {
+                try {
+                    out.write(productRecord);
+                } catch (JsonException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, ProductInfoIngestionApp::reportStageMetrics);
+            out.finish();
+            finished = true;
+            return count;
+        } finally {
+            if (!finished) {
+                //a partial catalog must not be mistaken for a complete one
+                Files.deleteIfExists(outputFile);
+            }
         }
+    }
 
-        System.out.println(String.format("Processed %s records", productRecords.size()));
+    /**
+     * Reports the queue depth and stalls of each pipeline stage, showing which stage held the ingestion back
+     *
+     * @param stageMetrics
+     */
+    private static void reportStageMetrics(List<StageMetrics> stageMetrics) {
+        for (StageMetrics metrics : stageMetrics) {
+            System.out.println(String.format("Stage %s: items=%s, queueDepth=%s/%s, producerStalls=%s (%s ms), consumerStalls=%s (%s ms)",
+                    metrics.getName(), metrics.getItems(), metrics.getQueueDepth(), metrics.getQueueCapacity(),
+                    metrics.getProducerStalls(), TimeUnit.NANOSECONDS.toMillis(metrics.getProducerStallNanos()),
+                    metrics.getConsumerStalls(), TimeUnit.NANOSECONDS.toMillis(metrics.getConsumerStallNanos())));
+        }
     }
 }
@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.dao;
+
+import com.github.samsonkim.lib.productinfoingestion.parser.DeltaIndex;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Stores each store's DeltaIndex in a binary file named after its storeId.
+ * Indexes are written to a temporary file and atomically moved over the previous one.
+ *
+ * I/O errors are thrown as UncheckedIOException
+ */
+public class FileDeltaIndexDao implements DeltaIndexDao {
+    private static final String SUFFIX = ".delta";
+
+    private final Path directory;
+
+    /**
+     * @param directory created on first save if missing
+     */
+    public FileDeltaIndexDao(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Optional<DeltaIndex> get(UUID storeId) {
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(path(storeId)))) {
+            return Optional.of(DeltaIndex.readFrom(inputStream));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void save(UUID storeId, DeltaIndex deltaIndex) {
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, storeId.toString(), ".tmp");
+            try {
+                try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                    deltaIndex.writeTo(outputStream);
+                }
+                Files.move(temp, path(storeId), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void delete(UUID storeId) {
+        try {
+            Files.deleteIfExists(path(storeId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path path(UUID storeId) {
+        return directory.resolve(storeId + SUFFIX);
+    }
+}
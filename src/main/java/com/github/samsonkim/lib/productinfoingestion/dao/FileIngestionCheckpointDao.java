@@ -0,0 +1,221 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.dao;
+
+import com.github.samsonkim.lib.productinfoingestion.model.IngestionCheckpoint;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Stores each IngestionCheckpoint as a properties file named after its storeJournalId.
+ * Checkpoints are written to a temporary file and atomically moved over the previous one.
+ *
+ * I/O errors are thrown as UncheckedIOException
+ */
+public class FileIngestionCheckpointDao implements IngestionCheckpointDao {
+    private static final String SUFFIX = ".checkpoint";
+
+    private static final String STORE_JOURNAL_ID = "storeJournalId";
+    private static final String STORE_ID = "storeId";
+    private static final String FILE_NAME = "fileName";
+    private static final String BYTE_OFFSET = "byteOffset";
+    private static final String LINE_NUMBER = "lineNumber";
+    private static final String RECORDS = "records";
+    private static final String OUTPUT_POSITION = "outputPosition";
+    private static final String COMPLETED = "completed";
+    private static final String CHECKPOINT_DATE_TIME = "checkpointDateTime";
+
+    private final Path directory;
+
+    /**
+     * @param directory created on first save if missing
+     */
+    public FileIngestionCheckpointDao(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Optional<IngestionCheckpoint> get(UUID uuid) {
+        return read(path(uuid));
+    }
+
+    /**
+     * @param checkpoint
+     * @return
+     * @throws IllegalStateException if the journal already has a checkpoint
+     */
+    @Override
+    public IngestionCheckpoint insert(IngestionCheckpoint checkpoint) {
+        if (Files.exists(path(checkpoint.getStoreJournalId()))) {
+            throw new IllegalStateException(
+                    String.format("Checkpoint exists. storeJournalId=%s", checkpoint.getStoreJournalId()));
+        }
+        return save(checkpoint);
+    }
+
+    /**
+     * @param checkpoint
+     * @return
+     * @throws IllegalStateException if the journal has no checkpoint
+     */
+    @Override
+    public IngestionCheckpoint update(IngestionCheckpoint checkpoint) {
+        if (!Files.exists(path(checkpoint.getStoreJournalId()))) {
+            throw new IllegalStateException(
+                    String.format("No checkpoint. storeJournalId=%s", checkpoint.getStoreJournalId()));
+        }
+        return save(checkpoint);
+    }
+
+    @Override
+    public IngestionCheckpoint save(IngestionCheckpoint checkpoint) {
+        Properties properties = new Properties();
+        properties.setProperty(STORE_JOURNAL_ID, checkpoint.getStoreJournalId().toString());
+        if (checkpoint.getStoreId() != null) {
+            properties.setProperty(STORE_ID, checkpoint.getStoreId().toString());
+        }
+        properties.setProperty(FILE_NAME, checkpoint.getFileName());
+        properties.setProperty(BYTE_OFFSET, Long.toString(checkpoint.getByteOffset()));
+        properties.setProperty(LINE_NUMBER, Long.toString(checkpoint.getLineNumber()));
+        properties.setProperty(RECORDS, Long.toString(checkpoint.getRecords()));
+        properties.setProperty(OUTPUT_POSITION, Long.toString(checkpoint.getOutputPosition()));
+        properties.setProperty(COMPLETED, Boolean.toString(checkpoint.isCompleted()));
+        if (checkpoint.getCheckpointDateTime() != null) {
+            properties.setProperty(CHECKPOINT_DATE_TIME, checkpoint.getCheckpointDateTime().toString());
+        }
+
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, checkpoint.getStoreJournalId().toString(), ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1);
+                    properties.store(writer, null);
+                    //on disk before it replaces the previous checkpoint, so a crash cannot leave an empty checkpoint
+                    channel.force(true);
+                }
+                Files.move(temp, path(checkpoint.getStoreJournalId()),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return checkpoint;
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        try {
+            Files.deleteIfExists(path(uuid));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Checkpoints whose properties equal every query parameter, e.g. storeId or completed
+     *
+     * @param queryParams
+     * @return
+     */
+    @Override
+    public List<IngestionCheckpoint> find(Map<String, String> queryParams) {
+        List<IngestionCheckpoint> checkpoints = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return checkpoints;
+        }
+
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path path : paths) {
+                Optional<Properties> properties = load(path);
+                if (properties.isPresent() && queryParams.entrySet().stream()
+                        .allMatch(e -> e.getValue().equals(properties.get().getProperty(e.getKey())))) {
+                    checkpoints.add(toCheckpoint(properties.get()));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return checkpoints;
+    }
+
+    private Path path(UUID storeJournalId) {
+        return directory.resolve(storeJournalId + SUFFIX);
+    }
+
+    private static Optional<IngestionCheckpoint> read(Path path) {
+        return load(path).map(FileIngestionCheckpointDao::toCheckpoint);
+    }
+
+    private static Optional<Properties> load(Path path) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+            return Optional.of(properties);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static IngestionCheckpoint toCheckpoint(Properties properties) {
+        String storeId = properties.getProperty(STORE_ID);
+        String checkpointDateTime = properties.getProperty(CHECKPOINT_DATE_TIME);
+
+        return IngestionCheckpoint.builder()
+                .storeJournalId(UUID.fromString(properties.getProperty(STORE_JOURNAL_ID)))
+                .storeId(storeId == null ? null : UUID.fromString(storeId))
+                .fileName(properties.getProperty(FILE_NAME))
+                .byteOffset(Long.parseLong(properties.getProperty(BYTE_OFFSET)))
+                .lineNumber(Long.parseLong(properties.getProperty(LINE_NUMBER)))
+                .records(Long.parseLong(properties.getProperty(RECORDS)))
+                .outputPosition(Long.parseLong(properties.getProperty(OUTPUT_POSITION)))
+                .completed(Boolean.parseBoolean(properties.getProperty(COMPLETED)))
+                .checkpointDateTime(checkpointDateTime == null ? null : Instant.parse(checkpointDateTime))
+                .build();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.id;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * IdGenerator of time ordered, version 7 style UUIDs
+ *
+ * <pre>
+ * most significant bits:  48 bit unix epoch milliseconds | version 7 | 12 bit node
+ * least significant bits: variant 2 | 22 bit node | 40 bit sequence
+ * </pre>
+ *
+ * Ids sort by the millisecond they were generated in.  The node is drawn once per generator and the sequence
+ * does not repeat for 2^40 ids, so ids are unique without drawing random bits per id.
+ * Each thread reserves blockSize sequence numbers at a time, so threads only touch shared state once per block.
+ *
+ * Unlike UUID.randomUUID the ids are predictable, they are not meant to be secrets
+ */
+public final class TimeOrderedIdGenerator implements IdGenerator {
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    private static final int VERSION = 7;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final int SEQUENCE_BITS = 40;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long NODE_MASK = (1L << 22) - 1;
+    private static final long TIMESTAMP_MASK = (1L << 48) - 1;
+
+    private static final TimeOrderedIdGenerator INSTANCE =
+            new TimeOrderedIdGenerator(Clock.systemUTC(), new SecureRandom().nextLong(), DEFAULT_BLOCK_SIZE);
+
+    private final Clock clock;
+    private final long mostSignificantNode;
+    private final long leastSignificantNode;
+    private final int blockSize;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+
+    /**
+     * @param clock source of the timestamps
+     * @param seed of the node bits
+     * @param blockSize sequence numbers a thread reserves at a time
+     */
+    public TimeOrderedIdGenerator(Clock clock, long seed, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException(String.format("Invalid blockSize: %d", blockSize));
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        this.clock = clock;
+        this.mostSignificantNode = random.nextInt(1 << 12);
+        this.leastSignificantNode = (random.nextLong() & NODE_MASK) << SEQUENCE_BITS;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Generator shared by the application, seeded from SecureRandom once
+     *
+     * @return
+     */
+    public static TimeOrderedIdGenerator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Deterministic generator for tests.  Used from a single thread, generators with the same seed
+     * generate the same ids, all stamped with the epoch
+     *
+     * @param seed
+     * @return
+     */
+    public static TimeOrderedIdGenerator seeded(long seed) {
+        return new TimeOrderedIdGenerator(Clock.fixed(Instant.EPOCH, ZoneOffset.UTC), seed, DEFAULT_BLOCK_SIZE);
+    }
+
+    @Override
+    public UUID nextId() {
+        Block block = blocks.get();
+        if (block.next == block.end) {
+            block.next = sequence.getAndAdd(blockSize);
+            block.end = block.next + blockSize;
+        }
+        long sequenceNumber = block.next++ & SEQUENCE_MASK;
+
+        //never step back in time within a thread, even if the clock does
+        long millis = Math.max(block.millis, clock.millis());
+        block.millis = millis;
+
+        return new UUID(
+                ((millis & TIMESTAMP_MASK) << 16) | (VERSION << 12) | mostSignificantNode,
+                VARIANT | leastSignificantNode | sequenceNumber);
+    }
+
+    /**
+     * Unix epoch milliseconds an id was generated in
+     *
+     * @param id
+     * @return
+     */
+    public static long getTimestamp(UUID id) {
+        return id.getMostSignificantBits() >>> 16;
+    }
+
+    /**
+     * Sequence numbers reserved by a thread
+     */
+    private static final class Block {
+        private long next;
+        private long end;
+        private long millis;
+    }
+}
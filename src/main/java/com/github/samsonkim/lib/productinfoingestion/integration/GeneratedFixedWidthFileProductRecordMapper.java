@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.integration;
+
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecordView;
+import com.github.samsonkim.lib.productinfoingestion.parser.FileParserLineMapper;
+import com.github.samsonkim.lib.productinfoingestion.parser.FileParserLineViewMapper;
+import com.github.samsonkim.lib.productinfoingestion.parser.FixedWidthFileMapperGenerator;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Mapper class to map a file line to ProductRecord using a mapper generated from a store's column bindings,
+ * see FixedWidthFileMapperGenerator
+ */
+public class GeneratedFixedWidthFileProductRecordMapper
+        implements FileParserLineMapper<ProductRecord>, FileParserLineViewMapper<ProductRecordView> {
+
+    private final FileParserLineViewMapper<ProductRecordView> generatedMapper;
+    private final Locale locale;
+    private final UUID storeId;
+    private final UUID storeJournalId;
+    private final ThreadLocal<ProductRecordView> views = ThreadLocal.withInitial(this::newView);
+
+    public GeneratedFixedWidthFileProductRecordMapper(UUID storeId,
+                                                      UUID storeJournalId,
+                                                      Locale locale,
+                                                      FixedWidthFileMapperGenerator<ProductRecordView> generator) {
+        this(storeId, storeJournalId, locale, generator.generate(locale));
+    }
+
+    /**
+     * Every generate call defines a class the JIT compiles anew, so mappers created per journal should
+     * share one generated mapper
+     *
+     * @param storeId
+     * @param storeJournalId
+     * @param locale
+     * @param generatedMapper generated for the locale
+     */
+    public GeneratedFixedWidthFileProductRecordMapper(UUID storeId,
+                                                      UUID storeJournalId,
+                                                      Locale locale,
+                                                      FileParserLineViewMapper<ProductRecordView> generatedMapper) {
+        this.storeId = storeId;
+        this.storeJournalId = storeJournalId;
+        this.locale = locale;
+        this.generatedMapper = generatedMapper;
+    }
+
+    /**
+     * Creates a view for this store and journal to be repopulated by mapInto
+     *
+     * @return
+     */
+    public ProductRecordView newView() {
+        ProductRecordView view = new ProductRecordView();
+        view.setStoreId(storeId);
+        view.setStoreJournalId(storeJournalId);
+        view.setLocale(locale);
+        return view;
+    }
+
+    /**
+     * Maps file line to Product Record.
+     * Returns Empty if the line is too short for the layout or no pricing information is available
+     *
+     * @param line
+     * @return ProductRecord object
+     */
+    @Override
+    public Optional<ProductRecord> map(String line) {
+        return map((CharSequence) line);
+    }
+
+    @Override
+    public Optional<ProductRecord> map(CharSequence line) {
+        ProductRecordView view = views.get();
+
+        if (!mapInto(line, view)) {
+            return Optional.empty();
+        }
+        return Optional.of(view.toProductRecord());
+    }
+
+    @Override
+    public boolean mapInto(CharSequence line, ProductRecordView view) {
+        return generatedMapper.mapInto(line, view);
+    }
+}
@@ -24,8 +24,15 @@
 
 package com.github.samsonkim.lib.productinfoingestion.integration;
 
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.parser.DeltaFileParser;
+import com.github.samsonkim.lib.productinfoingestion.parser.ErrorBudget;
 import com.github.samsonkim.lib.productinfoingestion.parser.FileParser;
+import com.github.samsonkim.lib.productinfoingestion.parser.FixedWidthFileBatchParser;
+import com.github.samsonkim.lib.productinfoingestion.parser.RejectedLineHandler;
+import com.github.samsonkim.lib.productinfoingestion.pipeline.IngestionPipeline;
 
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -33,6 +40,14 @@ import java.util.UUID;
  */
 public interface StoreFactory {
 
+    /**
+     * Resolves the store a catalog file or drop folder belongs to by its name
+     *
+     * @param name file or directory name
+     * @return empty if the name matches no store
+     */
+    Optional<UUID> findStoreId(String name);
+
     /**
      * Returns store specific FileParser instance
      *
@@ -41,4 +56,55 @@ public interface StoreFactory {
      * @return
      */
     FileParser getFileParser(UUID storeId, UUID storeJournalId);
+
+    /**
+     * Returns store specific FileParser instance that maps a file in parallel chunks
+     *
+     * @param storeId
+     * @param storeJournalId
+     * @return
+     */
+    FileParser getParallelFileParser(UUID storeId, UUID storeJournalId);
+
+    /**
+     * Returns store specific FileParser instance that quarantines malformed lines
+     * instead of aborting the file
+     *
+     * @param storeId
+     * @param storeJournalId
+     * @param rejectedLineHandler
+     * @param errorBudget
+     * @return
+     */
+    FileParser getTolerantFileParser(UUID storeId,
+                                     UUID storeJournalId,
+                                     RejectedLineHandler rejectedLineHandler,
+                                     ErrorBudget errorBudget);
+
+    /**
+     * Returns store specific pipeline that reads, maps and writes a file in concurrent stages
+     *
+     * @param storeId
+     * @param storeJournalId
+     * @return
+     */
+    IngestionPipeline<ProductRecord> getIngestionPipeline(UUID storeId, UUID storeJournalId);
+
+    /**
+     * Returns store specific parser that decodes a file into columnar batches
+     *
+     * @param storeId
+     * @param batchSize lines per batch
+     * @return
+     */
+    FixedWidthFileBatchParser getBatchFileParser(UUID storeId, int batchSize);
+
+    /**
+     * Returns store specific parser that only maps the lines changed since the previous journal
+     *
+     * @param storeId
+     * @param storeJournalId
+     * @return
+     */
+    DeltaFileParser<ProductRecord> getDeltaFileParser(UUID storeId, UUID storeJournalId);
 }
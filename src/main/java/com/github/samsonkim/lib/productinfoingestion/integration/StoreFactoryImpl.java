@@ -24,11 +24,21 @@
 
 package com.github.samsonkim.lib.productinfoingestion.integration;
 
-import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreFixedWidthFileProductRecordMapper;
 import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecordView;
+import com.github.samsonkim.lib.productinfoingestion.parser.ChunkedFileParserImpl;
+import com.github.samsonkim.lib.productinfoingestion.parser.DeltaFileParser;
+import com.github.samsonkim.lib.productinfoingestion.parser.ErrorBudget;
 import com.github.samsonkim.lib.productinfoingestion.parser.FileParser;
-import com.github.samsonkim.lib.productinfoingestion.parser.FileParserImpl;
+import com.github.samsonkim.lib.productinfoingestion.parser.FileParserLineViewMapper;
+import com.github.samsonkim.lib.productinfoingestion.parser.FixedWidthFileBatchParser;
+import com.github.samsonkim.lib.productinfoingestion.parser.MappedFileParserImpl;
+import com.github.samsonkim.lib.productinfoingestion.parser.RejectedLineHandler;
+import com.github.samsonkim.lib.productinfoingestion.parser.TolerantFileParserImpl;
+import com.github.samsonkim.lib.productinfoingestion.pipeline.IngestionPipeline;
 
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -36,6 +46,27 @@ import java.util.UUID;
  */
 public class StoreFactoryImpl implements StoreFactory{
 
+    /**
+     * Generated once from the sample store's column bindings and shared by every journal's mapper
+     */
+    private static final FileParserLineViewMapper<ProductRecordView> SAMPLE_STORE_MAPPER =
+            SampleStoreSettings.FIXED_WIDTH_MAPPER_GENERATOR.generate(SampleStoreSettings.DEFAULT_STORE_LOCALE);
+
+    /**
+     * Resolves the store a catalog file or drop folder belongs to by its name.
+     * Names containing "sample" resolve to the sample store
+     *
+     * @param name file or directory name
+     * @return
+     */
+    public Optional<UUID> findStoreId(String name)
+    {
+        if (name.contains("sample")) {
+            return Optional.of(SampleStoreSettings.STORE_ID);
+        }
+        return Optional.empty();
+    }
+
     /**
      * Returns store specific FileParser instance
      *
@@ -47,11 +78,104 @@ public class StoreFactoryImpl implements StoreFactory{
     {
         if (SampleStoreSettings.STORE_ID.equals(storeId)) {
 
-            SampleStoreFixedWidthFileProductRecordMapper mapper =
-                    new SampleStoreFixedWidthFileProductRecordMapper(storeId, storeJournalId);
+            GeneratedFixedWidthFileProductRecordMapper mapper = newSampleStoreMapper(storeId, storeJournalId);
+
+            return new MappedFileParserImpl<>(mapper);
+        }
+        throw new IllegalArgumentException(String.format("Invalid store: %s", storeId));
+    }
+
+    /**
+     * Returns store specific FileParser instance that maps a file in parallel chunks
+     *
+     * @param storeId
+     * @param storeJournalId
+     * @return
+     */
+    public FileParser getParallelFileParser(UUID storeId, UUID storeJournalId)
+    {
+        if (SampleStoreSettings.STORE_ID.equals(storeId)) {
+            return new ChunkedFileParserImpl<>(
+                    () -> newSampleStoreMapper(storeId, storeJournalId));
+        }
+        throw new IllegalArgumentException(String.format("Invalid store: %s", storeId));
+    }
+
+    /**
+     * Returns store specific FileParser instance that quarantines malformed lines
+     * instead of aborting the file
+     *
+     * @param storeId
+     * @param storeJournalId
+     * @param rejectedLineHandler
+     * @param errorBudget
+     * @return
+     */
+    public FileParser getTolerantFileParser(UUID storeId,
+                                            UUID storeJournalId,
+                                            RejectedLineHandler rejectedLineHandler,
+                                            ErrorBudget errorBudget)
+    {
+        if (SampleStoreSettings.STORE_ID.equals(storeId)) {
 
-            return new FileParserImpl<>(mapper);
+            GeneratedFixedWidthFileProductRecordMapper mapper = newSampleStoreMapper(storeId, storeJournalId);
+
+            return new TolerantFileParserImpl<>(mapper, SampleStoreSettings.FIXED_WIDTH_LAYOUT,
+                    rejectedLineHandler, errorBudget);
         }
         throw new IllegalArgumentException(String.format("Invalid store: %s", storeId));
     }
+
+    /**
+     * Returns store specific pipeline that reads, maps and writes a file in concurrent stages
+     *
+     * @param storeId
+     * @param storeJournalId
+     * @return
+     */
+    public IngestionPipeline<ProductRecord> getIngestionPipeline(UUID storeId, UUID storeJournalId)
+    {
+        if (SampleStoreSettings.STORE_ID.equals(storeId)) {
+            return new IngestionPipeline<>(
+                    () -> newSampleStoreMapper(storeId, storeJournalId));
+        }
+        throw new IllegalArgumentException(String.format("Invalid store: %s", storeId));
+    }
+
+    /**
+     * Returns store specific parser that decodes a file into columnar batches
+     *
+     * @param storeId
+     * @param batchSize lines per batch
+     * @return
+     */
+    public FixedWidthFileBatchParser getBatchFileParser(UUID storeId, int batchSize)
+    {
+        if (SampleStoreSettings.STORE_ID.equals(storeId)) {
+            return new FixedWidthFileBatchParser(SampleStoreSettings.FIXED_WIDTH_LAYOUT, batchSize);
+        }
+        throw new IllegalArgumentException(String.format("Invalid store: %s", storeId));
+    }
+
+    /**
+     * Returns store specific parser that only maps the lines changed since the previous journal
+     *
+     * @param storeId
+     * @param storeJournalId
+     * @return
+     */
+    public DeltaFileParser<ProductRecord> getDeltaFileParser(UUID storeId, UUID storeJournalId)
+    {
+        if (SampleStoreSettings.STORE_ID.equals(storeId)) {
+            return new DeltaFileParser<>(newSampleStoreMapper(storeId, storeJournalId),
+                    SampleStoreSettings.FIXED_WIDTH_LAYOUT.field(SampleStoreSettings.FIXED_WIDTH_PRODUCT_ID_COLUMN));
+        }
+        throw new IllegalArgumentException(String.format("Invalid store: %s", storeId));
+    }
+
+    private static GeneratedFixedWidthFileProductRecordMapper newSampleStoreMapper(UUID storeId, UUID storeJournalId)
+    {
+        return new GeneratedFixedWidthFileProductRecordMapper(storeId, storeJournalId,
+                SampleStoreSettings.DEFAULT_STORE_LOCALE, SAMPLE_STORE_MAPPER);
+    }
 }
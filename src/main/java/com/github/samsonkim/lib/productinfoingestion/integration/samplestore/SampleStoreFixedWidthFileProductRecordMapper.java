@@ -25,19 +25,20 @@
 package com.github.samsonkim.lib.productinfoingestion.integration.samplestore;
 
 import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecordView;
 import com.github.samsonkim.lib.productinfoingestion.model.UnitOfMeasure;
 import com.github.samsonkim.lib.productinfoingestion.parser.FileParserLineMapper;
-import io.vavr.Tuple2;
+import com.github.samsonkim.lib.productinfoingestion.parser.FileParserLineViewMapper;
+import com.github.samsonkim.lib.productinfoingestion.parser.FixedWidthFileField;
+import com.github.samsonkim.lib.productinfoingestion.parser.FixedWidthFileFlags;
+import com.github.samsonkim.lib.productinfoingestion.util.CurrencyFormatter;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.text.NumberFormat;
-import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
 
 import static com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings.FIXED_WIDTH_FLAGS_COLUMN;
+import static com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings.FIXED_WIDTH_LAYOUT;
 import static com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings.FIXED_WIDTH_PER_WEIGHT_ITEM_FLAG;
 import static com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings.FIXED_WIDTH_PRODUCT_DESCRIPTION_COLUMN;
 import static com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings.FIXED_WIDTH_PRODUCT_ID_COLUMN;
@@ -50,31 +51,53 @@ import static com.github.samsonkim.lib.productinfoingestion.integration.samplest
 import static com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings.FIXED_WIDTH_REGULAR_SPLIT_PRICE_COLUMN;
 import static com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings.FIXED_WIDTH_TAXABLE_FLAG;
 import static com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings.TAX_RATE;
-import static com.github.samsonkim.lib.productinfoingestion.parser.FixedWidthFileUtils.getFlagValue;
-import static com.github.samsonkim.lib.productinfoingestion.parser.FixedWidthFileUtils.toBigDecimal;
-import static com.github.samsonkim.lib.productinfoingestion.parser.FixedWidthFileUtils.toBooleanList;
-import static com.github.samsonkim.lib.productinfoingestion.parser.FixedWidthFileUtils.toInteger;
-import static com.github.samsonkim.lib.productinfoingestion.parser.FixedWidthFileUtils.toStringVal;
-import static com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils.determinePricing;
+import static com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils.NO_PRICE;
+import static com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils.determineCalculatorPrice;
+import static com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils.determineDisplayPrice;
 
 /**
- * Mapper class to map a file line to ProductRecord
+ * Mapper class to map a file line to ProductRecord, or in place into a reusable ProductRecordView
  */
 public class SampleStoreFixedWidthFileProductRecordMapper
-        implements FileParserLineMapper<ProductRecord> {
-
-    private static BigDecimal ZERO_VALUE = BigDecimal.ZERO.setScale(4, RoundingMode.HALF_DOWN);
-
-    private final NumberFormat currencyFormatter;
+        implements FileParserLineMapper<ProductRecord>, FileParserLineViewMapper<ProductRecordView> {
+
+    private static final FixedWidthFileField PRODUCT_ID = FIXED_WIDTH_LAYOUT.field(FIXED_WIDTH_PRODUCT_ID_COLUMN);
+    private static final FixedWidthFileField PRODUCT_DESCRIPTION = FIXED_WIDTH_LAYOUT.field(FIXED_WIDTH_PRODUCT_DESCRIPTION_COLUMN);
+    private static final FixedWidthFileField REGULAR_SINGULAR_PRICE = FIXED_WIDTH_LAYOUT.field(FIXED_WIDTH_REGULAR_SINGULAR_PRICE_COLUMN);
+    private static final FixedWidthFileField REGULAR_SPLIT_PRICE = FIXED_WIDTH_LAYOUT.field(FIXED_WIDTH_REGULAR_SPLIT_PRICE_COLUMN);
+    private static final FixedWidthFileField REGULAR_FOR_X = FIXED_WIDTH_LAYOUT.field(FIXED_WIDTH_REGULAR_FOR_X_COLUMN);
+    private static final FixedWidthFileField PROMOTIONAL_SINGULAR_PRICE = FIXED_WIDTH_LAYOUT.field(FIXED_WIDTH_PROMOTIONAL_SINGULAR_PRICE_COLUMN);
+    private static final FixedWidthFileField PROMOTIONAL_SPLIT_PRICE = FIXED_WIDTH_LAYOUT.field(FIXED_WIDTH_PROMOTIONAL_SPLIT_PRICE_COLUMN);
+    private static final FixedWidthFileField PROMOTIONAL_FOR_X = FIXED_WIDTH_LAYOUT.field(FIXED_WIDTH_PROMOTIONAL_FOR_X_COLUMN);
+    private static final FixedWidthFileField FLAGS = FIXED_WIDTH_LAYOUT.field(FIXED_WIDTH_FLAGS_COLUMN);
+    private static final FixedWidthFileField PRODUCT_SIZE = FIXED_WIDTH_LAYOUT.field(FIXED_WIDTH_PRODUCT_SIZE_COLUMN);
+
+    private final CurrencyFormatter currencyFormatter;
+    private final String zeroDisplayPrice;
     private final Locale locale;
     private final UUID storeId;
     private final UUID storeJournalId;
+    private final ThreadLocal<ProductRecordView> views = ThreadLocal.withInitial(this::newView);
 
     public SampleStoreFixedWidthFileProductRecordMapper(UUID storeId, UUID storeJournalId) {
         this.storeId = storeId;
         this.storeJournalId = storeJournalId;
         this.locale = SampleStoreSettings.DEFAULT_STORE_LOCALE;
-        this.currencyFormatter = NumberFormat.getCurrencyInstance(locale);
+        this.currencyFormatter = CurrencyFormatter.getInstance(locale);
+        this.zeroDisplayPrice = currencyFormatter.format(0L);
+    }
+
+    /**
+     * Creates a view for this store and journal to be repopulated by mapInto
+     *
+     * @return
+     */
+    public ProductRecordView newView() {
+        ProductRecordView view = new ProductRecordView();
+        view.setStoreId(storeId);
+        view.setStoreJournalId(storeJournalId);
+        view.setLocale(locale);
+        return view;
     }
 
     /**
@@ -86,62 +109,91 @@ public class SampleStoreFixedWidthFileProductRecordMapper
      */
     @Override
     public Optional<ProductRecord> map(String line) {
+        return map((CharSequence) line);
+    }
 
-        Optional<BigDecimal> regularSingularPrice = toBigDecimal(FIXED_WIDTH_REGULAR_SINGULAR_PRICE_COLUMN, line);
-        Optional<BigDecimal> regularSplitPrice = toBigDecimal(FIXED_WIDTH_REGULAR_SPLIT_PRICE_COLUMN, line);
-        Optional<Integer> regularForX = toInteger(FIXED_WIDTH_REGULAR_FOR_X_COLUMN, line);
+    /**
+     * Maps file line to Product Record, reading columns directly from the line.
+     * Returns Empty if the line is too short for the layout or no pricing information is available
+     *
+     * @param line
+     * @return ProductRecord object
+     */
+    @Override
+    public Optional<ProductRecord> map(CharSequence line) {
+        ProductRecordView view = views.get();
 
-        Optional<BigDecimal> promotionalSingularPrice = toBigDecimal(FIXED_WIDTH_PROMOTIONAL_SINGULAR_PRICE_COLUMN, line);
-        Optional<BigDecimal> promotionalSplitPrice = toBigDecimal(FIXED_WIDTH_PROMOTIONAL_SPLIT_PRICE_COLUMN, line);
-        Optional<Integer> promotionalForX = toInteger(FIXED_WIDTH_PROMOTIONAL_FOR_X_COLUMN, line);
+        if (!mapInto(line, view)) {
+            return Optional.empty();
+        }
+        return Optional.of(view.toProductRecord());
+    }
 
-        Optional<Tuple2<String, BigDecimal>> regularPricing = determinePricing(currencyFormatter, regularSingularPrice, regularSplitPrice, regularForX);
-        Optional<Tuple2<String, BigDecimal>> promotionalPricing = determinePricing(currencyFormatter, promotionalSingularPrice, promotionalSplitPrice, promotionalForX);
+    /**
+     * Maps file line in place into a ProductRecordView created by newView.
+     * Returns false if the line is too short for the layout or no pricing information is available
+     *
+     * @param line
+     * @param view
+     * @return
+     */
+    @Override
+    public boolean mapInto(CharSequence line, ProductRecordView view) {
+        if (!FIXED_WIDTH_LAYOUT.fits(line)) {
+            return false;
+        }
+
+        //Prices stay scaled longs, singular pricing supersedes split pricing
+        long regularSingularPrice = REGULAR_SINGULAR_PRICE.toScaledCurrency(line);
+        long regularSplitPrice = REGULAR_SPLIT_PRICE.toScaledCurrency(line);
+        int regularForX = REGULAR_FOR_X.toInt(line);
+        long regularPrice = determineCalculatorPrice(regularSingularPrice, regularSplitPrice, regularForX);
+
+        long promotionalSingularPrice = PROMOTIONAL_SINGULAR_PRICE.toScaledCurrency(line);
+        long promotionalSplitPrice = PROMOTIONAL_SPLIT_PRICE.toScaledCurrency(line);
+        int promotionalForX = PROMOTIONAL_FOR_X.toInt(line);
+        long promotionalPrice = determineCalculatorPrice(promotionalSingularPrice, promotionalSplitPrice, promotionalForX);
 
         //Skip record if pricing data is not found
-        if (!regularPricing.isPresent() && !promotionalPricing.isPresent()) {
-            return Optional.empty();
+        if (regularPrice == NO_PRICE && promotionalPrice == NO_PRICE) {
+            return false;
+        }
+
+        view.clear();
+
+        if (regularPrice == NO_PRICE) {
+            view.setRegularDisplayPrice(zeroDisplayPrice);
+        } else {
+            view.setRegularCalculatorPrice(regularPrice);
+            view.setRegularDisplayPrice(determineDisplayPrice(currencyFormatter,
+                    regularSingularPrice, regularSplitPrice, regularForX));
         }
 
-        String regularDisplayPrice = regularPricing.map(Tuple2::_1).orElse(currencyFormatter.format(ZERO_VALUE));
-        BigDecimal regularCalculatorPrice = regularPricing.map(Tuple2::_2).orElse(ZERO_VALUE);
-        String promotionalDisplayPrice = promotionalPricing.map(Tuple2::_1).orElse(currencyFormatter.format(ZERO_VALUE));
-        BigDecimal promotionalCalculatorPrice = promotionalPricing.map(Tuple2::_2).orElse(ZERO_VALUE);
+        if (promotionalPrice == NO_PRICE) {
+            view.setPromotionalDisplayPrice(zeroDisplayPrice);
+        } else {
+            view.setPromotionalCalculatorPrice(promotionalPrice);
+            view.setPromotionalDisplayPrice(determineDisplayPrice(currencyFormatter,
+                    promotionalSingularPrice, promotionalSplitPrice, promotionalForX));
+        }
 
         //Get flags
-        List<Boolean> flags = toBooleanList(FIXED_WIDTH_FLAGS_COLUMN, line);
+        long flags = FLAGS.toFlagBits(line);
 
         //Per Weight flag determines unit of measure
-        UnitOfMeasure unitOfMeasure = getFlagValue(flags, FIXED_WIDTH_PER_WEIGHT_ITEM_FLAG)
-                .filter(f -> f.equals(true))
-                .map(f -> UnitOfMeasure.POUND)
-                .orElse(UnitOfMeasure.EACH);
+        view.setUnitOfMeasure(FixedWidthFileFlags.isSet(flags, FIXED_WIDTH_PER_WEIGHT_ITEM_FLAG)
+                ? UnitOfMeasure.POUND
+                : UnitOfMeasure.EACH);
 
         //Tax rate flag determines tax
-        Optional<BigDecimal> taxRate = getFlagValue(flags, FIXED_WIDTH_TAXABLE_FLAG)
-                .filter(f -> f.equals(true))
-                .map(f -> TAX_RATE);
-
-        Integer productId = toInteger(FIXED_WIDTH_PRODUCT_ID_COLUMN, line)
-                .orElse(null);
-        String productDescription = toStringVal(FIXED_WIDTH_PRODUCT_DESCRIPTION_COLUMN, line)
-                .orElse(null);
-
-        Optional<String> productSize = toStringVal(FIXED_WIDTH_PRODUCT_SIZE_COLUMN, line);
-
-        return Optional.of(ProductRecord.builder()
-                .storeId(storeId)
-                .storeJournalId(storeJournalId)
-                .productID(productId)
-                .productDescription(productDescription)
-                .regularDisplayPrice(regularDisplayPrice)
-                .regularCalculatorPrice(regularCalculatorPrice)
-                .promotionalDisplayPrice(promotionalDisplayPrice)
-                .promotionalCalculatorPrice(promotionalCalculatorPrice)
-                .unitOfMeasure(unitOfMeasure)
-                .productSize(productSize)
-                .taxRate(taxRate)
-                .locale(locale)
-                .build());
+        view.setTaxRate(FixedWidthFileFlags.isSet(flags, FIXED_WIDTH_TAXABLE_FLAG) ? TAX_RATE : null);
+
+        view.setProductID(PRODUCT_ID.toInt(line));
+        view.setProductDescription(line, PRODUCT_DESCRIPTION.valueStart(line), PRODUCT_DESCRIPTION.valueEnd(line));
+
+        if (PRODUCT_SIZE.isPresent(line)) {
+            view.setProductSize(line, PRODUCT_SIZE.valueStart(line), PRODUCT_SIZE.valueEnd(line));
+        }
+        return true;
     }
 }
@@ -24,8 +24,12 @@
 
 package com.github.samsonkim.lib.productinfoingestion.integration.samplestore;
 
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecordView;
+import com.github.samsonkim.lib.productinfoingestion.model.UnitOfMeasure;
 import com.github.samsonkim.lib.productinfoingestion.parser.FixedWidthFileColumn;
 import com.github.samsonkim.lib.productinfoingestion.parser.FixedWidthFileColumnType;
+import com.github.samsonkim.lib.productinfoingestion.parser.FixedWidthFileLayout;
+import com.github.samsonkim.lib.productinfoingestion.parser.FixedWidthFileMapperGenerator;
 
 import java.math.BigDecimal;
 import java.util.Locale;
@@ -124,9 +128,43 @@ public class SampleStoreSettings {
             .type(FixedWidthFileColumnType.STRING)
             .build();
 
+    /**
+     * Compiled layout of the fixed width columns.  Product size may be missing from the end of a line
+     */
+    public static final FixedWidthFileLayout FIXED_WIDTH_LAYOUT = FixedWidthFileLayout.builder()
+            .column(FIXED_WIDTH_PRODUCT_ID_COLUMN)
+            .column(FIXED_WIDTH_PRODUCT_DESCRIPTION_COLUMN)
+            .column(FIXED_WIDTH_REGULAR_SINGULAR_PRICE_COLUMN)
+            .column(FIXED_WIDTH_PROMOTIONAL_SINGULAR_PRICE_COLUMN)
+            .column(FIXED_WIDTH_REGULAR_SPLIT_PRICE_COLUMN)
+            .column(FIXED_WIDTH_PROMOTIONAL_SPLIT_PRICE_COLUMN)
+            .column(FIXED_WIDTH_REGULAR_FOR_X_COLUMN)
+            .column(FIXED_WIDTH_PROMOTIONAL_FOR_X_COLUMN)
+            .column(FIXED_WIDTH_FLAGS_COLUMN)
+            .optionalColumn(FIXED_WIDTH_PRODUCT_SIZE_COLUMN)
+            .build();
+
     /**
      * Fixed width flags
      */
     public static final int FIXED_WIDTH_PER_WEIGHT_ITEM_FLAG = 3;
     public static final int FIXED_WIDTH_TAXABLE_FLAG = 5;
+
+    /**
+     * Column bindings equivalent to SampleStoreFixedWidthFileProductRecordMapper,
+     * used to generate the mapper instead of hand writing it
+     */
+    public static final FixedWidthFileMapperGenerator<ProductRecordView> FIXED_WIDTH_MAPPER_GENERATOR =
+            FixedWidthFileMapperGenerator.builder(ProductRecordView.class, FIXED_WIDTH_LAYOUT)
+                    .property(FIXED_WIDTH_PRODUCT_ID_COLUMN, "productID")
+                    .property(FIXED_WIDTH_PRODUCT_DESCRIPTION_COLUMN, "productDescription")
+                    .price(FIXED_WIDTH_REGULAR_SINGULAR_PRICE_COLUMN, FIXED_WIDTH_REGULAR_SPLIT_PRICE_COLUMN,
+                            FIXED_WIDTH_REGULAR_FOR_X_COLUMN, "regularCalculatorPrice", "regularDisplayPrice")
+                    .price(FIXED_WIDTH_PROMOTIONAL_SINGULAR_PRICE_COLUMN, FIXED_WIDTH_PROMOTIONAL_SPLIT_PRICE_COLUMN,
+                            FIXED_WIDTH_PROMOTIONAL_FOR_X_COLUMN, "promotionalCalculatorPrice", "promotionalDisplayPrice")
+                    .flag(FIXED_WIDTH_FLAGS_COLUMN, FIXED_WIDTH_PER_WEIGHT_ITEM_FLAG, "unitOfMeasure",
+                            UnitOfMeasure.POUND, UnitOfMeasure.EACH)
+                    .flag(FIXED_WIDTH_FLAGS_COLUMN, FIXED_WIDTH_TAXABLE_FLAG, "taxRate", TAX_RATE, null)
+                    .property(FIXED_WIDTH_PRODUCT_SIZE_COLUMN, "productSize")
+                    .build();
 }
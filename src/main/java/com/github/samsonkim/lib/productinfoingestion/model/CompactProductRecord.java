@@ -0,0 +1,234 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.model;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Compact, immutable layout of the per-record fields of a ProductRecord held in a ProductRecordBatch.
+ *
+ * The id is kept as two longs, productID and prices as primitives and the presence of nullable
+ * and Optional fields as bits of a single int, so a record has no wrapper objects of its own.
+ * Display prices and the tax rate are references to values shared across records, e.g. by CurrencyFormatter.
+ * Fields shared by the whole store journal are kept once by the ProductRecordBatch
+ */
+public final class CompactProductRecord {
+    //Optional fields are null, empty or present
+    private static final int NULL = 0;
+    private static final int EMPTY = 1;
+    private static final int PRESENT = 2;
+    private static final int OPTIONAL_MASK = 3;
+
+    private static final int ID_SHIFT = 0;
+    private static final int PRODUCT_SIZE_SHIFT = 2;
+    private static final int TAX_RATE_SHIFT = 4;
+    private static final int HAS_PRODUCT_ID = 1 << 6;
+    private static final int HAS_REGULAR_CALCULATOR_PRICE = 1 << 7;
+    private static final int HAS_PROMOTIONAL_CALCULATOR_PRICE = 1 << 8;
+    //unit of measure ordinal + 1, 0 when null
+    private static final int UNIT_OF_MEASURE_SHIFT = 9;
+
+    private static final UnitOfMeasure[] UNITS_OF_MEASURE = UnitOfMeasure.values();
+
+    private final long idMostSignificantBits;
+    private final long idLeastSignificantBits;
+    private final long regularCalculatorPrice;
+    private final long promotionalCalculatorPrice;
+    private final int productID;
+    private final int flags;
+    private final String productDescription;
+    private final String regularDisplayPrice;
+    private final String promotionalDisplayPrice;
+    private final String productSize;
+    private final BigDecimal taxRate;
+
+    private CompactProductRecord(ProductRecord productRecord) {
+        int bits = 0;
+
+        Optional<UUID> id = productRecord.getId();
+        bits |= optionalState(id) << ID_SHIFT;
+        UUID uuid = id == null ? null : id.orElse(null);
+        this.idMostSignificantBits = uuid == null ? 0L : uuid.getMostSignificantBits();
+        this.idLeastSignificantBits = uuid == null ? 0L : uuid.getLeastSignificantBits();
+
+        Optional<String> size = productRecord.getProductSize();
+        bits |= optionalState(size) << PRODUCT_SIZE_SHIFT;
+        this.productSize = size == null ? null : size.orElse(null);
+
+        Optional<BigDecimal> rate = productRecord.getTaxRate();
+        bits |= optionalState(rate) << TAX_RATE_SHIFT;
+        this.taxRate = rate == null ? null : rate.orElse(null);
+
+        Integer id32 = productRecord.getProductID();
+        if (id32 != null) {
+            bits |= HAS_PRODUCT_ID;
+        }
+        this.productID = id32 == null ? 0 : id32;
+
+        Money regular = productRecord.getRegularCalculatorPrice();
+        if (regular != null) {
+            bits |= HAS_REGULAR_CALCULATOR_PRICE;
+        }
+        this.regularCalculatorPrice = regular == null ? 0L : regular.getScaled();
+
+        Money promotional = productRecord.getPromotionalCalculatorPrice();
+        if (promotional != null) {
+            bits |= HAS_PROMOTIONAL_CALCULATOR_PRICE;
+        }
+        this.promotionalCalculatorPrice = promotional == null ? 0L : promotional.getScaled();
+
+        UnitOfMeasure unitOfMeasure = productRecord.getUnitOfMeasure();
+        bits |= (unitOfMeasure == null ? 0 : unitOfMeasure.ordinal() + 1) << UNIT_OF_MEASURE_SHIFT;
+
+        this.flags = bits;
+        this.productDescription = productRecord.getProductDescription();
+        this.regularDisplayPrice = productRecord.getRegularDisplayPrice();
+        this.promotionalDisplayPrice = productRecord.getPromotionalDisplayPrice();
+    }
+
+    /**
+     * Copies the per-record fields of a ProductRecord
+     *
+     * @param productRecord
+     * @return
+     */
+    public static CompactProductRecord of(ProductRecord productRecord) {
+        return new CompactProductRecord(productRecord);
+    }
+
+    public Optional<UUID> getId() {
+        return optional(ID_SHIFT, () -> new UUID(idMostSignificantBits, idLeastSignificantBits));
+    }
+
+    public boolean hasProductID() {
+        return (flags & HAS_PRODUCT_ID) != 0;
+    }
+
+    /**
+     * @return 0 when hasProductID is false
+     */
+    public int getProductID() {
+        return productID;
+    }
+
+    public String getProductDescription() {
+        return productDescription;
+    }
+
+    public String getRegularDisplayPrice() {
+        return regularDisplayPrice;
+    }
+
+    /**
+     * @return null when there is no regular price
+     */
+    public Money getRegularCalculatorPrice() {
+        return (flags & HAS_REGULAR_CALCULATOR_PRICE) == 0 ? null : Money.ofScaled(regularCalculatorPrice);
+    }
+
+    /**
+     * Regular calculator price in 1/10000 units
+     *
+     * @return 0 when there is no regular price
+     */
+    public long getRegularCalculatorPriceScaled() {
+        return regularCalculatorPrice;
+    }
+
+    public String getPromotionalDisplayPrice() {
+        return promotionalDisplayPrice;
+    }
+
+    /**
+     * @return null when there is no promotional price
+     */
+    public Money getPromotionalCalculatorPrice() {
+        return (flags & HAS_PROMOTIONAL_CALCULATOR_PRICE) == 0 ? null : Money.ofScaled(promotionalCalculatorPrice);
+    }
+
+    /**
+     * Promotional calculator price in 1/10000 units
+     *
+     * @return 0 when there is no promotional price
+     */
+    public long getPromotionalCalculatorPriceScaled() {
+        return promotionalCalculatorPrice;
+    }
+
+    public UnitOfMeasure getUnitOfMeasure() {
+        int ordinal = flags >>> UNIT_OF_MEASURE_SHIFT;
+        return ordinal == 0 ? null : UNITS_OF_MEASURE[ordinal - 1];
+    }
+
+    public Optional<String> getProductSize() {
+        return optional(PRODUCT_SIZE_SHIFT, () -> productSize);
+    }
+
+    public Optional<BigDecimal> getTaxRate() {
+        return optional(TAX_RATE_SHIFT, () -> taxRate);
+    }
+
+    /**
+     * Copies the record back out to a ProductRecord, with the journal's shared fields
+     *
+     * @param builder holding the shared fields
+     * @return
+     */
+    ProductRecord toProductRecord(ProductRecord.ProductRecordBuilder builder) {
+        return builder
+                .id(getId())
+                .productID(hasProductID() ? productID : null)
+                .productDescription(productDescription)
+                .regularDisplayPrice(regularDisplayPrice)
+                .regularCalculatorPrice(getRegularCalculatorPrice())
+                .promotionalDisplayPrice(promotionalDisplayPrice)
+                .promotionalCalculatorPrice(getPromotionalCalculatorPrice())
+                .unitOfMeasure(getUnitOfMeasure())
+                .productSize(getProductSize())
+                .taxRate(getTaxRate())
+                .build();
+    }
+
+    private <T> Optional<T> optional(int shift, Supplier<T> value) {
+        switch ((flags >>> shift) & OPTIONAL_MASK) {
+            case PRESENT:
+                return Optional.of(value.get());
+            case EMPTY:
+                return Optional.empty();
+            default:
+                return null;
+        }
+    }
+
+    private static int optionalState(Optional<?> optional) {
+        if (optional == null) {
+            return NULL;
+        }
+        return optional.isPresent() ? PRESENT : EMPTY;
+    }
+}
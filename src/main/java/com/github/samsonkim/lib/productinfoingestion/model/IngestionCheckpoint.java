@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.model;
+
+import com.github.samsonkim.lib.productinfoingestion.dao.Persistable;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Last committed progress of a store journal's ingestion, used to resume it after a crash
+ * instead of starting over
+ */
+@Builder(toBuilder = true)
+@Data
+public class IngestionCheckpoint implements Persistable {
+
+    /**
+     * Store journal being ingested, one checkpoint per journal
+     */
+    private final UUID storeJournalId;
+
+    /**
+     * Store id
+     */
+    private final UUID storeId;
+
+    /**
+     * Catalog file being ingested
+     */
+    private final String fileName;
+
+    /**
+     * Byte offset of the first line not yet ingested.
+     * For compressed files this is an offset into the decompressed content
+     */
+    private final long byteOffset;
+
+    /**
+     * Number of lines before byteOffset
+     */
+    private final long lineNumber;
+
+    /**
+     * Records handed to the output before byteOffset
+     */
+    private final long records;
+
+    /**
+     * Output position reported by the output once the records were committed
+     */
+    private final long outputPosition;
+
+    /**
+     * Whether the whole file has been ingested
+     */
+    private final boolean completed;
+
+    /**
+     * When the checkpoint was taken
+     */
+    private final Instant checkpointDateTime;
+}
@@ -0,0 +1,206 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable fixed point amount of money backed by a long of 1/10000 units, the scale of calculator prices.
+ * Replaces BigDecimal with scale 4 in the pricing path without allocating a BigInteger per value.
+ *
+ * toString and the Json representation are the same as the equivalent BigDecimal with scale 4, e.g. 5.6700
+ */
+@JsonSerialize(using = MoneySerializer.class)
+public final class Money implements Comparable<Money>, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of decimal places
+     */
+    public static final int SCALE = ProductInfoIngestionUtils.CURRENCY_SCALE;
+
+    /**
+     * Maximum number of characters of toString, Long.MIN_VALUE with a decimal point
+     */
+    public static final int MAX_LENGTH = 21;
+
+    public static final Money ZERO = new Money(0L);
+
+    private static final long UNITS = 10000L;
+
+    private final long scaled;
+
+    private Money(long scaled) {
+        this.scaled = scaled;
+    }
+
+    /**
+     * @param scaled value in 1/10000 units
+     * @return
+     */
+    public static Money ofScaled(long scaled) {
+        return scaled == 0L ? ZERO : new Money(scaled);
+    }
+
+    /**
+     * @param cents value in 1/100 units
+     * @return
+     * @throws ArithmeticException if the value does not fit
+     */
+    public static Money ofCents(long cents) {
+        return ofScaled(Math.multiplyExact(cents, ProductInfoIngestionUtils.SCALED_UNITS_PER_CENT));
+    }
+
+    /**
+     * Rounds the value to 4 decimal places half down
+     *
+     * @param value
+     * @return
+     * @throws ArithmeticException if the value does not fit
+     */
+    public static Money of(BigDecimal value) {
+        return ofScaled(value.setScale(SCALE, RoundingMode.HALF_DOWN).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Value in 1/10000 units
+     *
+     * @return
+     */
+    public long getScaled() {
+        return scaled;
+    }
+
+    public boolean isPositive() {
+        return scaled > 0L;
+    }
+
+    /**
+     * @param other
+     * @return
+     * @throws ArithmeticException on overflow
+     */
+    public Money plus(Money other) {
+        return ofScaled(Math.addExact(scaled, other.scaled));
+    }
+
+    /**
+     * @param other
+     * @return
+     * @throws ArithmeticException on overflow
+     */
+    public Money minus(Money other) {
+        return ofScaled(Math.subtractExact(scaled, other.scaled));
+    }
+
+    /**
+     * @param multiplier
+     * @return
+     * @throws ArithmeticException on overflow
+     */
+    public Money multiply(long multiplier) {
+        return ofScaled(Math.multiplyExact(scaled, multiplier));
+    }
+
+    /**
+     * Divides exactly as BigDecimal.divide(divisor, 4, RoundingMode.HALF_DOWN), used for split pricing
+     *
+     * @param divisor must be greater than 0
+     * @return
+     * @throws IllegalArgumentException if the divisor is not greater than 0
+     */
+    public Money divideHalfDown(int divisor) {
+        if (divisor <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid divisor: %d", divisor));
+        }
+        return ofScaled(ProductInfoIngestionUtils.divideHalfDown(scaled, divisor));
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(scaled, SCALE);
+    }
+
+    /**
+     * Writes the same characters as toString into the buffer
+     *
+     * @param buffer
+     * @param offset
+     * @return number of characters written, at most MAX_LENGTH
+     */
+    public int writeTo(char[] buffer, int offset) {
+        //work with the negated value so Long.MIN_VALUE does not overflow
+        long negated = scaled > 0 ? -scaled : scaled;
+        int length = Math.max(stringSize(negated), SCALE + 1) + 1 + (scaled < 0 ? 1 : 0);
+
+        int position = offset + length;
+        for (int digit = 0; digit < SCALE; digit++) {
+            buffer[--position] = (char) ('0' - negated % 10);
+            negated /= 10;
+        }
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' - negated % 10);
+            negated /= 10;
+        } while (negated != 0);
+        if (scaled < 0) {
+            buffer[--position] = '-';
+        }
+        return length;
+    }
+
+    private static int stringSize(long negated) {
+        int size = 1;
+        for (long value = negated / 10; value != 0; value /= 10) {
+            size++;
+        }
+        return size;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(scaled, other.scaled);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money && scaled == ((Money) o).scaled);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(scaled);
+    }
+
+    @Override
+    public String toString() {
+        char[] buffer = new char[MAX_LENGTH];
+        return new String(buffer, 0, writeTo(buffer, 0));
+    }
+}
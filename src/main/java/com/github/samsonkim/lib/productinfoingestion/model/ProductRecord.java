@@ -87,7 +87,7 @@ public class ProductRecord implements Persistable {
      * Regular price for calculations
      */
     @JsonProperty
-    private BigDecimal regularCalculatorPrice;
+    private Money regularCalculatorPrice;
 
     /**
      * User friendly promotional price
@@ -99,7 +99,7 @@ public class ProductRecord implements Persistable {
      * Promotional price for calculations
      */
     @JsonProperty
-    private BigDecimal promotionalCalculatorPrice;
+    private Money promotionalCalculatorPrice;
 
     /**
      * Unit of measure
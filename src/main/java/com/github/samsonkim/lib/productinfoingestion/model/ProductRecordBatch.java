@@ -0,0 +1,209 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Compact in-memory catalog of ProductRecords from one store journal.
+ *
+ * Fields shared by every record of an ingestion (store, store journal, locale and audit attributes)
+ * are kept once for the batch, the rest of each record is kept as a CompactProductRecord.
+ * The batch is a List&lt;ProductRecord&gt; view, get copies a record back out to a ProductRecord,
+ * and serializes to the same Json as the equivalent List&lt;ProductRecord&gt;.
+ *
+ * The shared fields are taken from the first record added, see accepts.  Not thread-safe
+ */
+@JsonSerialize(using = ProductRecordBatchSerializer.class)
+public final class ProductRecordBatch extends AbstractList<ProductRecord> {
+    private final ArrayList<CompactProductRecord> records;
+
+    private UUID storeId;
+    private UUID storeJournalId;
+    private Locale locale;
+    private Instant createdDateTime;
+    private String createdBy;
+    private Instant modifiedDateTime;
+    private String modifiedBy;
+
+    public ProductRecordBatch() {
+        this(16);
+    }
+
+    public ProductRecordBatch(int initialCapacity) {
+        this.records = new ArrayList<>(initialCapacity);
+    }
+
+    /**
+     * Whether the record has the batch's shared fields, always true for an empty batch
+     *
+     * @param productRecord
+     * @return
+     */
+    public boolean accepts(ProductRecord productRecord) {
+        return records.isEmpty() ||
+                (Objects.equals(storeId, productRecord.getStoreId()) &&
+                        Objects.equals(storeJournalId, productRecord.getStoreJournalId()) &&
+                        Objects.equals(locale, productRecord.getLocale()) &&
+                        Objects.equals(createdDateTime, productRecord.getCreatedDateTime()) &&
+                        Objects.equals(createdBy, productRecord.getCreatedBy()) &&
+                        Objects.equals(modifiedDateTime, productRecord.getModifiedDateTime()) &&
+                        Objects.equals(modifiedBy, productRecord.getModifiedBy()));
+    }
+
+    /**
+     * Adds a copy of the record
+     *
+     * @param productRecord
+     * @return true
+     * @throws IllegalArgumentException if the record's shared fields differ from the batch's, see accepts
+     */
+    @Override
+    public boolean add(ProductRecord productRecord) {
+        if (!accepts(productRecord)) {
+            throw new IllegalArgumentException(String.format(
+                    "ProductRecord does not share the batch's fields. storeJournalId=%s, productID=%s",
+                    storeJournalId, productRecord.getProductID()));
+        }
+        if (records.isEmpty()) {
+            storeId = productRecord.getStoreId();
+            storeJournalId = productRecord.getStoreJournalId();
+            locale = productRecord.getLocale();
+            createdDateTime = productRecord.getCreatedDateTime();
+            createdBy = productRecord.getCreatedBy();
+            modifiedDateTime = productRecord.getModifiedDateTime();
+            modifiedBy = productRecord.getModifiedBy();
+        }
+        modCount++;
+        return records.add(CompactProductRecord.of(productRecord));
+    }
+
+    /**
+     * Copies a record out to a new ProductRecord
+     *
+     * @param index
+     * @return
+     */
+    @Override
+    public ProductRecord get(int index) {
+        return records.get(index).toProductRecord(sharedFields());
+    }
+
+    /**
+     * Compact record without copying it out
+     *
+     * @param index
+     * @return
+     */
+    public CompactProductRecord getCompact(int index) {
+        return records.get(index);
+    }
+
+    @Override
+    public int size() {
+        return records.size();
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        records.clear();
+    }
+
+    public void trimToSize() {
+        records.trimToSize();
+    }
+
+    public UUID getStoreId() {
+        return storeId;
+    }
+
+    public UUID getStoreJournalId() {
+        return storeJournalId;
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    public Instant getCreatedDateTime() {
+        return createdDateTime;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public Instant getModifiedDateTime() {
+        return modifiedDateTime;
+    }
+
+    public String getModifiedBy() {
+        return modifiedBy;
+    }
+
+    /**
+     * Collects records into batches, starting a new batch whenever the shared fields change
+     *
+     * @param productRecords
+     * @return
+     */
+    public static List<ProductRecordBatch> of(Iterable<ProductRecord> productRecords) {
+        List<ProductRecordBatch> batches = new ArrayList<>();
+        ProductRecordBatch batch = new ProductRecordBatch();
+        for (ProductRecord productRecord : productRecords) {
+            if (!batch.accepts(productRecord)) {
+                batch.trimToSize();
+                batches.add(batch);
+                batch = new ProductRecordBatch();
+            }
+            batch.add(productRecord);
+        }
+        if (!batch.isEmpty()) {
+            batch.trimToSize();
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private ProductRecord.ProductRecordBuilder sharedFields() {
+        return ProductRecord.builder()
+                .storeId(storeId)
+                .storeJournalId(storeJournalId)
+                .locale(locale)
+                .createdDateTime(createdDateTime)
+                .createdBy(createdBy)
+                .modifiedDateTime(modifiedDateTime)
+                .modifiedBy(modifiedBy);
+    }
+}
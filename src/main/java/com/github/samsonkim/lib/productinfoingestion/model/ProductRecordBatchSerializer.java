@@ -0,0 +1,54 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a ProductRecordBatch as the Json array of its ProductRecords.
+ * Records are copied out one at a time, so only one ProductRecord exists at a time
+ */
+public class ProductRecordBatchSerializer extends StdSerializer<ProductRecordBatch> {
+    private static final long serialVersionUID = 1L;
+
+    public ProductRecordBatchSerializer() {
+        super(ProductRecordBatch.class);
+    }
+
+    @Override
+    public void serialize(ProductRecordBatch value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        JsonSerializer<Object> serializer = provider.findValueSerializer(ProductRecord.class);
+        gen.writeStartArray(value.size());
+        for (int i = 0; i < value.size(); i++) {
+            serializer.serialize(value.get(i), gen, provider);
+        }
+        gen.writeEndArray();
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Writes a ProductRecord field by field, byte for byte the same Json as Jackson's bean serializer with the
+ * Jdk8Module and JavaTimeModule, without reflection or per-field serializer lookups:
+ * <ul>
+ * <li>field names and unit of measure names are pre-encoded</li>
+ * <li>Optionals are unwrapped in place, empty is written as null</li>
+ * <li>uuids and Money are formatted into a reused char buffer</li>
+ * <li>dates use the @JsonFormat pattern of ProductRecord, the last formatted second and locale are cached</li>
+ * </ul>
+ * Field order follows the declaration order of ProductRecord, a field added there must be added here
+ */
+public class ProductRecordSerializer extends StdSerializer<ProductRecord> {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Formatter of the createdDateTime and modifiedDateTime @JsonFormat
+     */
+    public static final DateTimeFormatter DATE_TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss", Locale.ROOT).withZone(ZoneId.of("UTC"));
+
+    /**
+     * Characters of a formatted uuid
+     */
+    public static final int UUID_LENGTH = 36;
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString STORE_ID = new SerializedString("storeId");
+    private static final SerializableString STORE_JOURNAL_ID = new SerializedString("storeJournalId");
+    private static final SerializableString PRODUCT_ID = new SerializedString("productID");
+    private static final SerializableString PRODUCT_DESCRIPTION = new SerializedString("productDescription");
+    private static final SerializableString REGULAR_DISPLAY_PRICE = new SerializedString("regularDisplayPrice");
+    private static final SerializableString REGULAR_CALCULATOR_PRICE = new SerializedString("regularCalculatorPrice");
+    private static final SerializableString PROMOTIONAL_DISPLAY_PRICE = new SerializedString("promotionalDisplayPrice");
+    private static final SerializableString PROMOTIONAL_CALCULATOR_PRICE = new SerializedString("promotionalCalculatorPrice");
+    private static final SerializableString UNIT_OF_MEASURE = new SerializedString("unitOfMeasure");
+    private static final SerializableString PRODUCT_SIZE = new SerializedString("productSize");
+    private static final SerializableString TAX_RATE = new SerializedString("taxRate");
+    private static final SerializableString CREATED_DATE_TIME = new SerializedString("createdDateTime");
+    private static final SerializableString CREATED_BY = new SerializedString("createdBy");
+    private static final SerializableString MODIFIED_DATE_TIME = new SerializedString("modifiedDateTime");
+    private static final SerializableString MODIFIED_BY = new SerializedString("modifiedBy");
+    private static final SerializableString LOCALE = new SerializedString("locale");
+
+    private static final SerializableString[] UNITS_OF_MEASURE;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final ThreadLocal<char[]> BUFFER =
+            ThreadLocal.withInitial(() -> new char[Math.max(UUID_LENGTH, Money.MAX_LENGTH)]);
+
+    static {
+        UnitOfMeasure[] values = UnitOfMeasure.values();
+        UNITS_OF_MEASURE = new SerializableString[values.length];
+        for (UnitOfMeasure value : values) {
+            UNITS_OF_MEASURE[value.ordinal()] = new SerializedString(value.name());
+        }
+    }
+
+    //records of an ingestion share their audit dates and locale
+    private transient volatile FormattedDateTime lastDateTime;
+    private transient volatile FormattedLocale lastLocale;
+
+    public ProductRecordSerializer() {
+        super(ProductRecord.class);
+    }
+
+    @Override
+    public void serialize(ProductRecord value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        char[] buffer = BUFFER.get();
+        gen.writeStartObject();
+
+        gen.writeFieldName(ID);
+        Optional<UUID> id = value.getId();
+        writeUUID(id == null ? null : id.orElse(null), buffer, gen);
+        gen.writeFieldName(STORE_ID);
+        writeUUID(value.getStoreId(), buffer, gen);
+        gen.writeFieldName(STORE_JOURNAL_ID);
+        writeUUID(value.getStoreJournalId(), buffer, gen);
+
+        gen.writeFieldName(PRODUCT_ID);
+        Integer productID = value.getProductID();
+        if (productID == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(productID);
+        }
+        gen.writeFieldName(PRODUCT_DESCRIPTION);
+        gen.writeString(value.getProductDescription());
+
+        gen.writeFieldName(REGULAR_DISPLAY_PRICE);
+        gen.writeString(value.getRegularDisplayPrice());
+        gen.writeFieldName(REGULAR_CALCULATOR_PRICE);
+        writeMoney(value.getRegularCalculatorPrice(), buffer, gen);
+        gen.writeFieldName(PROMOTIONAL_DISPLAY_PRICE);
+        gen.writeString(value.getPromotionalDisplayPrice());
+        gen.writeFieldName(PROMOTIONAL_CALCULATOR_PRICE);
+        writeMoney(value.getPromotionalCalculatorPrice(), buffer, gen);
+
+        gen.writeFieldName(UNIT_OF_MEASURE);
+        UnitOfMeasure unitOfMeasure = value.getUnitOfMeasure();
+        if (unitOfMeasure == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(UNITS_OF_MEASURE[unitOfMeasure.ordinal()]);
+        }
+        gen.writeFieldName(PRODUCT_SIZE);
+        Optional<String> productSize = value.getProductSize();
+        gen.writeString(productSize == null ? null : productSize.orElse(null));
+        gen.writeFieldName(TAX_RATE);
+        Optional<BigDecimal> taxRate = value.getTaxRate();
+        if (taxRate == null || !taxRate.isPresent()) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(taxRate.get());
+        }
+
+        gen.writeFieldName(CREATED_DATE_TIME);
+        gen.writeString(formatDateTime(value.getCreatedDateTime()));
+        gen.writeFieldName(CREATED_BY);
+        gen.writeString(value.getCreatedBy());
+        gen.writeFieldName(MODIFIED_DATE_TIME);
+        gen.writeString(formatDateTime(value.getModifiedDateTime()));
+        gen.writeFieldName(MODIFIED_BY);
+        gen.writeString(value.getModifiedBy());
+
+        gen.writeFieldName(LOCALE);
+        writeLocale(value.getLocale(), gen);
+
+        gen.writeEndObject();
+    }
+
+    /**
+     * Formats a date the way the @JsonFormat of ProductRecord does, reusing the text of the last second formatted
+     *
+     * @param value
+     * @return null for null
+     */
+    public String formatDateTime(Instant value) {
+        if (value == null) {
+            return null;
+        }
+        FormattedDateTime last = lastDateTime;
+        if (last == null || last.epochSecond != value.getEpochSecond()) {
+            last = new FormattedDateTime(value.getEpochSecond(), DATE_TIME_FORMATTER.format(value));
+            lastDateTime = last;
+        }
+        return last.text;
+    }
+
+    /**
+     * Formats a uuid the way UUID.toString does
+     *
+     * @param mostSignificantBits
+     * @param leastSignificantBits
+     * @param buffer at least UUID_LENGTH characters
+     */
+    public static void formatUUID(long mostSignificantBits, long leastSignificantBits, char[] buffer) {
+        writeHex(mostSignificantBits >>> 32, 8, buffer, 0);
+        buffer[8] = '-';
+        writeHex(mostSignificantBits >>> 16, 4, buffer, 9);
+        buffer[13] = '-';
+        writeHex(mostSignificantBits, 4, buffer, 14);
+        buffer[18] = '-';
+        writeHex(leastSignificantBits >>> 48, 4, buffer, 19);
+        buffer[23] = '-';
+        writeHex(leastSignificantBits, 12, buffer, 24);
+    }
+
+    private static void writeUUID(UUID value, char[] buffer, JsonGenerator gen) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            formatUUID(value.getMostSignificantBits(), value.getLeastSignificantBits(), buffer);
+            gen.writeString(buffer, 0, UUID_LENGTH);
+        }
+    }
+
+    private static void writeMoney(Money value, char[] buffer, JsonGenerator gen) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeRawValue(buffer, 0, value.writeTo(buffer, 0));
+        }
+    }
+
+    private void writeLocale(Locale value, JsonGenerator gen) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+            return;
+        }
+        FormattedLocale last = lastLocale;
+        if (last == null || !value.equals(last.locale)) {
+            last = new FormattedLocale(value, new SerializedString(value.toString()));
+            lastLocale = last;
+        }
+        gen.writeString(last.text);
+    }
+
+    private static void writeHex(long value, int digits, char[] buffer, int offset) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    private static final class FormattedDateTime {
+        private final long epochSecond;
+        private final String text;
+
+        FormattedDateTime(long epochSecond, String text) {
+            this.epochSecond = epochSecond;
+            this.text = text;
+        }
+    }
+
+    private static final class FormattedLocale {
+        private final Locale locale;
+        private final SerializableString text;
+
+        FormattedLocale(Locale locale, SerializableString text) {
+            this.locale = locale;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Mutable, reusable view of a ProductRecord for streaming consumers.
+ * A FileParserLineViewMapper repopulates the same instance for every line, so the hot path
+ * keeps prices as scaled longs (1/10000 units) and text in reused buffers instead of
+ * building a ProductRecord with its Optional and Money fields.
+ *
+ * Consumers that need to keep a record must copy it out with toProductRecord
+ */
+@Getter
+@Setter
+public class ProductRecordView {
+
+    /**
+     * Store id
+     */
+    private UUID storeId;
+
+    /**
+     * Store Journal Id
+     */
+    private UUID storeJournalId;
+
+    /**
+     * External Store product id
+     */
+    private int productID;
+
+    /**
+     * External Store product description
+     */
+    private final StringBuilder productDescription = new StringBuilder();
+
+    /**
+     * User friendly regular price
+     */
+    private String regularDisplayPrice;
+
+    /**
+     * Regular price for calculations in 1/10000 units
+     */
+    private long regularCalculatorPrice;
+
+    /**
+     * User friendly promotional price
+     */
+    private String promotionalDisplayPrice;
+
+    /**
+     * Promotional price for calculations in 1/10000 units
+     */
+    private long promotionalCalculatorPrice;
+
+    /**
+     * Unit of measure
+     */
+    private UnitOfMeasure unitOfMeasure;
+
+    /**
+     * Product Size, empty when not present
+     */
+    private final StringBuilder productSize = new StringBuilder();
+
+    /**
+     * Tax rate, null when not taxable
+     */
+    private BigDecimal taxRate;
+
+    /**
+     * ProductRecord locale
+     */
+    private Locale locale;
+
+    public CharSequence getProductDescription() {
+        return productDescription;
+    }
+
+    /**
+     * Replaces the product description with characters [start, end) of source
+     *
+     * @param source
+     * @param start
+     * @param end
+     */
+    public void setProductDescription(CharSequence source, int start, int end) {
+        productDescription.setLength(0);
+        productDescription.append(source, start, end);
+    }
+
+    public CharSequence getProductSize() {
+        return productSize;
+    }
+
+    /**
+     * Replaces the product size with characters [start, end) of source
+     *
+     * @param source
+     * @param start
+     * @param end
+     */
+    public void setProductSize(CharSequence source, int start, int end) {
+        productSize.setLength(0);
+        productSize.append(source, start, end);
+    }
+
+    /**
+     * Clears the line specific fields, keeping store, journal and locale
+     */
+    public void clear() {
+        productID = 0;
+        productDescription.setLength(0);
+        regularDisplayPrice = null;
+        regularCalculatorPrice = 0L;
+        promotionalDisplayPrice = null;
+        promotionalCalculatorPrice = 0L;
+        unitOfMeasure = null;
+        productSize.setLength(0);
+        taxRate = null;
+    }
+
+    /**
+     * Copies the view out to an immutable ProductRecord
+     *
+     * @return
+     */
+    public ProductRecord toProductRecord() {
+        return ProductRecord.builder()
+                .storeId(storeId)
+                .storeJournalId(storeJournalId)
+                .productID(productID)
+                .productDescription(productDescription.length() > 0 ? productDescription.toString() : null)
+                .regularDisplayPrice(regularDisplayPrice)
+                .regularCalculatorPrice(Money.ofScaled(regularCalculatorPrice))
+                .promotionalDisplayPrice(promotionalDisplayPrice)
+                .promotionalCalculatorPrice(Money.ofScaled(promotionalCalculatorPrice))
+                .unitOfMeasure(unitOfMeasure)
+                .productSize(productSize.length() > 0 ? Optional.of(productSize.toString()) : Optional.empty())
+                .taxRate(Optional.ofNullable(taxRate))
+                .locale(locale)
+                .build();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import java.nio.ByteBuffer;
+
+/**
+ * CharSequence view over a region of a ByteBuffer holding single byte (ASCII) text.
+ * Characters are read straight from the buffer so no charset decoding or String is needed
+ * until a caller explicitly asks for one.
+ *
+ * Instances are flyweights that parsers reset for every line, so mappers must not hold on to them
+ */
+public final class ByteBufferLine implements CharSequence {
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+
+    public ByteBufferLine() {
+    }
+
+    public ByteBufferLine(ByteBuffer buffer, int offset, int length) {
+        reset(buffer, offset, length);
+    }
+
+    /**
+     * Points this view at a new region of a buffer
+     *
+     * @param buffer
+     * @param offset absolute index of the first byte
+     * @param length number of bytes
+     * @return this line
+     */
+    public ByteBufferLine reset(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Raw byte at index
+     *
+     * @param index
+     * @return
+     */
+    public byte getByte(int index) {
+        checkIndex(index);
+        return buffer.get(offset + index);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        checkIndex(index);
+        return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    /**
+     * Returns a view over the same buffer, no bytes are copied
+     *
+     * @param start
+     * @param end
+     * @return
+     */
+    @Override
+    public ByteBufferLine subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException(String.format("start=%s, end=%s, length=%s", start, end, length));
+        }
+        return new ByteBufferLine(buffer, offset + start, end - start);
+    }
+
+    /**
+     * Decodes the region as ISO-8859-1, which is identical to ASCII for the catalogs we ingest
+     *
+     * @return
+     */
+    @Override
+    public String toString() {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (buffer.get(offset + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(String.format("index=%s, length=%s", index, length));
+        }
+    }
+}
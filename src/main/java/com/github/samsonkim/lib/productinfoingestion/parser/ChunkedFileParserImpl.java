@@ -0,0 +1,253 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * File parser that splits a file into line aligned byte ranges and maps each range on a ForkJoinPool.
+ * Every chunk gets its own FileParserLineMapper from the factory so mappers need not be thread-safe.
+ * Results are returned in original line order.
+ *
+ * InputStreams cannot be split and are parsed sequentially by FileParserImpl.
+ *
+ * @param <T>
+ */
+public class ChunkedFileParserImpl<T> implements FileParser<T> {
+    public static final long DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    private final Supplier<FileParserLineMapper<T>> lineMapperFactory;
+    private final ForkJoinPool pool;
+    private final long chunkSize;
+    private final int maxChunksInFlight;
+
+    public ChunkedFileParserImpl(Supplier<FileParserLineMapper<T>> lineMapperFactory) {
+        this(lineMapperFactory, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public ChunkedFileParserImpl(Supplier<FileParserLineMapper<T>> lineMapperFactory,
+                                 ForkJoinPool pool,
+                                 long chunkSize) {
+        this.lineMapperFactory = lineMapperFactory;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.maxChunksInFlight = pool.getParallelism() * 2;
+    }
+
+    /**
+     * Converts an InputStream to List&lt;T&gt; on the calling thread
+     *
+     * @param inputStream
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public List<T> parse(InputStream inputStream) throws IOException {
+        return new FileParserImpl<>(lineMapperFactory.get()).parse(inputStream);
+    }
+
+    /**
+     * Converts an InputStream to Stream&lt;T&gt; on the calling thread
+     *
+     * @param inputStream
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public Stream<T> stream(InputStream inputStream) throws IOException {
+        return new FileParserImpl<>(lineMapperFactory.get()).stream(inputStream);
+    }
+
+    /**
+     * Converts a file to List&lt;T&gt;, mapping all chunks in parallel.
+     * Compressed files cannot be split and are mapped sequentially
+     *
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    public List<T> parse(Path path) throws IOException {
+        if (CompressionType.isCompressed(path)) {
+            try (Stream<T> stream = stream(path)) {
+                return stream.collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<ForkJoinTask<MappedChunk<T>>> tasks = new ArrayList<>();
+            for (FileChunk chunk : FileChunk.split(channel, chunkSize)) {
+                tasks.add(pool.submit(() -> parseChunk(channel, chunk)));
+            }
+
+            List<T> results = new ArrayList<>();
+            for (ForkJoinTask<MappedChunk<T>> task : tasks) {
+                results.addAll(task.join().records);
+            }
+            return results;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Converts a file to Stream&lt;T&gt; in original line order.
+     * Chunks are mapped in parallel ahead of the consumer, with at most twice the pool parallelism
+     * chunks in flight so memory stays bounded.
+     * Compressed files cannot be split and are mapped sequentially.
+     * Closing the stream closes the file
+     *
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public Stream<T> stream(Path path) throws IOException {
+        return stream(path, new FileCursor());
+    }
+
+    /**
+     * Converts a file to Stream&lt;T&gt; in original line order starting at the cursor, see stream(Path).
+     * The chunks after the cursor are mapped in parallel, while the cursor advances with the records
+     * handed to the consumer
+     *
+     * @param path
+     * @param cursor
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public Stream<T> stream(Path path, FileCursor cursor) throws IOException {
+        if (CompressionType.isCompressed(path)) {
+            return new FileParserImpl<>(lineMapperFactory.get()).stream(path, cursor);
+        }
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        Iterator<FileChunk> chunks = FileChunk.split(channel, cursor.getByteOffset(), chunkSize).iterator();
+        Deque<ForkJoinTask<MappedChunk<T>>> inFlight = new ArrayDeque<>();
+
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private MappedChunk<T> current;
+            private int index;
+            private long firstLineNumber = cursor.getLineNumber();
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                while (current == null || index == current.records.size()) {
+                    if (current != null) {
+                        firstLineNumber += current.lines;
+                    }
+                    while (inFlight.size() < maxChunksInFlight && chunks.hasNext()) {
+                        FileChunk chunk = chunks.next();
+                        inFlight.addLast(pool.submit(() -> parseChunk(channel, chunk)));
+                    }
+                    if (inFlight.isEmpty()) {
+                        return false;
+                    }
+                    current = inFlight.removeFirst().join();
+                    index = 0;
+                }
+
+                cursor.advance(current.nextLineOffsets[index], firstLineNumber + current.lineNumbers[index]);
+                action.accept(current.records.get(index++));
+                return true;
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> {
+                    inFlight.forEach(t -> t.cancel(false));
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private MappedChunk<T> parseChunk(FileChannel channel, FileChunk chunk) {
+        FileParserLineMapper<T> lineMapper = lineMapperFactory.get();
+        MappedFileLineReader reader = new MappedFileLineReader(channel, chunk.getStart(), chunk.getEnd(),
+                MappedFileLineReader.DEFAULT_WINDOW_SIZE);
+
+        MappedChunk<T> mappedChunk = new MappedChunk<>();
+        try {
+            while (reader.next()) {
+                Optional<T> mapped = lineMapper.map(reader.getLine());
+                if (mapped.isPresent()) {
+                    mappedChunk.add(mapped.get(), reader.getPosition(), reader.getLineNumber());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        mappedChunk.lines = reader.getLineNumber();
+        return mappedChunk;
+    }
+
+    /**
+     * Records of a chunk with the position after each record's line, line numbers relative to the chunk
+     */
+    private static final class MappedChunk<T> {
+        private final List<T> records = new ArrayList<>();
+        private long[] nextLineOffsets = new long[16];
+        private long[] lineNumbers = new long[16];
+        private long lines;
+
+        void add(T record, long nextLineOffset, long lineNumber) {
+            int index = records.size();
+            if (index == nextLineOffsets.length) {
+                nextLineOffsets = Arrays.copyOf(nextLineOffsets, index * 2);
+                lineNumbers = Arrays.copyOf(lineNumbers, index * 2);
+            }
+            records.add(record);
+            nextLineOffsets[index] = nextLineOffset;
+            lineNumbers[index] = lineNumber;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import com.github.luben.zstd.ZstdInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Compression of a catalog file, detected from its magic bytes
+ */
+public enum CompressionType {
+    NONE(new byte[0]),
+    GZIP(new byte[]{(byte) 0x1f, (byte) 0x8b}),
+    ZSTD(new byte[]{(byte) 0x28, (byte) 0xb5, (byte) 0x2f, (byte) 0xfd});
+
+    private static final int MAX_MAGIC_LENGTH = 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final byte[] magic;
+
+    CompressionType(byte[] magic) {
+        this.magic = magic;
+    }
+
+    /**
+     * Detects compression from the first bytes of a file
+     *
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    public static CompressionType detect(Path path) throws IOException {
+        byte[] header = new byte[MAX_MAGIC_LENGTH];
+        int length = 0;
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            int read;
+            while (length < header.length && (read = inputStream.read(header, length, header.length - length)) > 0) {
+                length += read;
+            }
+        }
+        return detect(header, length);
+    }
+
+    /**
+     * @param path
+     * @return true if the file starts with the magic bytes of a supported compression
+     * @throws IOException
+     */
+    public static boolean isCompressed(Path path) throws IOException {
+        return detect(path) != NONE;
+    }
+
+    /**
+     * Detects compression from header bytes
+     *
+     * @param header
+     * @param length number of valid bytes in header
+     * @return
+     */
+    public static CompressionType detect(byte[] header, int length) {
+        for (CompressionType type : values()) {
+            if (type != NONE && type.matches(header, length)) {
+                return type;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Opens a file for reading, decompressing it if its magic bytes indicate compression.
+     * Decompression runs on its own thread feeding the caller through a bounded buffer,
+     * so inflating and mapping overlap
+     *
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    public static InputStream open(Path path) throws IOException {
+        CompressionType type = detect(path);
+        InputStream inputStream = new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE);
+
+        if (type == NONE) {
+            return inputStream;
+        }
+        return new PipelinedInputStream(type.decompress(inputStream), "decompress-" + path.getFileName());
+    }
+
+    /**
+     * Wraps a stream of this compression type with its decompressor
+     *
+     * @param inputStream
+     * @return
+     * @throws IOException
+     */
+    public InputStream decompress(InputStream inputStream) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new GZIPInputStream(inputStream, BUFFER_SIZE);
+            case ZSTD:
+                return new ZstdInputStream(inputStream);
+            default:
+                return inputStream;
+        }
+    }
+
+    private boolean matches(byte[] header, int length) {
+        if (length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (header[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
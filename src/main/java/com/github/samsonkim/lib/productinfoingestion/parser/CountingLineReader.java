@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Reads lines from an InputStream while keeping track of the byte offset of the next line,
+ * which BufferedReader cannot report.
+ * Lines end at '\n' with a trailing '\r' stripped and are decoded with the given charset, like BufferedReader
+ * over an InputStreamReader of the same charset.
+ *
+ * The reader does not own the InputStream, callers are responsible for closing it.
+ */
+class CountingLineReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream inputStream;
+    private final Charset charset;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private byte[] line = new byte[256];
+    private int bufferPosition;
+    private int bufferLimit;
+    private long position;
+
+    /**
+     * @param inputStream
+     * @param charset
+     * @param position byte offset of the first byte the InputStream returns
+     */
+    CountingLineReader(InputStream inputStream, Charset charset, long position) {
+        this.inputStream = inputStream;
+        this.charset = charset;
+        this.position = position;
+    }
+
+    /**
+     * Next line
+     *
+     * @return null at end of stream
+     * @throws IOException
+     */
+    String readLine() throws IOException {
+        int length = 0;
+
+        while (true) {
+            if (bufferPosition == bufferLimit) {
+                bufferLimit = inputStream.read(buffer);
+                bufferPosition = 0;
+                if (bufferLimit < 0) {
+                    bufferLimit = 0;
+                    return length == 0 ? null : decode(length);
+                }
+            }
+
+            int start = bufferPosition;
+            int end = start;
+            while (end < bufferLimit && buffer[end] != '\n') {
+                end++;
+            }
+
+            length = append(length, start, end);
+            if (end < bufferLimit) {
+                bufferPosition = end + 1;
+                position += end + 1 - start;
+                return decode(length);
+            }
+            bufferPosition = end;
+            position += end - start;
+        }
+    }
+
+    /**
+     * Byte offset of the next line to be read
+     *
+     * @return
+     */
+    long getPosition() {
+        return position;
+    }
+
+    /**
+     * Skips to a byte offset by reading, for streams that cannot seek such as decompressors
+     *
+     * @param inputStream
+     * @param bytes
+     * @throws IOException if the stream ends first
+     */
+    static void skipFully(InputStream inputStream, long bytes) throws IOException {
+        long remaining = bytes;
+        while (remaining > 0) {
+            long skipped = inputStream.skip(remaining);
+            if (skipped <= 0) {
+                if (inputStream.read() < 0) {
+                    throw new IOException(String.format("Stream ended %s bytes before offset %s", remaining, bytes));
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private int append(int length, int start, int end) {
+        int count = end - start;
+        if (length + count > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+        }
+        System.arraycopy(buffer, start, line, length, count);
+        return length + count;
+    }
+
+    private String decode(int length) {
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        return new String(line, 0, length, charset);
+    }
+}
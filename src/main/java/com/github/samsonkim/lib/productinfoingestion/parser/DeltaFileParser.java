@@ -0,0 +1,227 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * File parser that only maps the lines that changed since the previous journal of a store.
+ *
+ * Each line's product id is read from its key field and the hash of the raw line compared with the
+ * previous journal's DeltaIndex.  Unchanged lines are skipped before mapping, new and changed lines
+ * are mapped and returned, and once the file is exhausted the products of the previous journal that
+ * were not seen are returned as DELETED.
+ * The index of the current journal is filled in as the file is read.
+ *
+ * Lines whose key cannot be read are mapped and returned as NEW every time, as they cannot be tracked.
+ * Lines that do not map to a record are left out of the index, so a product whose line stops mapping
+ * is reported as DELETED.
+ * Lines are read as single byte characters, see ByteBufferLine
+ *
+ * @param <T>
+ */
+public class DeltaFileParser<T> {
+    private final FileParserLineMapper<T> lineMapper;
+    private final FixedWidthFileField keyField;
+    private final int windowSize;
+
+    /**
+     * @param lineMapper
+     * @param keyField NUMBER field holding the product id
+     */
+    public DeltaFileParser(FileParserLineMapper<T> lineMapper, FixedWidthFileField keyField) {
+        this(lineMapper, keyField, MappedFileLineReader.DEFAULT_WINDOW_SIZE);
+    }
+
+    public DeltaFileParser(FileParserLineMapper<T> lineMapper, FixedWidthFileField keyField, int windowSize) {
+        if (keyField.getType() != FixedWidthFileColumnType.NUMBER) {
+            throw new IllegalArgumentException(String.format("Not a NUMBER field: %s", keyField.getName()));
+        }
+        this.lineMapper = lineMapper;
+        this.keyField = keyField;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Converts an InputStream to a lazily mapped Stream of the products that changed since previous.
+     * Closing the stream closes the InputStream
+     *
+     * @param inputStream
+     * @param previous index of the previous journal, only read
+     * @param current index of this journal, complete once the stream is exhausted
+     * @param unchanged incremented for every line skipped as unchanged
+     * @return
+     */
+    public Stream<DeltaRecord<T>> stream(InputStream inputStream,
+                                         DeltaIndex previous,
+                                         DeltaIndex current,
+                                         AtomicLong unchanged) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.ISO_8859_1));
+
+        Spliterator<DeltaRecord<T>> spliterator = new Spliterators.AbstractSpliterator<DeltaRecord<T>>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super DeltaRecord<T>> action) {
+                try {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        DeltaRecord<T> deltaRecord = diff(line, previous, current, unchanged);
+                        if (deltaRecord != null) {
+                            action.accept(deltaRecord);
+                            return true;
+                        }
+                    }
+                    return false;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        return withDeletions(StreamSupport.stream(spliterator, false), previous, current)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Converts a memory mapped file to a lazily mapped Stream of the products that changed since previous.
+     * Compressed files are streamed through the decompressor.
+     * Closing the stream closes the file
+     *
+     * @param path
+     * @param previous index of the previous journal, only read
+     * @param current index of this journal, complete once the stream is exhausted
+     * @param unchanged incremented for every line skipped as unchanged
+     * @return
+     * @throws IOException
+     */
+    public Stream<DeltaRecord<T>> stream(Path path,
+                                         DeltaIndex previous,
+                                         DeltaIndex current,
+                                         AtomicLong unchanged) throws IOException {
+        if (CompressionType.isCompressed(path)) {
+            return stream(CompressionType.open(path), previous, current, unchanged);
+        }
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        MappedFileLineReader reader = new MappedFileLineReader(channel, 0, channel.size(), windowSize);
+
+        Spliterator<DeltaRecord<T>> spliterator = new Spliterators.AbstractSpliterator<DeltaRecord<T>>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super DeltaRecord<T>> action) {
+                try {
+                    while (reader.next()) {
+                        DeltaRecord<T> deltaRecord = diff(reader.getLine(), previous, current, unchanged);
+                        if (deltaRecord != null) {
+                            action.accept(deltaRecord);
+                            return true;
+                        }
+                    }
+                    return false;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        return withDeletions(StreamSupport.stream(spliterator, false), previous, current)
+                .onClose(() -> {
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * @return null if the line is unchanged, blank or does not map
+     */
+    private DeltaRecord<T> diff(CharSequence line, DeltaIndex previous, DeltaIndex current, AtomicLong unchanged) {
+        if (line.length() == 0) {
+            return null;
+        }
+
+        if (!keyField.isPresent(line) || !keyField.isValid(line)) {
+            return lineMapper.map(line)
+                    .map(record -> new DeltaRecord<>(DeltaType.NEW, 0, record))
+                    .orElse(null);
+        }
+
+        int productId = keyField.toInt(line);
+        long hash = DeltaIndex.hash(line);
+        long previousHash = previous.get(productId);
+        if (previousHash == hash) {
+            current.put(productId, hash);
+            unchanged.incrementAndGet();
+            return null;
+        }
+
+        Optional<T> mapped = lineMapper.map(line);
+        if (!mapped.isPresent()) {
+            return null;
+        }
+        current.put(productId, hash);
+        return new DeltaRecord<>(previousHash == 0 ? DeltaType.NEW : DeltaType.CHANGED, productId, mapped.get());
+    }
+
+    /**
+     * Appends the previous journal's products missing from the current one, computed once the
+     * lines are exhausted
+     */
+    private Stream<DeltaRecord<T>> withDeletions(Stream<DeltaRecord<T>> changes,
+                                                 DeltaIndex previous,
+                                                 DeltaIndex current) {
+        int characteristics = Spliterator.ORDERED | Spliterator.NONNULL;
+        Stream<DeltaRecord<T>> deletions = StreamSupport.stream(() -> Spliterators.spliteratorUnknownSize(
+                previous.productIds()
+                        .filter(productId -> current.get(productId) == 0)
+                        .mapToObj(productId -> new DeltaRecord<T>(DeltaType.DELETED, productId, null))
+                        .iterator(), characteristics), characteristics, false);
+
+        return Stream.concat(changes, deletions);
+    }
+}
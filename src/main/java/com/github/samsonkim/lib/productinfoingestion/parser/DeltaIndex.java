@@ -0,0 +1,262 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Compact index of productID to a 64-bit hash of the product's raw line in a store journal.
+ * Comparing a line's hash with the previous journal's tells whether the line changed without mapping it.
+ *
+ * Open addressing over an int[] of product ids and a long[] of hashes, about 16 bytes per product.
+ * A hash of 0 marks a free slot, hash never returns 0.
+ * Not thread-safe
+ */
+public final class DeltaIndex {
+    private static final int MAGIC = 0x44454c54;
+    private static final int VERSION = 1;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final UUID storeJournalId;
+    private int[] productIds;
+    private long[] hashes;
+    private int mask;
+    private int shift;
+    private int size;
+
+    /**
+     * @param storeJournalId journal the index describes, null for the empty index of a store not ingested yet
+     * @param expectedSize products expected, the index grows past it
+     */
+    public DeltaIndex(UUID storeJournalId, int expectedSize) {
+        this.storeJournalId = storeJournalId;
+        allocate(tableSize(expectedSize));
+    }
+
+    public UUID getStoreJournalId() {
+        return storeJournalId;
+    }
+
+    /**
+     * Number of products
+     *
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Hash of a product's line
+     *
+     * @param productId
+     * @return 0 if the product is not in the index
+     */
+    public long get(int productId) {
+        for (int slot = slot(productId); ; slot = (slot + 1) & mask) {
+            long hash = hashes[slot];
+            if (hash == 0 || productIds[slot] == productId) {
+                return hash;
+            }
+        }
+    }
+
+    /**
+     * Adds or replaces a product's line hash
+     *
+     * @param productId
+     * @param hash as returned by hash(CharSequence)
+     */
+    public void put(int productId, long hash) {
+        if (hash == 0) {
+            throw new IllegalArgumentException("Invalid hash: 0");
+        }
+        int slot = slot(productId);
+        while (hashes[slot] != 0 && productIds[slot] != productId) {
+            slot = (slot + 1) & mask;
+        }
+        if (hashes[slot] == 0) {
+            size++;
+        }
+        productIds[slot] = productId;
+        hashes[slot] = hash;
+
+        if (size > (mask + 1) / 4 * 3) {
+            resize();
+        }
+    }
+
+    /**
+     * Product ids in no particular order
+     *
+     * @return
+     */
+    public IntStream productIds() {
+        return IntStream.range(0, hashes.length)
+                .filter(slot -> hashes[slot] != 0)
+                .map(slot -> productIds[slot]);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the line's single byte characters, with a final avalanche so nearby
+     * lines spread over the whole range.  Never 0
+     *
+     * @param line
+     * @return
+     */
+    public static long hash(CharSequence line) {
+        long hash = FNV_OFFSET_BASIS;
+        int length = line.length();
+
+        if (line instanceof ByteBufferLine) {
+            ByteBufferLine byteBufferLine = (ByteBufferLine) line;
+            ByteBuffer buffer = byteBufferLine.getBuffer();
+            int offset = byteBufferLine.getOffset();
+            for (int i = 0; i < length; i++) {
+                hash = (hash ^ (buffer.get(offset + i) & 0xFF)) * FNV_PRIME;
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                hash = (hash ^ (line.charAt(i) & 0xFF)) * FNV_PRIME;
+            }
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Writes the index in a compact binary form, the stream is not closed
+     *
+     * @param outputStream
+     * @throws IOException
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(storeJournalId.getMostSignificantBits());
+        out.writeLong(storeJournalId.getLeastSignificantBits());
+        out.writeInt(size);
+        for (int slot = 0; slot < hashes.length; slot++) {
+            if (hashes[slot] != 0) {
+                out.writeInt(productIds[slot]);
+                out.writeLong(hashes[slot]);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads an index written by writeTo, the stream is not closed
+     *
+     * @param inputStream
+     * @return
+     * @throws IOException if the stream does not hold an index
+     */
+    public static DeltaIndex readFrom(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        int magic = in.readInt();
+        int version = in.readInt();
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException(String.format("Not a delta index. magic=%x, version=%s", magic, version));
+        }
+        UUID storeJournalId = new UUID(in.readLong(), in.readLong());
+        int size = in.readInt();
+
+        DeltaIndex index = new DeltaIndex(storeJournalId, size);
+        for (int i = 0; i < size; i++) {
+            index.put(in.readInt(), in.readLong());
+        }
+        return index;
+    }
+
+    private int slot(int productId) {
+        //Fibonacci hashing, the high bits of the product spread ids that only differ in their high digits
+        return (productId * 0x9E3779B9) >>> shift;
+    }
+
+    private void resize() {
+        int[] oldProductIds = productIds;
+        long[] oldHashes = hashes;
+
+        allocate(oldHashes.length * 2);
+        for (int slot = 0; slot < oldHashes.length; slot++) {
+            if (oldHashes[slot] != 0) {
+                put(oldProductIds[slot], oldHashes[slot]);
+            }
+        }
+    }
+
+    private void allocate(int tableSize) {
+        productIds = new int[tableSize];
+        hashes = new long[tableSize];
+        mask = tableSize - 1;
+        shift = Integer.numberOfLeadingZeros(tableSize) + 1;
+        size = 0;
+    }
+
+    private static int tableSize(int expectedSize) {
+        int minimum = (int) Math.min(1 << 30, Math.max(16, (long) expectedSize * 4 / 3 + 1));
+        return Integer.highestOneBit(minimum - 1) << 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DeltaIndex(storeJournalId=%s, size=%s)", storeJournalId, size);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DeltaIndex)) {
+            return false;
+        }
+        DeltaIndex other = (DeltaIndex) o;
+        return Objects.equals(storeJournalId, other.storeJournalId)
+                && size == other.size
+                && productIds().allMatch(productId -> get(productId) == other.get(productId));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(storeJournalId) * 31 + size;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import lombok.Data;
+
+/**
+ * Number of rejected lines tolerated before ingestion of a file is aborted
+ */
+@Data
+public class ErrorBudget {
+    public static final ErrorBudget UNLIMITED = new ErrorBudget(Long.MAX_VALUE);
+
+    /**
+     * Maximum number of rejected lines, exceeding it aborts the file
+     */
+    private final long maxRejectedLines;
+
+    public static ErrorBudget of(long maxRejectedLines) {
+        if (maxRejectedLines < 0) {
+            throw new IllegalArgumentException(String.format("Invalid maxRejectedLines: %s", maxRejectedLines));
+        }
+        return new ErrorBudget(maxRejectedLines);
+    }
+
+    public boolean isExceeded(long rejectedLines) {
+        return rejectedLines > maxRejectedLines;
+    }
+}
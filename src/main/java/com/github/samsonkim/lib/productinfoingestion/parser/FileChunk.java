@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import lombok.Data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Byte range [start, end) of a file.  Ranges produced by split always begin at the first byte of a line
+ */
+@Data
+public class FileChunk {
+    private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * Offset of the first byte, inclusive
+     */
+    private final long start;
+
+    /**
+     * Offset of the last byte, exclusive
+     */
+    private final long end;
+
+    /**
+     * Splits a file into ranges of roughly chunkSize bytes, each aligned on a line boundary
+     *
+     * @param channel
+     * @param chunkSize
+     * @return chunks in file order
+     * @throws IOException
+     */
+    public static List<FileChunk> split(FileChannel channel, long chunkSize) throws IOException {
+        return split(channel, 0, chunkSize);
+    }
+
+    /**
+     * Splits the rest of a file from start, the first byte of a line, into ranges of roughly chunkSize bytes,
+     * each aligned on a line boundary
+     *
+     * @param channel
+     * @param start
+     * @param chunkSize
+     * @return chunks in file order
+     * @throws IOException
+     */
+    public static List<FileChunk> split(FileChannel channel, long start, long chunkSize) throws IOException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException(String.format("Invalid chunkSize: %s", chunkSize));
+        }
+
+        long size = channel.size();
+        List<FileChunk> chunks = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+
+        long chunkStart = start;
+        while (chunkStart < size) {
+            long end = chunkStart + chunkSize >= size
+                    ? size
+                    : nextLineStart(channel, chunkStart + chunkSize, size, buffer);
+            chunks.add(new FileChunk(chunkStart, end));
+            chunkStart = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Offset of the first line that starts at or after position
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer buffer)
+            throws IOException {
+        //a line starts at position if the previous byte terminated a line
+        long offset = position - 1;
+
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+/**
+ * Position in a file that a resumable parse starts from and advances as it goes.
+ *
+ * Before each record is handed down the stream, the parser moves the cursor to the byte offset of the
+ * line after the record's line and to that record's line number.  Once a consumer has handled a record
+ * the cursor is therefore a safe point to resume from: every line before it has been consumed.
+ * This only holds when records are taken one at a time, e.g. forEach or iterator() with no buffering
+ * intermediate operations such as flatMap or sorted.
+ *
+ * Byte offsets of compressed files are offsets into the decompressed content
+ */
+public class FileCursor {
+    private long byteOffset;
+    private long lineNumber;
+
+    /**
+     * Start of the file
+     */
+    public FileCursor() {
+        this(0, 0);
+    }
+
+    /**
+     * @param byteOffset first byte of the next line to read
+     * @param lineNumber number of lines before byteOffset
+     */
+    public FileCursor(long byteOffset, long lineNumber) {
+        if (byteOffset < 0 || lineNumber < 0) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid cursor. byteOffset=%s, lineNumber=%s", byteOffset, lineNumber));
+        }
+        this.byteOffset = byteOffset;
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Byte offset of the first line not yet handed down the stream
+     *
+     * @return
+     */
+    public long getByteOffset() {
+        return byteOffset;
+    }
+
+    /**
+     * Number of the last line handed down the stream, counting from 1
+     *
+     * @return
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    void advance(long byteOffset, long lineNumber) {
+        this.byteOffset = byteOffset;
+        this.lineNumber = lineNumber;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FileCursor(byteOffset=%s, lineNumber=%s)", byteOffset, lineNumber);
+    }
+}
@@ -26,7 +26,10 @@ package com.github.samsonkim.lib.productinfoingestion.parser;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Interface to parse a file to List&lt;T&gt;
@@ -42,4 +45,50 @@ public interface FileParser<T> {
      * @throws IOException
      */
      List<T> parse(InputStream inputStream) throws IOException;
+
+    /**
+     * Parse an InputStream to a lazily mapped Stream&lt;T&gt;.
+     * Lines are read and mapped only as the stream is consumed, so the full file is never held in memory.
+     * Closing the stream closes the InputStream.
+     *
+     * @param inputStream
+     * @return
+     * @throws IOException
+     */
+    Stream<T> stream(InputStream inputStream) throws IOException;
+
+    /**
+     * Parse a file to a lazily mapped Stream&lt;T&gt;.
+     * Closing the stream closes the file.
+     * Compressed files are detected by their magic bytes and decompressed on a separate thread.
+     * Implementations may override to read the file more efficiently than through an InputStream
+     *
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    default Stream<T> stream(Path path) throws IOException {
+        InputStream inputStream = CompressionType.open(path);
+        return stream(inputStream)
+                .onClose(() -> {
+                    try {
+                        inputStream.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Parse a file to a lazily mapped Stream&lt;T&gt; starting at the cursor, advancing the cursor past
+     * the line of each record as it is handed down the stream, see FileCursor.
+     * Used to checkpoint an ingestion and later resume it where it stopped.
+     * Closing the stream closes the file
+     *
+     * @param path
+     * @param cursor
+     * @return
+     * @throws IOException
+     */
+    Stream<T> stream(Path path, FileCursor cursor) throws IOException;
 }
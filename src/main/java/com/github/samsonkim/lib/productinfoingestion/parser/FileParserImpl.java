@@ -28,10 +28,20 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * File parser that returns a List&lt;T&gt; based on mapper supplied.
@@ -40,7 +50,7 @@ import java.util.stream.Stream;
  * @param <T>
  */
 public class FileParserImpl<T> implements FileParser<T>{
-    private final FileParserLineMapper<T> lineMapper;
+    protected final FileParserLineMapper<T> lineMapper;
 
     public FileParserImpl(FileParserLineMapper<T> lineMapper) {
         this.lineMapper = lineMapper;
@@ -56,11 +66,109 @@ public class FileParserImpl<T> implements FileParser<T>{
      */
     public List<T> parse(InputStream inputStream) throws IOException {
         //using try-with-resources which ensures that resources will be closed after execution of the program
-        try (Stream<String> stream = new BufferedReader(new InputStreamReader(inputStream)).lines()) {
-            return stream.map(l -> lineMapper.map(l))
-                    .filter(Optional::isPresent)
-                    .map(Optional::get)
-                    .collect(Collectors.toList());
+        try (Stream<T> stream = stream(inputStream)) {
+            return stream.collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
     }
+
+    /**
+     * Converts an InputStream to a lazily mapped Stream&lt;T&gt;
+     * Rows that cannot be mapped to &lt;T&gt; are skipped.
+     * I/O errors raised while the stream is consumed are thrown as UncheckedIOException
+     *
+     * @param inputStream
+     * @return
+     */
+    public Stream<T> stream(InputStream inputStream) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
+
+        return reader.lines()
+                .map(l -> lineMapper.map(l))
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Converts a file to a lazily mapped Stream&lt;T&gt; starting at the cursor.
+     * Uncompressed files are positioned at the cursor's byte offset directly, compressed files are
+     * decompressed and the bytes before the offset discarded.
+     * Lines are decoded with the default charset, like stream(InputStream)
+     *
+     * @param path
+     * @param cursor
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public Stream<T> stream(Path path, FileCursor cursor) throws IOException {
+        InputStream inputStream = open(path, cursor.getByteOffset());
+        CountingLineReader reader = new CountingLineReader(inputStream, Charset.defaultCharset(), cursor.getByteOffset());
+
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private long lineNumber = cursor.getLineNumber();
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        lineNumber++;
+                        Optional<T> mapped = lineMapper.map(line);
+                        if (mapped.isPresent()) {
+                            cursor.advance(reader.getPosition(), lineNumber);
+                            action.accept(mapped.get());
+                            return true;
+                        }
+                    }
+                    return false;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> {
+                    try {
+                        inputStream.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Opens a file positioned at a byte offset, decompressing and discarding the bytes before it for compressed files
+     *
+     * @param path
+     * @param byteOffset
+     * @return
+     * @throws IOException
+     */
+    static InputStream open(Path path, long byteOffset) throws IOException {
+        if (CompressionType.isCompressed(path)) {
+            InputStream inputStream = CompressionType.open(path);
+            try {
+                CountingLineReader.skipFully(inputStream, byteOffset);
+            } catch (IOException e) {
+                inputStream.close();
+                throw e;
+            }
+            return inputStream;
+        }
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        channel.position(byteOffset);
+        return Channels.newInputStream(channel);
+    }
 }
@@ -33,4 +33,17 @@ import java.util.Optional;
  */
 public interface FileParserLineMapper<T> {
     Optional<T> map(String line);
+
+    /**
+     * Maps a line that is not backed by a String, such as a ByteBufferLine over a memory mapped file.
+     * The line may be a reused flyweight and must not be retained after the call.
+     * Mappers that can read columns directly from the CharSequence should override this
+     * to avoid the String copy
+     *
+     * @param line
+     * @return
+     */
+    default Optional<T> map(CharSequence line) {
+        return map(line.toString());
+    }
 }
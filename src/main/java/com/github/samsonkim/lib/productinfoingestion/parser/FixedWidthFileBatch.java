@@ -0,0 +1,262 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Struct of arrays block holding up to capacity decoded lines of a FixedWidthFileLayout.
+ * Each field of the layout gets one primitive array, chosen by its FixedWidthFileColumnType:
+ * <ul>
+ * <li>NUMBER: int[]</li>
+ * <li>CURRENCY: long[] scaled to 1/10000 units</li>
+ * <li>FLAGS: long[] bitmask, see FixedWidthFileFlags</li>
+ * <li>STRING: trimmed single byte characters appended to a shared byte[] with an int[] offset and int[] length per row</li>
+ * </ul>
+ * An optional field missing from a line decodes as 0, or an empty string.
+ *
+ * Arrays are sized to the capacity and reused after clear, only the first size rows are valid.
+ * A batch is a flyweight, consumers must copy out anything they keep
+ */
+public final class FixedWidthFileBatch {
+    private static final int INITIAL_TEXT_BYTES_PER_ROW = 32;
+
+    private final FixedWidthFileLayout layout;
+    private final FixedWidthFileField[] fields;
+    private final int capacity;
+
+    private final int[][] ints;
+    private final long[][] longs;
+    private final int[][] textOffsets;
+    private final int[][] textLengths;
+    private byte[] text;
+
+    private int size;
+    private int textSize;
+
+    public FixedWidthFileBatch(FixedWidthFileLayout layout, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(String.format("Invalid capacity: %d", capacity));
+        }
+        List<FixedWidthFileField> layoutFields = layout.getFields();
+
+        this.layout = layout;
+        this.fields = layoutFields.toArray(new FixedWidthFileField[0]);
+        this.capacity = capacity;
+        this.ints = new int[fields.length][];
+        this.longs = new long[fields.length][];
+        this.textOffsets = new int[fields.length][];
+        this.textLengths = new int[fields.length][];
+
+        int textColumns = 0;
+        for (int i = 0; i < fields.length; i++) {
+            switch (fields[i].getType()) {
+                case NUMBER:
+                    ints[i] = new int[capacity];
+                    break;
+                case CURRENCY:
+                case FLAGS:
+                    longs[i] = new long[capacity];
+                    break;
+                default:
+                    textOffsets[i] = new int[capacity];
+                    textLengths[i] = new int[capacity];
+                    textColumns++;
+            }
+        }
+        this.text = new byte[Math.max(1, textColumns) * capacity * INITIAL_TEXT_BYTES_PER_ROW];
+    }
+
+    public FixedWidthFileLayout getLayout() {
+        return layout;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Number of valid rows
+     *
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * Empties the batch, keeping its arrays for reuse
+     */
+    public void clear() {
+        size = 0;
+        textSize = 0;
+    }
+
+    /**
+     * Decodes a line into the next row.
+     * A line that is too short for the layout or holds an invalid NUMBER or CURRENCY value is not added
+     *
+     * @param line
+     * @return whether the line was added
+     * @throws IllegalStateException if the batch is full
+     */
+    public boolean add(CharSequence line) {
+        if (isFull()) {
+            throw new IllegalStateException("Batch is full");
+        }
+        if (!layout.fits(line) || layout.findInvalidField(line) != null) {
+            return false;
+        }
+
+        int row = size;
+        for (int i = 0; i < fields.length; i++) {
+            FixedWidthFileField field = fields[i];
+            boolean present = field.isPresent(line);
+
+            switch (field.getType()) {
+                case NUMBER:
+                    ints[i][row] = present ? field.toInt(line) : 0;
+                    break;
+                case CURRENCY:
+                    longs[i][row] = present ? field.toScaledCurrency(line) : 0L;
+                    break;
+                case FLAGS:
+                    longs[i][row] = present ? field.toFlagBits(line) : 0L;
+                    break;
+                default:
+                    textOffsets[i][row] = textSize;
+                    textLengths[i][row] = present ? appendText(line, field.valueStart(line), field.valueEnd(line)) : 0;
+            }
+        }
+
+        size++;
+        return true;
+    }
+
+    /**
+     * Values of a NUMBER column
+     *
+     * @param column
+     * @return array of capacity length, rows [0, size) are valid
+     */
+    public int[] getInts(FixedWidthFileColumn column) {
+        return ints[index(column, FixedWidthFileColumnType.NUMBER)];
+    }
+
+    /**
+     * Scaled values of a CURRENCY column or bitmasks of a FLAGS column
+     *
+     * @param column
+     * @return array of capacity length, rows [0, size) are valid
+     */
+    public long[] getLongs(FixedWidthFileColumn column) {
+        int index = layout.indexOf(column);
+        if (longs[index] == null) {
+            throw new IllegalArgumentException(String.format("Not a CURRENCY or FLAGS column: %s", column.getName()));
+        }
+        return longs[index];
+    }
+
+    /**
+     * Offsets into getText of a STRING column's values
+     *
+     * @param column
+     * @return array of capacity length, rows [0, size) are valid
+     */
+    public int[] getTextOffsets(FixedWidthFileColumn column) {
+        return textOffsets[index(column, FixedWidthFileColumnType.STRING)];
+    }
+
+    /**
+     * Lengths of a STRING column's values
+     *
+     * @param column
+     * @return array of capacity length, rows [0, size) are valid
+     */
+    public int[] getTextLengths(FixedWidthFileColumn column) {
+        return textLengths[index(column, FixedWidthFileColumnType.STRING)];
+    }
+
+    /**
+     * Single byte characters of every STRING value in the batch
+     *
+     * @return
+     */
+    public byte[] getText() {
+        return text;
+    }
+
+    /**
+     * Copies out the value of a STRING column
+     *
+     * @param column
+     * @param row
+     * @return trimmed value, or null if blank or missing
+     */
+    public String getString(FixedWidthFileColumn column, int row) {
+        int index = index(column, FixedWidthFileColumnType.STRING);
+        checkRow(row);
+        int length = textLengths[index][row];
+        return length == 0 ? null : new String(text, textOffsets[index][row], length, StandardCharsets.ISO_8859_1);
+    }
+
+    private int appendText(CharSequence line, int start, int end) {
+        int length = end - start;
+        if (textSize + length > text.length) {
+            text = Arrays.copyOf(text, Math.max(text.length * 2, textSize + length));
+        }
+        if (line instanceof ByteBufferLine) {
+            ByteBufferLine byteBufferLine = (ByteBufferLine) line;
+            for (int i = start; i < end; i++) {
+                text[textSize++] = byteBufferLine.getByte(i);
+            }
+        } else {
+            for (int i = start; i < end; i++) {
+                text[textSize++] = (byte) line.charAt(i);
+            }
+        }
+        return length;
+    }
+
+    private int index(FixedWidthFileColumn column, FixedWidthFileColumnType type) {
+        int index = layout.indexOf(column);
+        if (fields[index].getType() != type) {
+            throw new IllegalArgumentException(String.format("Not a %s column: %s", type, column.getName()));
+        }
+        return index;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException(String.format("row: %d, size: %d", row, size));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * File parser that decodes lines of a fixed width file into columnar FixedWidthFileBatch blocks
+ * instead of one object per line, for analytics and bulk loads.
+ *
+ * One batch is reused for the whole file, the consumer must not retain it.
+ * Lines too short for the layout or with invalid numbers are skipped
+ */
+public class FixedWidthFileBatchParser {
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    private final FixedWidthFileLayout layout;
+    private final int batchSize;
+    private final int windowSize;
+
+    public FixedWidthFileBatchParser(FixedWidthFileLayout layout) {
+        this(layout, DEFAULT_BATCH_SIZE);
+    }
+
+    public FixedWidthFileBatchParser(FixedWidthFileLayout layout, int batchSize) {
+        this(layout, batchSize, MappedFileLineReader.DEFAULT_WINDOW_SIZE);
+    }
+
+    public FixedWidthFileBatchParser(FixedWidthFileLayout layout, int batchSize, int windowSize) {
+        this.layout = layout;
+        this.batchSize = batchSize;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Decodes every line of the InputStream, handing the batch to the consumer each time it fills
+     * and once more for the remaining lines.
+     * Text is read as ISO-8859-1 so STRING values keep the file's bytes
+     *
+     * @param inputStream
+     * @param consumer
+     * @return number of decoded lines
+     * @throws IOException
+     */
+    public long forEachBatch(InputStream inputStream, Consumer<? super FixedWidthFileBatch> consumer) throws IOException {
+        FixedWidthFileBatch batch = new FixedWidthFileBatch(layout, batchSize);
+        long count = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.ISO_8859_1))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                count += add(batch, line, consumer);
+            }
+        }
+        flush(batch, consumer);
+        return count;
+    }
+
+    /**
+     * Decodes every line of the memory mapped file, see forEachBatch(InputStream, Consumer).
+     * Compressed files are read through the decompressor instead
+     *
+     * @param path
+     * @param consumer
+     * @return number of decoded lines
+     * @throws IOException
+     */
+    public long forEachBatch(Path path, Consumer<? super FixedWidthFileBatch> consumer) throws IOException {
+        if (CompressionType.isCompressed(path)) {
+            try (InputStream inputStream = CompressionType.open(path)) {
+                return forEachBatch(inputStream, consumer);
+            }
+        }
+
+        FixedWidthFileBatch batch = new FixedWidthFileBatch(layout, batchSize);
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedFileLineReader reader = new MappedFileLineReader(channel, 0, channel.size(), windowSize);
+            while (reader.next()) {
+                count += add(batch, reader.getLine(), consumer);
+            }
+        }
+        flush(batch, consumer);
+        return count;
+    }
+
+    private static int add(FixedWidthFileBatch batch, CharSequence line,
+                           Consumer<? super FixedWidthFileBatch> consumer) {
+        if (!batch.add(line)) {
+            return 0;
+        }
+        if (batch.isFull()) {
+            flush(batch, consumer);
+        }
+        return 1;
+    }
+
+    private static void flush(FixedWidthFileBatch batch, Consumer<? super FixedWidthFileBatch> consumer) {
+        if (batch.size() > 0) {
+            consumer.accept(batch);
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils;
+
+import java.math.BigDecimal;
+
+/**
+ * A FixedWidthFileColumn compiled into a FixedWidthFileLayout.
+ * Offsets are resolved once so accessors read straight out of the line without substrings,
+ * Optionals or bounds checks; callers check FixedWidthFileLayout.fits once per line instead.
+ *
+ * Accessors accept any CharSequence, e.g. a String, a ByteBufferLine or a CharBuffer wrapping a char[] window
+ */
+public final class FixedWidthFileField {
+    private final String name;
+    private final FixedWidthFileColumnType type;
+    private final int start;
+    private final int end;
+    private final boolean optional;
+
+    FixedWidthFileField(FixedWidthFileColumn column, boolean optional) {
+        if (column.getStart() < 1 || column.getEnd() < column.getStart()) {
+            throw new IllegalArgumentException(String.format("Invalid column: %s", column));
+        }
+        this.name = column.getName();
+        this.type = column.getType();
+        this.start = column.getStart() - 1;
+        this.end = column.getEnd();
+        this.optional = optional;
+
+        if (type == FixedWidthFileColumnType.FLAGS && end - start > FixedWidthFileFlags.MAX_FLAGS) {
+            throw new IllegalArgumentException(String.format("Too many flags in column: %s", column));
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public FixedWidthFileColumnType getType() {
+        return type;
+    }
+
+    /**
+     * Zero based offset of the first character
+     *
+     * @return
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Zero based offset after the last character
+     *
+     * @return
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * Optional fields may be missing from the end of a line
+     *
+     * @return
+     */
+    public boolean isOptional() {
+        return optional;
+    }
+
+    /**
+     * Whether the line is long enough to hold this field
+     *
+     * @param line
+     * @return
+     */
+    public boolean isPresent(CharSequence line) {
+        return end <= line.length();
+    }
+
+    /**
+     * Whether the field holds a value its type can decode, checked without throwing.
+     * Only NUMBER and CURRENCY fields are checked, an optional field missing from the line is valid
+     *
+     * @param line
+     * @return
+     */
+    public boolean isValid(CharSequence line) {
+        if (optional && !isPresent(line)) {
+            return true;
+        }
+        if (type == FixedWidthFileColumnType.CURRENCY) {
+            return ProductInfoIngestionUtils.isNumber(line, start, end);
+        }
+        if (type == FixedWidthFileColumnType.NUMBER) {
+            if (!ProductInfoIngestionUtils.isNumber(line, start, end)) {
+                return false;
+            }
+            long value = toLong(line);
+            return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+        }
+        return true;
+    }
+
+    /**
+     * Parses the space padded, optionally signed field as an int
+     *
+     * @param line
+     * @return
+     * @throws NumberFormatException if the field is blank or not a number
+     */
+    public int toInt(CharSequence line) {
+        long value = toLong(line);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw numberFormatException(line);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses the space padded, optionally signed field as a long
+     *
+     * @param line
+     * @return
+     * @throws NumberFormatException if the field is blank or not a number
+     */
+    public long toLong(CharSequence line) {
+        return ProductInfoIngestionUtils.parseLong(line, start, end);
+    }
+
+    /**
+     * Parses a currency field whose last 2 digits represent cents to a scaled long in 1/10000 units
+     * without creating any intermediate objects
+     *
+     * @param line
+     * @return
+     * @throws NumberFormatException if the field is blank or not a number
+     */
+    public long toScaledCurrency(CharSequence line) {
+        return ProductInfoIngestionUtils.toScaledCurrency(line, start, end);
+    }
+
+    /**
+     * Parses a currency field whose last 2 digits represent cents to a BigDecimal with scale 4
+     *
+     * @param line
+     * @return
+     * @throws NumberFormatException if the field is blank or not a number
+     */
+    public BigDecimal toBigDecimal(CharSequence line) {
+        return ProductInfoIngestionUtils.toBigDecimal(toScaledCurrency(line));
+    }
+
+    /**
+     * Returns the field with spaces trimmed both sides
+     *
+     * @param line
+     * @return trimmed value, or null if the field is blank
+     */
+    public String toStringVal(CharSequence line) {
+        int i = valueStart(line);
+        int last = valueEnd(line);
+        if (i == last) {
+            return null;
+        }
+        if (line instanceof String) {
+            return ((String) line).substring(i, last);
+        }
+
+        char[] chars = new char[last - i];
+        for (int j = 0; j < chars.length; j++) {
+            chars[j] = line.charAt(i + j);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Offset in the line of the first non space character of the field,
+     * or valueEnd if the field is blank
+     *
+     * @param line
+     * @return
+     */
+    public int valueStart(CharSequence line) {
+        int i = start;
+        while (i < end && line.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Offset in the line after the last non space character of the field
+     *
+     * @param line
+     * @return
+     */
+    public int valueEnd(CharSequence line) {
+        int i = valueStart(line);
+        int last = end;
+        while (last > i && line.charAt(last - 1) <= ' ') {
+            last--;
+        }
+        return last;
+    }
+
+    /**
+     * Reads the (Y|N) flags of the field into a bitmask, see FixedWidthFileFlags
+     *
+     * @param line
+     * @return
+     */
+    public long toFlagBits(CharSequence line) {
+        return ProductInfoIngestionUtils.toFlagBits(line, start, end);
+    }
+
+    /**
+     * Reads the (Y|N) flags of the field
+     *
+     * @param line
+     * @return
+     */
+    public FixedWidthFileFlags toFlags(CharSequence line) {
+        return FixedWidthFileFlags.of(toFlagBits(line), end - start);
+    }
+
+    /**
+     * Whether the (Y|N) flag at position is Y.
+     * Position is 1 or greater; positions outside the field are not set
+     *
+     * @param line
+     * @param position
+     * @return
+     */
+    public boolean isFlagSet(CharSequence line, int position) {
+        if (position < 1 || position > end - start) {
+            return false;
+        }
+        return line.charAt(start + position - 1) == 'Y';
+    }
+
+    private NumberFormatException numberFormatException(CharSequence line) {
+        return new NumberFormatException(String.format("For %s: \"%s\"", name, line.subSequence(start, end)));
+    }
+}
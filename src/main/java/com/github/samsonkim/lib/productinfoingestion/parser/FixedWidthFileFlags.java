@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+/**
+ * Immutable set of (Y|N) flags from a FixedWidthFileColumnType.FLAGS column backed by a long bitmask.
+ * Bit n-1 holds the flag at position n, so up to 64 flags are supported.
+ * Positions are 1 or greater, matching FixedWidthFileUtils.getFlagValue
+ */
+public final class FixedWidthFileFlags {
+    public static final int MAX_FLAGS = Long.SIZE;
+
+    public static final FixedWidthFileFlags EMPTY = new FixedWidthFileFlags(0L, 0);
+
+    private final long bits;
+    private final int size;
+
+    private FixedWidthFileFlags(long bits, int size) {
+        this.bits = bits;
+        this.size = size;
+    }
+
+    /**
+     * @param bits bitmask with bit n-1 set for each Y flag at position n
+     * @param size number of flags in the column
+     * @return
+     */
+    public static FixedWidthFileFlags of(long bits, int size) {
+        if (size < 0 || size > MAX_FLAGS) {
+            throw new IllegalArgumentException(String.format("Invalid flag count: %s", size));
+        }
+        return new FixedWidthFileFlags(bits, size);
+    }
+
+    /**
+     * Builds a bitmask of flag positions for anyOf/allOf tests
+     *
+     * @param positions 1 or greater
+     * @return
+     */
+    public static long mask(int... positions) {
+        long mask = 0L;
+        for (int position : positions) {
+            if (position < 1 || position > MAX_FLAGS) {
+                throw new IllegalArgumentException(String.format("Invalid flag position: %s", position));
+            }
+            mask |= 1L << (position - 1);
+        }
+        return mask;
+    }
+
+    /**
+     * Whether the flag at position is set in a raw bitmask
+     *
+     * @param bits
+     * @param position 1 or greater
+     * @return false for positions out of range
+     */
+    public static boolean isSet(long bits, int position) {
+        return position >= 1 && position <= MAX_FLAGS && (bits & (1L << (position - 1))) != 0;
+    }
+
+    /**
+     * Whether the flag at position is set
+     *
+     * @param position 1 or greater
+     * @return false for positions out of range
+     */
+    public boolean isSet(int position) {
+        return position <= size && isSet(bits, position);
+    }
+
+    /**
+     * Whether any of the flags in mask are set
+     *
+     * @param mask see mask(int...)
+     * @return
+     */
+    public boolean anyOf(long mask) {
+        return (bits & mask) != 0;
+    }
+
+    /**
+     * Whether all of the flags in mask are set
+     *
+     * @param mask see mask(int...)
+     * @return
+     */
+    public boolean allOf(long mask) {
+        return (bits & mask) == mask;
+    }
+
+    public long getBits() {
+        return bits;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FixedWidthFileFlags)) {
+            return false;
+        }
+        FixedWidthFileFlags other = (FixedWidthFileFlags) o;
+        return bits == other.bits && size == other.size;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(bits) + size;
+    }
+
+    /**
+     * Flags in their (Y|N) column form
+     *
+     * @return
+     */
+    @Override
+    public String toString() {
+        char[] chars = new char[size];
+        for (int i = 0; i < size; i++) {
+            chars[i] = isSet(i + 1) ? 'Y' : 'N';
+        }
+        return new String(chars);
+    }
+}
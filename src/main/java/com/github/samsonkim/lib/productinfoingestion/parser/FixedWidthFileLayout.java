@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Set of FixedWidthFileColumns compiled into FixedWidthFileFields.
+ * A line is validated against the layout once with fits, after which every
+ * required field can be read without further bounds checks
+ */
+public final class FixedWidthFileLayout {
+    private final List<FixedWidthFileColumn> columns;
+    private final List<FixedWidthFileField> fields;
+    private final int requiredLength;
+
+    private FixedWidthFileLayout(List<FixedWidthFileColumn> columns, List<FixedWidthFileField> fields) {
+        this.columns = Collections.unmodifiableList(columns);
+        this.fields = Collections.unmodifiableList(fields);
+        this.requiredLength = fields.stream()
+                .filter(f -> !f.isOptional())
+                .mapToInt(FixedWidthFileField::getEnd)
+                .max()
+                .orElse(0);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Whether the line is long enough to hold every required field
+     *
+     * @param line
+     * @return
+     */
+    public boolean fits(CharSequence line) {
+        return line != null && line.length() >= requiredLength;
+    }
+
+    /**
+     * Returns the first field whose value cannot be decoded, checked without throwing.
+     * The line must fit the layout
+     *
+     * @param line
+     * @return invalid field or null if every field is valid
+     */
+    public FixedWidthFileField findInvalidField(CharSequence line) {
+        for (int i = 0; i < fields.size(); i++) {
+            FixedWidthFileField field = fields.get(i);
+            if (!field.isValid(line)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Minimum line length holding every required field
+     *
+     * @return
+     */
+    public int getRequiredLength() {
+        return requiredLength;
+    }
+
+    public List<FixedWidthFileField> getFields() {
+        return fields;
+    }
+
+    /**
+     * Returns the compiled field for a column of this layout
+     *
+     * @param column
+     * @return
+     */
+    public FixedWidthFileField field(FixedWidthFileColumn column) {
+        return fields.get(indexOf(column));
+    }
+
+    /**
+     * Returns the position of a column in this layout, which is also the position of its field in getFields
+     *
+     * @param column
+     * @return
+     */
+    public int indexOf(FixedWidthFileColumn column) {
+        int index = columns.indexOf(column);
+        if (index < 0) {
+            throw new IllegalArgumentException(String.format("Column not in layout: %s", column.getName()));
+        }
+        return index;
+    }
+
+    public static class Builder {
+        private final List<FixedWidthFileColumn> columns = new ArrayList<>();
+        private final List<FixedWidthFileField> fields = new ArrayList<>();
+
+        /**
+         * Adds a column every line must hold
+         *
+         * @param column
+         * @return
+         */
+        public Builder column(FixedWidthFileColumn column) {
+            return add(column, false);
+        }
+
+        /**
+         * Adds a trailing column that may be missing from a line
+         *
+         * @param column
+         * @return
+         */
+        public Builder optionalColumn(FixedWidthFileColumn column) {
+            return add(column, true);
+        }
+
+        public FixedWidthFileLayout build() {
+            return new FixedWidthFileLayout(new ArrayList<>(columns), new ArrayList<>(fields));
+        }
+
+        private Builder add(FixedWidthFileColumn column, boolean optional) {
+            columns.add(column);
+            fields.add(new FixedWidthFileField(column, optional));
+            return this;
+        }
+    }
+}
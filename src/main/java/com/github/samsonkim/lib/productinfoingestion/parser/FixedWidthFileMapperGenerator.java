@@ -0,0 +1,647 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import com.github.samsonkim.lib.productinfoingestion.util.CurrencyFormatter;
+import com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Generates a FileParserLineViewMapper from a declarative binding of FixedWidthFileColumns to
+ * the setters of a view class, so onboarding a store is configuration instead of a hand written mapper.
+ *
+ * Bindings are composed into a single MethodHandle tree when the mapper is generated: column offsets
+ * are inserted as constants, decoders work on primitives and setters are invoked directly, so a line is
+ * mapped in straight-line code without Optionals, boxing or per-field lookups.
+ * Each generated mapper is a class of its own holding the tree in a static final field, which the JIT
+ * treats as a constant and inlines like hand written code.
+ *
+ * A generated mapper:
+ * <ul>
+ * <li>returns false for a line too short for the layout</li>
+ * <li>returns false if none of the price bindings has a price, before the view is touched</li>
+ * <li>calls the view's public no-arg clear() method, if it has one</li>
+ * <li>applies property and flag bindings, skipping optional columns missing from the line</li>
+ * <li>applies price bindings</li>
+ * </ul>
+ *
+ * @param <V> view type
+ */
+public final class FixedWidthFileMapperGenerator<V> {
+    private static final MethodHandle FITS;
+    private static final MethodHandle IS_PRESENT;
+    private static final MethodHandle TO_INT;
+    private static final MethodHandle TO_SCALED_CURRENCY;
+    private static final MethodHandle TO_FLAG_BITS;
+    private static final MethodHandle TO_STRING_VAL;
+    private static final MethodHandle VALUE_START;
+    private static final MethodHandle VALUE_END;
+    private static final MethodHandle IS_FLAG_SET;
+    private static final MethodHandle CALCULATOR_PRICE;
+    private static final MethodHandle DISPLAY_PRICE;
+    private static final MethodHandle HAS_PRICE;
+    private static final MethodHandle NOOP;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Class<?> self = FixedWidthFileMapperGenerator.class;
+        try {
+            FITS = lookup.findStatic(self, "fits", methodType(boolean.class, CharSequence.class, int.class));
+            IS_PRESENT = lookup.findStatic(self, "isPresent", methodType(boolean.class, CharSequence.class, int.class));
+            TO_INT = lookup.findStatic(self, "toInt", methodType(int.class, CharSequence.class, int.class, int.class));
+            TO_SCALED_CURRENCY = lookup.findStatic(ProductInfoIngestionUtils.class, "toScaledCurrency",
+                    methodType(long.class, CharSequence.class, int.class, int.class));
+            TO_FLAG_BITS = lookup.findStatic(ProductInfoIngestionUtils.class, "toFlagBits",
+                    methodType(long.class, CharSequence.class, int.class, int.class));
+            TO_STRING_VAL = lookup.findStatic(self, "toStringVal", methodType(String.class, CharSequence.class, int.class, int.class));
+            VALUE_START = lookup.findStatic(self, "valueStart", methodType(int.class, CharSequence.class, int.class, int.class));
+            VALUE_END = lookup.findStatic(self, "valueEnd", methodType(int.class, CharSequence.class, int.class, int.class));
+            IS_FLAG_SET = lookup.findStatic(self, "isFlagSet", methodType(boolean.class, CharSequence.class, int.class));
+            CALCULATOR_PRICE = lookup.findStatic(ProductInfoIngestionUtils.class, "determineCalculatorPrice",
+                    methodType(long.class, long.class, long.class, int.class));
+            DISPLAY_PRICE = lookup.findStatic(self, "displayPrice",
+                    methodType(String.class, CurrencyFormatter.class, String.class, long.class, long.class, int.class));
+            HAS_PRICE = lookup.findStatic(self, "hasPrice", methodType(boolean.class, long.class));
+            NOOP = lookup.findStatic(self, "noop", methodType(void.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Class<V> viewClass;
+    private final FixedWidthFileLayout layout;
+    private final List<MethodHandle> steps;
+    private final List<PriceBinding> prices;
+
+    private FixedWidthFileMapperGenerator(Class<V> viewClass, FixedWidthFileLayout layout,
+                                          List<MethodHandle> steps, List<PriceBinding> prices) {
+        this.viewClass = viewClass;
+        this.layout = layout;
+        this.steps = Collections.unmodifiableList(steps);
+        this.prices = Collections.unmodifiableList(prices);
+    }
+
+    public static <V> Builder<V> builder(Class<V> viewClass, FixedWidthFileLayout layout) {
+        return new Builder<>(viewClass, layout);
+    }
+
+    /**
+     * Generates a mapper for the locale.
+     * Display prices are formatted by the locale's shared CurrencyFormatter, which is thread-safe
+     *
+     * @param locale
+     * @return
+     */
+    public FileParserLineViewMapper<V> generate(Locale locale) {
+        CurrencyFormatter currencyFormatter = CurrencyFormatter.getInstance(locale);
+        String zeroDisplayPrice = currencyFormatter.format(0L);
+
+        MethodType stepType = methodType(void.class, viewClass, CharSequence.class);
+        MethodType mapType = stepType.changeReturnType(boolean.class);
+
+        //The line is kept if any of the price bindings has a price
+        MethodHandle priced = prices.isEmpty() ? constant(mapType, true) : null;
+        for (PriceBinding price : prices) {
+            MethodHandle next = price.hasPrice();
+            priced = priced == null ? next : MethodHandles.guardWithTest(priced, constant(mapType, true), next);
+        }
+
+        //Property and flag bindings in declaration order, then price bindings
+        MethodHandle populate = constant(mapType, true);
+        for (int i = prices.size() - 1; i >= 0; i--) {
+            populate = MethodHandles.foldArguments(populate, prices.get(i).apply(currencyFormatter, zeroDisplayPrice));
+        }
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            populate = MethodHandles.foldArguments(populate, steps.get(i));
+        }
+
+        MethodHandle fits = MethodHandles.dropArguments(
+                MethodHandles.insertArguments(FITS, 1, layout.getRequiredLength()), 0, viewClass);
+        MethodHandle mapper = MethodHandles.guardWithTest(fits,
+                MethodHandles.guardWithTest(priced, populate, constant(mapType, false)),
+                constant(mapType, false));
+
+        return GeneratedMapperClassLoader.define(
+                mapper.asType(methodType(boolean.class, Object.class, CharSequence.class)));
+    }
+
+    /**
+     * Hands a generated mapper class the MethodHandle tree it invokes, called once from the class's
+     * static initializer
+     *
+     * @param mapperClass
+     * @return
+     * @throws IllegalArgumentException if the class was not generated by a FixedWidthFileMapperGenerator
+     */
+    public static MethodHandle mapperHandle(Class<?> mapperClass) {
+        ClassLoader classLoader = mapperClass.getClassLoader();
+        if (!(classLoader instanceof GeneratedMapperClassLoader)) {
+            throw new IllegalArgumentException(String.format("Not a generated mapper: %s", mapperClass.getName()));
+        }
+        return ((GeneratedMapperClassLoader) classLoader).mapper;
+    }
+
+    private static MethodHandle noop(MethodType type) {
+        return MethodHandles.dropArguments(NOOP, 0, type.parameterList());
+    }
+
+    private static MethodHandle constant(MethodType type, boolean value) {
+        return MethodHandles.dropArguments(MethodHandles.constant(boolean.class, value), 0, type.parameterList());
+    }
+
+    private static MethodHandle decoder(FixedWidthFileField field) {
+        switch (field.getType()) {
+            case CURRENCY:
+                return bind(TO_SCALED_CURRENCY, field);
+            case NUMBER:
+                return bind(TO_INT, field);
+            case FLAGS:
+                return bind(TO_FLAG_BITS, field);
+            default:
+                return bind(TO_STRING_VAL, field);
+        }
+    }
+
+    private static MethodHandle bind(MethodHandle decoder, FixedWidthFileField field) {
+        return MethodHandles.insertArguments(decoder, 1, field.getStart(), field.getEnd());
+    }
+
+    /**
+     * Parses the space padded, optionally signed field as an int
+     *
+     * @throws NumberFormatException if the field is blank, not a number or out of range
+     */
+    private static int toInt(CharSequence line, int start, int end) {
+        long value = ProductInfoIngestionUtils.parseLong(line, start, end);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException(String.format("For input string: \"%s\"", line.subSequence(start, end)));
+        }
+        return (int) value;
+    }
+
+    private static boolean fits(CharSequence line, int requiredLength) {
+        return line != null && line.length() >= requiredLength;
+    }
+
+    private static boolean isPresent(CharSequence line, int end) {
+        return end <= line.length();
+    }
+
+    private static int valueStart(CharSequence line, int start, int end) {
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int valueEnd(CharSequence line, int start, int end) {
+        start = valueStart(line, start, end);
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static String toStringVal(CharSequence line, int start, int end) {
+        int first = valueStart(line, start, end);
+        int last = valueEnd(line, start, end);
+        return first == last ? null : line.subSequence(first, last).toString();
+    }
+
+    private static boolean isFlagSet(CharSequence line, int offset) {
+        return line.charAt(offset) == 'Y';
+    }
+
+    private static String displayPrice(CurrencyFormatter currencyFormatter, String zeroDisplayPrice,
+                                       long singularPrice, long splitPrice, int forX) {
+        String displayPrice = ProductInfoIngestionUtils.determineDisplayPrice(currencyFormatter,
+                singularPrice, splitPrice, forX);
+        return displayPrice == null ? zeroDisplayPrice : displayPrice;
+    }
+
+    private static boolean hasPrice(long price) {
+        return price != ProductInfoIngestionUtils.NO_PRICE;
+    }
+
+    private static void noop() {
+    }
+
+    /**
+     * Singular, split and for X columns resolved to calculator and display price setters
+     */
+    private static final class PriceBinding {
+        private final Class<?> viewClass;
+        private final MethodHandle singularPrice;
+        private final MethodHandle splitPrice;
+        private final MethodHandle forX;
+        private final MethodHandle calculatorPriceSetter;
+        private final MethodHandle displayPriceSetter;
+
+        PriceBinding(Class<?> viewClass, MethodHandle singularPrice, MethodHandle splitPrice, MethodHandle forX,
+                     MethodHandle calculatorPriceSetter, MethodHandle displayPriceSetter) {
+            this.viewClass = viewClass;
+            this.singularPrice = singularPrice;
+            this.splitPrice = splitPrice;
+            this.forX = forX;
+            this.calculatorPriceSetter = calculatorPriceSetter;
+            this.displayPriceSetter = displayPriceSetter;
+        }
+
+        /**
+         * Composes (view, line) -&gt; boolean, whether the line has a price.  The view is not touched
+         */
+        MethodHandle hasPrice() {
+            MethodHandle hasPrice = MethodHandles.filterArguments(
+                    MethodHandles.filterReturnValue(CALCULATOR_PRICE, HAS_PRICE), 0, singularPrice, splitPrice, forX);
+            return MethodHandles.dropArguments(MethodHandles.permuteArguments(hasPrice,
+                    methodType(boolean.class, CharSequence.class), 0, 0, 0), 0, viewClass);
+        }
+
+        /**
+         * Composes (view, line) -&gt; void that decodes the three columns once, sets the calculator price
+         * if there is one and the display price, zero when there is no price
+         */
+        MethodHandle apply(CurrencyFormatter currencyFormatter, String zeroDisplayPrice) {
+            //(calculatorPrice, view, singularPrice, splitPrice, forX)
+            MethodType priceType = methodType(void.class, long.class, viewClass, long.class, long.class, int.class);
+
+            MethodHandle hasPrice = MethodHandles.permuteArguments(HAS_PRICE,
+                    priceType.changeReturnType(boolean.class), 0);
+            MethodHandle setCalculatorPrice = MethodHandles.guardWithTest(hasPrice,
+                    MethodHandles.permuteArguments(calculatorPriceSetter, priceType, 1, 0),
+                    noop(priceType));
+
+            MethodHandle displayPrice = MethodHandles.permuteArguments(
+                    MethodHandles.insertArguments(DISPLAY_PRICE, 0, currencyFormatter, zeroDisplayPrice),
+                    priceType.changeReturnType(String.class), 2, 3, 4);
+            MethodHandle setDisplayPrice = MethodHandles.foldArguments(
+                    MethodHandles.permuteArguments(displayPriceSetter,
+                            priceType.insertParameterTypes(0, String.class), 2, 0),
+                    displayPrice);
+
+            MethodHandle apply = MethodHandles.foldArguments(setDisplayPrice, setCalculatorPrice);
+
+            //(view, singularPrice, splitPrice, forX)
+            MethodHandle calculatorPrice = MethodHandles.dropArguments(CALCULATOR_PRICE, 0, viewClass);
+            MethodHandle decoded = MethodHandles.filterArguments(
+                    MethodHandles.foldArguments(apply, calculatorPrice), 1, singularPrice, splitPrice, forX);
+
+            return MethodHandles.permuteArguments(decoded,
+                    methodType(void.class, viewClass, CharSequence.class), 0, 1, 1, 1);
+        }
+    }
+
+    /**
+     * Defines one mapper class holding a MethodHandle tree in a static final field, so the JIT can inline
+     * the tree into the class's mapInto.  The class is written out byte by byte:
+     * <pre>
+     * public final class GeneratedLineViewMapper implements FileParserLineViewMapper {
+     *     private static final MethodHandle MAPPER = FixedWidthFileMapperGenerator.mapperHandle(GeneratedLineViewMapper.class);
+     *
+     *     public boolean mapInto(CharSequence line, Object view) {
+     *         return (boolean) MAPPER.invokeExact(view, line);
+     *     }
+     * }
+     * </pre>
+     * mapInto has no branches, so the class needs no stack map frames
+     */
+    private static final class GeneratedMapperClassLoader extends ClassLoader {
+        private static final String CLASS_NAME = FixedWidthFileMapperGenerator.class.getPackage().getName()
+                + ".GeneratedLineViewMapper";
+        private static final int CLASS_VERSION = 52;
+
+        private final MethodHandle mapper;
+
+        private GeneratedMapperClassLoader(MethodHandle mapper) {
+            super(FixedWidthFileMapperGenerator.class.getClassLoader());
+            this.mapper = mapper;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <V> FileParserLineViewMapper<V> define(MethodHandle mapper) {
+            GeneratedMapperClassLoader classLoader = new GeneratedMapperClassLoader(mapper);
+            byte[] bytes = classBytes();
+            try {
+                return (FileParserLineViewMapper<V>) classLoader.defineClass(CLASS_NAME, bytes, 0, bytes.length)
+                        .newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(String.format("Unable to define mapper class: %s", CLASS_NAME), e);
+            }
+        }
+
+        private static byte[] classBytes() {
+            String className = internalName(CLASS_NAME);
+            String handleDescriptor = "Ljava/lang/invoke/MethodHandle;";
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);
+                out.writeShort(CLASS_VERSION);
+
+                //constant pool, entries are numbered from 1
+                out.writeShort(31);
+                utf8(out, className);                                                   //1
+                reference(out, 7, 1);                                                   //2 this class
+                utf8(out, "java/lang/Object");                                          //3
+                reference(out, 7, 3);                                                   //4 super class
+                utf8(out, internalName(FileParserLineViewMapper.class.getName()));      //5
+                reference(out, 7, 5);                                                   //6 interface
+                utf8(out, "MAPPER");                                                    //7
+                utf8(out, handleDescriptor);                                            //8
+                reference(out, 12, 7, 8);                                               //9
+                reference(out, 9, 2, 9);                                                //10 MAPPER field
+                utf8(out, "<init>");                                                    //11
+                utf8(out, "()V");                                                       //12
+                reference(out, 12, 11, 12);                                             //13
+                reference(out, 10, 4, 13);                                              //14 Object.<init>
+                utf8(out, "<clinit>");                                                  //15
+                utf8(out, internalName(FixedWidthFileMapperGenerator.class.getName())); //16
+                reference(out, 7, 16);                                                  //17
+                utf8(out, "mapperHandle");                                              //18
+                utf8(out, "(Ljava/lang/Class;)" + handleDescriptor);                    //19
+                reference(out, 12, 18, 19);                                             //20
+                reference(out, 10, 17, 20);                                             //21 mapperHandle
+                utf8(out, "java/lang/invoke/MethodHandle");                             //22
+                reference(out, 7, 22);                                                  //23
+                utf8(out, "invokeExact");                                               //24
+                utf8(out, "(Ljava/lang/Object;Ljava/lang/CharSequence;)Z");             //25
+                reference(out, 12, 24, 25);                                             //26
+                reference(out, 10, 23, 26);                                             //27 invokeExact
+                utf8(out, "mapInto");                                                   //28
+                utf8(out, "(Ljava/lang/CharSequence;Ljava/lang/Object;)Z");             //29
+                utf8(out, "Code");                                                      //30
+
+                //public final super, this class, super class, interfaces
+                out.writeShort(0x0031);
+                out.writeShort(2);
+                out.writeShort(4);
+                out.writeShort(1);
+                out.writeShort(6);
+
+                //private static final MethodHandle MAPPER
+                out.writeShort(1);
+                out.writeShort(0x001A);
+                out.writeShort(7);
+                out.writeShort(8);
+                out.writeShort(0);
+
+                out.writeShort(3);
+                //public <init>: aload_0, invokespecial Object.<init>, return
+                method(out, 0x0001, 11, 12, 1, 1, 0x2A, 0xB7, 0, 14, 0xB1);
+                //static <clinit>: ldc this class, invokestatic mapperHandle, putstatic MAPPER, return
+                method(out, 0x0008, 15, 12, 1, 0, 0x12, 2, 0xB8, 0, 21, 0xB3, 0, 10, 0xB1);
+                //public mapInto: getstatic MAPPER, aload_2, aload_1, invokevirtual invokeExact, ireturn
+                method(out, 0x0001, 28, 29, 3, 3, 0xB2, 0, 10, 0x2C, 0x2B, 0xB6, 0, 27, 0xAC);
+
+                //no class attributes
+                out.writeShort(0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+
+        private static String internalName(String className) {
+            return className.replace('.', '/');
+        }
+
+        private static void utf8(DataOutputStream out, String value) throws IOException {
+            out.writeByte(1);
+            out.writeUTF(value);
+        }
+
+        private static void reference(DataOutputStream out, int tag, int... indexes) throws IOException {
+            out.writeByte(tag);
+            for (int index : indexes) {
+                out.writeShort(index);
+            }
+        }
+
+        private static void method(DataOutputStream out, int access, int name, int descriptor,
+                                   int maxStack, int maxLocals, int... code) throws IOException {
+            out.writeShort(access);
+            out.writeShort(name);
+            out.writeShort(descriptor);
+            out.writeShort(1);
+
+            //Code attribute without exception table or attributes
+            out.writeShort(30);
+            out.writeInt(12 + code.length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.length);
+            for (int b : code) {
+                out.writeByte(b);
+            }
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+    }
+
+    public static class Builder<V> {
+        private final Class<V> viewClass;
+        private final FixedWidthFileLayout layout;
+        private final List<MethodHandle> steps = new ArrayList<>();
+        private final List<PriceBinding> prices = new ArrayList<>();
+
+        private Builder(Class<V> viewClass, FixedWidthFileLayout layout) {
+            this.viewClass = viewClass;
+            this.layout = layout;
+
+            Method clear = findMethod("clear", 0);
+            if (clear != null) {
+                steps.add(MethodHandles.dropArguments(unreflect(clear), 1, CharSequence.class));
+            }
+        }
+
+        /**
+         * Binds a column to a view property by setter name.
+         * NUMBER columns are decoded as int, CURRENCY as a scaled long in 1/10000 units and FLAGS as a bitmask.
+         * STRING columns use a (CharSequence source, int start, int end) setter when the view has one,
+         * otherwise a String setter receiving the trimmed value or null if blank
+         *
+         * @param column
+         * @param property
+         * @return
+         */
+        public Builder<V> property(FixedWidthFileColumn column, String property) {
+            FixedWidthFileField field = layout.field(column);
+            MethodHandle step;
+
+            Method rangeSetter = field.getType() == FixedWidthFileColumnType.STRING ? findMethod(setterName(property), 3) : null;
+            if (rangeSetter != null) {
+                MethodHandle setter = unreflect(rangeSetter)
+                        .asType(methodType(void.class, viewClass, CharSequence.class, int.class, int.class));
+                step = MethodHandles.permuteArguments(
+                        MethodHandles.filterArguments(setter, 2, bind(VALUE_START, field), bind(VALUE_END, field)),
+                        methodType(void.class, viewClass, CharSequence.class), 0, 1, 1, 1);
+            } else {
+                MethodHandle setter = setter(property);
+                Class<?> valueType = setter.type().parameterType(1);
+                try {
+                    step = MethodHandles.filterArguments(setter, 1,
+                            decoder(field).asType(methodType(valueType, CharSequence.class)));
+                } catch (WrongMethodTypeException e) {
+                    throw new IllegalArgumentException(String.format("Setter for %s on %s does not accept %s column: %s",
+                            property, viewClass.getName(), field.getType(), column), e);
+                }
+            }
+
+            steps.add(optional(field, step));
+            return this;
+        }
+
+        /**
+         * Binds a flag of a FLAGS column to a view property, set to ifSet when the flag is Y and ifNotSet otherwise
+         *
+         * @param column
+         * @param position 1 based position of the flag in the column
+         * @param property
+         * @param ifSet
+         * @param ifNotSet
+         * @return
+         */
+        public Builder<V> flag(FixedWidthFileColumn column, int position, String property, Object ifSet, Object ifNotSet) {
+            FixedWidthFileField field = layout.field(column);
+            if (field.getType() != FixedWidthFileColumnType.FLAGS
+                    || position < 1 || position > field.getEnd() - field.getStart()) {
+                throw new IllegalArgumentException(String.format("Invalid flag %d for column: %s", position, column));
+            }
+
+            MethodHandle setter = setter(property);
+            Class<?> valueType = setter.type().parameterType(1);
+            MethodHandle value = MethodHandles.guardWithTest(
+                    MethodHandles.insertArguments(IS_FLAG_SET, 1, field.getStart() + position - 1),
+                    MethodHandles.dropArguments(MethodHandles.constant(valueType, ifSet), 0, CharSequence.class),
+                    MethodHandles.dropArguments(MethodHandles.constant(valueType, ifNotSet), 0, CharSequence.class));
+
+            steps.add(optional(field, MethodHandles.filterArguments(setter, 1, value)));
+            return this;
+        }
+
+        /**
+         * Binds singular price, split price and for X columns to a scaled long calculator price property
+         * and a String display price property, see ProductInfoIngestionUtils.determineCalculatorPrice
+         *
+         * @param singularPrice CURRENCY column
+         * @param splitPrice CURRENCY column
+         * @param forX NUMBER column
+         * @param calculatorPriceProperty
+         * @param displayPriceProperty
+         * @return
+         */
+        public Builder<V> price(FixedWidthFileColumn singularPrice, FixedWidthFileColumn splitPrice,
+                                FixedWidthFileColumn forX, String calculatorPriceProperty, String displayPriceProperty) {
+            prices.add(new PriceBinding(viewClass,
+                    checkedDecoder(singularPrice, FixedWidthFileColumnType.CURRENCY),
+                    checkedDecoder(splitPrice, FixedWidthFileColumnType.CURRENCY),
+                    checkedDecoder(forX, FixedWidthFileColumnType.NUMBER),
+                    setter(calculatorPriceProperty, long.class),
+                    setter(displayPriceProperty, String.class)));
+            return this;
+        }
+
+        public FixedWidthFileMapperGenerator<V> build() {
+            return new FixedWidthFileMapperGenerator<>(viewClass, layout, new ArrayList<>(steps), new ArrayList<>(prices));
+        }
+
+        private MethodHandle checkedDecoder(FixedWidthFileColumn column, FixedWidthFileColumnType type) {
+            FixedWidthFileField field = layout.field(column);
+            if (field.getType() != type || field.isOptional()) {
+                throw new IllegalArgumentException(String.format("Price column must be a required %s: %s", type, column));
+            }
+            return decoder(field);
+        }
+
+        private MethodHandle optional(FixedWidthFileField field, MethodHandle step) {
+            if (!field.isOptional()) {
+                return step;
+            }
+            MethodHandle present = MethodHandles.dropArguments(
+                    MethodHandles.insertArguments(IS_PRESENT, 1, field.getEnd()), 0, viewClass);
+            return MethodHandles.guardWithTest(present, step, noop(step.type()));
+        }
+
+        /**
+         * Single argument setter as (view, value)void
+         */
+        private MethodHandle setter(String property) {
+            Method method = findMethod(setterName(property), 1);
+            if (method == null) {
+                throw new IllegalArgumentException(String.format("No setter for %s on %s", property, viewClass.getName()));
+            }
+            return unreflect(method).asType(methodType(void.class, viewClass, method.getParameterTypes()[0]));
+        }
+
+        private MethodHandle setter(String property, Class<?> valueType) {
+            try {
+                return setter(property).asType(methodType(void.class, viewClass, valueType));
+            } catch (WrongMethodTypeException e) {
+                throw new IllegalArgumentException(
+                        String.format("Setter for %s on %s does not accept %s", property, viewClass.getName(), valueType), e);
+            }
+        }
+
+        private Method findMethod(String name, int parameterCount) {
+            for (Method method : viewClass.getMethods()) {
+                if (method.getName().equals(name)
+                        && method.getParameterCount() == parameterCount
+                        && !Modifier.isStatic(method.getModifiers())) {
+                    return method;
+                }
+            }
+            return null;
+        }
+
+        private MethodHandle unreflect(Method method) {
+            try {
+                return MethodHandles.publicLookup().unreflect(method);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(String.format("Inaccessible method: %s", method), e);
+            }
+        }
+
+        private static String setterName(String property) {
+            return "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        }
+    }
+}
@@ -88,6 +88,28 @@ public class FixedWidthFileUtils {
                 .orElse(Collections.emptyList());
     }
 
+    /**
+     * Converts substring of column of (Y|N) values to a FixedWidthFileFlags bitmask.
+     * Returns FixedWidthFileFlags.EMPTY if the column is out of bounds
+     *
+     * @param column
+     * @param line
+     * @return
+     */
+    public static FixedWidthFileFlags toFlags(FixedWidthFileColumn column, String line) {
+        int size = column.getEnd() - column.getStart() + 1;
+
+        if (line == null
+                || column.getStart() < 1
+                || column.getEnd() > line.length()
+                || size > FixedWidthFileFlags.MAX_FLAGS) {
+            return FixedWidthFileFlags.EMPTY;
+        }
+
+        return FixedWidthFileFlags.of(
+                ProductInfoIngestionUtils.toFlagBits(line, column.getStart() - 1, column.getEnd()), size);
+    }
+
     /**
      * Get flag value for list of flags.
      * Position is 1 or greater
@@ -128,4 +150,23 @@ public class FixedWidthFileUtils {
 
         return Optional.ofNullable(line.substring(column.getStart() - 1, column.getEnd()));
     }
+
+    /**
+     * Returns the subsequence defined within the start and end column attributes.
+     * For a ByteBufferLine the result is a view over the same buffer, no bytes are copied
+     *
+     * @param column
+     * @param line
+     * @return Subsequence of line.  Returns empty if column parameters are out of bounds
+     */
+    public static Optional<CharSequence> getSubSequence(FixedWidthFileColumn column, CharSequence line) {
+
+        if (line == null
+                || column.getStart() < 1
+                || column.getEnd() > line.length()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(line.subSequence(column.getStart() - 1, column.getEnd()));
+    }
 }
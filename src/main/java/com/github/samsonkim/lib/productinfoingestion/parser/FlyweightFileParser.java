@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * File parser that repopulates one reusable view &lt;V&gt; per line and hands it to a consumer.
+ * Together with a memory mapped file this gives a hot path that creates next to no garbage per line.
+ *
+ * The consumer must not retain the view; the same instance is passed for every line
+ *
+ * @param <V>
+ */
+public class FlyweightFileParser<V> {
+    private final FileParserLineViewMapper<V> lineMapper;
+    private final V view;
+    private final int windowSize;
+
+    public FlyweightFileParser(FileParserLineViewMapper<V> lineMapper, V view) {
+        this(lineMapper, view, MappedFileLineReader.DEFAULT_WINDOW_SIZE);
+    }
+
+    public FlyweightFileParser(FileParserLineViewMapper<V> lineMapper, V view, int windowSize) {
+        this.lineMapper = lineMapper;
+        this.view = view;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Maps every line of the InputStream into the view.
+     * Rows that cannot be mapped are skipped
+     *
+     * @param inputStream
+     * @param consumer
+     * @return number of mapped lines
+     * @throws IOException
+     */
+    public long forEach(InputStream inputStream, Consumer<? super V> consumer) throws IOException {
+        long count = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (lineMapper.mapInto(line, view)) {
+                    consumer.accept(view);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Maps every line of the memory mapped file into the view.
+     * Compressed files are read through the decompressor instead.
+     * Rows that cannot be mapped are skipped
+     *
+     * @param path
+     * @param consumer
+     * @return number of mapped lines
+     * @throws IOException
+     */
+    public long forEach(Path path, Consumer<? super V> consumer) throws IOException {
+        if (CompressionType.isCompressed(path)) {
+            try (InputStream inputStream = CompressionType.open(path)) {
+                return forEach(inputStream, consumer);
+            }
+        }
+
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedFileLineReader reader = new MappedFileLineReader(channel, 0, channel.size(), windowSize);
+            while (reader.next()) {
+                if (lineMapper.mapInto(reader.getLine(), view)) {
+                    consumer.accept(view);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads lines from a byte range of a file by memory mapping it with FileChannel.map.
+ * Line boundaries are found on the raw bytes ('\n', with a trailing '\r' stripped) and each line
+ * is exposed as a ByteBufferLine over the mapped window, so no bytes are copied or decoded.
+ *
+ * The range is mapped in windows so files larger than 2GB can be read; a line must fit inside one window.
+ * The reader does not own the channel, callers are responsible for closing it.
+ */
+public class MappedFileLineReader {
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private final FileChannel channel;
+    private final long end;
+    private final int windowSize;
+    private final ByteBufferLine line = new ByteBufferLine();
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int windowLength;
+
+    private long position;
+    private long lineOffset = -1;
+    private long lineNumber;
+
+    public MappedFileLineReader(FileChannel channel) throws IOException {
+        this(channel, 0, channel.size(), DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Reads the lines starting in [start, end).
+     * Start is expected to be the first byte of a line
+     *
+     * @param channel
+     * @param start
+     * @param end
+     * @param windowSize
+     */
+    public MappedFileLineReader(FileChannel channel, long start, long end, int windowSize) {
+        if (start < 0 || start > end || windowSize < 1) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid range. start=%s, end=%s, windowSize=%s", start, end, windowSize));
+        }
+        this.channel = channel;
+        this.end = end;
+        this.windowSize = windowSize;
+        this.position = start;
+        this.windowStart = start;
+    }
+
+    /**
+     * Advances to the next line
+     *
+     * @return false once the end of the range is reached
+     * @throws IOException
+     */
+    public boolean next() throws IOException {
+        if (position >= end) {
+            return false;
+        }
+
+        if (window == null || position >= windowStart + windowLength) {
+            map(position);
+        }
+
+        while (true) {
+            int lineStart = (int) (position - windowStart);
+
+            for (int i = lineStart; i < windowLength; i++) {
+                if (window.get(i) == LF) {
+                    setLine(lineStart, i);
+                    position = windowStart + i + 1;
+                    return true;
+                }
+            }
+
+            if (windowStart + windowLength >= end) {
+                //last line without a line terminator
+                setLine(lineStart, windowLength);
+                position = end;
+                return true;
+            }
+
+            if (lineStart == 0) {
+                throw new IOException(String.format(
+                        "Line at offset %s does not fit in a %s byte window", position, windowSize));
+            }
+
+            map(position);
+        }
+    }
+
+    /**
+     * Current line.  The returned instance is reused for every line
+     *
+     * @return
+     */
+    public ByteBufferLine getLine() {
+        return line;
+    }
+
+    /**
+     * Byte offset in the file of the first byte of the current line
+     *
+     * @return
+     */
+    public long getLineOffset() {
+        return lineOffset;
+    }
+
+    /**
+     * Number of the current line, counting from 1 at the start of the range
+     *
+     * @return
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Byte offset in the file of the next line to be read
+     *
+     * @return
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    private void setLine(int lineStart, int lineEnd) {
+        int length = lineEnd - lineStart;
+        if (length > 0 && window.get(lineEnd - 1) == CR) {
+            length--;
+        }
+        line.reset(window, lineStart, length);
+        lineOffset = windowStart + lineStart;
+        lineNumber++;
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        windowLength = (int) Math.min(windowSize, end - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * File parser that memory maps files and hands each line to the mapper as a ByteBufferLine,
+ * skipping the Reader/charset decoding and per line String allocation of FileParserImpl.
+ * Intended for single byte (ASCII) encoded files.
+ *
+ * InputStreams cannot be mapped and are parsed by FileParserImpl.
+ *
+ * @param <T>
+ */
+public class MappedFileParserImpl<T> extends FileParserImpl<T> {
+    private final int windowSize;
+
+    public MappedFileParserImpl(FileParserLineMapper<T> lineMapper) {
+        this(lineMapper, MappedFileLineReader.DEFAULT_WINDOW_SIZE);
+    }
+
+    public MappedFileParserImpl(FileParserLineMapper<T> lineMapper, int windowSize) {
+        super(lineMapper);
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Converts a file to a lazily mapped Stream&lt;T&gt; reading directly from the mapped file.
+     * Rows that cannot be mapped to &lt;T&gt; are skipped.
+     * Compressed files cannot be mapped and are streamed through the decompressor instead.
+     * Closing the stream closes the file
+     *
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public Stream<T> stream(Path path) throws IOException {
+        return stream(path, new FileCursor());
+    }
+
+    /**
+     * Converts a file to a lazily mapped Stream&lt;T&gt; reading directly from the mapped file,
+     * starting at the cursor's byte offset.
+     * Compressed files cannot be mapped and are streamed through the decompressor instead
+     *
+     * @param path
+     * @param cursor
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public Stream<T> stream(Path path, FileCursor cursor) throws IOException {
+        if (CompressionType.isCompressed(path)) {
+            return super.stream(path, cursor);
+        }
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        long start = Math.min(cursor.getByteOffset(), channel.size());
+        long startLineNumber = cursor.getLineNumber();
+        MappedFileLineReader reader = new MappedFileLineReader(channel, start, channel.size(), windowSize);
+
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    while (reader.next()) {
+                        Optional<T> mapped = lineMapper.map(reader.getLine());
+                        if (mapped.isPresent()) {
+                            cursor.advance(reader.getPosition(), startLineNumber + reader.getLineNumber());
+                            action.accept(mapped.get());
+                            return true;
+                        }
+                    }
+                    return false;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> {
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * InputStream that reads its source on a dedicated thread, handing data to the caller through a
+ * bounded queue of chunks.  Used to overlap decompression with parsing; once the queue is full the
+ * reader thread blocks, so memory is bounded by capacity * chunkSize.
+ *
+ * The source is only ever touched by the reader thread, which closes it when it finishes
+ */
+public class PipelinedInputStream extends InputStream {
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private static final Chunk END = new Chunk(new byte[0], 0);
+
+    private final BlockingQueue<Chunk> queue;
+    private final Thread reader;
+
+    private Chunk current;
+    private int position;
+    private volatile boolean closed;
+    //set by the reader thread before it queues END, so a failure is never lost to a full queue
+    private volatile Exception failure;
+
+    public PipelinedInputStream(InputStream source, String threadName) {
+        this(source, threadName, DEFAULT_CHUNK_SIZE, DEFAULT_CAPACITY);
+    }
+
+    public PipelinedInputStream(InputStream source, String threadName, int chunkSize, int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.reader = new Thread(() -> readSource(source, chunkSize), threadName);
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextChunk()) {
+            return -1;
+        }
+        return current.data[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        int count = Math.min(len, current.length - position);
+        System.arraycopy(current.data, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return current == null || current == END ? 0 : current.length - position;
+    }
+
+    /**
+     * Stops the reader thread and waits for it to close the source
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        reader.interrupt();
+        queue.clear();
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted closing " + reader.getName());
+        }
+    }
+
+    private boolean nextChunk() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        checkFailure();
+        while (current == null || (current != END && position == current.length)) {
+            try {
+                current = queue.take();
+                position = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted reading from " + reader.getName());
+            }
+            checkFailure();
+        }
+        return current != END;
+    }
+
+    private void checkFailure() throws IOException {
+        Exception e = failure;
+        if (e != null) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private void readSource(InputStream source, int chunkSize) {
+        try (InputStream in = source) {
+            while (!closed) {
+                byte[] data = new byte[chunkSize];
+                int length = 0;
+                int read;
+                while (length < chunkSize && (read = in.read(data, length, chunkSize - length)) > 0) {
+                    length += read;
+                }
+                if (length > 0) {
+                    queue.put(new Chunk(data, length));
+                }
+                if (length < chunkSize) {
+                    queue.put(END);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            //closed by the consumer
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+            try {
+                //wakes a consumer blocked on an empty queue, waits for room if the queue is full
+                queue.put(END);
+            } catch (InterruptedException interrupted) {
+                //closed by the consumer
+            }
+        }
+    }
+
+    private static class Chunk {
+        private final byte[] data;
+        private final int length;
+
+        Chunk(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+    }
+}
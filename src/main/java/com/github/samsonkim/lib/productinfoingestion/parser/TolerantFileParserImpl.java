@@ -0,0 +1,305 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * File parser that quarantines malformed lines instead of aborting the whole file.
+ *
+ * Each line is first validated against the FixedWidthFileLayout, which checks length and numeric
+ * columns without throwing, so a badly corrupted feed does not pay for exception construction.
+ * Rejected lines go to the RejectedLineHandler with line number, byte offset, column and reason
+ * and parsing continues until the ErrorBudget is exceeded.
+ *
+ * Blank lines are skipped, not rejected.
+ *
+ * @param <T>
+ */
+public class TolerantFileParserImpl<T> implements FileParser<T> {
+    private final FileParserLineMapper<T> lineMapper;
+    private final FixedWidthFileLayout layout;
+    private final RejectedLineHandler rejectedLineHandler;
+    private final ErrorBudget errorBudget;
+    private final int windowSize;
+
+    public TolerantFileParserImpl(FileParserLineMapper<T> lineMapper,
+                                  FixedWidthFileLayout layout,
+                                  RejectedLineHandler rejectedLineHandler,
+                                  ErrorBudget errorBudget) {
+        this(lineMapper, layout, rejectedLineHandler, errorBudget, MappedFileLineReader.DEFAULT_WINDOW_SIZE);
+    }
+
+    public TolerantFileParserImpl(FileParserLineMapper<T> lineMapper,
+                                  FixedWidthFileLayout layout,
+                                  RejectedLineHandler rejectedLineHandler,
+                                  ErrorBudget errorBudget,
+                                  int windowSize) {
+        this.lineMapper = lineMapper;
+        this.layout = layout;
+        this.rejectedLineHandler = rejectedLineHandler;
+        this.errorBudget = errorBudget;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Converts an InputStream to List&lt;T&gt;, rejecting malformed lines
+     *
+     * @param inputStream
+     * @return
+     * @throws IOException ErrorBudgetExceededException if too many lines are rejected
+     */
+    @Override
+    public List<T> parse(InputStream inputStream) throws IOException {
+        try (Stream<T> stream = stream(inputStream)) {
+            return stream.collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Converts an InputStream to a lazily mapped Stream&lt;T&gt;, rejecting malformed lines.
+     * Byte offsets are not known for InputStreams and are reported as -1.
+     * Exceeding the error budget is thrown as UncheckedIOException
+     *
+     * @param inputStream
+     * @return
+     */
+    @Override
+    public Stream<T> stream(InputStream inputStream) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
+        Tracker tracker = new Tracker();
+
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private long lineNumber;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        Optional<T> mapped = tracker.map(line, ++lineNumber, -1);
+                        if (mapped.isPresent()) {
+                            action.accept(mapped.get());
+                            return true;
+                        }
+                    }
+                    return false;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Converts a memory mapped file to a lazily mapped Stream&lt;T&gt;, rejecting malformed lines.
+     * Exceeding the error budget is thrown as UncheckedIOException.
+     * Compressed files are streamed through the decompressor, their rejected lines carry the offset
+     * into the decompressed content
+     *
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public Stream<T> stream(Path path) throws IOException {
+        return stream(path, new FileCursor());
+    }
+
+    /**
+     * Converts a memory mapped file to a lazily mapped Stream&lt;T&gt; starting at the cursor, rejecting
+     * malformed lines.  The error budget counts the lines rejected from the cursor on.
+     * Compressed files are decompressed and the bytes before the cursor's offset discarded,
+     * their rejected lines carry the offset into the decompressed content
+     *
+     * @param path
+     * @param cursor
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public Stream<T> stream(Path path, FileCursor cursor) throws IOException {
+        if (CompressionType.isCompressed(path)) {
+            return streamCompressed(path, cursor);
+        }
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        long start = Math.min(cursor.getByteOffset(), channel.size());
+        long startLineNumber = cursor.getLineNumber();
+        MappedFileLineReader reader = new MappedFileLineReader(channel, start, channel.size(), windowSize);
+        Tracker tracker = new Tracker();
+
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    while (reader.next()) {
+                        long lineNumber = startLineNumber + reader.getLineNumber();
+                        Optional<T> mapped = tracker.map(reader.getLine(), lineNumber, reader.getLineOffset());
+                        if (mapped.isPresent()) {
+                            cursor.advance(reader.getPosition(), lineNumber);
+                            action.accept(mapped.get());
+                            return true;
+                        }
+                    }
+                    return false;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> {
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private Stream<T> streamCompressed(Path path, FileCursor cursor) throws IOException {
+        InputStream inputStream = FileParserImpl.open(path, cursor.getByteOffset());
+        CountingLineReader reader = new CountingLineReader(inputStream, Charset.defaultCharset(), cursor.getByteOffset());
+        Tracker tracker = new Tracker();
+
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private long lineNumber = cursor.getLineNumber();
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    long offset = reader.getPosition();
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        Optional<T> mapped = tracker.map(line, ++lineNumber, offset);
+                        offset = reader.getPosition();
+                        if (mapped.isPresent()) {
+                            cursor.advance(offset, lineNumber);
+                            action.accept(mapped.get());
+                            return true;
+                        }
+                    }
+                    return false;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> {
+                    try {
+                        inputStream.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Validates, maps and counts rejections for one parse
+     */
+    private class Tracker {
+        private long rejectedLines;
+
+        Optional<T> map(CharSequence line, long lineNumber, long byteOffset) throws ErrorBudgetExceededException {
+            if (line.length() == 0) {
+                return Optional.empty();
+            }
+
+            if (!layout.fits(line)) {
+                reject(line, lineNumber, byteOffset, null, String.format(
+                        "Line too short. length=%s, required=%s", line.length(), layout.getRequiredLength()));
+                return Optional.empty();
+            }
+
+            FixedWidthFileField invalidField = layout.findInvalidField(line);
+            if (invalidField != null) {
+                reject(line, lineNumber, byteOffset, invalidField.getName(), String.format(
+                        "Invalid %s value", invalidField.getType()));
+                return Optional.empty();
+            }
+
+            try {
+                return lineMapper.map(line);
+            } catch (RuntimeException e) {
+                //problems the layout cannot detect, expected to be rare
+                reject(line, lineNumber, byteOffset, null, String.valueOf(e.getMessage()));
+                return Optional.empty();
+            }
+        }
+
+        private void reject(CharSequence line, long lineNumber, long byteOffset, String column, String reason)
+                throws ErrorBudgetExceededException {
+            rejectedLines++;
+
+            rejectedLineHandler.reject(RejectedLine.builder()
+                    .lineNumber(lineNumber)
+                    .byteOffset(byteOffset)
+                    .column(column)
+                    .reason(reason)
+                    .line(line.toString())
+                    .build());
+
+            if (errorBudget.isExceeded(rejectedLines)) {
+                throw new ErrorBudgetExceededException(String.format(
+                        "Rejected %s lines, error budget is %s. lineNumber=%s",
+                        rejectedLines, errorBudget.getMaxRejectedLines(), lineNumber));
+            }
+        }
+    }
+}
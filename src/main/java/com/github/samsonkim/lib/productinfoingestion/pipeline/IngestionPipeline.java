@@ -0,0 +1,401 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.pipeline;
+
+import com.github.samsonkim.lib.productinfoingestion.parser.CompressionType;
+import com.github.samsonkim.lib.productinfoingestion.parser.FileParserLineMapper;
+import com.github.samsonkim.lib.productinfoingestion.parser.MappedFileLineReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Ingests a file through three overlapping stages:
+ * <ol>
+ * <li>a reader thread splitting the file into batches of lines</li>
+ * <li>mapper threads mapping and enriching each batch, each with its own FileParserLineMapper</li>
+ * <li>a writer, run on the calling thread, receiving the records in original line order</li>
+ * </ol>
+ * Stages are joined by bounded RingBuffers.  The writer re-sequences batches that mappers finish
+ * out of order, and the reader never runs more than maxBatchesInFlight batches ahead of the writer,
+ * so a slow writer or mapper applies backpressure all the way back to the reader.
+ *
+ * Queue depths and stall counters are available from getMetrics while a run is in progress.
+ * A pipeline runs one file at a time
+ *
+ * @param <T>
+ */
+public class IngestionPipeline<T> {
+    public static final int DEFAULT_LINES_PER_BATCH = 512;
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    private final Supplier<FileParserLineMapper<T>> lineMapperFactory;
+    private final int mappers;
+    private final int linesPerBatch;
+    private final int maxBatchesInFlight;
+    private final RingBuffer<LineBatch> lines;
+    private final RingBuffer<RecordBatch<T>> records;
+    private final AtomicLong readerStalls = new AtomicLong();
+    private final AtomicLong readerStallNanos = new AtomicLong();
+    private final AtomicLong batchesResequenced = new AtomicLong();
+    private volatile int batchesPending;
+
+    public IngestionPipeline(Supplier<FileParserLineMapper<T>> lineMapperFactory) {
+        this(lineMapperFactory, Runtime.getRuntime().availableProcessors(), DEFAULT_LINES_PER_BATCH, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param lineMapperFactory creates one mapper per mapper thread
+     * @param mappers number of mapper threads
+     * @param linesPerBatch lines handed between stages at a time
+     * @param queueCapacity batches each ring buffer holds
+     */
+    public IngestionPipeline(Supplier<FileParserLineMapper<T>> lineMapperFactory,
+                             int mappers,
+                             int linesPerBatch,
+                             int queueCapacity) {
+        if (mappers < 1 || linesPerBatch < 1) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid pipeline. mappers=%d, linesPerBatch=%d", mappers, linesPerBatch));
+        }
+        this.lineMapperFactory = lineMapperFactory;
+        this.mappers = mappers;
+        this.linesPerBatch = linesPerBatch;
+        this.lines = new RingBuffer<>("map", queueCapacity);
+        this.records = new RingBuffer<>("write", queueCapacity);
+        this.maxBatchesInFlight = lines.getCapacity() + records.getCapacity() + mappers;
+    }
+
+    /**
+     * Metrics of the buffers feeding the mapper ("map") and writer ("write") stages, and of the
+     * re-sequencing ("resequence") of batches held by the writer, where producer stalls count the
+     * reader waiting for the writer to catch up
+     *
+     * @return
+     */
+    public List<StageMetrics> getMetrics() {
+        StageMetrics resequence = StageMetrics.builder()
+                .name("resequence")
+                .queueDepth(batchesPending)
+                .queueCapacity(maxBatchesInFlight)
+                .items(batchesResequenced.get())
+                .producerStalls(readerStalls.get())
+                .producerStallNanos(readerStallNanos.get())
+                .build();
+        return Arrays.asList(lines.getMetrics(), records.getMetrics(), resequence);
+    }
+
+    /**
+     * Ingests a memory mapped file, or a compressed file through its decompressor
+     *
+     * @param path
+     * @param writer
+     * @return number of records written
+     * @throws IOException
+     */
+    public long run(Path path, Consumer<? super T> writer) throws IOException {
+        return run(path, record -> {
+        }, writer);
+    }
+
+    /**
+     * Ingests a memory mapped file, or a compressed file through its decompressor
+     *
+     * @param path
+     * @param enricher applied to each record on the mapper threads, e.g. to stamp audit attributes
+     * @param writer receives records in line order on the calling thread
+     * @return number of records written
+     * @throws IOException
+     */
+    public long run(Path path, Consumer<? super T> enricher, Consumer<? super T> writer) throws IOException {
+        if (CompressionType.isCompressed(path)) {
+            try (InputStream inputStream = CompressionType.open(path)) {
+                return run(inputStream, enricher, writer);
+            }
+        }
+
+        return new Run(enricher).execute(sink -> {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedFileLineReader reader = new MappedFileLineReader(channel);
+                while (reader.next()) {
+                    if (!sink.test(reader.getLine().toString())) {
+                        return;
+                    }
+                }
+            }
+        }, writer);
+    }
+
+    /**
+     * Ingests an InputStream, see run(Path, Consumer, Consumer).
+     * The InputStream is not closed
+     *
+     * @param inputStream
+     * @param enricher
+     * @param writer
+     * @return number of records written
+     * @throws IOException
+     */
+    public long run(InputStream inputStream, Consumer<? super T> enricher, Consumer<? super T> writer) throws IOException {
+        return new Run(enricher).execute(sink -> {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!sink.test(line)) {
+                    return;
+                }
+            }
+        }, writer);
+    }
+
+    /**
+     * Reads lines into a sink that returns false once the run has failed
+     */
+    @FunctionalInterface
+    private interface LineSource {
+        void readInto(Predicate<String> sink) throws IOException;
+    }
+
+    private static final class LineBatch {
+        private final long sequence;
+        private final List<String> lines;
+
+        LineBatch(long sequence, List<String> lines) {
+            this.sequence = sequence;
+            this.lines = lines;
+        }
+    }
+
+    private static final class RecordBatch<T> {
+        private final long sequence;
+        private final List<T> records;
+
+        RecordBatch(long sequence, List<T> records) {
+            this.sequence = sequence;
+            this.records = records;
+        }
+    }
+
+    /**
+     * State of a single run
+     */
+    private final class Run {
+        private final LineBatch endOfFile = new LineBatch(-1, Collections.emptyList());
+
+        private final Consumer<? super T> enricher;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final AtomicLong batchesWritten = new AtomicLong();
+
+        private volatile long batchesRead = -1;
+        private long sequence;
+        private List<String> batch;
+
+        Run(Consumer<? super T> enricher) {
+            this.enricher = enricher;
+        }
+
+        boolean cancelled() {
+            return failure.get() != null;
+        }
+
+        void fail(Throwable t) {
+            failure.compareAndSet(null, t);
+        }
+
+        /**
+         * Adds a line to the current batch, handing the batch to the mappers once full
+         *
+         * @return false if the run failed
+         */
+        boolean read(String line) {
+            if (batch == null) {
+                batch = new ArrayList<>(linesPerBatch);
+            }
+            batch.add(line);
+            return batch.size() < linesPerBatch || flush();
+        }
+
+        private boolean flush() {
+            if (batch == null) {
+                return true;
+            }
+
+            //Wait for the writer so re-sequencing never holds more than maxBatchesInFlight batches
+            if (sequence - batchesWritten.get() >= maxBatchesInFlight) {
+                long start = System.nanoTime();
+                readerStalls.incrementAndGet();
+                for (int i = 0; sequence - batchesWritten.get() >= maxBatchesInFlight && !cancelled(); i++) {
+                    RingBuffer.backOff(i);
+                }
+                readerStallNanos.addAndGet(System.nanoTime() - start);
+            }
+
+            boolean added = lines.put(new LineBatch(sequence++, batch), this::cancelled);
+            batch = null;
+            return added;
+        }
+
+        long execute(LineSource source, Consumer<? super T> writer) throws IOException {
+            List<Thread> threads = new ArrayList<>();
+            threads.add(new Thread(() -> {
+                try {
+                    source.readInto(this::read);
+                    flush();
+                    batchesRead = sequence;
+                    for (int i = 0; i < mappers; i++) {
+                        lines.put(endOfFile, this::cancelled);
+                    }
+                } catch (Throwable t) {
+                    fail(t);
+                }
+            }, "ingest-reader"));
+
+            for (int i = 0; i < mappers; i++) {
+                threads.add(new Thread(this::map, "ingest-mapper-" + i));
+            }
+
+            threads.forEach(thread -> {
+                thread.setDaemon(true);
+                thread.start();
+            });
+
+            long count = 0;
+            try {
+                count = write(writer);
+            } catch (Throwable t) {
+                fail(t);
+            } finally {
+                joinAll(threads);
+                //leave the buffers empty for the next run if this one failed
+                while (lines.poll() != null) {
+                }
+                while (records.poll() != null) {
+                }
+                batchesPending = 0;
+            }
+
+            Throwable t = failure.get();
+            if (t instanceof IOException) {
+                throw (IOException) t;
+            }
+            if (t instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) t).getCause();
+            }
+            if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            }
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+            if (t != null) {
+                throw new IOException(t);
+            }
+            return count;
+        }
+
+        private void map() {
+            try {
+                FileParserLineMapper<T> lineMapper = lineMapperFactory.get();
+                LineBatch lineBatch;
+                while ((lineBatch = lines.take(this::cancelled)) != null && lineBatch != endOfFile) {
+                    List<T> mapped = new ArrayList<>(lineBatch.lines.size());
+                    for (String line : lineBatch.lines) {
+                        Optional<T> record = lineMapper.map(line);
+                        if (record.isPresent()) {
+                            enricher.accept(record.get());
+                            mapped.add(record.get());
+                        }
+                    }
+                    if (!records.put(new RecordBatch<>(lineBatch.sequence, mapped), this::cancelled)) {
+                        return;
+                    }
+                }
+            } catch (Throwable t) {
+                fail(t);
+            }
+        }
+
+        /**
+         * Hands records to the writer in batch order, holding batches that arrive early
+         */
+        private long write(Consumer<? super T> writer) {
+            Map<Long, List<T>> pending = new HashMap<>();
+            long next = 0;
+            long count = 0;
+
+            while (!cancelled() && (batchesRead < 0 || next < batchesRead)) {
+                RecordBatch<T> recordBatch = records.take(() -> cancelled() || (batchesRead >= 0 && pending.isEmpty()
+                        && batchesWritten.get() >= batchesRead));
+                if (recordBatch == null) {
+                    continue;
+                }
+                pending.put(recordBatch.sequence, recordBatch.records);
+
+                List<T> ready;
+                while ((ready = pending.remove(next)) != null) {
+                    for (T record : ready) {
+                        writer.accept(record);
+                    }
+                    count += ready.size();
+                    batchesWritten.set(++next);
+                }
+                if (!pending.isEmpty()) {
+                    batchesResequenced.incrementAndGet();
+                }
+                batchesPending = pending.size();
+            }
+            return count;
+        }
+
+        private void joinAll(List<Thread> threads) {
+            for (Thread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    fail(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.pipeline;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Bounded lock-free multi producer, multi consumer queue joining two pipeline stages.
+ *
+ * Each slot carries a sequence number telling producers and consumers whose turn it is,
+ * so offer and poll only contend on a single compare-and-set of the tail or head.
+ * The blocking put and take spin briefly, then park, and record how often and how long
+ * each side stalled on a full or empty buffer
+ *
+ * @param <E>
+ */
+public final class RingBuffer<E> {
+    private static final int SPINS = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final String name;
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong items = new AtomicLong();
+    private final AtomicLong producerStalls = new AtomicLong();
+    private final AtomicLong producerStallNanos = new AtomicLong();
+    private final AtomicLong consumerStalls = new AtomicLong();
+    private final AtomicLong consumerStallNanos = new AtomicLong();
+
+    /**
+     * @param name stage name reported in metrics
+     * @param capacity rounded up to a power of 2, and to at least 2 so a slot's sequence can tell
+     *                 a filled slot from one free for the next lap
+     */
+    public RingBuffer(String name, int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException(String.format("Invalid capacity: %d", capacity));
+        }
+        this.name = name;
+        int size = Math.max(2, capacity);
+        this.capacity = Integer.highestOneBit(size) == size ? size : Integer.highestOneBit(size) << 1;
+        this.mask = this.capacity - 1;
+        this.elements = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element if there is room
+     *
+     * @param element
+     * @return false if the buffer is full
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.lazySet(index, position + 1);
+                    items.incrementAndGet();
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element if there is one
+     *
+     * @return null if the buffer is empty
+     */
+    public E poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = elements.get(index);
+                    elements.lazySet(index, null);
+                    sequences.lazySet(index, position + capacity);
+                    return element;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Adds an element, waiting while the buffer is full
+     *
+     * @param element
+     * @param cancelled checked while waiting
+     * @return false if cancelled before the element was added
+     */
+    public boolean put(E element, BooleanSupplier cancelled) {
+        if (offer(element)) {
+            return true;
+        }
+
+        long start = System.nanoTime();
+        producerStalls.incrementAndGet();
+        try {
+            for (int i = 0; !cancelled.getAsBoolean(); i++) {
+                if (offer(element)) {
+                    return true;
+                }
+                backOff(i);
+            }
+            return false;
+        } finally {
+            producerStallNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Removes the oldest element, waiting while the buffer is empty
+     *
+     * @param cancelled checked while waiting
+     * @return null if cancelled before an element was available
+     */
+    public E take(BooleanSupplier cancelled) {
+        E element = poll();
+        if (element != null) {
+            return element;
+        }
+
+        long start = System.nanoTime();
+        consumerStalls.incrementAndGet();
+        try {
+            for (int i = 0; !cancelled.getAsBoolean(); i++) {
+                element = poll();
+                if (element != null) {
+                    return element;
+                }
+                backOff(i);
+            }
+            return null;
+        } finally {
+            consumerStallNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Approximate number of queued elements
+     *
+     * @return
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Snapshot of the queue depth and stall counters
+     *
+     * @return
+     */
+    public StageMetrics getMetrics() {
+        return StageMetrics.builder()
+                .name(name)
+                .queueDepth(size())
+                .queueCapacity(capacity)
+                .items(items.get())
+                .producerStalls(producerStalls.get())
+                .producerStallNanos(producerStallNanos.get())
+                .consumerStalls(consumerStalls.get())
+                .consumerStallNanos(consumerStallNanos.get())
+                .build();
+    }
+
+    /**
+     * Spins with yields, then parks, for the attempt'th retry of a waiting stage
+     *
+     * @param attempt
+     */
+    static void backOff(int attempt) {
+        if (attempt < SPINS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.pipeline;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Snapshot of the ring buffer feeding a pipeline stage
+ */
+@Builder
+@Data
+public class StageMetrics {
+
+    /**
+     * Stage name
+     */
+    private final String name;
+
+    /**
+     * Elements waiting for the stage when the snapshot was taken
+     */
+    private final int queueDepth;
+
+    /**
+     * Ring buffer capacity
+     */
+    private final int queueCapacity;
+
+    /**
+     * Elements handed to the stage so far
+     */
+    private final long items;
+
+    /**
+     * Times the upstream stage found the buffer full
+     */
+    private final long producerStalls;
+
+    /**
+     * Time the upstream stage spent waiting on a full buffer
+     */
+    private final long producerStallNanos;
+
+    /**
+     * Times the stage found the buffer empty
+     */
+    private final long consumerStalls;
+
+    /**
+     * Time the stage spent waiting on an empty buffer
+     */
+    private final long consumerStallNanos;
+}
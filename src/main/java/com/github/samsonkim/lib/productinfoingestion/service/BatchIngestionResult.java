@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.service;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregated outcome of a batch of IngestionJobs
+ */
+@Data
+public class BatchIngestionResult {
+
+    /**
+     * One result per job, in the order the jobs were submitted
+     */
+    private final List<IngestionJobResult> results;
+
+    /**
+     * Wall clock time of the whole batch
+     */
+    private final long elapsedNanos;
+
+    public List<IngestionJobResult> getFailures() {
+        return results.stream()
+                .filter(result -> !result.isSucceeded())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Records ingested by all succeeded jobs
+     *
+     * @return
+     */
+    public long getRecords() {
+        return results.stream()
+                .mapToLong(IngestionJobResult::getRecords)
+                .sum();
+    }
+
+    public boolean isSucceeded() {
+        return results.stream().allMatch(IngestionJobResult::isSucceeded);
+    }
+}
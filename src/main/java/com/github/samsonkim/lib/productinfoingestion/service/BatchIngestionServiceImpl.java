@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.service;
+
+import com.github.samsonkim.lib.productinfoingestion.exception.ProductInfoIngestionException;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs each IngestionJob on its own thread, a virtual thread when the runtime supports them (Java 21+)
+ * and a cached platform thread otherwise.
+ *
+ * Jobs spend most of their time blocked on slow, e.g. network mounted, drop folders, so any number of
+ * them may be reading at once, while a Semaphore bounds how many are mapping at the same time to keep
+ * the CPU heavy work near the number of cores.  A job holds its permit only between reads of its file
+ */
+public class BatchIngestionServiceImpl implements BatchIngestionService {
+    private static final Consumer<ProductRecord> DISCARD = productRecord -> {
+    };
+
+    private final ProductCatalogIntegrationService productCatalogIntegrationService;
+    private final int maxConcurrentMappings;
+
+    public BatchIngestionServiceImpl(ProductCatalogIntegrationService productCatalogIntegrationService) {
+        this(productCatalogIntegrationService, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param productCatalogIntegrationService ingests a single job, must be safe to call concurrently
+     * @param maxConcurrentMappings jobs allowed to map at the same time, jobs waiting on reads don't count
+     */
+    public BatchIngestionServiceImpl(ProductCatalogIntegrationService productCatalogIntegrationService,
+                                     int maxConcurrentMappings) {
+        if (maxConcurrentMappings < 1) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid maxConcurrentMappings: %d", maxConcurrentMappings));
+        }
+        this.productCatalogIntegrationService = productCatalogIntegrationService;
+        this.maxConcurrentMappings = maxConcurrentMappings;
+    }
+
+    @Override
+    public BatchIngestionResult ingestProductCatalogs(List<IngestionJob> jobs) throws ProductInfoIngestionException {
+        long start = System.nanoTime();
+        Semaphore mappings = new Semaphore(maxConcurrentMappings, true);
+        ExecutorService executor = newJobExecutor();
+
+        try {
+            List<Future<IngestionJobResult>> futures = new ArrayList<>(jobs.size());
+            for (IngestionJob job : jobs) {
+                futures.add(executor.submit(() -> ingest(job, mappings)));
+            }
+
+            List<IngestionJobResult> results = new ArrayList<>(jobs.size());
+            for (int i = 0; i < futures.size(); i++) {
+                results.add(await(jobs.get(i), futures.get(i)));
+            }
+            return new BatchIngestionResult(results, System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProductInfoIngestionException(
+                    String.format("Batch ingestion interrupted. jobs=%d", jobs.size()), e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private IngestionJobResult ingest(IngestionJob job, Semaphore mappings) {
+        long start = System.nanoTime();
+        IngestionJobResult.IngestionJobResultBuilder result = IngestionJobResult.builder().job(job);
+
+        try {
+            Consumer<ProductRecord> consumer = job.getConsumer() == null ? DISCARD : job.getConsumer();
+            long records = productCatalogIntegrationService.ingestProductCatalog(
+                    job.getStoreId(), job.getFileName(), job.getUser(), consumer, mappings);
+            result.records(records);
+        } catch (Exception e) {
+            result.failure(e);
+        } finally {
+            result.ingestNanos(System.nanoTime() - start);
+        }
+        return result.build();
+    }
+
+    private static IngestionJobResult await(IngestionJob job, Future<IngestionJobResult> future)
+            throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            //Errors thrown by a job
+            Throwable cause = e.getCause();
+            return IngestionJobResult.builder()
+                    .job(job)
+                    .failure(cause instanceof Exception ? (Exception) cause : e)
+                    .build();
+        }
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() when running on Java 21+,
+     * looked up reflectively as the library is built for Java 8
+     *
+     * @return
+     */
+    static ExecutorService newJobExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threads = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "ingest-job-" + threads.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
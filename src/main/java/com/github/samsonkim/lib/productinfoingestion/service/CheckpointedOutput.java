@@ -0,0 +1,55 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.service;
+
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Destination of a checkpointed ingestion.
+ * Records handed to accept since the last commit may be lost in a crash; the ingestion resumes with
+ * the first record after the last commit, so the output is rolled back to the committed position first
+ */
+public interface CheckpointedOutput extends Consumer<ProductRecord> {
+
+    /**
+     * Makes every record accepted so far durable, e.g. by flushing and syncing a file
+     *
+     * @return output position to resume from, e.g. the file length
+     * @throws IOException
+     */
+    long commit() throws IOException;
+
+    /**
+     * Called once before resuming to discard anything written after the committed position,
+     * e.g. by truncating a file, so the resumed records are appended right after it
+     *
+     * @param outputPosition as returned by commit
+     * @throws IOException
+     */
+    void resume(long outputPosition) throws IOException;
+}
@@ -0,0 +1,58 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.service;
+
+import com.github.samsonkim.lib.productinfoingestion.exception.ProductInfoIngestionException;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.parser.DeltaRecord;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Service that ingests only the products that changed since a store's previous journal
+ */
+public interface DeltaIngestionService {
+
+    /**
+     * Ingests store product catalog, handing new, changed and deleted products to the consumer.
+     * Lines identical to the previous journal's are skipped without being mapped.
+     * The store's index is replaced once the whole file was ingested, a failed ingestion leaves the
+     * previous journal as the base of the next delta.
+     * The first journal of a store is ingested in full, every product being NEW
+     *
+     * @param storeId
+     * @param fileName
+     * @param user
+     * @param consumer
+     * @return
+     * @throws ProductInfoIngestionException
+     */
+    DeltaIngestionResult ingestProductCatalogDelta(UUID storeId,
+                                                   String fileName,
+                                                   String user,
+                                                   Consumer<DeltaRecord<ProductRecord>> consumer)
+            throws ProductInfoIngestionException;
+}
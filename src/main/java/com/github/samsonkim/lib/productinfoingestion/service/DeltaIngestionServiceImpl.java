@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.service;
+
+import com.github.samsonkim.lib.productinfoingestion.dao.DeltaIndexDao;
+import com.github.samsonkim.lib.productinfoingestion.exception.ProductInfoIngestionException;
+import com.github.samsonkim.lib.productinfoingestion.id.IdGenerator;
+import com.github.samsonkim.lib.productinfoingestion.id.TimeOrderedIdGenerator;
+import com.github.samsonkim.lib.productinfoingestion.integration.StoreFactory;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.parser.DeltaFileParser;
+import com.github.samsonkim.lib.productinfoingestion.parser.DeltaIndex;
+import com.github.samsonkim.lib.productinfoingestion.parser.DeltaRecord;
+import com.github.samsonkim.lib.productinfoingestion.parser.DeltaType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Service class implementation responsible for delta ingestion of store product catalogs
+ */
+public class DeltaIngestionServiceImpl implements DeltaIngestionService {
+    private final StoreFactory storeFactory;
+    private final DeltaIndexDao deltaIndexDao;
+    private final IdGenerator idGenerator;
+
+    public DeltaIngestionServiceImpl(StoreFactory storeFactory, DeltaIndexDao deltaIndexDao) {
+        this(storeFactory, deltaIndexDao, TimeOrderedIdGenerator.getInstance());
+    }
+
+    /**
+     * @param storeFactory
+     * @param deltaIndexDao
+     * @param idGenerator generates the ids of store journals and ProductRecords
+     */
+    public DeltaIngestionServiceImpl(StoreFactory storeFactory, DeltaIndexDao deltaIndexDao, IdGenerator idGenerator) {
+        this.storeFactory = storeFactory;
+        this.deltaIndexDao = deltaIndexDao;
+        this.idGenerator = idGenerator;
+    }
+
+    @Override
+    public DeltaIngestionResult ingestProductCatalogDelta(UUID storeId,
+                                                          String fileName,
+                                                          String user,
+                                                          Consumer<DeltaRecord<ProductRecord>> consumer)
+            throws ProductInfoIngestionException {
+
+        //This will be retrieved from DB system that records this info
+        UUID storeJournalId = idGenerator.nextId();
+
+        DeltaFileParser<ProductRecord> deltaFileParser = storeFactory.getDeltaFileParser(storeId, storeJournalId);
+        Optional<DeltaIndex> previous = deltaIndexDao.get(storeId);
+        DeltaIndex previousIndex = previous.orElseGet(() -> new DeltaIndex(null, 0));
+        DeltaIndex currentIndex = new DeltaIndex(storeJournalId, previousIndex.size());
+
+        Instant now = Instant.now();
+        Map<DeltaType, Long> counts = new EnumMap<>(DeltaType.class);
+        AtomicLong unchanged = new AtomicLong();
+        for (DeltaType type : DeltaType.values()) {
+            counts.put(type, 0L);
+        }
+
+        try (Stream<DeltaRecord<ProductRecord>> deltaRecords =
+                     deltaFileParser.stream(Paths.get(fileName), previousIndex, currentIndex, unchanged)) {
+            deltaRecords.forEach(d -> {
+                if (d.getRecord() != null) {
+                    stampAuditAttributes(d.getRecord(), user, now);
+                }
+                consumer.accept(d);
+                counts.merge(d.getType(), 1L, Long::sum);
+            });
+        } catch (IOException | UncheckedIOException e) {
+            throw new ProductInfoIngestionException(
+                    String.format("Unable to ingest delta. storeId=%s, fileName=%s", storeId, fileName), e);
+        }
+
+        deltaIndexDao.save(storeId, currentIndex);
+
+        return DeltaIngestionResult.builder()
+                .storeJournalId(storeJournalId)
+                .previousStoreJournalId(previousIndex.getStoreJournalId())
+                .newRecords(counts.get(DeltaType.NEW))
+                .changedRecords(counts.get(DeltaType.CHANGED))
+                .deletedRecords(counts.get(DeltaType.DELETED))
+                .unchangedRecords(unchanged.get())
+                .build();
+    }
+
+    /**
+     * Simulates the audit attributes the DB would generate on persist
+     *
+     * @param productRecord
+     * @param user
+     * @param now
+     */
+    private void stampAuditAttributes(ProductRecord productRecord, String user, Instant now) {
+        productRecord.setId(Optional.of(idGenerator.nextId()));
+        productRecord.setCreatedBy(user);
+        productRecord.setCreatedDateTime(now);
+    }
+}
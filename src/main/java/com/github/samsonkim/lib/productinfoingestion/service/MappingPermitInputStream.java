@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Buffered InputStream that holds a mapping permit while its caller maps what was read, and gives the
+ * permit up whenever the buffer has to be refilled from the source.  Ingestions blocked on slow, e.g.
+ * network mounted, drop folders then don't count against the number mapping at the same time.
+ *
+ * Not thread safe, the permit belongs to the thread reading the stream
+ */
+final class MappingPermitInputStream extends InputStream {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream source;
+    private final Semaphore mappings;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean held;
+
+    MappingPermitInputStream(InputStream source, Semaphore mappings) {
+        this.source = source;
+        this.mappings = mappings;
+    }
+
+    /**
+     * Waits for a mapping permit, a no-op if the permit is already held
+     *
+     * @throws InterruptedIOException
+     */
+    void acquire() throws InterruptedIOException {
+        if (held) {
+            return;
+        }
+        try {
+            mappings.acquire();
+            held = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a mapping permit");
+        }
+    }
+
+    /**
+     * Gives the mapping permit up, a no-op if it is not held
+     */
+    void release() {
+        if (held) {
+            held = false;
+            mappings.release();
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        int read = Math.min(len, limit - position);
+        System.arraycopy(buffer, position, b, off, read);
+        position += read;
+        return read;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            source.close();
+        } finally {
+            release();
+        }
+    }
+
+    private boolean fill() throws IOException {
+        release();
+        int read = source.read(buffer, 0, buffer.length);
+        acquire();
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+}
@@ -26,9 +26,14 @@ package com.github.samsonkim.lib.productinfoingestion.service;
 
 import com.github.samsonkim.lib.productinfoingestion.exception.ProductInfoIngestionException;
 import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.parser.ErrorBudget;
+import com.github.samsonkim.lib.productinfoingestion.parser.RejectedLineHandler;
+import com.github.samsonkim.lib.productinfoingestion.pipeline.StageMetrics;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 
 /**
  * Service that ingests store product catalogs
@@ -46,4 +51,109 @@ public interface ProductCatalogIntegrationService {
      */
     List<ProductRecord> ingestProductCatalog(UUID storeId, String fileName, String user)
             throws ProductInfoIngestionException;
+
+    /**
+     * Ingests store product catalog, handing each ProductRecord to the consumer as soon as it is mapped.
+     * Records are never collected, so memory use stays constant regardless of catalog size
+     *
+     * @param storeId
+     * @param fileName
+     * @param user
+     * @param consumer
+     * @return number of records ingested
+     * @throws ProductInfoIngestionException
+     */
+    long ingestProductCatalog(UUID storeId, String fileName, String user, Consumer<ProductRecord> consumer)
+            throws ProductInfoIngestionException;
+
+    /**
+     * Ingests store product catalog like the streaming ingestProductCatalog, handing the queue depth and
+     * stall metrics of each stage to the metricsListener once the file is ingested or ingestion fails.
+     * Only PIPELINED ingestion runs in stages, other modes hand over an empty list
+     *
+     * @param storeId
+     * @param fileName
+     * @param user
+     * @param consumer
+     * @param metricsListener
+     * @return number of records ingested
+     * @throws ProductInfoIngestionException
+     */
+    long ingestProductCatalog(UUID storeId,
+                              String fileName,
+                              String user,
+                              Consumer<ProductRecord> consumer,
+                              Consumer<List<StageMetrics>> metricsListener) throws ProductInfoIngestionException;
+
+    /**
+     * Ingests store product catalog like the streaming ingestProductCatalog, holding one of the mappings
+     * permits only while lines are mapped and consumed.  The permit is given up whenever ingestion waits
+     * on the file, so ingestions blocked on slow drop folders don't keep others from mapping
+     *
+     * @param storeId
+     * @param fileName
+     * @param user
+     * @param consumer
+     * @param mappings bounds the ingestions mapping at the same time
+     * @return number of records ingested
+     * @throws ProductInfoIngestionException
+     */
+    long ingestProductCatalog(UUID storeId,
+                              String fileName,
+                              String user,
+                              Consumer<ProductRecord> consumer,
+                              Semaphore mappings) throws ProductInfoIngestionException;
+
+    /**
+     * Ingests store product catalog like the streaming ingestProductCatalog, but malformed lines are
+     * handed to the rejectedLineHandler and skipped.  Ingestion fails once the error budget is exceeded
+     *
+     * @param storeId
+     * @param fileName
+     * @param user
+     * @param consumer
+     * @param rejectedLineHandler
+     * @param errorBudget
+     * @return number of records ingested
+     * @throws ProductInfoIngestionException
+     */
+    long ingestProductCatalog(UUID storeId,
+                              String fileName,
+                              String user,
+                              Consumer<ProductRecord> consumer,
+                              RejectedLineHandler rejectedLineHandler,
+                              ErrorBudget errorBudget) throws ProductInfoIngestionException;
+
+    /**
+     * Ingests store product catalog like the streaming ingestProductCatalog, committing the output and
+     * saving an IngestionCheckpoint for the storeJournalId every so many records and at the end,
+     * so a failed ingestion can be resumed with resumeProductCatalog
+     *
+     * @param storeId
+     * @param storeJournalId
+     * @param fileName
+     * @param user
+     * @param output
+     * @return number of records ingested
+     * @throws ProductInfoIngestionException
+     */
+    long ingestProductCatalog(UUID storeId,
+                              UUID storeJournalId,
+                              String fileName,
+                              String user,
+                              CheckpointedOutput output) throws ProductInfoIngestionException;
+
+    /**
+     * Resumes a checkpointed ingestion from its last IngestionCheckpoint.
+     * The output is rolled back to the checkpoint's output position, then the file is read from the
+     * checkpoint's byte offset and the remaining records are appended to the output
+     *
+     * @param storeJournalId
+     * @param user
+     * @param output
+     * @return number of records ingested for the journal, including those before the checkpoint
+     * @throws ProductInfoIngestionException if there is no checkpoint for the journal or ingestion fails
+     */
+    long resumeProductCatalog(UUID storeJournalId, String user, CheckpointedOutput output)
+            throws ProductInfoIngestionException;
 }
@@ -24,28 +24,93 @@
 
 package com.github.samsonkim.lib.productinfoingestion.service;
 
+import com.github.samsonkim.lib.productinfoingestion.dao.IngestionCheckpointDao;
 import com.github.samsonkim.lib.productinfoingestion.exception.ProductInfoIngestionException;
+import com.github.samsonkim.lib.productinfoingestion.id.IdGenerator;
+import com.github.samsonkim.lib.productinfoingestion.id.TimeOrderedIdGenerator;
 import com.github.samsonkim.lib.productinfoingestion.integration.StoreFactory;
+import com.github.samsonkim.lib.productinfoingestion.model.IngestionCheckpoint;
 import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.parser.CompressionType;
+import com.github.samsonkim.lib.productinfoingestion.parser.ErrorBudget;
+import com.github.samsonkim.lib.productinfoingestion.parser.FileCursor;
 import com.github.samsonkim.lib.productinfoingestion.parser.FileParser;
+import com.github.samsonkim.lib.productinfoingestion.parser.RejectedLineHandler;
+import com.github.samsonkim.lib.productinfoingestion.pipeline.IngestionPipeline;
+import com.github.samsonkim.lib.productinfoingestion.pipeline.StageMetrics;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.time.Instant;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service class implementation responsible for ingesting store product catalogs
  */
 public class ProductCatalogIntegrationServiceImpl implements ProductCatalogIntegrationService {
+    public static final long DEFAULT_CHECKPOINT_INTERVAL = 100_000;
+
     private final StoreFactory storeFactory;
+    private final IngestionMode ingestionMode;
+    private final IngestionCheckpointDao ingestionCheckpointDao;
+    private final long checkpointInterval;
+    private final IdGenerator idGenerator;
 
     public ProductCatalogIntegrationServiceImpl(StoreFactory storeFactory) {
+        this(storeFactory, IngestionMode.SERIAL);
+    }
+
+    /**
+     * @param storeFactory
+     * @param ingestionMode how catalog files are read, mapped and written when streaming
+     */
+    public ProductCatalogIntegrationServiceImpl(StoreFactory storeFactory, IngestionMode ingestionMode) {
+        this(storeFactory, ingestionMode, null, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * @param storeFactory
+     * @param ingestionMode how catalog files are read, mapped and written when streaming
+     * @param ingestionCheckpointDao stores checkpoints of checkpointed ingestions
+     * @param checkpointInterval records between checkpoints
+     */
+    public ProductCatalogIntegrationServiceImpl(StoreFactory storeFactory,
+                                                IngestionMode ingestionMode,
+                                                IngestionCheckpointDao ingestionCheckpointDao,
+                                                long checkpointInterval) {
+        this(storeFactory, ingestionMode, ingestionCheckpointDao, checkpointInterval, TimeOrderedIdGenerator.getInstance());
+    }
+
+    /**
+     * @param storeFactory
+     * @param ingestionMode how catalog files are read, mapped and written when streaming
+     * @param ingestionCheckpointDao stores checkpoints of checkpointed ingestions
+     * @param checkpointInterval records between checkpoints
+     * @param idGenerator generates the ids of store journals and ProductRecords
+     */
+    public ProductCatalogIntegrationServiceImpl(StoreFactory storeFactory,
+                                                IngestionMode ingestionMode,
+                                                IngestionCheckpointDao ingestionCheckpointDao,
+                                                long checkpointInterval,
+                                                IdGenerator idGenerator) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException(String.format("Invalid checkpointInterval: %s", checkpointInterval));
+        }
         this.storeFactory = storeFactory;
+        this.ingestionMode = ingestionMode;
+        this.ingestionCheckpointDao = ingestionCheckpointDao;
+        this.checkpointInterval = checkpointInterval;
+        this.idGenerator = idGenerator;
     }
 
     /**
@@ -63,13 +128,13 @@ public class ProductCatalogIntegrationServiceImpl implements ProductCatalogInteg
                                                     String user) throws ProductInfoIngestionException {
 
         //This will be retrieved from DB system that records this info
-        UUID storeJournalId = UUID.randomUUID();
+        UUID storeJournalId = idGenerator.nextId();
 
         FileParser<ProductRecord> fileParser =
                 storeFactory.getFileParser(storeId, storeJournalId);
 
-        try {
-            InputStream inputStream = new FileInputStream(new File(fileName));
+        //gzip or zstd compressed catalogs are detected by magic bytes and decompressed on a separate thread
+        try (InputStream inputStream = CompressionType.open(Paths.get(fileName))) {
             List<ProductRecord> productRecords = fileParser.parse(inputStream);
 
             /*
@@ -79,16 +144,306 @@ public class ProductCatalogIntegrationServiceImpl implements ProductCatalogInteg
              *  Simulate DB interaction
              */
             Instant now = Instant.now();
+            productRecords.forEach(p -> stampAuditAttributes(p, user, now));
+
+            return productRecords;
+        } catch (IOException e) {
+            throw new ProductInfoIngestionException(
+                    String.format("Unable to ingest. storeId=%s, fileName=%s", storeId, fileName), e);
+        }
+    }
+
+    /**
+     * Ingests store product catalog, handing each ProductRecord to the consumer as soon as it is mapped.
+     * Records flow through mapping, audit stamping and the consumer one at a time
+     *
+     * @param storeId
+     * @param fileName
+     * @param user
+     * @param consumer
+     * @return number of records ingested
+     * @throws ProductInfoIngestionException
+     */
+    @Override
+    public long ingestProductCatalog(UUID storeId,
+                                     String fileName,
+                                     String user,
+                                     Consumer<ProductRecord> consumer) throws ProductInfoIngestionException {
+        return ingestProductCatalog(storeId, fileName, user, consumer, metrics -> {
+        });
+    }
+
+    /**
+     * Ingests store product catalog like the streaming ingestProductCatalog, handing the stage metrics
+     * of a PIPELINED ingestion to the metricsListener once it ends, whether or not it succeeded
+     *
+     * @param storeId
+     * @param fileName
+     * @param user
+     * @param consumer
+     * @param metricsListener
+     * @return number of records ingested
+     * @throws ProductInfoIngestionException
+     */
+    @Override
+    public long ingestProductCatalog(UUID storeId,
+                                     String fileName,
+                                     String user,
+                                     Consumer<ProductRecord> consumer,
+                                     Consumer<List<StageMetrics>> metricsListener) throws ProductInfoIngestionException {
+
+        //This will be retrieved from DB system that records this info
+        UUID storeJournalId = idGenerator.nextId();
+
+        if (ingestionMode == IngestionMode.PIPELINED) {
+            IngestionPipeline<ProductRecord> pipeline = storeFactory.getIngestionPipeline(storeId, storeJournalId);
+            Instant now = Instant.now();
+
+            //Audit attributes are stamped on the mapper threads, the consumer runs on this thread in line order
+            try {
+                return pipeline.run(Paths.get(fileName), p -> stampAuditAttributes(p, user, now), consumer);
+            } catch (IOException e) {
+                throw new ProductInfoIngestionException(
+                        String.format("Unable to ingest. storeId=%s, fileName=%s", storeId, fileName), e);
+            } finally {
+                metricsListener.accept(pipeline.getMetrics());
+            }
+        }
+
+        FileParser<ProductRecord> fileParser = ingestionMode == IngestionMode.PARALLEL
+                ? storeFactory.getParallelFileParser(storeId, storeJournalId)
+                : storeFactory.getFileParser(storeId, storeJournalId);
+
+        try {
+            return ingest(fileParser, storeId, fileName, user, consumer);
+        } finally {
+            metricsListener.accept(Collections.emptyList());
+        }
+    }
+
+    /**
+     * Ingests store product catalog, holding a mappings permit only while lines are mapped and consumed.
+     * The file is read serially on the calling thread, so the permit accounts for all of the mapping
+     *
+     * @param storeId
+     * @param fileName
+     * @param user
+     * @param consumer
+     * @param mappings
+     * @return number of records ingested
+     * @throws ProductInfoIngestionException
+     */
+    @Override
+    public long ingestProductCatalog(UUID storeId,
+                                     String fileName,
+                                     String user,
+                                     Consumer<ProductRecord> consumer,
+                                     Semaphore mappings) throws ProductInfoIngestionException {
+
+        //This will be retrieved from DB system that records this info
+        UUID storeJournalId = idGenerator.nextId();
+
+        FileParser<ProductRecord> fileParser = storeFactory.getFileParser(storeId, storeJournalId);
+        Instant now = Instant.now();
+        AtomicLong count = new AtomicLong();
+
+        //the file is opened without a permit, the stream waits for one once it has data to map
+        try (MappingPermitInputStream inputStream =
+                     new MappingPermitInputStream(CompressionType.open(Paths.get(fileName)), mappings);
+             Stream<ProductRecord> productRecords = fileParser.stream(inputStream)) {
             productRecords.forEach(p -> {
-                p.setId(Optional.of(UUID.randomUUID()));
-                p.setCreatedBy(user);
-                p.setCreatedDateTime(now);
+                stampAuditAttributes(p, user, now);
+                consumer.accept(p);
+                count.incrementAndGet();
             });
 
-            return productRecords;
+            return count.get();
+        } catch (IOException | UncheckedIOException e) {
+            throw new ProductInfoIngestionException(
+                    String.format("Unable to ingest. storeId=%s, fileName=%s", storeId, fileName), e);
+        }
+    }
+
+    /**
+     * Ingests store product catalog like the streaming ingestProductCatalog, but malformed lines are
+     * handed to the rejectedLineHandler and skipped.  Ingestion fails once the error budget is exceeded
+     *
+     * @param storeId
+     * @param fileName
+     * @param user
+     * @param consumer
+     * @param rejectedLineHandler
+     * @param errorBudget
+     * @return number of records ingested
+     * @throws ProductInfoIngestionException
+     */
+    @Override
+    public long ingestProductCatalog(UUID storeId,
+                                     String fileName,
+                                     String user,
+                                     Consumer<ProductRecord> consumer,
+                                     RejectedLineHandler rejectedLineHandler,
+                                     ErrorBudget errorBudget) throws ProductInfoIngestionException {
+
+        //This will be retrieved from DB system that records this info
+        UUID storeJournalId = idGenerator.nextId();
+
+        FileParser<ProductRecord> fileParser =
+                storeFactory.getTolerantFileParser(storeId, storeJournalId, rejectedLineHandler, errorBudget);
+
+        return ingest(fileParser, storeId, fileName, user, consumer);
+    }
+
+    /**
+     * Ingests store product catalog, checkpointing progress for the storeJournalId.
+     * Pipelined ingestion hands records over out of band of the parser's cursor, so the checkpointed
+     * ingestion reads serially in that mode
+     *
+     * @param storeId
+     * @param storeJournalId
+     * @param fileName
+     * @param user
+     * @param output
+     * @return number of records ingested
+     * @throws ProductInfoIngestionException
+     */
+    @Override
+    public long ingestProductCatalog(UUID storeId,
+                                     UUID storeJournalId,
+                                     String fileName,
+                                     String user,
+                                     CheckpointedOutput output) throws ProductInfoIngestionException {
+        IngestionCheckpoint start = IngestionCheckpoint.builder()
+                .storeJournalId(storeJournalId)
+                .storeId(storeId)
+                .fileName(fileName)
+                .build();
+
+        return ingest(start, user, output);
+    }
+
+    /**
+     * Resumes a checkpointed ingestion from its last checkpoint
+     *
+     * @param storeJournalId
+     * @param user
+     * @param output
+     * @return number of records ingested for the journal, including those before the checkpoint
+     * @throws ProductInfoIngestionException
+     */
+    @Override
+    public long resumeProductCatalog(UUID storeJournalId,
+                                     String user,
+                                     CheckpointedOutput output) throws ProductInfoIngestionException {
+        IngestionCheckpoint checkpoint = checkpointDao().get(storeJournalId)
+                .orElseThrow(() -> new ProductInfoIngestionException(
+                        String.format("No checkpoint to resume. storeJournalId=%s", storeJournalId), null));
+        if (checkpoint.isCompleted()) {
+            return checkpoint.getRecords();
+        }
+
+        try {
+            output.resume(checkpoint.getOutputPosition());
         } catch (IOException e) {
+            throw new ProductInfoIngestionException(
+                    String.format("Unable to resume output. storeJournalId=%s, outputPosition=%s",
+                            storeJournalId, checkpoint.getOutputPosition()), e);
+        }
+        return ingest(checkpoint, user, output);
+    }
+
+    private long ingest(IngestionCheckpoint from, String user, CheckpointedOutput output)
+            throws ProductInfoIngestionException {
+        IngestionCheckpointDao checkpointDao = checkpointDao();
+        UUID storeId = from.getStoreId();
+        String fileName = from.getFileName();
+
+        FileParser<ProductRecord> fileParser = ingestionMode == IngestionMode.PARALLEL
+                ? storeFactory.getParallelFileParser(storeId, from.getStoreJournalId())
+                : storeFactory.getFileParser(storeId, from.getStoreJournalId());
+
+        Instant now = Instant.now();
+        FileCursor cursor = new FileCursor(from.getByteOffset(), from.getLineNumber());
+        long records = from.getRecords();
+
+        try (Stream<ProductRecord> productRecords = fileParser.stream(Paths.get(fileName), cursor)) {
+            Iterator<ProductRecord> iterator = productRecords.iterator();
+            long uncommitted = 0;
+            while (iterator.hasNext()) {
+                ProductRecord productRecord = iterator.next();
+                stampAuditAttributes(productRecord, user, now);
+                output.accept(productRecord);
+                records++;
+
+                if (++uncommitted == checkpointInterval) {
+                    checkpointDao.save(checkpoint(from, cursor, records, output.commit(), false));
+                    uncommitted = 0;
+                }
+            }
+            checkpointDao.save(checkpoint(from, cursor, records, output.commit(), true));
+
+            return records;
+        } catch (IOException | UncheckedIOException e) {
+            throw new ProductInfoIngestionException(
+                    String.format("Unable to ingest. storeId=%s, fileName=%s, storeJournalId=%s, %s",
+                            storeId, fileName, from.getStoreJournalId(), cursor), e);
+        }
+    }
+
+    private static IngestionCheckpoint checkpoint(IngestionCheckpoint from,
+                                                  FileCursor cursor,
+                                                  long records,
+                                                  long outputPosition,
+                                                  boolean completed) {
+        return from.toBuilder()
+                .byteOffset(cursor.getByteOffset())
+                .lineNumber(cursor.getLineNumber())
+                .records(records)
+                .outputPosition(outputPosition)
+                .completed(completed)
+                .checkpointDateTime(Instant.now())
+                .build();
+    }
+
+    private IngestionCheckpointDao checkpointDao() {
+        if (ingestionCheckpointDao == null) {
+            throw new IllegalStateException("No IngestionCheckpointDao configured");
+        }
+        return ingestionCheckpointDao;
+    }
+
+    private long ingest(FileParser<ProductRecord> fileParser,
+                        UUID storeId,
+                        String fileName,
+                        String user,
+                        Consumer<ProductRecord> consumer) throws ProductInfoIngestionException {
+        Instant now = Instant.now();
+        AtomicLong count = new AtomicLong();
+
+        try (Stream<ProductRecord> productRecords = fileParser.stream(Paths.get(fileName))) {
+            productRecords.forEach(p -> {
+                stampAuditAttributes(p, user, now);
+                consumer.accept(p);
+                count.incrementAndGet();
+            });
+
+            return count.get();
+        } catch (IOException | UncheckedIOException e) {
             throw new ProductInfoIngestionException(
                     String.format("Unable to ingest. storeId=%s, fileName=%s", storeId, fileName), e);
         }
     }
+
+    /**
+     * Simulates the audit attributes the DB would generate on persist
+     *
+     * @param productRecord
+     * @param user
+     * @param now
+     */
+    private void stampAuditAttributes(ProductRecord productRecord, String user, Instant now) {
+        productRecord.setId(Optional.of(idGenerator.nextId()));
+        productRecord.setCreatedBy(user);
+        productRecord.setCreatedDateTime(now);
+    }
 }
@@ -0,0 +1,606 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.store;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.github.samsonkim.lib.productinfoingestion.model.Money;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecordView;
+import com.github.samsonkim.lib.productinfoingestion.model.UnitOfMeasure;
+
+import java.io.Closeable;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Catalog of ProductRecords from one store journal held outside of the Java heap, so multi-million record
+ * catalogs add almost nothing for the garbage collector to trace.
+ *
+ * Records have a fixed binary layout of RECORD_SIZE bytes in pages of direct ByteBuffers and are read through
+ * typed accessors by index.  Descriptions and product sizes live in an OffHeapStringArena, while display prices
+ * and tax rates, of which a catalog has few distinct values, are kept once on the heap and referred to by index.
+ * Fields shared by the whole journal (store, store journal, locale and audit attributes) are kept once,
+ * taken from the first record appended, see accepts.
+ *
+ * A parser appends straight from its reusable view, e.g. FlyweightFileParser.forEach(path, store::append),
+ * and the store serializes to the same Json as the equivalent List&lt;ProductRecord&gt;.
+ *
+ * Not thread-safe.  Off-heap memory is freed once the store is closed and collected
+ */
+@JsonSerialize(using = OffHeapProductRecordStoreSerializer.class)
+public final class OffHeapProductRecordStore implements Closeable {
+    public static final int DEFAULT_RECORDS_PER_PAGE = 1 << 16;
+
+    //record layout
+    private static final int ID_MOST_SIGNIFICANT_BITS = 0;
+    private static final int ID_LEAST_SIGNIFICANT_BITS = 8;
+    private static final int REGULAR_CALCULATOR_PRICE = 16;
+    private static final int PROMOTIONAL_CALCULATOR_PRICE = 24;
+    private static final int PRODUCT_DESCRIPTION = 32;
+    private static final int PRODUCT_SIZE = 40;
+    private static final int PRODUCT_ID = 48;
+    private static final int FLAGS = 52;
+    private static final int REGULAR_DISPLAY_PRICE = 56;
+    private static final int PROMOTIONAL_DISPLAY_PRICE = 60;
+    private static final int TAX_RATE = 64;
+
+    /**
+     * Bytes per record, a multiple of 8 so every long is aligned
+     */
+    public static final int RECORD_SIZE = 72;
+
+    //flags, Optional fields are null, empty or present
+    private static final int NULL = 0;
+    private static final int EMPTY = 1;
+    private static final int PRESENT = 2;
+    private static final int OPTIONAL_MASK = 3;
+    private static final int ID_SHIFT = 0;
+    private static final int PRODUCT_SIZE_SHIFT = 2;
+    private static final int TAX_RATE_SHIFT = 4;
+    private static final int HAS_PRODUCT_ID = 1 << 6;
+    private static final int HAS_REGULAR_CALCULATOR_PRICE = 1 << 7;
+    private static final int HAS_PROMOTIONAL_CALCULATOR_PRICE = 1 << 8;
+    //unit of measure ordinal + 1, 0 when null
+    private static final int UNIT_OF_MEASURE_SHIFT = 9;
+
+    private static final int NO_INDEX = -1;
+    private static final UnitOfMeasure[] UNITS_OF_MEASURE = UnitOfMeasure.values();
+
+    private final int recordsPerPage;
+    private final List<ByteBuffer> pages = new ArrayList<>();
+    private final OffHeapStringArena arena;
+    private final Dictionary<String> displayPrices = new Dictionary<>();
+    private final Dictionary<BigDecimal> taxRates = new Dictionary<>();
+    private int size;
+    private boolean closed;
+
+    private UUID storeId;
+    private UUID storeJournalId;
+    private Locale locale;
+    private Instant createdDateTime;
+    private String createdBy;
+    private Instant modifiedDateTime;
+    private String modifiedBy;
+
+    public OffHeapProductRecordStore() {
+        this(DEFAULT_RECORDS_PER_PAGE, OffHeapStringArena.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param recordsPerPage records per direct ByteBuffer page
+     * @param stringPageSize bytes per page of the string arena
+     */
+    public OffHeapProductRecordStore(int recordsPerPage, int stringPageSize) {
+        if (recordsPerPage < 1 || recordsPerPage > Integer.MAX_VALUE / RECORD_SIZE) {
+            throw new IllegalArgumentException(String.format("Invalid recordsPerPage: %d", recordsPerPage));
+        }
+        this.recordsPerPage = recordsPerPage;
+        this.arena = new OffHeapStringArena(stringPageSize);
+    }
+
+    /**
+     * Whether the record has the store's shared fields, always true for an empty store
+     *
+     * @param productRecord
+     * @return
+     */
+    public boolean accepts(ProductRecord productRecord) {
+        return size == 0 ||
+                (Objects.equals(storeId, productRecord.getStoreId()) &&
+                        Objects.equals(storeJournalId, productRecord.getStoreJournalId()) &&
+                        Objects.equals(locale, productRecord.getLocale()) &&
+                        Objects.equals(createdDateTime, productRecord.getCreatedDateTime()) &&
+                        Objects.equals(createdBy, productRecord.getCreatedBy()) &&
+                        Objects.equals(modifiedDateTime, productRecord.getModifiedDateTime()) &&
+                        Objects.equals(modifiedBy, productRecord.getModifiedBy()));
+    }
+
+    /**
+     * Appends a copy of the record
+     *
+     * @param productRecord
+     * @return index of the record
+     * @throws IllegalArgumentException if the record's shared fields differ from the store's, see accepts
+     */
+    public int append(ProductRecord productRecord) {
+        if (!accepts(productRecord)) {
+            throw new IllegalArgumentException(String.format(
+                    "ProductRecord does not share the store's fields. storeJournalId=%s, productID=%s",
+                    storeJournalId, productRecord.getProductID()));
+        }
+        if (size == 0) {
+            storeId = productRecord.getStoreId();
+            storeJournalId = productRecord.getStoreJournalId();
+            locale = productRecord.getLocale();
+            createdDateTime = productRecord.getCreatedDateTime();
+            createdBy = productRecord.getCreatedBy();
+            modifiedDateTime = productRecord.getModifiedDateTime();
+            modifiedBy = productRecord.getModifiedBy();
+        }
+
+        ByteBuffer page = nextRecord();
+        int offset = offset(size);
+        int flags = 0;
+
+        Optional<UUID> id = productRecord.getId();
+        flags |= optionalState(id) << ID_SHIFT;
+        UUID uuid = id == null ? null : id.orElse(null);
+        page.putLong(offset + ID_MOST_SIGNIFICANT_BITS, uuid == null ? 0L : uuid.getMostSignificantBits());
+        page.putLong(offset + ID_LEAST_SIGNIFICANT_BITS, uuid == null ? 0L : uuid.getLeastSignificantBits());
+
+        Integer productID = productRecord.getProductID();
+        flags |= productID == null ? 0 : HAS_PRODUCT_ID;
+        page.putInt(offset + PRODUCT_ID, productID == null ? 0 : productID);
+
+        Money regularPrice = productRecord.getRegularCalculatorPrice();
+        flags |= regularPrice == null ? 0 : HAS_REGULAR_CALCULATOR_PRICE;
+        page.putLong(offset + REGULAR_CALCULATOR_PRICE, regularPrice == null ? 0L : regularPrice.getScaled());
+
+        Money promotionalPrice = productRecord.getPromotionalCalculatorPrice();
+        flags |= promotionalPrice == null ? 0 : HAS_PROMOTIONAL_CALCULATOR_PRICE;
+        page.putLong(offset + PROMOTIONAL_CALCULATOR_PRICE, promotionalPrice == null ? 0L : promotionalPrice.getScaled());
+
+        Optional<String> productSize = productRecord.getProductSize();
+        flags |= optionalState(productSize) << PRODUCT_SIZE_SHIFT;
+        page.putLong(offset + PRODUCT_SIZE, arena.append(productSize == null ? null : productSize.orElse(null)));
+
+        Optional<BigDecimal> taxRate = productRecord.getTaxRate();
+        flags |= optionalState(taxRate) << TAX_RATE_SHIFT;
+        page.putInt(offset + TAX_RATE, taxRates.indexOf(taxRate == null ? null : taxRate.orElse(null)));
+
+        UnitOfMeasure unitOfMeasure = productRecord.getUnitOfMeasure();
+        flags |= (unitOfMeasure == null ? 0 : unitOfMeasure.ordinal() + 1) << UNIT_OF_MEASURE_SHIFT;
+
+        page.putLong(offset + PRODUCT_DESCRIPTION, arena.append(productRecord.getProductDescription()));
+        page.putInt(offset + REGULAR_DISPLAY_PRICE, displayPrices.indexOf(productRecord.getRegularDisplayPrice()));
+        page.putInt(offset + PROMOTIONAL_DISPLAY_PRICE, displayPrices.indexOf(productRecord.getPromotionalDisplayPrice()));
+        page.putInt(offset + FLAGS, flags);
+        return size++;
+    }
+
+    /**
+     * Appends a mapped view without an id, copying its text straight into the arena
+     *
+     * @param view
+     * @return index of the record
+     * @throws IllegalArgumentException if the view is of another store journal
+     */
+    public int append(ProductRecordView view) {
+        return append(view, null);
+    }
+
+    /**
+     * Appends a mapped view, copying its text straight into the arena.
+     * Stored like the ProductRecord view.toProductRecord() with the id, without creating it
+     *
+     * @param view
+     * @param id null for no id
+     * @return index of the record
+     * @throws IllegalArgumentException if the view is of another store journal
+     */
+    public int append(ProductRecordView view, UUID id) {
+        if (size == 0) {
+            storeId = view.getStoreId();
+            storeJournalId = view.getStoreJournalId();
+            locale = view.getLocale();
+        } else if (!Objects.equals(storeId, view.getStoreId()) ||
+                !Objects.equals(storeJournalId, view.getStoreJournalId()) ||
+                !Objects.equals(locale, view.getLocale())) {
+            throw new IllegalArgumentException(String.format(
+                    "ProductRecordView does not share the store's fields. storeJournalId=%s, productID=%s",
+                    storeJournalId, view.getProductID()));
+        }
+
+        ByteBuffer page = nextRecord();
+        int offset = offset(size);
+        int flags = HAS_PRODUCT_ID | HAS_REGULAR_CALCULATOR_PRICE | HAS_PROMOTIONAL_CALCULATOR_PRICE;
+
+        flags |= (id == null ? NULL : PRESENT) << ID_SHIFT;
+        page.putLong(offset + ID_MOST_SIGNIFICANT_BITS, id == null ? 0L : id.getMostSignificantBits());
+        page.putLong(offset + ID_LEAST_SIGNIFICANT_BITS, id == null ? 0L : id.getLeastSignificantBits());
+        page.putInt(offset + PRODUCT_ID, view.getProductID());
+        page.putLong(offset + REGULAR_CALCULATOR_PRICE, view.getRegularCalculatorPrice());
+        page.putLong(offset + PROMOTIONAL_CALCULATOR_PRICE, view.getPromotionalCalculatorPrice());
+
+        CharSequence description = view.getProductDescription();
+        page.putLong(offset + PRODUCT_DESCRIPTION, description.length() > 0 ? arena.append(description) : OffHeapStringArena.NULL);
+
+        CharSequence productSize = view.getProductSize();
+        flags |= (productSize.length() > 0 ? PRESENT : EMPTY) << PRODUCT_SIZE_SHIFT;
+        page.putLong(offset + PRODUCT_SIZE, productSize.length() > 0 ? arena.append(productSize) : OffHeapStringArena.NULL);
+
+        BigDecimal taxRate = view.getTaxRate();
+        flags |= (taxRate == null ? EMPTY : PRESENT) << TAX_RATE_SHIFT;
+        page.putInt(offset + TAX_RATE, taxRates.indexOf(taxRate));
+
+        UnitOfMeasure unitOfMeasure = view.getUnitOfMeasure();
+        flags |= (unitOfMeasure == null ? 0 : unitOfMeasure.ordinal() + 1) << UNIT_OF_MEASURE_SHIFT;
+
+        page.putInt(offset + REGULAR_DISPLAY_PRICE, displayPrices.indexOf(view.getRegularDisplayPrice()));
+        page.putInt(offset + PROMOTIONAL_DISPLAY_PRICE, displayPrices.indexOf(view.getPromotionalDisplayPrice()));
+        page.putInt(offset + FLAGS, flags);
+        return size++;
+    }
+
+    /**
+     * Stamps the audit attributes shared by every record, e.g. after appending views
+     *
+     * @param user
+     * @param now
+     */
+    public void setCreated(String user, Instant now) {
+        this.createdBy = user;
+        this.createdDateTime = now;
+    }
+
+    /**
+     * Stamps the audit attributes shared by every record
+     *
+     * @param user
+     * @param now
+     */
+    public void setModified(String user, Instant now) {
+        this.modifiedBy = user;
+        this.modifiedDateTime = now;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Copies a record back onto the heap
+     *
+     * @param index
+     * @return
+     */
+    public ProductRecord get(int index) {
+        return ProductRecord.builder()
+                .id(getId(index))
+                .storeId(storeId)
+                .storeJournalId(storeJournalId)
+                .productID(hasProductID(index) ? getProductID(index) : null)
+                .productDescription(getProductDescription(index))
+                .regularDisplayPrice(getRegularDisplayPrice(index))
+                .regularCalculatorPrice(getRegularCalculatorPrice(index))
+                .promotionalDisplayPrice(getPromotionalDisplayPrice(index))
+                .promotionalCalculatorPrice(getPromotionalCalculatorPrice(index))
+                .unitOfMeasure(getUnitOfMeasure(index))
+                .productSize(getProductSize(index))
+                .taxRate(getTaxRate(index))
+                .createdDateTime(createdDateTime)
+                .createdBy(createdBy)
+                .modifiedDateTime(modifiedDateTime)
+                .modifiedBy(modifiedBy)
+                .locale(locale)
+                .build();
+    }
+
+    public Optional<UUID> getId(int index) {
+        switch (optionalState(index, ID_SHIFT)) {
+            case PRESENT:
+                return Optional.of(new UUID(getIdMostSignificantBits(index), getIdLeastSignificantBits(index)));
+            case EMPTY:
+                return Optional.empty();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param index
+     * @return whether the id is present
+     */
+    public boolean hasId(int index) {
+        return optionalState(index, ID_SHIFT) == PRESENT;
+    }
+
+    public long getIdMostSignificantBits(int index) {
+        return page(index).getLong(offset(index) + ID_MOST_SIGNIFICANT_BITS);
+    }
+
+    public long getIdLeastSignificantBits(int index) {
+        return page(index).getLong(offset(index) + ID_LEAST_SIGNIFICANT_BITS);
+    }
+
+    public boolean hasProductID(int index) {
+        return (flags(index) & HAS_PRODUCT_ID) != 0;
+    }
+
+    /**
+     * @param index
+     * @return 0 when hasProductID is false
+     */
+    public int getProductID(int index) {
+        return page(index).getInt(offset(index) + PRODUCT_ID);
+    }
+
+    public String getProductDescription(int index) {
+        return arena.get(getProductDescriptionAddress(index));
+    }
+
+    /**
+     * Address of the description in getStrings
+     *
+     * @param index
+     * @return OffHeapStringArena.NULL when there is no description
+     */
+    public long getProductDescriptionAddress(int index) {
+        return page(index).getLong(offset(index) + PRODUCT_DESCRIPTION);
+    }
+
+    public String getRegularDisplayPrice(int index) {
+        return displayPrices.get(page(index).getInt(offset(index) + REGULAR_DISPLAY_PRICE));
+    }
+
+    public boolean hasRegularCalculatorPrice(int index) {
+        return (flags(index) & HAS_REGULAR_CALCULATOR_PRICE) != 0;
+    }
+
+    /**
+     * @param index
+     * @return null when there is no regular price
+     */
+    public Money getRegularCalculatorPrice(int index) {
+        return hasRegularCalculatorPrice(index) ? Money.ofScaled(getRegularCalculatorPriceScaled(index)) : null;
+    }
+
+    /**
+     * Regular calculator price in 1/10000 units
+     *
+     * @param index
+     * @return 0 when there is no regular price
+     */
+    public long getRegularCalculatorPriceScaled(int index) {
+        return page(index).getLong(offset(index) + REGULAR_CALCULATOR_PRICE);
+    }
+
+    public String getPromotionalDisplayPrice(int index) {
+        return displayPrices.get(page(index).getInt(offset(index) + PROMOTIONAL_DISPLAY_PRICE));
+    }
+
+    public boolean hasPromotionalCalculatorPrice(int index) {
+        return (flags(index) & HAS_PROMOTIONAL_CALCULATOR_PRICE) != 0;
+    }
+
+    /**
+     * @param index
+     * @return null when there is no promotional price
+     */
+    public Money getPromotionalCalculatorPrice(int index) {
+        return hasPromotionalCalculatorPrice(index) ? Money.ofScaled(getPromotionalCalculatorPriceScaled(index)) : null;
+    }
+
+    /**
+     * Promotional calculator price in 1/10000 units
+     *
+     * @param index
+     * @return 0 when there is no promotional price
+     */
+    public long getPromotionalCalculatorPriceScaled(int index) {
+        return page(index).getLong(offset(index) + PROMOTIONAL_CALCULATOR_PRICE);
+    }
+
+    public UnitOfMeasure getUnitOfMeasure(int index) {
+        int ordinal = flags(index) >>> UNIT_OF_MEASURE_SHIFT;
+        return ordinal == 0 ? null : UNITS_OF_MEASURE[ordinal - 1];
+    }
+
+    public Optional<String> getProductSize(int index) {
+        switch (optionalState(index, PRODUCT_SIZE_SHIFT)) {
+            case PRESENT:
+                return Optional.of(arena.get(getProductSizeAddress(index)));
+            case EMPTY:
+                return Optional.empty();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Address of the product size in getStrings
+     *
+     * @param index
+     * @return OffHeapStringArena.NULL when there is no product size
+     */
+    public long getProductSizeAddress(int index) {
+        return page(index).getLong(offset(index) + PRODUCT_SIZE);
+    }
+
+    public Optional<BigDecimal> getTaxRate(int index) {
+        switch (optionalState(index, TAX_RATE_SHIFT)) {
+            case PRESENT:
+                return Optional.of(getTaxRateValue(index));
+            case EMPTY:
+                return Optional.empty();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param index
+     * @return null when there is no tax rate
+     */
+    public BigDecimal getTaxRateValue(int index) {
+        return taxRates.get(page(index).getInt(offset(index) + TAX_RATE));
+    }
+
+    /**
+     * Arena holding the descriptions and product sizes
+     *
+     * @return
+     */
+    public OffHeapStringArena getStrings() {
+        return arena;
+    }
+
+    public UUID getStoreId() {
+        return storeId;
+    }
+
+    public UUID getStoreJournalId() {
+        return storeJournalId;
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    public Instant getCreatedDateTime() {
+        return createdDateTime;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public Instant getModifiedDateTime() {
+        return modifiedDateTime;
+    }
+
+    public String getModifiedBy() {
+        return modifiedBy;
+    }
+
+    /**
+     * Bytes allocated outside of the heap for records and strings
+     *
+     * @return
+     */
+    public long getAllocatedBytes() {
+        return (long) pages.size() * recordsPerPage * RECORD_SIZE + arena.getAllocatedBytes();
+    }
+
+    /**
+     * Drops the records and strings, their memory is freed once collected
+     */
+    @Override
+    public void close() {
+        closed = true;
+        pages.clear();
+        arena.clear();
+        size = 0;
+    }
+
+    private ByteBuffer nextRecord() {
+        if (closed) {
+            throw new IllegalStateException("Store is closed");
+        }
+        if (size == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Store is full");
+        }
+        int page = size / recordsPerPage;
+        if (page == pages.size()) {
+            pages.add(ByteBuffer.allocateDirect(recordsPerPage * RECORD_SIZE).order(ByteOrder.nativeOrder()));
+        }
+        return pages.get(page);
+    }
+
+    private ByteBuffer page(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("index: %d, size: %d", index, size));
+        }
+        return pages.get(index / recordsPerPage);
+    }
+
+    private int offset(int index) {
+        return (index % recordsPerPage) * RECORD_SIZE;
+    }
+
+    private int flags(int index) {
+        return page(index).getInt(offset(index) + FLAGS);
+    }
+
+    private int optionalState(int index, int shift) {
+        return (flags(index) >>> shift) & OPTIONAL_MASK;
+    }
+
+    private static int optionalState(Optional<?> optional) {
+        if (optional == null) {
+            return NULL;
+        }
+        return optional.isPresent() ? PRESENT : EMPTY;
+    }
+
+    /**
+     * Distinct values referred to by index
+     */
+    private static final class Dictionary<T> {
+        private final List<T> values = new ArrayList<>();
+        private final Map<T, Integer> indexes = new HashMap<>();
+
+        int indexOf(T value) {
+            if (value == null) {
+                return NO_INDEX;
+            }
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = values.size();
+                values.add(value);
+                indexes.put(value, index);
+            }
+            return index;
+        }
+
+        T get(int index) {
+            return index == NO_INDEX ? null : values.get(index);
+        }
+    }
+}
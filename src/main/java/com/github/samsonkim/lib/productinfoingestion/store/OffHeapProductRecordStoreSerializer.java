@@ -0,0 +1,152 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.store;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.github.samsonkim.lib.productinfoingestion.model.Money;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecordSerializer;
+import com.github.samsonkim.lib.productinfoingestion.model.UnitOfMeasure;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Writes an OffHeapProductRecordStore as the Json array of its ProductRecords, field for field the same as
+ * ProductRecordSerializer writes a List&lt;ProductRecord&gt;.
+ *
+ * Fields are read straight out of the store's pages, no ProductRecord is created per record.
+ * The fields shared by the store are formatted once
+ */
+public class OffHeapProductRecordStoreSerializer extends StdSerializer<OffHeapProductRecordStore> {
+    private static final long serialVersionUID = 1L;
+
+    public OffHeapProductRecordStoreSerializer() {
+        super(OffHeapProductRecordStore.class);
+    }
+
+    @Override
+    public void serialize(OffHeapProductRecordStore value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        ProductRecordSerializer productRecordSerializer = new ProductRecordSerializer();
+        String storeId = format(value.getStoreId());
+        String storeJournalId = format(value.getStoreJournalId());
+        String createdDateTime = productRecordSerializer.formatDateTime(value.getCreatedDateTime());
+        String modifiedDateTime = productRecordSerializer.formatDateTime(value.getModifiedDateTime());
+        String locale = value.getLocale() == null ? null : value.getLocale().toString();
+        char[] buffer = new char[Math.max(ProductRecordSerializer.UUID_LENGTH, Money.MAX_LENGTH)];
+
+        gen.writeStartArray(value.size());
+        for (int i = 0; i < value.size(); i++) {
+            gen.writeStartObject();
+
+            gen.writeFieldName("id");
+            if (value.hasId(i)) {
+                ProductRecordSerializer.formatUUID(value.getIdMostSignificantBits(i), value.getIdLeastSignificantBits(i), buffer);
+                gen.writeString(buffer, 0, ProductRecordSerializer.UUID_LENGTH);
+            } else {
+                gen.writeNull();
+            }
+            gen.writeFieldName("storeId");
+            gen.writeString(storeId);
+            gen.writeFieldName("storeJournalId");
+            gen.writeString(storeJournalId);
+
+            gen.writeFieldName("productID");
+            if (value.hasProductID(i)) {
+                gen.writeNumber(value.getProductID(i));
+            } else {
+                gen.writeNull();
+            }
+            gen.writeFieldName("productDescription");
+            buffer = writeString(value.getStrings(), value.getProductDescriptionAddress(i), buffer, gen);
+
+            gen.writeFieldName("regularDisplayPrice");
+            gen.writeString(value.getRegularDisplayPrice(i));
+            gen.writeFieldName("regularCalculatorPrice");
+            writeMoney(value.hasRegularCalculatorPrice(i), value.getRegularCalculatorPriceScaled(i), buffer, gen);
+            gen.writeFieldName("promotionalDisplayPrice");
+            gen.writeString(value.getPromotionalDisplayPrice(i));
+            gen.writeFieldName("promotionalCalculatorPrice");
+            writeMoney(value.hasPromotionalCalculatorPrice(i), value.getPromotionalCalculatorPriceScaled(i), buffer, gen);
+
+            gen.writeFieldName("unitOfMeasure");
+            UnitOfMeasure unitOfMeasure = value.getUnitOfMeasure(i);
+            gen.writeString(unitOfMeasure == null ? null : unitOfMeasure.name());
+            gen.writeFieldName("productSize");
+            buffer = writeString(value.getStrings(), value.getProductSizeAddress(i), buffer, gen);
+            gen.writeFieldName("taxRate");
+            BigDecimal taxRate = value.getTaxRateValue(i);
+            if (taxRate == null) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(taxRate);
+            }
+
+            gen.writeFieldName("createdDateTime");
+            gen.writeString(createdDateTime);
+            gen.writeFieldName("createdBy");
+            gen.writeString(value.getCreatedBy());
+            gen.writeFieldName("modifiedDateTime");
+            gen.writeString(modifiedDateTime);
+            gen.writeFieldName("modifiedBy");
+            gen.writeString(value.getModifiedBy());
+            gen.writeFieldName("locale");
+            gen.writeString(locale);
+
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+    private static String format(UUID value) {
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * @return the buffer, grown if the string needed more room
+     */
+    private static char[] writeString(OffHeapStringArena strings, long address, char[] buffer, JsonGenerator gen) throws IOException {
+        if (address == OffHeapStringArena.NULL) {
+            gen.writeNull();
+            return buffer;
+        }
+        int byteLength = strings.byteLength(address);
+        if (byteLength > buffer.length) {
+            buffer = new char[Math.max(byteLength, buffer.length * 2)];
+        }
+        gen.writeString(buffer, 0, strings.getChars(address, buffer));
+        return buffer;
+    }
+
+    private static void writeMoney(boolean present, long scaled, char[] buffer, JsonGenerator gen) throws IOException {
+        if (present) {
+            gen.writeRawValue(buffer, 0, Money.ofScaled(scaled).writeTo(buffer, 0));
+        } else {
+            gen.writeNull();
+        }
+    }
+}
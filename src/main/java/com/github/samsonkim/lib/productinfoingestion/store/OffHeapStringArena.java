@@ -0,0 +1,241 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.store;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append only store of strings in pages of direct ByteBuffers, outside of the Java heap.
+ * Each string is kept as its UTF-8 byte length followed by its bytes and never spans pages,
+ * it is referred to by the address returned by append.
+ *
+ * Pages are freed once the arena is closed and collected.  Not thread-safe
+ */
+public final class OffHeapStringArena {
+    public static final int DEFAULT_PAGE_SIZE = 4 << 20;
+
+    /**
+     * Address of a null string
+     */
+    public static final long NULL = -1L;
+
+    private static final int LENGTH_BYTES = Integer.BYTES;
+
+    private final int pageSize;
+    private final List<ByteBuffer> pages = new ArrayList<>();
+    private ByteBuffer current;
+    private long usedBytes;
+
+    public OffHeapStringArena() {
+        this(DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param pageSize bytes per page, the longest string that can be stored
+     */
+    public OffHeapStringArena(int pageSize) {
+        if (pageSize <= LENGTH_BYTES) {
+            throw new IllegalArgumentException(String.format("Invalid pageSize: %d", pageSize));
+        }
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Appends a string, encoding it straight into the page
+     *
+     * @param value
+     * @return address of the string, NULL if the value is null
+     * @throws IllegalArgumentException if the string does not fit in a page
+     */
+    public long append(CharSequence value) {
+        return value == null ? NULL : append(value, 0, value.length());
+    }
+
+    /**
+     * Appends the characters [start, end) of a value, encoding them straight into the page
+     *
+     * @param value
+     * @param start
+     * @param end
+     * @return address of the string
+     * @throws IllegalArgumentException if the string does not fit in a page
+     */
+    public long append(CharSequence value, int start, int end) {
+        int length = encodedLength(value, start, end);
+        if (length > pageSize - LENGTH_BYTES) {
+            throw new IllegalArgumentException(String.format("String of %d bytes exceeds pageSize: %d", length, pageSize));
+        }
+        if (current == null || current.remaining() < LENGTH_BYTES + length) {
+            current = ByteBuffer.allocateDirect(pageSize).order(ByteOrder.nativeOrder());
+            pages.add(current);
+        }
+
+        long address = (long) (pages.size() - 1) * pageSize + current.position();
+        current.putInt(length);
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                current.put((byte) c);
+            } else if (c < 0x800) {
+                current.put((byte) (0xc0 | (c >> 6)));
+                current.put((byte) (0x80 | (c & 0x3f)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                current.put((byte) (0xf0 | (codePoint >> 18)));
+                current.put((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+                current.put((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+                current.put((byte) (0x80 | (codePoint & 0x3f)));
+            } else if (Character.isSurrogate(c)) {
+                //unpaired surrogate, replaced like String.getBytes
+                current.put((byte) '?');
+            } else {
+                current.put((byte) (0xe0 | (c >> 12)));
+                current.put((byte) (0x80 | ((c >> 6) & 0x3f)));
+                current.put((byte) (0x80 | (c & 0x3f)));
+            }
+        }
+        usedBytes += LENGTH_BYTES + length;
+        return address;
+    }
+
+    /**
+     * UTF-8 length in bytes of a string, an upper bound of its length in chars
+     *
+     * @param address
+     * @return
+     */
+    public int byteLength(long address) {
+        return page(address).getInt(offset(address));
+    }
+
+    /**
+     * Decodes a string into the buffer
+     *
+     * @param address
+     * @param buffer at least byteLength long
+     * @return number of chars decoded
+     */
+    public int getChars(long address, char[] buffer) {
+        ByteBuffer page = page(address);
+        int offset = offset(address);
+        int end = offset + LENGTH_BYTES + page.getInt(offset);
+
+        int length = 0;
+        for (int i = offset + LENGTH_BYTES; i < end; ) {
+            int b = page.get(i++);
+            if (b >= 0) {
+                buffer[length++] = (char) b;
+            } else if ((b & 0xe0) == 0xc0) {
+                buffer[length++] = (char) (((b & 0x1f) << 6) | (page.get(i++) & 0x3f));
+            } else if ((b & 0xf0) == 0xe0) {
+                buffer[length++] = (char) (((b & 0x0f) << 12) | ((page.get(i++) & 0x3f) << 6) | (page.get(i++) & 0x3f));
+            } else {
+                int codePoint = ((b & 0x07) << 18) | ((page.get(i++) & 0x3f) << 12)
+                        | ((page.get(i++) & 0x3f) << 6) | (page.get(i++) & 0x3f);
+                buffer[length++] = Character.highSurrogate(codePoint);
+                buffer[length++] = Character.lowSurrogate(codePoint);
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Copies a string back onto the heap
+     *
+     * @param address
+     * @return null for NULL
+     */
+    public String get(long address) {
+        if (address == NULL) {
+            return null;
+        }
+        ByteBuffer page = page(address);
+        int offset = offset(address);
+        byte[] bytes = new byte[page.getInt(offset)];
+        ByteBuffer source = page.duplicate();
+        source.position(offset + LENGTH_BYTES);
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Bytes taken by the strings
+     *
+     * @return
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Bytes allocated outside of the heap
+     *
+     * @return
+     */
+    public long getAllocatedBytes() {
+        return (long) pages.size() * pageSize;
+    }
+
+    /**
+     * Drops the pages, their memory is freed once they are collected
+     */
+    public void clear() {
+        pages.clear();
+        current = null;
+        usedBytes = 0;
+    }
+
+    private ByteBuffer page(long address) {
+        return pages.get((int) (address / pageSize));
+    }
+
+    private int offset(long address) {
+        return (int) (address % pageSize);
+    }
+
+    private static int encodedLength(CharSequence value, int start, int end) {
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.util;
+
+import com.github.samsonkim.lib.productinfoingestion.model.Money;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread-safe replacement for NumberFormat.getCurrencyInstance formatting scaled currency values (1/10000 units).
+ * Produces the same display prices as the locale's currency NumberFormat formatting the equivalent BigDecimal.
+ *
+ * The locale's prefixes, suffixes, separators and fraction digits are read from its DecimalFormat once,
+ * after that digits are written straight into a per-thread buffer.
+ * Formatted display prices, including split "N for $X" prices, are kept in a bounded cache indexed by value,
+ * as catalogs reuse a few thousand distinct prices most lines are formatted without creating a String
+ */
+public final class CurrencyFormatter {
+    /**
+     * Number of cached display prices, per kind
+     */
+    public static final int DEFAULT_CACHE_SIZE = 4096;
+
+    private static final ConcurrentMap<Locale, CurrencyFormatter> INSTANCES = new ConcurrentHashMap<>();
+    private static final String FOR_X_SEPARATOR = " for ";
+    //Long.MIN_VALUE digits plus its grouping separators
+    private static final int MAX_DIGITS = 19 + 6;
+    private static final int MAX_FOR_X_DIGITS = 11;
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1000L, 10000L};
+
+    private final Locale locale;
+    private final String positivePrefix;
+    private final String positiveSuffix;
+    private final String negativePrefix;
+    private final String negativeSuffix;
+    private final char groupingSeparator;
+    private final int groupingSize;
+    private final char decimalSeparator;
+    private final char zeroDigit;
+    private final int minimumFractionDigits;
+    private final int maximumFractionDigits;
+    private final int extraFractionZeros;
+    private final int maxLength;
+
+    private final CachedPrice[] prices;
+    private final CachedPrice[] forXPrices;
+    private final int cacheMask;
+    private final ThreadLocal<char[]> buffers;
+
+    /**
+     * @param locale
+     * @param cacheSize rounded up to a power of 2
+     * @throws IllegalArgumentException if the locale's currency format is not a DecimalFormat
+     */
+    public CurrencyFormatter(Locale locale, int cacheSize) {
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException(String.format("Invalid cacheSize: %d", cacheSize));
+        }
+        NumberFormat numberFormat = NumberFormat.getCurrencyInstance(locale);
+        if (!(numberFormat instanceof DecimalFormat)) {
+            throw new IllegalArgumentException(String.format("Unsupported currency format for locale: %s", locale));
+        }
+        DecimalFormat format = (DecimalFormat) numberFormat;
+        DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+
+        this.locale = locale;
+        this.positivePrefix = format.getPositivePrefix();
+        this.positiveSuffix = format.getPositiveSuffix();
+        this.negativePrefix = format.getNegativePrefix();
+        this.negativeSuffix = format.getNegativeSuffix();
+        this.groupingSeparator = symbols.getGroupingSeparator();
+        this.groupingSize = format.isGroupingUsed() ? format.getGroupingSize() : 0;
+        this.decimalSeparator = symbols.getMonetaryDecimalSeparator();
+        this.zeroDigit = symbols.getZeroDigit();
+        //scaled values have no more than 4 significant fraction digits, the rest can only be zeros
+        this.maximumFractionDigits = Math.min(format.getMaximumFractionDigits(), ProductInfoIngestionUtils.CURRENCY_SCALE);
+        this.minimumFractionDigits = Math.min(format.getMinimumFractionDigits(), maximumFractionDigits);
+        this.extraFractionZeros = Math.max(0, format.getMinimumFractionDigits() - maximumFractionDigits);
+        this.maxLength = Math.max(positivePrefix.length() + positiveSuffix.length(),
+                negativePrefix.length() + negativeSuffix.length())
+                + MAX_DIGITS + 1 + format.getMinimumFractionDigits() + ProductInfoIngestionUtils.CURRENCY_SCALE
+                + MAX_FOR_X_DIGITS + FOR_X_SEPARATOR.length();
+
+        int size = Integer.highestOneBit(Math.max(1, cacheSize - 1)) << 1;
+        this.prices = new CachedPrice[size];
+        this.forXPrices = new CachedPrice[size];
+        this.cacheMask = size - 1;
+        this.buffers = ThreadLocal.withInitial(() -> new char[maxLength]);
+    }
+
+    public CurrencyFormatter(Locale locale) {
+        this(locale, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Shared formatter for the locale
+     *
+     * @param locale
+     * @return
+     */
+    public static CurrencyFormatter getInstance(Locale locale) {
+        return INSTANCES.computeIfAbsent(locale, CurrencyFormatter::new);
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * Formats a scaled currency value, e.g. 56700 as $5.67
+     *
+     * @param scaledValue
+     * @return
+     */
+    public String format(long scaledValue) {
+        int slot = slot(scaledValue, 0);
+        CachedPrice cached = prices[slot];
+        if (cached != null && cached.price == scaledValue) {
+            return cached.displayPrice;
+        }
+
+        char[] buffer = buffers.get();
+        String displayPrice = new String(buffer, 0, write(buffer, 0, scaledValue));
+        //racy publication is safe, CachedPrice is immutable
+        prices[slot] = new CachedPrice(scaledValue, 0, displayPrice);
+        return displayPrice;
+    }
+
+    public String format(Money value) {
+        return format(value.getScaled());
+    }
+
+    /**
+     * Formats a value with at most 4 decimal places, rounded half down beyond that
+     *
+     * @param value
+     * @return
+     */
+    public String format(BigDecimal value) {
+        return format(Money.of(value));
+    }
+
+    /**
+     * Formats a split price, e.g. 2 and 10000 as 2 for $1.00, same as String.format("%s for %s", ...)
+     *
+     * @param forX
+     * @param scaledSplitPrice
+     * @return
+     */
+    public String formatForX(int forX, long scaledSplitPrice) {
+        int slot = slot(scaledSplitPrice, forX);
+        CachedPrice cached = forXPrices[slot];
+        if (cached != null && cached.price == scaledSplitPrice && cached.forX == forX) {
+            return cached.displayPrice;
+        }
+
+        char[] buffer = buffers.get();
+        int length = writeInt(buffer, 0, forX);
+        FOR_X_SEPARATOR.getChars(0, FOR_X_SEPARATOR.length(), buffer, length);
+        length += FOR_X_SEPARATOR.length();
+        length += write(buffer, length, scaledSplitPrice);
+
+        String displayPrice = new String(buffer, 0, length);
+        forXPrices[slot] = new CachedPrice(scaledSplitPrice, forX, displayPrice);
+        return displayPrice;
+    }
+
+    private int slot(long price, int forX) {
+        long hash = (price + 31L * forX) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & cacheMask;
+    }
+
+    /**
+     * Writes the display price, rounding half even to the fraction digits like DecimalFormat
+     */
+    private int write(char[] buffer, int offset, long scaledValue) {
+        long divisor = POWERS_OF_TEN[ProductInfoIngestionUtils.CURRENCY_SCALE - maximumFractionDigits];
+        //work with the negated value so Long.MIN_VALUE does not overflow
+        long negated = scaledValue > 0 ? -scaledValue : scaledValue;
+        long quotient = negated / divisor;
+        long remainder = -(negated % divisor);
+        if (remainder * 2 > divisor || (remainder * 2 == divisor && (quotient & 1L) != 0)) {
+            quotient--;
+        }
+
+        int fractionDigits = maximumFractionDigits;
+        while (fractionDigits > minimumFractionDigits && quotient % 10 == 0) {
+            quotient /= 10;
+            fractionDigits--;
+        }
+        //DecimalFormat keeps the sign of a negative value rounded to zero
+        boolean negative = scaledValue < 0;
+
+        int position = offset;
+        String prefix = negative ? negativePrefix : positivePrefix;
+        prefix.getChars(0, prefix.length(), buffer, position);
+        position += prefix.length();
+
+        long integer = quotient / POWERS_OF_TEN[fractionDigits];
+        long fraction = -(quotient % POWERS_OF_TEN[fractionDigits]);
+        position = writeInteger(buffer, position, integer);
+
+        if (fractionDigits > 0 || extraFractionZeros > 0) {
+            buffer[position++] = decimalSeparator;
+            for (int digit = fractionDigits - 1; digit >= 0; digit--) {
+                buffer[position + digit] = (char) (zeroDigit + fraction % 10);
+                fraction /= 10;
+            }
+            position += fractionDigits;
+            for (int i = 0; i < extraFractionZeros; i++) {
+                buffer[position++] = zeroDigit;
+            }
+        }
+
+        String suffix = negative ? negativeSuffix : positiveSuffix;
+        suffix.getChars(0, suffix.length(), buffer, position);
+        return position + suffix.length() - offset;
+    }
+
+    /**
+     * Writes the digits of a negated integer part with grouping separators
+     */
+    private int writeInteger(char[] buffer, int position, long negated) {
+        int digits = 1;
+        for (long value = negated / 10; value != 0; value /= 10) {
+            digits++;
+        }
+        int separators = groupingSize > 0 ? (digits - 1) / groupingSize : 0;
+        int end = position + digits + separators;
+
+        int index = end;
+        long value = negated;
+        for (int digit = 0; digit < digits; digit++) {
+            if (groupingSize > 0 && digit > 0 && digit % groupingSize == 0) {
+                buffer[--index] = groupingSeparator;
+            }
+            buffer[--index] = (char) (zeroDigit - value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
+    private static int writeInt(char[] buffer, int position, int value) {
+        long negated = value > 0 ? -(long) value : value;
+        int digits = 1;
+        for (long rest = negated / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+        }
+        int end = position + digits;
+        for (int index = end - 1; index >= position; index--) {
+            buffer[index] = (char) ('0' - negated % 10);
+            negated /= 10;
+        }
+        return end;
+    }
+
+    private static final class CachedPrice {
+        private final long price;
+        private final int forX;
+        private final String displayPrice;
+
+        private CachedPrice(long price, int forX, String displayPrice) {
+            this.price = price;
+            this.forX = forX;
+            this.displayPrice = displayPrice;
+        }
+    }
+}
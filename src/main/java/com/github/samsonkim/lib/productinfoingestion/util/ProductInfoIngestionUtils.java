@@ -24,13 +24,10 @@
 
 package com.github.samsonkim.lib.productinfoingestion.util;
 
-import io.vavr.Tuple;
-import io.vavr.Tuple2;
 import org.apache.commons.lang3.StringUtils;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.text.NumberFormat;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -38,6 +35,21 @@ import java.util.stream.Collectors;
 
 public class ProductInfoIngestionUtils {
 
+    /**
+     * Scale of calculator prices.  Scaled currency values are longs in 1/10000 units
+     */
+    public static final int CURRENCY_SCALE = 4;
+
+    /**
+     * Number of 1/10000 units in a cent
+     */
+    public static final long SCALED_UNITS_PER_CENT = 100;
+
+    /**
+     * Returned by determineCalculatorPrice when there is no pricing data
+     */
+    public static final long NO_PRICE = -1L;
+
     /**
      * Checks to see if there is actual value in the price
      *
@@ -53,61 +65,72 @@ public class ProductInfoIngestionUtils {
 
 
     /**
-     * Determines whether or not pricing data exists (singular/split pricing)
-     * The specification states either or so singuler supersedes split pricing if both
-     * are present
+     * Calculator price from scaled currency values (1/10000 units), singular supersedes split pricing
      *
-     * @param currencyFormatter
      * @param singularPrice
      * @param splitPrice
      * @param forX
-     * @return Optional[Tuple[displayPrice, calculatorPrice]]
+     * @return scaled calculator price or NO_PRICE if there is no pricing data
      */
-    public static Optional<Tuple2<String, BigDecimal>> determinePricing(NumberFormat currencyFormatter,
-                                                                        Optional<BigDecimal> singularPrice,
-                                                                        Optional<BigDecimal> splitPrice,
-                                                                        Optional<Integer> forX) {
-
-        Optional<Tuple2<String, BigDecimal>> singularPricing = singularPrice
-                .filter(p -> hasValue(p))
-                .map(p -> Tuple.of(currencyFormatter.format(p), p));
-
-        if (singularPricing.isPresent()) {
-            return singularPricing;
+    public static long determineCalculatorPrice(long singularPrice, long splitPrice, int forX) {
+        if (singularPrice > 0) {
+            return singularPrice;
         }
-
-        Optional<Tuple2<String, BigDecimal>> splitPricing = splitPrice
-                .filter(p -> hasValue(p))
-                .flatMap(p -> calculateSplitPricing(currencyFormatter, p, forX));
-
-        return splitPricing;
+        if (splitPrice > 0 && forX > 0) {
+            return divideHalfDown(splitPrice, forX);
+        }
+        return NO_PRICE;
     }
 
     /**
-     * Function to build split pricing data (display, calculated)
+     * Display price from scaled currency values (1/10000 units), singular supersedes split pricing.
+     * Display prices come from the CurrencyFormatter's cache, so no String is created for a known price
      *
      * @param currencyFormatter
-     * @param price
+     * @param singularPrice
+     * @param splitPrice
      * @param forX
-     * @return Optional[Tuple[displaySplitPrice, calculatedSplitPrice]]
+     * @return display price or null if there is no pricing data
      */
-    public static Optional<Tuple2<String, BigDecimal>> calculateSplitPricing(NumberFormat currencyFormatter,
-                                                                             BigDecimal price,
-                                                                             Optional<Integer> forX) {
-        Optional<BigDecimal> priceOpt = Optional.ofNullable(price)
-                .filter(p -> p.compareTo(BigDecimal.ZERO) > 0);
+    public static String determineDisplayPrice(CurrencyFormatter currencyFormatter,
+                                               long singularPrice,
+                                               long splitPrice,
+                                               int forX) {
+        if (singularPrice > 0) {
+            return currencyFormatter.format(singularPrice);
+        }
+        if (splitPrice > 0 && forX > 0) {
+            return currencyFormatter.formatForX(forX, splitPrice);
+        }
+        return null;
+    }
 
-        if (priceOpt.isPresent()) {
-            return forX
-                    .filter(x -> x > 0)
-                    .map(x -> {
-                        String displayPrice = String.format("%s for %s", x, currencyFormatter.format(price));
-                        BigDecimal calculatedPrice = price.divide(BigDecimal.valueOf(x), 4, RoundingMode.HALF_DOWN);
-                        return Tuple.of(displayPrice, calculatedPrice);
-                    });
+    /**
+     * Divides a scaled currency value, rounding half down like BigDecimal.divide with RoundingMode.HALF_DOWN
+     *
+     * @param scaledValue
+     * @param divisor must be greater than 0
+     * @return
+     */
+    public static long divideHalfDown(long scaledValue, int divisor) {
+        long quotient = scaledValue / divisor;
+        long remainder = Math.abs(scaledValue % divisor);
+
+        //only strictly more than half rounds away from zero
+        if (remainder * 2 > divisor) {
+            quotient += scaledValue < 0 ? -1 : 1;
         }
+        return quotient;
+    }
 
-        return Optional.empty();
+    /**
+     * Converts a scaled currency value (1/10000 units) to BigDecimal with scale 4
+     *
+     * @param scaledValue
+     * @return
+     */
+    public static BigDecimal toBigDecimal(long scaledValue) {
+        return BigDecimal.valueOf(scaledValue, CURRENCY_SCALE);
     }
 
     /**
@@ -150,6 +173,111 @@ public class ProductInfoIngestionUtils {
                 .map(s -> new BigDecimal(s).setScale(4, RoundingMode.HALF_DOWN));
     }
 
+    /**
+     * Converts currency digits, with last 2 digits representing cents, to a scaled long in 1/10000 units.
+     * Digits are accumulated directly from the characters so no intermediate objects are created.
+     * Surrounding spaces and a leading sign are allowed
+     *
+     * @param value
+     * @param start index of the first character
+     * @param end index after the last character
+     * @return
+     * @throws NumberFormatException if the value is blank or not a number
+     */
+    public static long toScaledCurrency(CharSequence value, int start, int end) {
+        return parseLong(value, start, end) * SCALED_UNITS_PER_CENT;
+    }
+
+    /**
+     * Whether parseLong would succeed, checked without throwing
+     *
+     * @param value
+     * @param start index of the first character
+     * @param end index after the last character
+     * @return
+     */
+    public static boolean isNumber(CharSequence value, int start, int end) {
+        int i = start;
+        int last = end;
+        while (i < last && value.charAt(i) <= ' ') {
+            i++;
+        }
+        while (last > i && value.charAt(last - 1) <= ' ') {
+            last--;
+        }
+        if (i < last && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            i++;
+        }
+        if (i == last || last - i > 16) {
+            return false;
+        }
+        for (; i < last; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a space padded, optionally signed long directly from the characters
+     *
+     * @param value
+     * @param start index of the first character
+     * @param end index after the last character
+     * @return
+     * @throws NumberFormatException if the value is blank or not a number
+     */
+    public static long parseLong(CharSequence value, int start, int end) {
+        int i = start;
+        int last = end;
+        while (i < last && value.charAt(i) <= ' ') {
+            i++;
+        }
+        while (last > i && value.charAt(last - 1) <= ' ') {
+            last--;
+        }
+
+        boolean negative = false;
+        if (i < last && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            negative = value.charAt(i) == '-';
+            i++;
+        }
+        if (i == last || last - i > 16) {
+            throw new NumberFormatException(String.format("For input string: \"%s\"", value.subSequence(start, end)));
+        }
+
+        long result = 0;
+        for (; i < last; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException(String.format("For input string: \"%s\"", value.subSequence(start, end)));
+            }
+            result = result * 10 + digit;
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * Converts Y/N flag characters to a bitmask with bit n-1 set when the flag at position n is Y.
+     * Any character other than Y is not set
+     *
+     * @param value
+     * @param start index of the first flag
+     * @param end index after the last flag, at most 64 flags
+     * @return
+     */
+    public static long toFlagBits(CharSequence value, int start, int end) {
+        long bits = 0L;
+        for (int i = start; i < end; i++) {
+            if (value.charAt(i) == 'Y') {
+                bits |= 1L << (i - start);
+            }
+        }
+        return bits;
+    }
+
     /**
      * Convert Y/N flag string to List&lt;Boolean&gt;
      *
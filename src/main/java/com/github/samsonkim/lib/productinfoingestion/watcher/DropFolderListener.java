@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.watcher;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Callbacks for the outcome of each file picked up by a DropFolderWatcher, and for the watcher itself.
+ * Called from the worker threads, implementations must be thread safe
+ */
+public interface DropFolderListener {
+    /**
+     * @param storeId
+     * @param file where the file was moved to after ingestion
+     */
+    default void onIngested(UUID storeId, Path file) {
+    }
+
+    /**
+     * @param storeId
+     * @param file where the file was moved to after the failure
+     * @param e
+     */
+    default void onFailed(UUID storeId, Path file, Exception e) {
+    }
+
+    /**
+     * A directory was found under the drop folder root whose name resolves to no store, its files are left alone
+     *
+     * @param directory
+     */
+    default void onUnknownStore(Path directory) {
+    }
+
+    /**
+     * Watching a drop folder failed, e.g. on a transient network error.  Called from the watcher thread,
+     * which keeps going and scans the store folders again on its next round
+     *
+     * @param e
+     */
+    default void onError(Exception e) {
+    }
+
+    /**
+     * The watcher thread stopped, no more files will be picked up.  Called from the watcher thread
+     *
+     * @param e why the watcher stopped, null if it was closed
+     */
+    default void onStopped(Exception e) {
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.watcher;
+
+import com.github.samsonkim.lib.productinfoingestion.integration.StoreFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Long running ingestion of catalog files as they land in per-store drop folders, see WatchService.
+ *
+ * Each directory directly under the root is a store's drop folder, resolved to the store by its name
+ * through StoreFactory.findStoreId.  Store folders created while watching are picked up as well.
+ *
+ * A file is complete once its size and modification time have not changed for the settle time,
+ * names starting with "." or ending in ".tmp" or ".part" are ignored so uploads can be renamed into place.
+ * Completed files are handed to the DropFileHandler on a bounded pool of workers, one file per store
+ * at a time in the order they completed, then moved to the store folder's .processed or .failed folder.
+ *
+ * Files already in the store folders on start are ingested as well, so files left behind by a stop are not lost.
+ * Errors watching the folders are reported to DropFolderListener.onError and the store folders scanned again
+ * on the next round, DropFolderListener.onStopped is called when the watcher thread ends
+ */
+public class DropFolderWatcher implements Closeable {
+    public static final String PROCESSED_DIRECTORY = ".processed";
+    public static final String FAILED_DIRECTORY = ".failed";
+    public static final Duration DEFAULT_SETTLE_TIME = Duration.ofSeconds(2);
+
+    private static final long IDLE_POLL_MILLIS = 1000L;
+
+    private final Path root;
+    private final StoreFactory storeFactory;
+    private final DropFileHandler handler;
+    private final DropFolderListener listener;
+    private final StoreOrderedExecutor executor;
+    private final long settleNanos;
+    private final long pollMillis;
+
+    //only touched by the watcher thread once started
+    private final Map<WatchKey, UUID> storeIds = new HashMap<>();
+    private final Map<Path, PendingFile> pending = new LinkedHashMap<>();
+    //files handed to the workers, until moved out of the store folder
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+
+    private WatchService watchService;
+    private WatchKey rootKey;
+    private Thread thread;
+    private volatile boolean running;
+    //set when a scan or event failed, the store folders are scanned again on the next round
+    private boolean rescan;
+
+    /**
+     * Uses the DEFAULT_SETTLE_TIME and a worker per processor
+     *
+     * @param root
+     * @param storeFactory
+     * @param handler
+     * @param listener
+     */
+    public DropFolderWatcher(Path root, StoreFactory storeFactory, DropFileHandler handler,
+                             DropFolderListener listener) {
+        this(root, storeFactory, handler, listener, Runtime.getRuntime().availableProcessors(), DEFAULT_SETTLE_TIME);
+    }
+
+    /**
+     * @param root directory holding a drop folder per store
+     * @param storeFactory resolves store folder names to stores
+     * @param handler ingests a completed file
+     * @param listener
+     * @param workers files ingested at the same time, across stores
+     * @param settleTime how long a file must stay unchanged to be considered complete
+     */
+    public DropFolderWatcher(Path root, StoreFactory storeFactory, DropFileHandler handler,
+                             DropFolderListener listener, int workers, Duration settleTime) {
+        if (settleTime.isNegative()) {
+            throw new IllegalArgumentException(String.format("Invalid settleTime: %s", settleTime));
+        }
+        this.root = root;
+        this.storeFactory = storeFactory;
+        this.handler = handler;
+        this.listener = listener;
+        this.executor = new StoreOrderedExecutor(workers, "drop-folder-worker-");
+        this.settleNanos = settleTime.toNanos();
+        this.pollMillis = Math.max(10L, settleTime.toMillis() / 4);
+    }
+
+    /**
+     * Registers the root and store folders, queues the files already there and starts watching
+     *
+     * @throws IOException if the root cannot be watched or listed, store folders that fail are retried once started
+     * @throws IllegalStateException if already started
+     */
+    public synchronized void start() throws IOException {
+        if (thread != null) {
+            throw new IllegalStateException("Already started");
+        }
+        watchService = root.getFileSystem().newWatchService();
+        rootKey = root.register(watchService, ENTRY_CREATE);
+        scanRoot();
+
+        running = true;
+        thread = new Thread(this::watch, "drop-folder-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching and waits for the files being ingested.
+     * Files still queued are left in their store folder for the next start
+     *
+     * @throws IOException
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        running = false;
+        if (watchService != null) {
+            watchService.close();
+        }
+        executor.shutdown();
+        try {
+            if (thread != null) {
+                thread.join();
+            }
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void watch() {
+        Exception failure = null;
+        try {
+            while (running) {
+                WatchKey key = watchService.poll(pending.isEmpty() || rescan ? IDLE_POLL_MILLIS : pollMillis,
+                        TimeUnit.MILLISECONDS);
+                while (key != null) {
+                    process(key);
+                    key = watchService.poll();
+                }
+                if (rescan) {
+                    rescan = false;
+                    retry(this::scanRoot);
+                }
+                dispatchCompleted();
+            }
+        } catch (ClosedWatchServiceException | RejectedExecutionException | InterruptedException e) {
+            //closed
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            listener.onStopped(failure);
+        }
+    }
+
+    private void process(WatchKey key) {
+        try {
+            Path directory = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    //events were lost, look at everything again
+                    retry(this::scanRoot);
+                    continue;
+                }
+
+                Path child = directory.resolve((Path) event.context());
+                if (key == rootKey) {
+                    if (Files.isDirectory(child) && !isIgnored(child)) {
+                        retry(() -> registerStore(child));
+                    }
+                } else {
+                    UUID storeId = storeIds.get(key);
+                    if (storeId != null) {
+                        queue(storeId, child);
+                    }
+                }
+            }
+        } finally {
+            if (!key.reset()) {
+                storeIds.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Runs a scan, on failure reporting the error and scanning everything again on the next round
+     *
+     * @param scan
+     */
+    private void retry(Scan scan) {
+        try {
+            scan.run();
+        } catch (ClosedWatchServiceException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            rescan = true;
+            listener.onError(e);
+        }
+    }
+
+    /**
+     * Registers every store folder, a folder that fails is reported and scanned again on the next round
+     *
+     * @throws IOException if the root cannot be listed
+     */
+    private void scanRoot() throws IOException {
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path directory : directories) {
+                if (!isIgnored(directory)) {
+                    retry(() -> registerStore(directory));
+                }
+            }
+        }
+    }
+
+    private void registerStore(Path directory) throws IOException {
+        Optional<UUID> storeId = storeFactory.findStoreId(directory.getFileName().toString());
+        if (!storeId.isPresent()) {
+            listener.onUnknownStore(directory);
+            return;
+        }
+
+        //register before listing so files landing in between are not missed
+        storeIds.put(directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY), storeId.get());
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                queue(storeId.get(), file);
+            }
+        }
+    }
+
+    private void queue(UUID storeId, Path file) {
+        if (isIgnored(file) || inFlight.contains(file) || pending.containsKey(file) || !Files.isRegularFile(file)) {
+            return;
+        }
+        pending.put(file, new PendingFile(storeId));
+    }
+
+    private void dispatchCompleted() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Path, PendingFile>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, PendingFile> entry = iterator.next();
+            Path file = entry.getKey();
+            PendingFile pendingFile = entry.getValue();
+
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                iterator.remove();
+                continue;
+            } catch (IOException e) {
+                //try again on the next round
+                continue;
+            }
+
+            long size = attributes.size();
+            long modified = attributes.lastModifiedTime().toMillis();
+            if (size != pendingFile.size || modified != pendingFile.modified) {
+                pendingFile.size = size;
+                pendingFile.modified = modified;
+                pendingFile.stableSince = now;
+            } else if (now - pendingFile.stableSince >= settleNanos) {
+                iterator.remove();
+                inFlight.add(file);
+                executor.execute(pendingFile.storeId, () -> ingest(pendingFile.storeId, file));
+            }
+        }
+    }
+
+    private void ingest(UUID storeId, Path file) {
+        try {
+            handler.handle(storeId, file);
+            listener.onIngested(storeId, move(file, PROCESSED_DIRECTORY));
+        } catch (Exception e) {
+            Path failed = file;
+            try {
+                failed = move(file, FAILED_DIRECTORY);
+            } catch (IOException moveException) {
+                e.addSuppressed(moveException);
+            }
+            listener.onFailed(storeId, failed, e);
+        } finally {
+            inFlight.remove(file);
+        }
+    }
+
+    private static Path move(Path file, String directoryName) throws IOException {
+        Path directory = Files.createDirectories(file.resolveSibling(directoryName));
+        return Files.move(file, directory.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static boolean isIgnored(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(".") || name.endsWith(".tmp") || name.endsWith(".part");
+    }
+
+    @FunctionalInterface
+    private interface Scan {
+        void run() throws IOException;
+    }
+
+    private static final class PendingFile {
+        private final UUID storeId;
+        private long size = -1L;
+        private long modified = -1L;
+        private long stableSince;
+
+        private PendingFile(UUID storeId) {
+            this.storeId = storeId;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.watcher;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks on a fixed pool of workers, one task per store at a time in submission order.
+ * Tasks of different stores run in parallel.
+ *
+ * Each store has its own queue and at most one pending entry in the pool, after a task completes
+ * the store's next task goes to the back of the pool queue so a busy store cannot starve the others
+ */
+class StoreOrderedExecutor {
+    private final ExecutorService workers;
+    private final Map<UUID, ArrayDeque<Runnable>> queues = new HashMap<>();
+
+    StoreOrderedExecutor(int workers, String threadNamePrefix) {
+        if (workers < 1) {
+            throw new IllegalArgumentException(String.format("Invalid workers: %d", workers));
+        }
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, threadNamePrefix + threads.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queues a task behind the store's earlier tasks
+     *
+     * @param storeId
+     * @param task
+     */
+    void execute(UUID storeId, Runnable task) {
+        synchronized (queues) {
+            ArrayDeque<Runnable> queue = queues.get(storeId);
+            if (queue != null) {
+                //a task of the store is running or waiting in the pool
+                queue.add(task);
+                return;
+            }
+            queues.put(storeId, new ArrayDeque<>());
+        }
+        try {
+            workers.execute(() -> run(storeId, task));
+        } catch (RejectedExecutionException e) {
+            synchronized (queues) {
+                queues.remove(storeId);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Tasks waiting behind a running task of the store
+     *
+     * @param storeId
+     * @return
+     */
+    int queued(UUID storeId) {
+        synchronized (queues) {
+            ArrayDeque<Runnable> queue = queues.get(storeId);
+            return queue == null ? 0 : queue.size();
+        }
+    }
+
+    private void run(UUID storeId, Runnable task) {
+        try {
+            task.run();
+        } finally {
+            Runnable next;
+            synchronized (queues) {
+                next = queues.get(storeId).poll();
+                if (next == null) {
+                    queues.remove(storeId);
+                }
+            }
+            if (next != null) {
+                try {
+                    workers.execute(() -> run(storeId, next));
+                } catch (RejectedExecutionException e) {
+                    //shut down, the remaining tasks of the store are dropped
+                }
+            }
+        }
+    }
+
+    void shutdown() {
+        workers.shutdown();
+    }
+
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return workers.awaitTermination(timeout, unit);
+    }
+}
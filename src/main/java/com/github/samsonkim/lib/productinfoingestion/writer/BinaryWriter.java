@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.writer;
+
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Interface to write ProductRecords in a compact binary format, the alternative to JsonWriter
+ * for consumers that read the records back with ProductRecordBinaryReader
+ */
+public interface BinaryWriter {
+
+    /**
+     * Starts writing ProductRecords to an OutputStream
+     *
+     * @param outputStream closed when the Output is closed
+     * @return
+     * @throws IOException
+     */
+    Output open(OutputStream outputStream) throws IOException;
+
+    /**
+     * Writes ProductRecords to an OutputStream and closes it
+     *
+     * @param productRecords
+     * @param outputStream
+     * @throws IOException
+     */
+    default void write(Iterable<ProductRecord> productRecords, OutputStream outputStream) throws IOException {
+        try (Output output = open(outputStream)) {
+            for (ProductRecord productRecord : productRecords) {
+                output.write(productRecord);
+            }
+        }
+    }
+
+    /**
+     * Converts ProductRecords to bytes
+     *
+     * @param productRecords
+     * @return
+     * @throws IOException
+     */
+    default byte[] writeValueAsBytes(Iterable<ProductRecord> productRecords) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        write(productRecords, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Sink of ProductRecords.  Closing it completes the stream
+     */
+    interface Output extends Closeable {
+        void write(ProductRecord productRecord) throws IOException;
+    }
+}
@@ -24,21 +24,63 @@
 
 package com.github.samsonkim.lib.productinfoingestion.writer;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecordSerializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * JsonWriter using the Jackson Json library
  */
 public class JacksonJsonWriter implements JsonWriter {
+    public static final int DEFAULT_LINES_PER_CHUNK = 1024;
+
+    private static final byte NEWLINE = '\n';
+
     private ObjectMapper objectMapper;
+    //array elements are left in the generator's buffer rather than flushed one by one
+    private ObjectWriter elementWriter;
+    private final ForkJoinPool pool;
+    private final int linesPerChunk;
 
     public JacksonJsonWriter() {
+        this(ForkJoinPool.commonPool(), DEFAULT_LINES_PER_CHUNK);
+    }
+
+    /**
+     * @param pool encodes chunks of newline delimited json, the ObjectMapper is shared by its threads
+     * @param linesPerChunk elements encoded per task
+     */
+    public JacksonJsonWriter(ForkJoinPool pool, int linesPerChunk) {
+        if (linesPerChunk < 1) {
+            throw new IllegalArgumentException(String.format("Invalid linesPerChunk: %d", linesPerChunk));
+        }
         objectMapper = new ObjectMapper();
         objectMapper.registerModule(new Jdk8Module());
         objectMapper.registerModule(new JavaTimeModule());
+        //same json as the bean serializer of ProductRecord, without reflection
+        objectMapper.registerModule(new SimpleModule().addSerializer(ProductRecord.class, new ProductRecordSerializer()));
+        elementWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.pool = pool;
+        this.linesPerChunk = linesPerChunk;
     }
 
     /**
@@ -55,4 +97,201 @@ public class JacksonJsonWriter implements JsonWriter {
             throw new JsonException(e.getMessage(), e);
         }
     }
+
+    @Override
+    public void writeValue(OutputStream outputStream, Object object) throws JsonException {
+        try {
+            objectMapper.writeValue(outputStream, object);
+        } catch (IOException e) {
+            throw new JsonException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Starts writing a json array through a JsonGenerator, which encodes UTF-8 into its own buffer
+     * and hands it to the OutputStream as the buffer fills
+     *
+     * @param outputStream closed when the ArrayOutput is finished or closed
+     * @return
+     * @throws JsonException
+     */
+    @Override
+    public ArrayOutput openArray(OutputStream outputStream) throws JsonException {
+        try {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+            generator.writeStartArray();
+            return new JacksonArrayOutput(generator, elementWriter);
+        } catch (IOException e) {
+            throw new JsonException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Starts writing newline delimited json.  Every linesPerChunk elements are encoded to a byte array
+     * on the pool while the caller keeps writing, and the chunks are written to the OutputStream in order.
+     * At most twice the pool parallelism chunks are in flight so memory stays bounded.
+     * Elements are held until their chunk is encoded and must not be mutated or reused after write
+     *
+     * @param outputStream closed when the ArrayOutput is finished or closed
+     * @return
+     */
+    @Override
+    public ArrayOutput openLines(OutputStream outputStream) {
+        return new ParallelLinesOutput(outputStream);
+    }
+
+    private byte[] encodeLines(List<Object> elements) {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(elements.size() * 256);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(lines, JsonEncoding.UTF8)) {
+            //lines are separated by the newlines alone
+            generator.setRootValueSeparator(null);
+            for (Object element : elements) {
+                elementWriter.writeValue(generator, element);
+                generator.writeRaw((char) NEWLINE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return lines.toByteArray();
+    }
+
+    private final class ParallelLinesOutput implements ArrayOutput {
+        private final OutputStream outputStream;
+        private final int maxChunksInFlight = pool.getParallelism() * 2;
+        private final Deque<ForkJoinTask<byte[]>> inFlight = new ArrayDeque<>();
+        private List<Object> chunk = new ArrayList<>();
+        private boolean closed;
+
+        ParallelLinesOutput(OutputStream outputStream) {
+            this.outputStream = outputStream;
+        }
+
+        @Override
+        public void write(Object element) throws JsonException {
+            if (closed) {
+                throw new JsonException("Output is closed", null);
+            }
+            chunk.add(element);
+            if (chunk.size() == linesPerChunk) {
+                submitChunk();
+            }
+        }
+
+        @Override
+        public void finish() throws JsonException {
+            if (closed) {
+                throw new JsonException("Output is closed", null);
+            }
+            try {
+                if (!chunk.isEmpty()) {
+                    submitChunk();
+                }
+                while (!inFlight.isEmpty()) {
+                    writeChunk();
+                }
+            } finally {
+                close();
+            }
+        }
+
+        /**
+         * Closes the stream, dropping any lines not yet written unless finish was called
+         *
+         * @throws JsonException
+         */
+        @Override
+        public void close() throws JsonException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            discard();
+            try {
+                outputStream.close();
+            } catch (IOException e) {
+                throw new JsonException(e.getMessage(), e);
+            }
+        }
+
+        private void submitChunk() throws JsonException {
+            if (inFlight.size() == maxChunksInFlight) {
+                writeChunk();
+            }
+            List<Object> elements = chunk;
+            chunk = new ArrayList<>();
+            inFlight.addLast(pool.submit(() -> encodeLines(elements)));
+        }
+
+        private void writeChunk() throws JsonException {
+            try {
+                byte[] lines = inFlight.removeFirst().join();
+                outputStream.write(lines);
+            } catch (UncheckedIOException e) {
+                discard();
+                throw new JsonException(e.getCause().getMessage(), e.getCause());
+            } catch (IOException e) {
+                discard();
+                throw new JsonException(e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Drops the chunks after a failed one, so the output never skips lines
+         */
+        private void discard() {
+            inFlight.forEach(t -> t.cancel(false));
+            inFlight.clear();
+            chunk.clear();
+        }
+    }
+
+    private static final class JacksonArrayOutput implements ArrayOutput {
+        private final JsonGenerator generator;
+        private final ObjectWriter elementWriter;
+
+        JacksonArrayOutput(JsonGenerator generator, ObjectWriter elementWriter) {
+            this.generator = generator;
+            this.elementWriter = elementWriter;
+        }
+
+        @Override
+        public void write(Object element) throws JsonException {
+            try {
+                elementWriter.writeValue(generator, element);
+            } catch (IOException e) {
+                throw new JsonException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void finish() throws JsonException {
+            if (generator.isClosed()) {
+                throw new JsonException("Output is closed", null);
+            }
+            try (JsonGenerator closing = generator) {
+                closing.writeEndArray();
+            } catch (IOException e) {
+                throw new JsonException(e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Closes the stream, leaving the array open unless finish was called
+         *
+         * @throws JsonException
+         */
+        @Override
+        public void close() throws JsonException {
+            if (generator.isClosed()) {
+                return;
+            }
+            //otherwise closing the generator would end the array for us
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            try {
+                generator.close();
+            } catch (IOException e) {
+                throw new JsonException(e.getMessage(), e);
+            }
+        }
+    }
 }
@@ -24,6 +24,9 @@
 
 package com.github.samsonkim.lib.productinfoingestion.writer;
 
+import java.io.Closeable;
+import java.io.OutputStream;
+
 /**
  * Interface to convert Object to Json
  */
@@ -38,4 +41,54 @@ public interface JsonWriter {
      */
     String writeValueAsString(Object object) throws JsonException;
 
+    /**
+     * Writes an object as json to an OutputStream and closes it
+     *
+     * @param outputStream
+     * @param object
+     * @throws JsonException
+     */
+    void writeValue(OutputStream outputStream, Object object) throws JsonException;
+
+    /**
+     * Starts writing a json array to an OutputStream, one element at a time as the elements are produced.
+     * Output is encoded straight to the stream, so memory stays constant however long the array gets
+     *
+     * @param outputStream closed when the ArrayOutput is finished or closed
+     * @return
+     * @throws JsonException
+     */
+    ArrayOutput openArray(OutputStream outputStream) throws JsonException;
+
+    /**
+     * Starts writing newline delimited json to an OutputStream, each element as json on a line of its own.
+     * Consumers can split the output at any line and load the parts in parallel.
+     * Implementations may keep written elements and encode them later on other threads, so an element must
+     * not be mutated or reused after write, e.g. a ProductRecordView flyweight refilled for the next line
+     * would corrupt the lines still waiting to be encoded
+     *
+     * @param outputStream closed when the ArrayOutput is finished or closed
+     * @return
+     * @throws JsonException
+     */
+    ArrayOutput openLines(OutputStream outputStream) throws JsonException;
+
+    /**
+     * Sink of json array elements.  The output is only complete once finish is called, closing it
+     * without finishing (e.g. when ingestion fails part way) closes the stream with the output left
+     * unterminated, so a partial catalog can never pass for a complete one
+     */
+    interface ArrayOutput extends Closeable {
+        void write(Object element) throws JsonException;
+
+        /**
+         * Ends the output and closes the stream
+         *
+         * @throws JsonException
+         */
+        void finish() throws JsonException;
+
+        @Override
+        void close() throws JsonException;
+    }
 }
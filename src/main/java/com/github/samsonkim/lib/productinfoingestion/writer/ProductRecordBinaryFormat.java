@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.writer;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of binary ProductRecords, see ProductRecordBinaryWriter
+ *
+ * <pre>
+ * stream:  magic "PRBF", varint version, varint field count, field*, block*, varint 0
+ * field:   varint name length, UTF-8 name, byte FieldType code
+ * block:   varint byte length, varint record count,
+ *          varint uuid count, uuid* (16 bytes big endian),
+ *          varint string count, (varint UTF-8 length, UTF-8 bytes)*,
+ *          record*
+ * record:  varint flags, the values of the fields that are set in schema order
+ * </pre>
+ *
+ * Flag bit i is set when field i is null, flag bit (field count + i) when Optional field i is empty.
+ * Varints are unsigned LEB128, signed values are zigzag encoded first
+ */
+final class ProductRecordBinaryFormat {
+    static final byte[] MAGIC = {'P', 'R', 'B', 'F'};
+    static final int VERSION = 1;
+    static final int END_OF_STREAM = 0;
+    static final int MAX_FIELDS = 31;
+    static final int UUID_BYTES = 16;
+
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private ProductRecordBinaryFormat() {
+    }
+
+    /**
+     * Encoding of a field value
+     */
+    enum FieldType {
+        /**
+         * 16 bytes, big endian
+         */
+        UUID,
+        /**
+         * varint index into the block's uuid table
+         */
+        UUID_REF,
+        /**
+         * zigzag varint
+         */
+        INT,
+        /**
+         * zigzag varint in 1/10000 units
+         */
+        MONEY,
+        /**
+         * varint index into the block's string table
+         */
+        STRING_REF,
+        /**
+         * zigzag varint scale, zigzag varint unscaled value
+         */
+        DECIMAL,
+        /**
+         * zigzag varint epoch seconds, varint nanoseconds
+         */
+        INSTANT;
+
+        int getCode() {
+            return ordinal() + 1;
+        }
+
+        static FieldType of(int code) throws BinaryFormatException {
+            FieldType[] types = values();
+            if (code < 1 || code > types.length) {
+                throw new BinaryFormatException(String.format("Invalid field type: %d", code));
+            }
+            return types[code - 1];
+        }
+    }
+
+    /**
+     * ProductRecord fields of the current version, in the order they are written
+     */
+    enum Field {
+        ID("id", FieldType.UUID, true),
+        STORE_ID("storeId", FieldType.UUID_REF, false),
+        STORE_JOURNAL_ID("storeJournalId", FieldType.UUID_REF, false),
+        PRODUCT_ID("productID", FieldType.INT, false),
+        PRODUCT_DESCRIPTION("productDescription", FieldType.STRING_REF, false),
+        REGULAR_DISPLAY_PRICE("regularDisplayPrice", FieldType.STRING_REF, false),
+        REGULAR_CALCULATOR_PRICE("regularCalculatorPrice", FieldType.MONEY, false),
+        PROMOTIONAL_DISPLAY_PRICE("promotionalDisplayPrice", FieldType.STRING_REF, false),
+        PROMOTIONAL_CALCULATOR_PRICE("promotionalCalculatorPrice", FieldType.MONEY, false),
+        UNIT_OF_MEASURE("unitOfMeasure", FieldType.STRING_REF, false),
+        PRODUCT_SIZE("productSize", FieldType.STRING_REF, true),
+        TAX_RATE("taxRate", FieldType.DECIMAL, true),
+        CREATED_DATE_TIME("createdDateTime", FieldType.INSTANT, false),
+        CREATED_BY("createdBy", FieldType.STRING_REF, false),
+        MODIFIED_DATE_TIME("modifiedDateTime", FieldType.INSTANT, false),
+        MODIFIED_BY("modifiedBy", FieldType.STRING_REF, false),
+        LOCALE("locale", FieldType.STRING_REF, false);
+
+        private final String fieldName;
+        private final FieldType type;
+        private final boolean optional;
+
+        Field(String fieldName, FieldType type, boolean optional) {
+            this.fieldName = fieldName;
+            this.type = type;
+            this.optional = optional;
+        }
+
+        String getFieldName() {
+            return fieldName;
+        }
+
+        FieldType getType() {
+            return type;
+        }
+
+        boolean isOptional() {
+            return optional;
+        }
+
+        static Field of(String fieldName) {
+            for (Field field : values()) {
+                if (field.fieldName.equals(fieldName)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long readVarint(ByteBuffer buffer) throws BinaryFormatException {
+        long value = 0L;
+        try {
+            for (int i = 0; i < MAX_VARINT_BYTES; i++) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << (7 * i);
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new BinaryFormatException("Truncated varint", e);
+        }
+        throw new BinaryFormatException("Invalid varint");
+    }
+
+    /**
+     * Reads a varint that must fit a non negative int, e.g. a count, length or index
+     */
+    static int readLength(ByteBuffer buffer) throws BinaryFormatException {
+        long value = readVarint(buffer);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new BinaryFormatException(String.format("Invalid length: %d", value));
+        }
+        return (int) value;
+    }
+}
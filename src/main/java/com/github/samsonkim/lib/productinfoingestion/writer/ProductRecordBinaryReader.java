@@ -0,0 +1,495 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.writer;
+
+import com.github.samsonkim.lib.productinfoingestion.model.Money;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.model.UnitOfMeasure;
+import com.github.samsonkim.lib.productinfoingestion.writer.ProductRecordBinaryFormat.Field;
+import com.github.samsonkim.lib.productinfoingestion.writer.ProductRecordBinaryFormat.FieldType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Reads ProductRecords written by ProductRecordBinaryWriter straight out of a ByteBuffer, e.g. a mapped file.
+ *
+ * The reader is a cursor, next moves it to the following record and the getters read the current record's fields.
+ * Nothing is copied out of the buffer until it is asked for: uuids are read from the block's table and strings
+ * are decoded the first time a block refers to them.  Fields a newer writer added to the schema are skipped.
+ *
+ * Not thread-safe
+ */
+public final class ProductRecordBinaryReader {
+    private static final Field[] FIELDS = Field.values();
+    private static final int NULL = 0;
+    private static final int EMPTY = 1;
+    private static final int PRESENT = 2;
+
+    private final ByteBuffer buffer;
+    private final int version;
+    //schema of the stream, a null Field is not known to this version
+    private final Field[] schema;
+    private final FieldType[] schemaTypes;
+
+    //current block
+    private int blockEnd;
+    private int remaining;
+    private int uuidTable;
+    private int uuidCount;
+    private int[] stringOffsets = new int[0];
+    private int[] stringLengths = new int[0];
+    private String[] strings = new String[0];
+    private int stringCount;
+    private boolean ended;
+
+    //current record by Field ordinal
+    private final int[] states = new int[FIELDS.length];
+    private final long[] values = new long[FIELDS.length];
+    private final long[] extras = new long[FIELDS.length];
+    private Locale locale;
+    private int localeIndex = -1;
+
+    /**
+     * @param buffer positioned at the start of the stream, read from its own duplicate
+     * @throws BinaryFormatException if the stream does not start with a supported header
+     */
+    public ProductRecordBinaryReader(ByteBuffer buffer) throws BinaryFormatException {
+        this.buffer = buffer.duplicate();
+        try {
+            for (byte b : ProductRecordBinaryFormat.MAGIC) {
+                if (this.buffer.get() != b) {
+                    throw new BinaryFormatException("Not binary ProductRecords");
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new BinaryFormatException("Not binary ProductRecords", e);
+        }
+        this.version = ProductRecordBinaryFormat.readLength(this.buffer);
+        if (version < 1 || version > ProductRecordBinaryFormat.VERSION) {
+            throw new BinaryFormatException(String.format("Unsupported version: %d", version));
+        }
+
+        int fieldCount = ProductRecordBinaryFormat.readLength(this.buffer);
+        if (fieldCount > ProductRecordBinaryFormat.MAX_FIELDS) {
+            throw new BinaryFormatException(String.format("Invalid field count: %d", fieldCount));
+        }
+        this.schema = new Field[fieldCount];
+        this.schemaTypes = new FieldType[fieldCount];
+        try {
+            for (int i = 0; i < fieldCount; i++) {
+                byte[] name = new byte[ProductRecordBinaryFormat.readLength(this.buffer)];
+                this.buffer.get(name);
+                schemaTypes[i] = FieldType.of(this.buffer.get());
+                Field field = Field.of(new String(name, StandardCharsets.UTF_8));
+                if (field != null && field.getType() != schemaTypes[i]) {
+                    throw new BinaryFormatException(String.format("Invalid type of field %s: %s", field.getFieldName(), schemaTypes[i]));
+                }
+                schema[i] = field;
+            }
+        } catch (BufferUnderflowException e) {
+            throw new BinaryFormatException("Truncated schema", e);
+        }
+    }
+
+    /**
+     * Maps a file read-only and reads it
+     *
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    public static ProductRecordBinaryReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new ProductRecordBinaryReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads every ProductRecord of a stream
+     *
+     * @param buffer
+     * @return
+     * @throws BinaryFormatException
+     */
+    public static List<ProductRecord> readAll(ByteBuffer buffer) throws BinaryFormatException {
+        ProductRecordBinaryReader reader = new ProductRecordBinaryReader(buffer);
+        List<ProductRecord> productRecords = new ArrayList<>();
+        while (reader.next()) {
+            productRecords.add(reader.toProductRecord());
+        }
+        return productRecords;
+    }
+
+    /**
+     * Version the stream was written with
+     *
+     * @return
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Moves to the next record
+     *
+     * @return false at the end of the stream
+     * @throws BinaryFormatException if the stream is malformed
+     */
+    public boolean next() throws BinaryFormatException {
+        if (ended) {
+            return false;
+        }
+        try {
+            if (remaining == 0) {
+                if (blockEnd != 0 && buffer.position() != blockEnd) {
+                    throw new BinaryFormatException(String.format("Invalid block end: %d", buffer.position()));
+                }
+                if (!nextBlock()) {
+                    ended = true;
+                    return false;
+                }
+            }
+            readRecord();
+            remaining--;
+            return true;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new BinaryFormatException(String.format("Malformed record at %d", buffer.position()), e);
+        }
+    }
+
+    /**
+     * Copies the current record out to a ProductRecord
+     *
+     * @return
+     */
+    public ProductRecord toProductRecord() {
+        return ProductRecord.builder()
+                .id(getId())
+                .storeId(getStoreId())
+                .storeJournalId(getStoreJournalId())
+                .productID(hasProductID() ? getProductID() : null)
+                .productDescription(getProductDescription())
+                .regularDisplayPrice(getRegularDisplayPrice())
+                .regularCalculatorPrice(getRegularCalculatorPrice())
+                .promotionalDisplayPrice(getPromotionalDisplayPrice())
+                .promotionalCalculatorPrice(getPromotionalCalculatorPrice())
+                .unitOfMeasure(getUnitOfMeasure())
+                .productSize(getProductSize())
+                .taxRate(getTaxRate())
+                .createdDateTime(getCreatedDateTime())
+                .createdBy(getCreatedBy())
+                .modifiedDateTime(getModifiedDateTime())
+                .modifiedBy(getModifiedBy())
+                .locale(getLocale())
+                .build();
+    }
+
+    public Optional<UUID> getId() {
+        switch (states[Field.ID.ordinal()]) {
+            case PRESENT:
+                return Optional.of(new UUID(values[Field.ID.ordinal()], extras[Field.ID.ordinal()]));
+            case EMPTY:
+                return Optional.empty();
+            default:
+                return null;
+        }
+    }
+
+    public UUID getStoreId() {
+        return uuid(Field.STORE_ID);
+    }
+
+    public UUID getStoreJournalId() {
+        return uuid(Field.STORE_JOURNAL_ID);
+    }
+
+    public boolean hasProductID() {
+        return states[Field.PRODUCT_ID.ordinal()] == PRESENT;
+    }
+
+    /**
+     * @return 0 when hasProductID is false
+     */
+    public int getProductID() {
+        return (int) values[Field.PRODUCT_ID.ordinal()];
+    }
+
+    public String getProductDescription() {
+        return string(Field.PRODUCT_DESCRIPTION);
+    }
+
+    public String getRegularDisplayPrice() {
+        return string(Field.REGULAR_DISPLAY_PRICE);
+    }
+
+    public boolean hasRegularCalculatorPrice() {
+        return states[Field.REGULAR_CALCULATOR_PRICE.ordinal()] == PRESENT;
+    }
+
+    /**
+     * @return null when there is no regular price
+     */
+    public Money getRegularCalculatorPrice() {
+        return hasRegularCalculatorPrice() ? Money.ofScaled(getRegularCalculatorPriceScaled()) : null;
+    }
+
+    /**
+     * Regular calculator price in 1/10000 units
+     *
+     * @return 0 when there is no regular price
+     */
+    public long getRegularCalculatorPriceScaled() {
+        return values[Field.REGULAR_CALCULATOR_PRICE.ordinal()];
+    }
+
+    public String getPromotionalDisplayPrice() {
+        return string(Field.PROMOTIONAL_DISPLAY_PRICE);
+    }
+
+    public boolean hasPromotionalCalculatorPrice() {
+        return states[Field.PROMOTIONAL_CALCULATOR_PRICE.ordinal()] == PRESENT;
+    }
+
+    /**
+     * @return null when there is no promotional price
+     */
+    public Money getPromotionalCalculatorPrice() {
+        return hasPromotionalCalculatorPrice() ? Money.ofScaled(getPromotionalCalculatorPriceScaled()) : null;
+    }
+
+    /**
+     * Promotional calculator price in 1/10000 units
+     *
+     * @return 0 when there is no promotional price
+     */
+    public long getPromotionalCalculatorPriceScaled() {
+        return values[Field.PROMOTIONAL_CALCULATOR_PRICE.ordinal()];
+    }
+
+    public UnitOfMeasure getUnitOfMeasure() {
+        String name = string(Field.UNIT_OF_MEASURE);
+        return name == null ? null : UnitOfMeasure.valueOf(name);
+    }
+
+    public Optional<String> getProductSize() {
+        switch (states[Field.PRODUCT_SIZE.ordinal()]) {
+            case PRESENT:
+                return Optional.of(string(Field.PRODUCT_SIZE));
+            case EMPTY:
+                return Optional.empty();
+            default:
+                return null;
+        }
+    }
+
+    public Optional<BigDecimal> getTaxRate() {
+        switch (states[Field.TAX_RATE.ordinal()]) {
+            case PRESENT:
+                return Optional.of(BigDecimal.valueOf(values[Field.TAX_RATE.ordinal()], (int) extras[Field.TAX_RATE.ordinal()]));
+            case EMPTY:
+                return Optional.empty();
+            default:
+                return null;
+        }
+    }
+
+    public Instant getCreatedDateTime() {
+        return instant(Field.CREATED_DATE_TIME);
+    }
+
+    public String getCreatedBy() {
+        return string(Field.CREATED_BY);
+    }
+
+    public Instant getModifiedDateTime() {
+        return instant(Field.MODIFIED_DATE_TIME);
+    }
+
+    public String getModifiedBy() {
+        return string(Field.MODIFIED_BY);
+    }
+
+    public Locale getLocale() {
+        if (states[Field.LOCALE.ordinal()] != PRESENT) {
+            return null;
+        }
+        int index = (int) values[Field.LOCALE.ordinal()];
+        if (index != localeIndex) {
+            locale = Locale.forLanguageTag(string(Field.LOCALE));
+            localeIndex = index;
+        }
+        return locale;
+    }
+
+    private boolean nextBlock() throws BinaryFormatException {
+        int length = ProductRecordBinaryFormat.readLength(buffer);
+        if (length == ProductRecordBinaryFormat.END_OF_STREAM) {
+            return false;
+        }
+        if (length > buffer.remaining()) {
+            throw new BinaryFormatException(String.format("Truncated block of %d bytes", length));
+        }
+        blockEnd = buffer.position() + length;
+        remaining = ProductRecordBinaryFormat.readLength(buffer);
+
+        uuidCount = ProductRecordBinaryFormat.readLength(buffer);
+        uuidTable = buffer.position();
+        if (uuidCount > (blockEnd - uuidTable) / ProductRecordBinaryFormat.UUID_BYTES) {
+            throw new BinaryFormatException(String.format("Invalid uuid count: %d", uuidCount));
+        }
+        buffer.position(uuidTable + uuidCount * ProductRecordBinaryFormat.UUID_BYTES);
+
+        stringCount = ProductRecordBinaryFormat.readLength(buffer);
+        if (stringCount > blockEnd - buffer.position()) {
+            throw new BinaryFormatException(String.format("Invalid string count: %d", stringCount));
+        }
+        if (stringCount > strings.length) {
+            int capacity = Math.max(stringCount, strings.length * 2);
+            stringOffsets = new int[capacity];
+            stringLengths = new int[capacity];
+            strings = new String[capacity];
+        } else {
+            Arrays.fill(strings, 0, stringCount, null);
+        }
+        for (int i = 0; i < stringCount; i++) {
+            stringLengths[i] = ProductRecordBinaryFormat.readLength(buffer);
+            stringOffsets[i] = buffer.position();
+            if (stringLengths[i] > blockEnd - stringOffsets[i]) {
+                throw new BinaryFormatException(String.format("Invalid string length: %d", stringLengths[i]));
+            }
+            buffer.position(stringOffsets[i] + stringLengths[i]);
+        }
+        localeIndex = -1;
+        return true;
+    }
+
+    private void readRecord() throws BinaryFormatException {
+        long flags = ProductRecordBinaryFormat.readVarint(buffer);
+        Arrays.fill(states, NULL);
+        for (int i = 0; i < schema.length; i++) {
+            if ((flags & (1L << i)) != 0) {
+                continue;
+            }
+            if ((flags & (1L << (schema.length + i))) != 0) {
+                if (schema[i] != null) {
+                    states[schema[i].ordinal()] = EMPTY;
+                }
+                continue;
+            }
+
+            long value;
+            long extra = 0L;
+            switch (schemaTypes[i]) {
+                case UUID:
+                    value = buffer.getLong();
+                    extra = buffer.getLong();
+                    break;
+                case UUID_REF:
+                    value = index(uuidCount);
+                    break;
+                case STRING_REF:
+                    value = index(stringCount);
+                    break;
+                case INT:
+                case MONEY:
+                    value = ProductRecordBinaryFormat.unZigZag(ProductRecordBinaryFormat.readVarint(buffer));
+                    break;
+                case DECIMAL:
+                    extra = ProductRecordBinaryFormat.unZigZag(ProductRecordBinaryFormat.readVarint(buffer));
+                    value = ProductRecordBinaryFormat.unZigZag(ProductRecordBinaryFormat.readVarint(buffer));
+                    break;
+                default:
+                    value = ProductRecordBinaryFormat.unZigZag(ProductRecordBinaryFormat.readVarint(buffer));
+                    extra = ProductRecordBinaryFormat.readVarint(buffer);
+            }
+            if (schema[i] != null) {
+                states[schema[i].ordinal()] = PRESENT;
+                values[schema[i].ordinal()] = value;
+                extras[schema[i].ordinal()] = extra;
+            }
+        }
+        if (buffer.position() > blockEnd) {
+            throw new BinaryFormatException(String.format("Record overruns its block: %d", buffer.position()));
+        }
+    }
+
+    private int index(int count) throws BinaryFormatException {
+        int index = ProductRecordBinaryFormat.readLength(buffer);
+        if (index >= count) {
+            throw new BinaryFormatException(String.format("Invalid table index: %d", index));
+        }
+        return index;
+    }
+
+    private UUID uuid(Field field) {
+        if (states[field.ordinal()] != PRESENT) {
+            return null;
+        }
+        int offset = uuidTable + (int) values[field.ordinal()] * ProductRecordBinaryFormat.UUID_BYTES;
+        return new UUID(buffer.getLong(offset), buffer.getLong(offset + 8));
+    }
+
+    private String string(Field field) {
+        if (states[field.ordinal()] != PRESENT) {
+            return null;
+        }
+        int index = (int) values[field.ordinal()];
+        String string = strings[index];
+        if (string == null) {
+            string = decode(stringOffsets[index], stringLengths[index]);
+            strings[index] = string;
+        }
+        return string;
+    }
+
+    private String decode(int offset, int length) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Instant instant(Field field) {
+        return states[field.ordinal()] != PRESENT ? null : Instant.ofEpochSecond(values[field.ordinal()], extras[field.ordinal()]);
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.writer;
+
+import com.github.samsonkim.lib.productinfoingestion.model.Money;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.writer.ProductRecordBinaryFormat.Field;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * BinaryWriter writing ProductRecords in blocks of up to blockSize records, see ProductRecordBinaryFormat.
+ *
+ * Each block is prefixed with its length and starts with its own uuid and string tables, so store ids,
+ * locales, units of measure, display prices and audit users are written once per block and records only
+ * hold their indexes.  Product ids and prices are varints, prices in the 1/10000 units of Money.
+ * The stream starts with the version and the schema of its fields, so readers skip fields they do not know
+ */
+public class ProductRecordBinaryWriter implements BinaryWriter {
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    private static final Field[] FIELDS = Field.values();
+    private static final BigInteger MIN_LONG = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger MAX_LONG = BigInteger.valueOf(Long.MAX_VALUE);
+
+    private final int blockSize;
+
+    public ProductRecordBinaryWriter() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param blockSize records per block, larger blocks share their tables among more records
+     */
+    public ProductRecordBinaryWriter(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException(String.format("Invalid blockSize: %d", blockSize));
+        }
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public Output open(OutputStream outputStream) throws IOException {
+        ByteSink header = new ByteSink();
+        header.write(ProductRecordBinaryFormat.MAGIC, 0, ProductRecordBinaryFormat.MAGIC.length);
+        header.writeVarint(ProductRecordBinaryFormat.VERSION);
+        header.writeVarint(FIELDS.length);
+        for (Field field : FIELDS) {
+            header.writeString(field.getFieldName());
+            header.writeByte(field.getType().getCode());
+        }
+        header.writeTo(outputStream);
+        return new BlockOutput(outputStream, blockSize);
+    }
+
+    /**
+     * Buffers a block of records and writes it with its tables once full
+     */
+    private static final class BlockOutput implements Output {
+        private final OutputStream outputStream;
+        private final int blockSize;
+        private final ByteSink records = new ByteSink();
+        private final ByteSink tables = new ByteSink();
+        private final List<UUID> uuids = new ArrayList<>();
+        private final Map<UUID, Integer> uuidIndexes = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> stringIndexes = new HashMap<>();
+        //a record's locale is usually the previous record's
+        private Locale lastLocale;
+        private String lastLanguageTag;
+        private int size;
+        private boolean closed;
+
+        BlockOutput(OutputStream outputStream, int blockSize) {
+            this.outputStream = outputStream;
+            this.blockSize = blockSize;
+        }
+
+        @Override
+        public void write(ProductRecord productRecord) throws IOException {
+            if (closed) {
+                throw new IOException("Output is closed");
+            }
+            long flags = 0L;
+            for (Field field : FIELDS) {
+                Object value = get(productRecord, field);
+                if (value == null) {
+                    flags |= 1L << field.ordinal();
+                } else if (field.isOptional() && !((Optional<?>) value).isPresent()) {
+                    flags |= 1L << (FIELDS.length + field.ordinal());
+                }
+            }
+            records.writeVarint(flags);
+
+            Optional<UUID> id = productRecord.getId();
+            if (id != null && id.isPresent()) {
+                records.writeLong(id.get().getMostSignificantBits());
+                records.writeLong(id.get().getLeastSignificantBits());
+            }
+            writeUUIDRef(productRecord.getStoreId());
+            writeUUIDRef(productRecord.getStoreJournalId());
+            if (productRecord.getProductID() != null) {
+                records.writeVarint(ProductRecordBinaryFormat.zigZag(productRecord.getProductID()));
+            }
+            writeStringRef(productRecord.getProductDescription());
+            writeStringRef(productRecord.getRegularDisplayPrice());
+            writeMoney(productRecord.getRegularCalculatorPrice());
+            writeStringRef(productRecord.getPromotionalDisplayPrice());
+            writeMoney(productRecord.getPromotionalCalculatorPrice());
+            writeStringRef(productRecord.getUnitOfMeasure() == null ? null : productRecord.getUnitOfMeasure().name());
+            Optional<String> productSize = productRecord.getProductSize();
+            writeStringRef(productSize == null ? null : productSize.orElse(null));
+            Optional<BigDecimal> taxRate = productRecord.getTaxRate();
+            if (taxRate != null && taxRate.isPresent()) {
+                writeDecimal(taxRate.get());
+            }
+            writeInstant(productRecord.getCreatedDateTime());
+            writeStringRef(productRecord.getCreatedBy());
+            writeInstant(productRecord.getModifiedDateTime());
+            writeStringRef(productRecord.getModifiedBy());
+            writeStringRef(languageTag(productRecord.getLocale()));
+
+            if (++size == blockSize) {
+                flushBlock();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (size > 0) {
+                    flushBlock();
+                }
+                tables.reset();
+                tables.writeVarint(ProductRecordBinaryFormat.END_OF_STREAM);
+                tables.writeTo(outputStream);
+            } finally {
+                outputStream.close();
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            tables.reset();
+            tables.writeVarint(size);
+            tables.writeVarint(uuids.size());
+            for (UUID uuid : uuids) {
+                tables.writeLong(uuid.getMostSignificantBits());
+                tables.writeLong(uuid.getLeastSignificantBits());
+            }
+            tables.writeVarint(strings.size());
+            for (String string : strings) {
+                tables.writeString(string);
+            }
+
+            ByteSink length = new ByteSink();
+            length.writeVarint((long) tables.size() + records.size());
+            length.writeTo(outputStream);
+            tables.writeTo(outputStream);
+            records.writeTo(outputStream);
+
+            records.reset();
+            uuids.clear();
+            uuidIndexes.clear();
+            strings.clear();
+            stringIndexes.clear();
+            size = 0;
+        }
+
+        private void writeUUIDRef(UUID value) {
+            if (value != null) {
+                Integer index = uuidIndexes.get(value);
+                if (index == null) {
+                    index = uuids.size();
+                    uuids.add(value);
+                    uuidIndexes.put(value, index);
+                }
+                records.writeVarint(index);
+            }
+        }
+
+        private void writeStringRef(String value) {
+            if (value != null) {
+                Integer index = stringIndexes.get(value);
+                if (index == null) {
+                    index = strings.size();
+                    strings.add(value);
+                    stringIndexes.put(value, index);
+                }
+                records.writeVarint(index);
+            }
+        }
+
+        private void writeMoney(Money value) {
+            if (value != null) {
+                records.writeVarint(ProductRecordBinaryFormat.zigZag(value.getScaled()));
+            }
+        }
+
+        private void writeDecimal(BigDecimal value) {
+            BigInteger unscaled = value.unscaledValue();
+            if (unscaled.compareTo(MIN_LONG) < 0 || unscaled.compareTo(MAX_LONG) > 0) {
+                throw new IllegalArgumentException(String.format("Invalid decimal: %s", value));
+            }
+            records.writeVarint(ProductRecordBinaryFormat.zigZag(value.scale()));
+            records.writeVarint(ProductRecordBinaryFormat.zigZag(unscaled.longValue()));
+        }
+
+        private void writeInstant(Instant value) {
+            if (value != null) {
+                records.writeVarint(ProductRecordBinaryFormat.zigZag(value.getEpochSecond()));
+                records.writeVarint(value.getNano());
+            }
+        }
+
+        private String languageTag(Locale locale) {
+            if (locale == null) {
+                return null;
+            }
+            if (!locale.equals(lastLocale)) {
+                lastLocale = locale;
+                lastLanguageTag = locale.toLanguageTag();
+            }
+            return lastLanguageTag;
+        }
+
+        private static Object get(ProductRecord productRecord, Field field) {
+            switch (field) {
+                case ID:
+                    return productRecord.getId();
+                case STORE_ID:
+                    return productRecord.getStoreId();
+                case STORE_JOURNAL_ID:
+                    return productRecord.getStoreJournalId();
+                case PRODUCT_ID:
+                    return productRecord.getProductID();
+                case PRODUCT_DESCRIPTION:
+                    return productRecord.getProductDescription();
+                case REGULAR_DISPLAY_PRICE:
+                    return productRecord.getRegularDisplayPrice();
+                case REGULAR_CALCULATOR_PRICE:
+                    return productRecord.getRegularCalculatorPrice();
+                case PROMOTIONAL_DISPLAY_PRICE:
+                    return productRecord.getPromotionalDisplayPrice();
+                case PROMOTIONAL_CALCULATOR_PRICE:
+                    return productRecord.getPromotionalCalculatorPrice();
+                case UNIT_OF_MEASURE:
+                    return productRecord.getUnitOfMeasure();
+                case PRODUCT_SIZE:
+                    return productRecord.getProductSize();
+                case TAX_RATE:
+                    return productRecord.getTaxRate();
+                case CREATED_DATE_TIME:
+                    return productRecord.getCreatedDateTime();
+                case CREATED_BY:
+                    return productRecord.getCreatedBy();
+                case MODIFIED_DATE_TIME:
+                    return productRecord.getModifiedDateTime();
+                case MODIFIED_BY:
+                    return productRecord.getModifiedBy();
+                default:
+                    return productRecord.getLocale();
+            }
+        }
+    }
+
+    /**
+     * Growable byte array with the encodings of ProductRecordBinaryFormat
+     */
+    private static final class ByteSink {
+        private byte[] bytes = new byte[1024];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void write(byte[] source, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+
+        void writeVarint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(utf8.length);
+            write(utf8, 0, utf8.length);
+        }
+
+        void writeTo(OutputStream outputStream) throws IOException {
+            outputStream.write(bytes, 0, size);
+        }
+
+        private void ensureCapacity(int length) {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+            }
+        }
+    }
+}
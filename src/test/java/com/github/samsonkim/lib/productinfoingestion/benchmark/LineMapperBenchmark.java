@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.benchmark;
+
+import com.github.samsonkim.lib.productinfoingestion.integration.GeneratedFixedWidthFileProductRecordMapper;
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreFixedWidthFileProductRecordMapper;
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecordView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hand written sample store mapper against the mapper generated from
+ * SampleStoreSettings.FIXED_WIDTH_MAPPER_GENERATOR, both mapping into a reused view.
+ * An unpriced line is rejected by the price check, so it measures decoding without display price formatting
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LineMapperBenchmark {
+    private static final String PRICED_LINE = "14963801 Generic Soda 12-pack                                        00000000 00000549 00001300 00000000 00000002 00000000 NNNNYNNNN   12x12oz";
+    private static final String UNPRICED_LINE = "14963802 Generic Soda 6-pack                                         00000000 00000000 00000000 00000000 00000000 00000000 NNNNYNNNN    6x12oz";
+
+    @Param({"true", "false"})
+    private boolean priced;
+
+    private String line;
+
+    private SampleStoreFixedWidthFileProductRecordMapper handWrittenMapper;
+    private GeneratedFixedWidthFileProductRecordMapper generatedMapper;
+    private ProductRecordView view;
+
+    @Setup
+    public void setUp() {
+        UUID storeId = UUID.randomUUID();
+        UUID storeJournalId = UUID.randomUUID();
+        handWrittenMapper = new SampleStoreFixedWidthFileProductRecordMapper(storeId, storeJournalId);
+        generatedMapper = new GeneratedFixedWidthFileProductRecordMapper(storeId, storeJournalId,
+                SampleStoreSettings.DEFAULT_STORE_LOCALE, SampleStoreSettings.FIXED_WIDTH_MAPPER_GENERATOR);
+        view = handWrittenMapper.newView();
+        line = priced ? PRICED_LINE : UNPRICED_LINE;
+    }
+
+    @Benchmark
+    public ProductRecordView handWritten() {
+        handWrittenMapper.mapInto(line, view);
+        return view;
+    }
+
+    @Benchmark
+    public ProductRecordView generated() {
+        generatedMapper.mapInto(line, view);
+        return view;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.benchmark;
+
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreFixedWidthFileProductRecordMapper;
+import com.github.samsonkim.lib.productinfoingestion.model.CompactProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecordBatch;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Footprint report of an ingested catalog held as List&lt;ProductRecord&gt; and as ProductRecordBatch,
+ * measured by walking the object graphs with JOL.
+ * Objects shared by every record, e.g. the store id or locale, are only counted once.
+ *
+ * Run with the benchmark classpath, see README:
+ * java -cp ... com.github.samsonkim.lib.productinfoingestion.benchmark.ProductRecordFootprint [records]
+ */
+public class ProductRecordFootprint {
+    private static final String SAMPLE_FILE = "src/test/resources/test-sample.txt";
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        List<ProductRecord> productRecords = ingest(size);
+        ProductRecordBatch batch = new ProductRecordBatch(productRecords.size());
+        batch.addAll(productRecords);
+        batch.trimToSize();
+        ((ArrayList<ProductRecord>) productRecords).trimToSize();
+
+        System.out.println(ClassLayout.parseClass(ProductRecord.class).toPrintable());
+        System.out.println(ClassLayout.parseClass(CompactProductRecord.class).toPrintable());
+
+        GraphLayout before = GraphLayout.parseInstance(productRecords);
+        GraphLayout after = GraphLayout.parseInstance(batch);
+        System.out.println("List<ProductRecord>");
+        System.out.println(before.toFootprint());
+        System.out.println("ProductRecordBatch");
+        System.out.println(after.toFootprint());
+        System.out.println(String.format("records: %d, bytes per record: List<ProductRecord> %d, ProductRecordBatch %d",
+                productRecords.size(),
+                before.totalSize() / productRecords.size(),
+                after.totalSize() / productRecords.size()));
+    }
+
+    /**
+     * Maps the sample file's lines repeatedly and stamps audit attributes like the ingestion service
+     *
+     * @param size number of lines to map
+     * @return
+     * @throws IOException
+     */
+    static List<ProductRecord> ingest(int size) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(SAMPLE_FILE), StandardCharsets.ISO_8859_1);
+        SampleStoreFixedWidthFileProductRecordMapper mapper =
+                new SampleStoreFixedWidthFileProductRecordMapper(UUID.randomUUID(), UUID.randomUUID());
+        Instant now = Instant.now();
+
+        List<ProductRecord> productRecords = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            mapper.map(lines.get(i % lines.size())).ifPresent(productRecord -> {
+                productRecord.setId(Optional.of(UUID.randomUUID()));
+                productRecord.setCreatedBy("footprint");
+                productRecord.setCreatedDateTime(now);
+                productRecords.add(productRecord);
+            });
+        }
+        return productRecords;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.samsonkim.lib.productinfoingestion.exception.ProductInfoIngestionException;
+import com.github.samsonkim.lib.productinfoingestion.integration.StoreFactoryImpl;
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.service.ProductCatalogIntegrationServiceImpl;
+import com.github.samsonkim.lib.productinfoingestion.writer.JacksonJsonWriter;
+import com.github.samsonkim.lib.productinfoingestion.writer.JsonException;
+import com.github.samsonkim.lib.productinfoingestion.writer.JsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of writing ProductRecords to a json array through Jackson's reflective bean serializer
+ * against JacksonJsonWriter with its ProductRecordSerializer
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProductRecordSerializerBenchmark {
+    private static final int RECORDS = 1000;
+
+    private List<ProductRecord> productRecords;
+    private ObjectWriter beanWriter;
+    private JsonWriter jsonWriter;
+    private CountingOutputStream outputStream;
+
+    @Setup
+    public void setUp() throws ProductInfoIngestionException {
+        ProductCatalogIntegrationServiceImpl service = new ProductCatalogIntegrationServiceImpl(new StoreFactoryImpl());
+        productRecords = new ArrayList<>();
+        while (productRecords.size() < RECORDS) {
+            productRecords.addAll(service.ingestProductCatalog(SampleStoreSettings.STORE_ID,
+                    "src/test/resources/test-sample.txt", "user"));
+        }
+        beanWriter = new ObjectMapper()
+                .registerModule(new Jdk8Module())
+                .registerModule(new JavaTimeModule())
+                .writer();
+        jsonWriter = new JacksonJsonWriter();
+        outputStream = new CountingOutputStream();
+    }
+
+    @Benchmark
+    public long beanSerializer() throws IOException {
+        beanWriter.writeValue(outputStream, productRecords);
+        return outputStream.count;
+    }
+
+    @Benchmark
+    public long productRecordSerializer() throws JsonException {
+        jsonWriter.writeValue(outputStream, productRecords);
+        return outputStream.count;
+    }
+
+    /**
+     * Discards the json, counting its bytes
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
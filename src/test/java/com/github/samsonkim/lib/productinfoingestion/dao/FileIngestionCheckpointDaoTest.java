@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.dao;
+
+import com.github.samsonkim.lib.productinfoingestion.model.IngestionCheckpoint;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FileIngestionCheckpointDaoTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path directory;
+    private FileIngestionCheckpointDao instance;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = temporaryFolder.getRoot().toPath().resolve("checkpoints");
+        instance = new FileIngestionCheckpointDao(directory);
+    }
+
+    @Test
+    public void testSaveGet() throws IOException {
+        IngestionCheckpoint checkpoint = checkpoint(UUID.randomUUID(), 1024);
+
+        assertFalse(instance.get(checkpoint.getStoreJournalId()).isPresent());
+        instance.save(checkpoint);
+        assertEquals(checkpoint, instance.get(checkpoint.getStoreJournalId()).get());
+
+        IngestionCheckpoint next = checkpoint.toBuilder().byteOffset(2048).completed(true).build();
+        instance.update(next);
+        assertEquals(next, instance.get(checkpoint.getStoreJournalId()).get());
+
+        //no temporary files are left behind
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+
+        instance.delete(checkpoint.getStoreJournalId());
+        assertFalse(instance.get(checkpoint.getStoreJournalId()).isPresent());
+    }
+
+    @Test
+    public void testFind() {
+        UUID storeId = UUID.randomUUID();
+        instance.insert(checkpoint(storeId, 1));
+        instance.insert(checkpoint(storeId, 2));
+        instance.insert(checkpoint(UUID.randomUUID(), 3));
+
+        List<Long> offsets = instance.find(Collections.singletonMap("storeId", storeId.toString())).stream()
+                .map(IngestionCheckpoint::getByteOffset)
+                .sorted()
+                .collect(Collectors.toList());
+
+        assertEquals(2, offsets.size());
+        assertTrue(offsets.contains(1L) && offsets.contains(2L));
+        assertEquals(3, instance.find(Collections.emptyMap()).size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testInsertExisting() {
+        IngestionCheckpoint checkpoint = checkpoint(UUID.randomUUID(), 1);
+        instance.insert(checkpoint);
+        instance.insert(checkpoint);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUpdateMissing() {
+        instance.update(checkpoint(UUID.randomUUID(), 1));
+    }
+
+    private static IngestionCheckpoint checkpoint(UUID storeId, long byteOffset) {
+        return IngestionCheckpoint.builder()
+                .storeJournalId(UUID.randomUUID())
+                .storeId(storeId)
+                .fileName("catalog.txt")
+                .byteOffset(byteOffset)
+                .lineNumber(10)
+                .records(9)
+                .outputPosition(4096)
+                .checkpointDateTime(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.id;
+
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimeOrderedIdGeneratorTest {
+
+    /**
+     * Ids are version 7 UUIDs stamped with the clock's millisecond
+     */
+    @Test
+    public void testLayout() {
+        Instant now = Instant.parse("2019-03-01T12:00:00.123Z");
+        TimeOrderedIdGenerator instance = new TimeOrderedIdGenerator(Clock.fixed(now, ZoneOffset.UTC), 1L, 4);
+
+        UUID id = instance.nextId();
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(now.toEpochMilli(), TimeOrderedIdGenerator.getTimestamp(id));
+    }
+
+    /**
+     * Ids of one thread increase, across blocks too
+     */
+    @Test
+    public void testOrdered() {
+        TimeOrderedIdGenerator instance = new TimeOrderedIdGenerator(Clock.systemUTC(), 1L, 4);
+
+        UUID previous = instance.nextId();
+        for (int i = 0; i < 100; i++) {
+            UUID id = instance.nextId();
+            assertTrue(String.format("%s, %s", previous, id), compareUnsigned(previous, id) < 0);
+            previous = id;
+        }
+    }
+
+    /**
+     * Threads reserving blocks never generate the same id
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testUniqueAcrossThreads() throws Exception {
+        TimeOrderedIdGenerator instance = new TimeOrderedIdGenerator(Clock.systemUTC(), 1L, 16);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<UUID>>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executorService.submit(() -> {
+                    List<UUID> ids = new ArrayList<>();
+                    for (int j = 0; j < 10_000; j++) {
+                        ids.add(instance.nextId());
+                    }
+                    return ids;
+                }));
+            }
+            Set<UUID> ids = new HashSet<>();
+            for (Future<List<UUID>> future : futures) {
+                ids.addAll(future.get());
+            }
+            assertEquals(40_000, ids.size());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * Seeded generators repeat their ids, other seeds generate other ids
+     */
+    @Test
+    public void testSeeded() {
+        TimeOrderedIdGenerator first = TimeOrderedIdGenerator.seeded(42L);
+        TimeOrderedIdGenerator second = TimeOrderedIdGenerator.seeded(42L);
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(first.nextId(), second.nextId());
+        }
+        assertNotEquals(TimeOrderedIdGenerator.seeded(42L).nextId(), TimeOrderedIdGenerator.seeded(43L).nextId());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBlockSize() {
+        new TimeOrderedIdGenerator(Clock.systemUTC(), 1L, 0);
+    }
+
+    private static int compareUnsigned(UUID a, UUID b) {
+        int compare = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return compare != 0 ? compare : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.integration;
+
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreFixedWidthFileProductRecordMapper;
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class GeneratedFixedWidthFileProductRecordMapperTest {
+
+    private GeneratedFixedWidthFileProductRecordMapper instance;
+    private SampleStoreFixedWidthFileProductRecordMapper handWrittenMapper;
+
+    @Before
+    public void setUp() throws Exception {
+        UUID storeId = UUID.randomUUID();
+        UUID storeJournalId = UUID.randomUUID();
+
+        instance = new GeneratedFixedWidthFileProductRecordMapper(storeId, storeJournalId,
+                SampleStoreSettings.DEFAULT_STORE_LOCALE, SampleStoreSettings.FIXED_WIDTH_MAPPER_GENERATOR);
+        handWrittenMapper = new SampleStoreFixedWidthFileProductRecordMapper(storeId, storeJournalId);
+    }
+
+    /**
+     * Generated sample store mapper maps every line exactly like the hand written one
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testMapMatchesHandWrittenMapper() throws IOException {
+        List<String> lines;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getClassLoader().getResourceAsStream("test-sample.txt")))) {
+            lines = reader.lines().collect(Collectors.toList());
+        }
+        lines.addAll(Arrays.asList(
+                "14963801 Generic Soda 12-pack                                        00000000 00000000 00001300 00001800 00000002 00000003 NNNNYNNNN   12x12oz",
+                "40123401 Marlboro Cigarettes                                         00001000 00000549 00000000 00000000 00000000 00000000 YNNNNNNNN          ",
+                "50133333 Fuji Apples (Organic)                                       00000349 00000000 00000000 00000000 00000000 00000000 NNYNNNNNN",
+                "80000001 Kimchi-flavored white rice                                  00000000 00000000 00000000 00000000 00000000 00000000 NNNNNNNNN      18oz",
+                "80000001 Kimchi-flavored white rice"));
+
+        for (String line : lines) {
+            assertEquals(line, handWrittenMapper.map(line), instance.map(line));
+        }
+    }
+
+    @Test
+    public void testSkipMapProductRecord() {
+        String line = "80000001 Kimchi-flavored white rice                                  00000000 00000000 00000000 00000000 00000000 00000000 NNNNNNNNN      18oz";
+
+        Optional<ProductRecord> productRecordOpt = instance.map(line);
+
+        assertFalse(productRecordOpt.isPresent());
+    }
+}
@@ -25,15 +25,24 @@
 package com.github.samsonkim.lib.productinfoingestion.integration;
 
 import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.parser.ChunkedFileParserImpl;
+import com.github.samsonkim.lib.productinfoingestion.parser.DeltaFileParser;
+import com.github.samsonkim.lib.productinfoingestion.parser.ErrorBudget;
 import com.github.samsonkim.lib.productinfoingestion.parser.FileParser;
+import com.github.samsonkim.lib.productinfoingestion.parser.FixedWidthFileBatchParser;
 import com.github.samsonkim.lib.productinfoingestion.parser.FileParserImpl;
+import com.github.samsonkim.lib.productinfoingestion.parser.TolerantFileParserImpl;
+import com.github.samsonkim.lib.productinfoingestion.pipeline.IngestionPipeline;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 public class StoreFactoryImplTest {
@@ -56,6 +65,68 @@ public class StoreFactoryImplTest {
         assertThat(fileParser, instanceOf(FileParserImpl.class));
     }
 
+    @Test
+    public void testGetSampleStoreParallelFileParser() {
+
+        UUID storeId = SampleStoreSettings.STORE_ID;
+        UUID storeJournalId = UUID.randomUUID();
+
+        FileParser fileParser = instance.getParallelFileParser(storeId, storeJournalId);
+
+        assertNotNull(fileParser);
+        assertThat(fileParser, instanceOf(ChunkedFileParserImpl.class));
+    }
+
+    @Test
+    public void testGetSampleStoreTolerantFileParser() {
+
+        UUID storeId = SampleStoreSettings.STORE_ID;
+        UUID storeJournalId = UUID.randomUUID();
+
+        FileParser fileParser = instance.getTolerantFileParser(storeId, storeJournalId, r -> {}, ErrorBudget.UNLIMITED);
+
+        assertNotNull(fileParser);
+        assertThat(fileParser, instanceOf(TolerantFileParserImpl.class));
+    }
+
+    @Test
+    public void testFindStoreId() {
+        assertEquals(Optional.of(SampleStoreSettings.STORE_ID), instance.findStoreId("/drop/sample/catalog.txt"));
+        assertEquals(Optional.empty(), instance.findStoreId("unknown"));
+    }
+
+    @Test
+    public void testGetSampleStoreDeltaFileParser() {
+
+        UUID storeId = SampleStoreSettings.STORE_ID;
+        UUID storeJournalId = UUID.randomUUID();
+
+        DeltaFileParser<ProductRecord> deltaFileParser = instance.getDeltaFileParser(storeId, storeJournalId);
+
+        assertNotNull(deltaFileParser);
+    }
+
+    @Test
+    public void testGetSampleStoreIngestionPipeline() {
+
+        UUID storeId = SampleStoreSettings.STORE_ID;
+        UUID storeJournalId = UUID.randomUUID();
+
+        IngestionPipeline<ProductRecord> ingestionPipeline = instance.getIngestionPipeline(storeId, storeJournalId);
+
+        assertNotNull(ingestionPipeline);
+    }
+
+    @Test
+    public void testGetSampleStoreBatchFileParser() {
+
+        UUID storeId = SampleStoreSettings.STORE_ID;
+
+        FixedWidthFileBatchParser batchFileParser = instance.getBatchFileParser(storeId, 100);
+
+        assertNotNull(batchFileParser);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testInvalidStore() {
         UUID storeId = UUID.randomUUID();
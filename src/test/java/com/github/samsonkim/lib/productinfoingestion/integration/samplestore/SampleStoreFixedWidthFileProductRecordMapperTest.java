@@ -25,11 +25,15 @@
 package com.github.samsonkim.lib.productinfoingestion.integration.samplestore;
 
 import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecordView;
 import com.github.samsonkim.lib.productinfoingestion.model.UnitOfMeasure;
+import com.github.samsonkim.lib.productinfoingestion.parser.ByteBufferLine;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
@@ -209,4 +213,61 @@ public class SampleStoreFixedWidthFileProductRecordMapperTest {
 
         assertFalse(productRecordOpt.isPresent());
     }
+
+    /**
+     * Mapping from a byte buffer backed line yields the same record as from a String
+     */
+    @Test
+    public void testMapProductRecordByteBufferLine() {
+        String line = "14963801 Generic Soda 12-pack                                        00000000 00000549 00001300 00000000 00000002 00000000 NNNNYNNNN   12x12oz";
+        byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+
+        Optional<ProductRecord> productRecordOpt = instance.map(new ByteBufferLine(ByteBuffer.wrap(bytes), 0, bytes.length));
+
+        assertEquals(instance.map(line), productRecordOpt);
+        assertEquals("12x12oz", productRecordOpt.get().getProductSize().get());
+    }
+
+    /**
+     * Product size is optional at the end of the line
+     */
+    @Test
+    public void testMapProductRecordWithoutProductSize() {
+        String line = "50139392 Lemons                                                      00000000 00000000 00000100 00000100 00000003 00000005 NNNNNNNNN";
+
+        Optional<ProductRecord> productRecordOpt = instance.map(line);
+
+        assertTrue(productRecordOpt.isPresent());
+        assertFalse(productRecordOpt.get().getProductSize().isPresent());
+        assertEquals("3 for $1.00", productRecordOpt.get().getRegularDisplayPrice());
+        assertEquals("0.3333", productRecordOpt.get().getRegularCalculatorPrice().toString());
+    }
+
+    @Test
+    public void testSkipMapProductRecordTruncatedLine() {
+        String line = "50139392 Lemons                                                      00000000 00000000 00000100";
+
+        assertFalse(instance.map(line).isPresent());
+    }
+
+    @Test
+    public void testMapIntoView() {
+        String line = "14963801 Generic Soda 12-pack                                        00000000 00000000 00001300 00001800 00000002 00000003 NNNNYNNNN   12x12oz";
+
+        ProductRecordView view = instance.newView();
+
+        assertTrue(instance.mapInto(line, view));
+
+        assertEquals(14963801, view.getProductID());
+        assertEquals("Generic Soda 12-pack", view.getProductDescription().toString());
+        assertEquals("2 for $13.00", view.getRegularDisplayPrice());
+        assertEquals(65000, view.getRegularCalculatorPrice());
+        assertEquals("3 for $18.00", view.getPromotionalDisplayPrice());
+        assertEquals(60000, view.getPromotionalCalculatorPrice());
+        assertEquals("12x12oz", view.getProductSize().toString());
+        assertEquals(instance.map(line).get(), view.toProductRecord());
+
+        String skipped = "80000001 Kimchi-flavored white rice                                  00000000 00000000 00000000 00000000 00000000 00000000 NNNNNNNNN      18oz";
+        assertFalse(instance.mapInto(skipped, view));
+    }
 }
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.model;
+
+import com.github.samsonkim.lib.productinfoingestion.writer.JacksonJsonWriter;
+import com.github.samsonkim.lib.productinfoingestion.writer.JsonException;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MoneyTest {
+    private static final long[] VALUES = {0L, 1L, -1L, 67L, 9999L, 10000L, -10000L, 56700L, -56700L, 3333L,
+            123456789L, Long.MAX_VALUE, Long.MIN_VALUE};
+
+    /**
+     * toString is the same as BigDecimal with scale 4
+     */
+    @Test
+    public void testToString() {
+        for (long value : VALUES) {
+            assertEquals(BigDecimal.valueOf(value, 4).toString(), Money.ofScaled(value).toString());
+        }
+        for (long value = -20000; value <= 20000; value += 13) {
+            assertEquals(BigDecimal.valueOf(value, 4).toString(), Money.ofScaled(value).toString());
+        }
+    }
+
+    /**
+     * Json is the same as Jackson writes for BigDecimal with scale 4, as a value and inside arrays
+     *
+     * @throws JsonException
+     */
+    @Test
+    public void testJson() throws JsonException {
+        JacksonJsonWriter writer = new JacksonJsonWriter();
+        List<Money> moneys = new ArrayList<>();
+        List<BigDecimal> bigDecimals = new ArrayList<>();
+
+        for (long value : VALUES) {
+            assertEquals(writer.writeValueAsString(BigDecimal.valueOf(value, 4)),
+                    writer.writeValueAsString(Money.ofScaled(value)));
+            moneys.add(Money.ofScaled(value));
+            bigDecimals.add(BigDecimal.valueOf(value, 4));
+        }
+        assertEquals(writer.writeValueAsString(bigDecimals), writer.writeValueAsString(moneys));
+    }
+
+    /**
+     * Split pricing division matches BigDecimal HALF_DOWN division
+     */
+    @Test
+    public void testDivideHalfDown() {
+        for (long price = -2000; price <= 2000; price += 7) {
+            for (int x = 1; x <= 9; x++) {
+                BigDecimal expected = BigDecimal.valueOf(price, 4)
+                        .divide(BigDecimal.valueOf(x), 4, RoundingMode.HALF_DOWN);
+                assertEquals(expected, Money.ofScaled(price).divideHalfDown(x).toBigDecimal());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDivideHalfDownByZero() {
+        Money.ofScaled(10000).divideHalfDown(0);
+    }
+
+    @Test
+    public void testOf() {
+        assertEquals(Money.ofScaled(56700), Money.of(new BigDecimal("5.67")));
+        assertEquals(Money.ofScaled(56700), Money.ofCents(567));
+        //half down
+        assertEquals(Money.ofScaled(12345), Money.of(new BigDecimal("1.23455")));
+        assertEquals(Money.ofScaled(12346), Money.of(new BigDecimal("1.234551")));
+        assertSame(Money.ZERO, Money.ofScaled(0));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testOfOverflow() {
+        Money.of(new BigDecimal("1e20"));
+    }
+
+    @Test
+    public void testArithmetic() {
+        Money price = Money.ofCents(250);
+
+        assertEquals(Money.ofCents(500), price.plus(price));
+        assertEquals(Money.ZERO, price.minus(price));
+        assertEquals(Money.ofCents(750), price.multiply(3));
+        assertTrue(price.compareTo(Money.ofCents(251)) < 0);
+        assertTrue(price.isPositive());
+        assertFalse(Money.ZERO.isPositive());
+        assertFalse(Money.ofCents(-1).isPositive());
+        assertEquals(price.hashCode(), Money.ofScaled(25000).hashCode());
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testPlusOverflow() {
+        Money.ofScaled(Long.MAX_VALUE).plus(Money.ofScaled(1));
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.model;
+
+import com.github.samsonkim.lib.productinfoingestion.exception.ProductInfoIngestionException;
+import com.github.samsonkim.lib.productinfoingestion.integration.StoreFactoryImpl;
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings;
+import com.github.samsonkim.lib.productinfoingestion.service.ProductCatalogIntegrationServiceImpl;
+import com.github.samsonkim.lib.productinfoingestion.writer.JacksonJsonWriter;
+import com.github.samsonkim.lib.productinfoingestion.writer.JsonException;
+import org.junit.Before;
+import org.junit.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ProductRecordBatchTest {
+    private static final String FILE_NAME = "src/test/resources/test-sample.txt";
+
+    private List<ProductRecord> productRecords;
+
+    @Before
+    public void setUp() throws ProductInfoIngestionException {
+        productRecords = new ProductCatalogIntegrationServiceImpl(new StoreFactoryImpl())
+                .ingestProductCatalog(SampleStoreSettings.STORE_ID, FILE_NAME, "user");
+    }
+
+    /**
+     * Records copied out of the batch equal the records added
+     */
+    @Test
+    public void testAddAndGet() {
+        ProductRecordBatch instance = new ProductRecordBatch();
+        instance.addAll(productRecords);
+
+        assertEquals(5, instance.size());
+        assertEquals(productRecords, instance);
+        assertEquals(productRecords.get(0).getStoreJournalId(), instance.getStoreJournalId());
+        assertEquals("user", instance.getCreatedBy());
+
+        CompactProductRecord compact = instance.getCompact(0);
+        assertEquals(80000001, compact.getProductID());
+        assertEquals(56700, compact.getRegularCalculatorPriceScaled());
+        assertEquals(productRecords.get(0).getId(), compact.getId());
+    }
+
+    /**
+     * Null, empty and missing values survive the compact layout
+     */
+    @Test
+    public void testNullAndEmptyFields() {
+        ProductRecord productRecord = ProductRecord.builder()
+                .productSize(Optional.empty())
+                .taxRate(Optional.of(BigDecimal.ONE))
+                .unitOfMeasure(UnitOfMeasure.POUND)
+                .promotionalCalculatorPrice(Money.ZERO)
+                .build();
+        ProductRecordBatch instance = new ProductRecordBatch();
+        instance.add(productRecord);
+
+        ProductRecord copy = instance.get(0);
+        assertEquals(productRecord, copy);
+        assertNull(copy.getId());
+        assertNull(copy.getProductID());
+        assertNull(copy.getRegularCalculatorPrice());
+        assertEquals(Money.ZERO, copy.getPromotionalCalculatorPrice());
+        assertEquals(Optional.empty(), copy.getProductSize());
+    }
+
+    /**
+     * A batch serializes to the same Json as the List of ProductRecords
+     *
+     * @throws JsonException
+     */
+    @Test
+    public void testJson() throws JsonException {
+        JacksonJsonWriter jsonWriter = new JacksonJsonWriter();
+        ProductRecordBatch instance = new ProductRecordBatch();
+        instance.addAll(productRecords);
+
+        assertEquals(jsonWriter.writeValueAsString(productRecords), jsonWriter.writeValueAsString(instance));
+        assertEquals("[]", jsonWriter.writeValueAsString(new ProductRecordBatch()));
+    }
+
+    /**
+     * Records of another journal start a new batch
+     */
+    @Test
+    public void testOf() {
+        List<ProductRecord> mixed = new ArrayList<>(productRecords);
+        ProductRecord otherJournal = ProductRecord.builder()
+                .storeJournalId(UUID.randomUUID())
+                .productID(1)
+                .build();
+        mixed.add(otherJournal);
+        mixed.addAll(productRecords);
+
+        List<ProductRecordBatch> batches = ProductRecordBatch.of(mixed);
+
+        assertEquals(3, batches.size());
+        assertEquals(productRecords, batches.get(0));
+        assertEquals(Arrays.asList(otherJournal), batches.get(1));
+        assertEquals(productRecords, batches.get(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddFromOtherJournal() {
+        ProductRecordBatch instance = new ProductRecordBatch();
+        instance.add(productRecords.get(0));
+        assertFalse(instance.accepts(ProductRecord.builder().storeJournalId(UUID.randomUUID()).build()));
+        instance.add(ProductRecord.builder().storeJournalId(UUID.randomUUID()).build());
+    }
+
+    /**
+     * Batches take less memory than the List of ProductRecords
+     *
+     * @throws ProductInfoIngestionException
+     */
+    @Test
+    public void testFootprint() throws ProductInfoIngestionException {
+        ProductCatalogIntegrationServiceImpl service = new ProductCatalogIntegrationServiceImpl(new StoreFactoryImpl());
+        List<ProductRecord> catalog = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            catalog.addAll(service.ingestProductCatalog(SampleStoreSettings.STORE_ID, FILE_NAME, "user"));
+        }
+        //every ingestion is a journal of its own
+        List<ProductRecordBatch> instance = ProductRecordBatch.of(catalog);
+        assertEquals(200, instance.size());
+
+        long before = GraphLayout.parseInstance(catalog).totalSize();
+        long after = GraphLayout.parseInstance(instance).totalSize();
+        assertTrue(String.format("before=%d, after=%d", before, after), after < before);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.samsonkim.lib.productinfoingestion.exception.ProductInfoIngestionException;
+import com.github.samsonkim.lib.productinfoingestion.integration.StoreFactoryImpl;
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings;
+import com.github.samsonkim.lib.productinfoingestion.service.ProductCatalogIntegrationServiceImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ProductRecordSerializerTest {
+
+    private ObjectMapper beanMapper;
+    private ObjectMapper instance;
+
+    @Before
+    public void setUp() {
+        beanMapper = new ObjectMapper()
+                .registerModule(new Jdk8Module())
+                .registerModule(new JavaTimeModule());
+        instance = new ObjectMapper()
+                .registerModule(new Jdk8Module())
+                .registerModule(new JavaTimeModule())
+                .registerModule(new SimpleModule().addSerializer(ProductRecord.class, new ProductRecordSerializer()));
+    }
+
+    /**
+     * Ingested records are written byte for byte the same as by the bean serializer
+     *
+     * @throws ProductInfoIngestionException
+     * @throws IOException
+     */
+    @Test
+    public void testSameAsBeanSerializer() throws ProductInfoIngestionException, IOException {
+        List<ProductRecord> productRecords = new ArrayList<>(new ProductCatalogIntegrationServiceImpl(new StoreFactoryImpl())
+                .ingestProductCatalog(SampleStoreSettings.STORE_ID, "src/test/resources/test-sample.txt", "user"));
+        productRecords.get(0).setModifiedDateTime(Instant.parse("2019-12-31T23:59:59.999Z"));
+        productRecords.get(0).setModifiedBy("\"quoted\" \\ \u0001 ünïcode");
+
+        assertArrayEquals(beanMapper.writeValueAsBytes(productRecords), instance.writeValueAsBytes(productRecords));
+    }
+
+    /**
+     * Null, empty and unusual values are written the same as by the bean serializer
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testNullAndEmptyFields() throws IOException {
+        List<ProductRecord> productRecords = Arrays.asList(
+                ProductRecord.builder().build(),
+                ProductRecord.builder()
+                        .id(Optional.empty())
+                        .productSize(Optional.empty())
+                        .taxRate(Optional.empty())
+                        .build(),
+                ProductRecord.builder()
+                        .id(Optional.of(new UUID(0L, -1L)))
+                        .storeId(new UUID(Long.MIN_VALUE, 1L))
+                        .productID(-1)
+                        .productDescription("")
+                        .regularCalculatorPrice(Money.ofScaled(-5L))
+                        .promotionalCalculatorPrice(Money.ofScaled(Long.MIN_VALUE))
+                        .unitOfMeasure(UnitOfMeasure.POUND)
+                        .productSize(Optional.of("12x12oz"))
+                        .taxRate(Optional.of(new BigDecimal("1E+3")))
+                        .createdDateTime(Instant.ofEpochSecond(-1L))
+                        .modifiedDateTime(Instant.ofEpochSecond(-1L, 1))
+                        .locale(new Locale("ja", "JP", "JP"))
+                        .build(),
+                ProductRecord.builder()
+                        .createdDateTime(Instant.ofEpochSecond(0L))
+                        .locale(Locale.CANADA_FRENCH)
+                        .build());
+
+        for (ProductRecord productRecord : productRecords) {
+            assertEquals(beanMapper.writeValueAsString(productRecord), instance.writeValueAsString(productRecord));
+        }
+    }
+}
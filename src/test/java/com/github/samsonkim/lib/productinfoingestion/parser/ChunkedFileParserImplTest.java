@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreFixedWidthFileProductRecordMapper;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+public class ChunkedFileParserImplTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        pool = new ForkJoinPool(4);
+    }
+
+    @Test
+    public void testParseProductRecord() throws IOException, URISyntaxException {
+        UUID storeId = UUID.randomUUID();
+        UUID storeJournalId = UUID.randomUUID();
+        ChunkedFileParserImpl<ProductRecord> instance = new ChunkedFileParserImpl<>(
+                () -> new SampleStoreFixedWidthFileProductRecordMapper(storeId, storeJournalId), pool, 300);
+
+        Path path = Paths.get(getClass().getClassLoader().getResource("test-sample.txt").toURI());
+
+        List<ProductRecord> expected;
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("test-sample.txt")) {
+            expected = instance.parse(inputStream);
+        }
+
+        assertEquals(5, expected.size());
+        assertEquals(expected, instance.parse(path));
+    }
+
+    /**
+     * Many small chunks must come back in original line order
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testLineOrderPreserved() throws IOException {
+        List<String> lines = IntStream.rangeClosed(1, 5000)
+                .mapToObj(Integer::toString)
+                .collect(Collectors.toList());
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), lines, StandardCharsets.US_ASCII);
+
+        ChunkedFileParserImpl<String> instance = new ChunkedFileParserImpl<>(
+                () -> line -> Optional.of(line), pool, 64);
+
+        assertEquals(lines, instance.parse(file.toPath()));
+
+        List<String> streamed = new ArrayList<>();
+        try (Stream<String> results = instance.stream(file.toPath())) {
+            results.forEach(streamed::add);
+        }
+        assertEquals(lines, streamed);
+    }
+
+    /**
+     * Resuming from a cursor maps the rest of the file in chunks and yields the records after it
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStreamFromCursor() throws IOException, URISyntaxException {
+        UUID storeId = UUID.randomUUID();
+        UUID storeJournalId = UUID.randomUUID();
+        ChunkedFileParserImpl<ProductRecord> instance = new ChunkedFileParserImpl<>(
+                () -> new SampleStoreFixedWidthFileProductRecordMapper(storeId, storeJournalId), pool, 100);
+        Path path = Paths.get(getClass().getClassLoader().getResource("test-sample.txt").toURI());
+
+        FileParserImplTest.assertResumable(instance, path);
+    }
+}
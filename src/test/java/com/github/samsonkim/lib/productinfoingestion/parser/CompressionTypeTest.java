@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompressionTypeTest {
+
+    private static final byte[] CONTENT = "line one\r\nline two\r\n".getBytes();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testDetect() {
+        assertEquals(CompressionType.GZIP, CompressionType.detect(new byte[]{0x1f, (byte) 0x8b, 0x08, 0x00}, 4));
+        assertEquals(CompressionType.ZSTD, CompressionType.detect(new byte[]{0x28, (byte) 0xb5, 0x2f, (byte) 0xfd}, 4));
+        assertEquals(CompressionType.NONE, CompressionType.detect(CONTENT, 4));
+        //truncated magic
+        assertEquals(CompressionType.NONE, CompressionType.detect(new byte[]{0x28, (byte) 0xb5, 0x2f, 0x00}, 3));
+        assertEquals(CompressionType.NONE, CompressionType.detect(new byte[0], 0));
+    }
+
+    @Test
+    public void testOpenPlain() throws IOException {
+        Path path = write(CONTENT);
+
+        assertFalse(CompressionType.isCompressed(path));
+        assertArrayEquals(CONTENT, read(path));
+    }
+
+    @Test
+    public void testOpenGzip() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream outputStream = new GZIPOutputStream(compressed)) {
+            outputStream.write(CONTENT);
+        }
+        Path path = write(compressed.toByteArray());
+
+        assertEquals(CompressionType.GZIP, CompressionType.detect(path));
+        assertArrayEquals(CONTENT, read(path));
+    }
+
+    @Test
+    public void testOpenZstd() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream outputStream = new ZstdOutputStream(compressed)) {
+            outputStream.write(CONTENT);
+        }
+        Path path = write(compressed.toByteArray());
+
+        assertTrue(CompressionType.isCompressed(path));
+        assertEquals(CompressionType.ZSTD, CompressionType.detect(path));
+        assertArrayEquals(CONTENT, read(path));
+    }
+
+    @Test
+    public void testDetectEmptyFile() throws IOException {
+        assertEquals(CompressionType.NONE, CompressionType.detect(write(new byte[0])));
+    }
+
+    private Path write(byte[] bytes) throws IOException {
+        Path path = temporaryFolder.newFile().toPath();
+        Files.write(path, bytes);
+        return path;
+    }
+
+    private byte[] read(Path path) throws IOException {
+        try (InputStream inputStream = CompressionType.open(path)) {
+            return PipelinedInputStreamTest.readAll(inputStream);
+        }
+    }
+}
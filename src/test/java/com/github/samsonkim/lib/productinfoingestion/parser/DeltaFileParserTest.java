@@ -0,0 +1,211 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreFixedWidthFileProductRecordMapper;
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DeltaFileParserTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private AtomicInteger mappedLines;
+    private DeltaFileParser<ProductRecord> instance;
+    private Path previousFile;
+    private Path currentFile;
+
+    @Before
+    public void setUp() throws Exception {
+        SampleStoreFixedWidthFileProductRecordMapper mapper =
+                new SampleStoreFixedWidthFileProductRecordMapper(UUID.randomUUID(), UUID.randomUUID());
+        mappedLines = new AtomicInteger();
+        FileParserLineMapper<ProductRecord> countingMapper = new FileParserLineMapper<ProductRecord>() {
+            @Override
+            public Optional<ProductRecord> map(String line) {
+                return map((CharSequence) line);
+            }
+
+            @Override
+            public Optional<ProductRecord> map(CharSequence line) {
+                mappedLines.incrementAndGet();
+                return mapper.map(line);
+            }
+        };
+        instance = new DeltaFileParser<>(countingMapper,
+                SampleStoreSettings.FIXED_WIDTH_LAYOUT.field(SampleStoreSettings.FIXED_WIDTH_PRODUCT_ID_COLUMN));
+
+        previousFile = Paths.get(getClass().getClassLoader().getResource("test-sample.txt").toURI());
+
+        //80000002 changes price, 40123401 is removed and 90000001 is added
+        String sample = new String(Files.readAllBytes(previousFile), StandardCharsets.ISO_8859_1);
+        String current = sample
+                .replace("80000002 Some record                                                 00000567",
+                        "80000002 Some record                                                 00000599")
+                .replaceAll("40123401 [^\r\n]*\r\n", "")
+                + sample.substring(0, sample.indexOf('\n') + 1).replace("80000001", "90000001");
+        currentFile = temporaryFolder.newFile("current.txt").toPath();
+        Files.write(currentFile, current.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    public void testStreamFirstJournal() throws IOException {
+        DeltaIndex current = new DeltaIndex(UUID.randomUUID(), 0);
+
+        List<DeltaRecord<ProductRecord>> deltaRecords;
+        AtomicLong unchanged = new AtomicLong();
+        try (Stream<DeltaRecord<ProductRecord>> stream =
+                     instance.stream(previousFile, new DeltaIndex(null, 0), current, unchanged)) {
+            deltaRecords = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(5, deltaRecords.size());
+        assertEquals(0, unchanged.get());
+        deltaRecords.forEach(d -> assertEquals(DeltaType.NEW, d.getType()));
+        assertEquals(80000001, deltaRecords.get(0).getProductId());
+        assertEquals(5, current.size());
+    }
+
+    /**
+     * Only the changed and new lines are mapped, deleted products follow the file's records
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStreamDelta() throws IOException {
+        assertDelta(currentFile);
+    }
+
+    @Test
+    public void testStreamCompressedDelta() throws IOException {
+        Path compressed = temporaryFolder.newFile("current.txt.gz").toPath();
+        try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            Files.copy(currentFile, outputStream);
+        }
+
+        assertDelta(compressed);
+    }
+
+    private void assertDelta(Path path) throws IOException {
+        DeltaIndex previous = new DeltaIndex(UUID.randomUUID(), 0);
+        try (Stream<DeltaRecord<ProductRecord>> stream =
+                     instance.stream(previousFile, new DeltaIndex(null, 0), previous, new AtomicLong())) {
+            stream.forEach(d -> {
+            });
+        }
+        mappedLines.set(0);
+
+        DeltaIndex current = new DeltaIndex(UUID.randomUUID(), previous.size());
+        List<DeltaRecord<ProductRecord>> deltaRecords;
+        AtomicLong unchanged = new AtomicLong();
+        try (Stream<DeltaRecord<ProductRecord>> stream = instance.stream(path, previous, current, unchanged)) {
+            deltaRecords = stream.collect(Collectors.toList());
+        }
+        assertEquals(3, unchanged.get());
+
+        //the changed line, the new line and the line without price that is never indexed
+        assertEquals(3, mappedLines.get());
+        assertEquals(3, deltaRecords.size());
+
+        assertEquals(DeltaType.CHANGED, deltaRecords.get(0).getType());
+        assertEquals(80000002, deltaRecords.get(0).getProductId());
+        assertEquals(80000002, deltaRecords.get(0).getRecord().getProductID().intValue());
+        assertEquals("$5.99", deltaRecords.get(0).getRecord().getRegularDisplayPrice());
+
+        assertEquals(DeltaType.NEW, deltaRecords.get(1).getType());
+        assertEquals(90000001, deltaRecords.get(1).getProductId());
+
+        assertEquals(DeltaType.DELETED, deltaRecords.get(2).getType());
+        assertEquals(40123401, deltaRecords.get(2).getProductId());
+        assertNull(deltaRecords.get(2).getRecord());
+
+        assertEquals(5, current.size());
+        assertEquals(previous.get(80000001), current.get(80000001));
+        assertEquals(0, current.get(40123401));
+    }
+
+    /**
+     * Unchanged lines are counted as they are skipped, a duplicated product counts once per line
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStreamCountsUnchangedLines() throws IOException {
+        String sample = new String(Files.readAllBytes(previousFile), StandardCharsets.ISO_8859_1);
+        String firstLine = sample.substring(0, sample.indexOf('\n') + 1);
+        Path file = temporaryFolder.newFile("duplicates.txt").toPath();
+        Files.write(file, (sample + firstLine).getBytes(StandardCharsets.ISO_8859_1));
+
+        DeltaIndex previous = new DeltaIndex(UUID.randomUUID(), 0);
+        try (Stream<DeltaRecord<ProductRecord>> stream =
+                     instance.stream(file, new DeltaIndex(null, 0), previous, new AtomicLong())) {
+            stream.forEach(d -> {
+            });
+        }
+
+        AtomicLong unchanged = new AtomicLong();
+        List<DeltaRecord<ProductRecord>> deltaRecords;
+        try (Stream<DeltaRecord<ProductRecord>> stream =
+                     instance.stream(file, previous, new DeltaIndex(UUID.randomUUID(), previous.size()), unchanged)) {
+            deltaRecords = stream.collect(Collectors.toList());
+        }
+
+        //every priced line, including the duplicate of 80000001, while the index holds 5 products
+        assertEquals(6, unchanged.get());
+        assertEquals(5, previous.size());
+        assertTrue(deltaRecords.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidKeyField() {
+        new DeltaFileParser<>(line -> Optional.empty(),
+                SampleStoreSettings.FIXED_WIDTH_LAYOUT.field(SampleStoreSettings.FIXED_WIDTH_PRODUCT_DESCRIPTION_COLUMN));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class DeltaIndexTest {
+
+    @Test
+    public void testPutGet() {
+        DeltaIndex instance = new DeltaIndex(UUID.randomUUID(), 0);
+
+        //grows well past the expected size, including ids that only differ in their high digits
+        for (int i = 1; i <= 10_000; i++) {
+            instance.put(80_000_000 + i, i);
+            instance.put(i << 16, -i);
+        }
+        instance.put(80_000_001, 42);
+
+        assertEquals(20_000, instance.size());
+        assertEquals(42, instance.get(80_000_001));
+        assertEquals(10_000, instance.get(80_010_000));
+        assertEquals(-5, instance.get(5 << 16));
+        assertEquals(0, instance.get(79_999_999));
+        assertEquals(20_000, instance.productIds().distinct().count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPutZeroHash() {
+        new DeltaIndex(UUID.randomUUID(), 1).put(1, 0);
+    }
+
+    /**
+     * A String and a ByteBufferLine of the same characters hash the same, different lines do not
+     */
+    @Test
+    public void testHash() {
+        String line = "14963801 Generic Soda 12-pack     00000000";
+        byte[] bytes = ("xx" + line).getBytes(StandardCharsets.ISO_8859_1);
+
+        long hash = DeltaIndex.hash(line);
+        assertEquals(hash, DeltaIndex.hash(new ByteBufferLine(ByteBuffer.wrap(bytes), 2, line.length())));
+        assertEquals(hash, DeltaIndex.hash(new StringBuilder(line)));
+        assertNotEquals(hash, DeltaIndex.hash(line.replace('8', '9')));
+        assertNotEquals(0, DeltaIndex.hash(""));
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        DeltaIndex instance = new DeltaIndex(UUID.randomUUID(), 3);
+        for (int i = 0; i < 100; i++) {
+            instance.put(i * 7, DeltaIndex.hash(Integer.toString(i)));
+        }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        instance.writeTo(outputStream);
+        DeltaIndex read = DeltaIndex.readFrom(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        assertEquals(instance, read);
+        assertEquals(instance.getStoreJournalId(), read.getStoreJournalId());
+        assertEquals(28 + 100 * 12, outputStream.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadInvalid() throws IOException {
+        DeltaIndex.readFrom(new ByteArrayInputStream(new byte[32]));
+    }
+}
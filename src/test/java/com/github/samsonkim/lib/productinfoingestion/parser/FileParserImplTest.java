@@ -27,18 +27,34 @@ package com.github.samsonkim.lib.productinfoingestion.parser;
 import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreFixedWidthFileProductRecordMapper;
 import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 public class FileParserImplTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private FileParserImpl<ProductRecord> instance;
 
     @Before
@@ -65,4 +81,76 @@ public class FileParserImplTest {
         assertNotNull(results);
         assertEquals(5, results.size());
     }
+
+    /**
+     * Streaming parse yields the same records as the List based parse
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStreamProductRecord() throws IOException {
+
+        ClassLoader classLoader = getClass().getClassLoader();
+        InputStream inputStream = classLoader.getResourceAsStream("test-sample.txt");
+
+        try (Stream<ProductRecord> results = instance.stream(inputStream)) {
+            assertEquals(5, results.count());
+        }
+    }
+
+    /**
+     * Streaming from the cursor left after any record yields exactly the records that follow it
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStreamFromCursor() throws IOException, URISyntaxException {
+        Path path = Paths.get(getClass().getClassLoader().getResource("test-sample.txt").toURI());
+
+        assertResumable(instance, path);
+    }
+
+    @Test
+    public void testStreamCompressedFromCursor() throws IOException, URISyntaxException {
+        Path path = Paths.get(getClass().getClassLoader().getResource("test-sample.txt").toURI());
+        Path compressed = temporaryFolder.newFile("test-sample.txt.gz").toPath();
+        try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            Files.copy(path, outputStream);
+        }
+
+        assertResumable(instance, compressed);
+    }
+
+    /**
+     * Checks the cursor positions of test-sample.txt records and that resuming from each yields the rest
+     *
+     * @param parser
+     * @param path
+     * @throws IOException
+     */
+    static void assertResumable(FileParser<ProductRecord> parser, Path path) throws IOException {
+        List<ProductRecord> records = new ArrayList<>();
+        List<FileCursor> cursors = new ArrayList<>();
+        FileCursor cursor = new FileCursor();
+        try (Stream<ProductRecord> results = parser.stream(path, cursor)) {
+            Iterator<ProductRecord> iterator = results.iterator();
+            while (iterator.hasNext()) {
+                records.add(iterator.next());
+                cursors.add(new FileCursor(cursor.getByteOffset(), cursor.getLineNumber()));
+            }
+        }
+
+        //the record less line 3 has no price, lines end with CRLF
+        assertEquals(5, records.size());
+        assertArrayEquals(new long[]{1, 2, 4, 5, 6},
+                cursors.stream().mapToLong(FileCursor::getLineNumber).toArray());
+        assertEquals(Files.size(Paths.get("src/test/resources/test-sample.txt")),
+                cursors.get(cursors.size() - 1).getByteOffset());
+
+        for (int i = 0; i < cursors.size(); i++) {
+            try (Stream<ProductRecord> results = parser.stream(path, cursors.get(i))) {
+                assertEquals(records.subList(i + 1, records.size()), results.collect(Collectors.toList()));
+            }
+        }
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings.FIXED_WIDTH_FLAGS_COLUMN;
+import static com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings.FIXED_WIDTH_PRODUCT_DESCRIPTION_COLUMN;
+import static com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings.FIXED_WIDTH_PRODUCT_ID_COLUMN;
+import static com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings.FIXED_WIDTH_PRODUCT_SIZE_COLUMN;
+import static com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings.FIXED_WIDTH_PROMOTIONAL_SINGULAR_PRICE_COLUMN;
+import static com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings.FIXED_WIDTH_REGULAR_SINGULAR_PRICE_COLUMN;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class FixedWidthFileBatchParserTest {
+
+    private FixedWidthFileBatchParser instance;
+
+    @Before
+    public void setUp() throws Exception {
+        //window smaller than the file to exercise remapping
+        instance = new FixedWidthFileBatchParser(SampleStoreSettings.FIXED_WIDTH_LAYOUT, 4, 512);
+    }
+
+    /**
+     * Every line of the sample is decoded, in order, across a full and a partial batch
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testForEachBatch() throws IOException, URISyntaxException {
+        Path path = Paths.get(getClass().getClassLoader().getResource("test-sample.txt").toURI());
+        List<Integer> batchSizes = new ArrayList<>();
+        List<Integer> productIds = new ArrayList<>();
+        List<String> descriptions = new ArrayList<>();
+        List<String> sizes = new ArrayList<>();
+        List<Long> regularPrices = new ArrayList<>();
+        List<Long> promotionalPrices = new ArrayList<>();
+        List<Long> flags = new ArrayList<>();
+
+        long count = instance.forEachBatch(path, batch -> {
+            batchSizes.add(batch.size());
+            for (int row = 0; row < batch.size(); row++) {
+                productIds.add(batch.getInts(FIXED_WIDTH_PRODUCT_ID_COLUMN)[row]);
+                descriptions.add(batch.getString(FIXED_WIDTH_PRODUCT_DESCRIPTION_COLUMN, row));
+                sizes.add(batch.getString(FIXED_WIDTH_PRODUCT_SIZE_COLUMN, row));
+                regularPrices.add(batch.getLongs(FIXED_WIDTH_REGULAR_SINGULAR_PRICE_COLUMN)[row]);
+                promotionalPrices.add(batch.getLongs(FIXED_WIDTH_PROMOTIONAL_SINGULAR_PRICE_COLUMN)[row]);
+                flags.add(batch.getLongs(FIXED_WIDTH_FLAGS_COLUMN)[row]);
+            }
+        });
+
+        assertEquals(6, count);
+        assertArrayEquals(new Object[]{4, 2}, batchSizes.toArray());
+        assertArrayEquals(new Object[]{80000001, 80000002, 80000003, 14963801, 40123401, 50133333}, productIds.toArray());
+        assertEquals("Kimchi-flavored white rice", descriptions.get(0));
+        assertEquals("Fuji Apples (Organic)", descriptions.get(5));
+        assertEquals("12x12oz", sizes.get(3));
+        assertNull(sizes.get(4));
+        assertArrayEquals(new Object[]{56700L, 56700L, 0L, 0L, 100000L, 34900L}, regularPrices.toArray());
+        assertArrayEquals(new Object[]{0L, 36700L, 0L, 54900L, 54900L, 0L}, promotionalPrices.toArray());
+        assertEquals(FixedWidthFileFlags.mask(5), (long) flags.get(3));
+        assertEquals(FixedWidthFileFlags.mask(1), (long) flags.get(4));
+        assertEquals(FixedWidthFileFlags.mask(3), (long) flags.get(5));
+    }
+
+    /**
+     * Short lines and invalid numbers are skipped without leaving text behind
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testForEachBatchSkipsInvalidLines() throws IOException {
+        String lines = "80000001 Kimchi-flavored white rice\n"
+                + "8000000X Bad id                                                      00000567 00000000 00000000 00000000 00000000 00000000 NNNNNNNNN\n"
+                + "80000002 Some record                                                 00000567 00000X67 00000000 00000000 00000000 00000000 NNNNNNNNN\n"
+                + "80000004 Good record                                                 00000567 00000000 00000000 00000000 00000000 00000000 NNNNNNNNN      18oz\n";
+        List<String> descriptions = new ArrayList<>();
+        int[] textLength = new int[1];
+
+        long count;
+        try (InputStream inputStream = new ByteArrayInputStream(lines.getBytes(StandardCharsets.ISO_8859_1))) {
+            count = instance.forEachBatch(inputStream, batch -> {
+                descriptions.add(batch.getString(FIXED_WIDTH_PRODUCT_DESCRIPTION_COLUMN, 0));
+                assertEquals(0, batch.getTextOffsets(FIXED_WIDTH_PRODUCT_DESCRIPTION_COLUMN)[0]);
+                textLength[0] = batch.getTextLengths(FIXED_WIDTH_PRODUCT_DESCRIPTION_COLUMN)[0];
+            });
+        }
+
+        assertEquals(1, count);
+        assertArrayEquals(new Object[]{"Good record"}, descriptions.toArray());
+        assertEquals("Good record".length(), textLength[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongColumnType() {
+        new FixedWidthFileBatch(SampleStoreSettings.FIXED_WIDTH_LAYOUT, 1).getInts(FIXED_WIDTH_FLAGS_COLUMN);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAddToFullBatch() {
+        String line = "80000004 Good record                                                 00000567 00000000 00000000 00000000 00000000 00000000 NNNNNNNNN";
+        FixedWidthFileBatch batch = new FixedWidthFileBatch(SampleStoreSettings.FIXED_WIDTH_LAYOUT, 1);
+        batch.add(line);
+        batch.add(line);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for FixedWidthFileFlags class
+ */
+public class FixedWidthFileFlagsTest {
+
+    @Test
+    public void testIsSet() {
+        FixedWidthFileFlags flags = FixedWidthFileFlags.of(FixedWidthFileFlags.mask(3, 5), 9);
+
+        assertTrue(flags.isSet(3));
+        assertTrue(flags.isSet(5));
+        assertFalse(flags.isSet(1));
+        assertFalse(flags.isSet(0));
+        assertFalse(flags.isSet(10));
+        assertEquals("NNYNYNNNN", flags.toString());
+    }
+
+    @Test
+    public void testAnyOfAllOf() {
+        FixedWidthFileFlags flags = FixedWidthFileFlags.of(FixedWidthFileFlags.mask(3, 5), 9);
+
+        assertTrue(flags.anyOf(FixedWidthFileFlags.mask(1, 3)));
+        assertFalse(flags.anyOf(FixedWidthFileFlags.mask(1, 2)));
+        assertTrue(flags.allOf(FixedWidthFileFlags.mask(3, 5)));
+        assertFalse(flags.allOf(FixedWidthFileFlags.mask(3, 4)));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertFalse(FixedWidthFileFlags.EMPTY.isSet(1));
+        assertEquals(0, FixedWidthFileFlags.EMPTY.size());
+        assertEquals("", FixedWidthFileFlags.EMPTY.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaskPosition() {
+        FixedWidthFileFlags.mask(0);
+    }
+}
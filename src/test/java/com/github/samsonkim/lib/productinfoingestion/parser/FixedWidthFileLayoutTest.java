@@ -0,0 +1,187 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for FixedWidthFileLayout and FixedWidthFileField classes
+ */
+public class FixedWidthFileLayoutTest {
+
+    private static final FixedWidthFileColumn NUMBER_COLUMN = FixedWidthFileColumn.builder()
+            .start(1)
+            .end(8)
+            .name("Number")
+            .type(FixedWidthFileColumnType.NUMBER)
+            .build();
+
+    private static final FixedWidthFileColumn STRING_COLUMN = FixedWidthFileColumn.builder()
+            .start(10)
+            .end(15)
+            .name("String")
+            .type(FixedWidthFileColumnType.STRING)
+            .build();
+
+    private static final FixedWidthFileColumn FLAGS_COLUMN = FixedWidthFileColumn.builder()
+            .start(17)
+            .end(19)
+            .name("Flags")
+            .type(FixedWidthFileColumnType.FLAGS)
+            .build();
+
+    private static final FixedWidthFileColumn OPTIONAL_COLUMN = FixedWidthFileColumn.builder()
+            .start(21)
+            .end(24)
+            .name("Optional")
+            .type(FixedWidthFileColumnType.STRING)
+            .build();
+
+    private FixedWidthFileLayout instance;
+
+    @Before
+    public void setUp() throws Exception {
+        instance = FixedWidthFileLayout.builder()
+                .column(NUMBER_COLUMN)
+                .column(STRING_COLUMN)
+                .column(FLAGS_COLUMN)
+                .optionalColumn(OPTIONAL_COLUMN)
+                .build();
+    }
+
+    @Test
+    public void testFits() {
+        assertEquals(19, instance.getRequiredLength());
+
+        assertTrue(instance.fits("00000567  abc   YNY"));
+        assertTrue(instance.fits("00000567  abc   YNY  xyz"));
+        assertFalse(instance.fits("00000567  abc   YN"));
+        assertFalse(instance.fits(null));
+    }
+
+    @Test
+    public void testFindInvalidField() {
+        assertNull(instance.findInvalidField("00000567  abc   YNY"));
+        assertNull(instance.findInvalidField("-0000567  abc   YNY"));
+        assertEquals(instance.field(NUMBER_COLUMN), instance.findInvalidField("0000a567  abc   YNY"));
+        assertEquals(instance.field(NUMBER_COLUMN), instance.findInvalidField("          abc   YNY"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFieldNotInLayout() {
+        instance.field(FixedWidthFileColumn.builder().start(1).end(2).build());
+    }
+
+    @Test
+    public void testToInt() {
+        FixedWidthFileField field = instance.field(NUMBER_COLUMN);
+
+        assertEquals(567, field.toInt("00000567"));
+        assertEquals(-549, field.toInt("-0000549"));
+        assertEquals(42, field.toInt("      42"));
+        assertEquals(80000001, field.toInt(CharBuffer.wrap("80000001".toCharArray())));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testToIntInvalid() {
+        instance.field(NUMBER_COLUMN).toInt("0000a567");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testToIntBlank() {
+        instance.field(NUMBER_COLUMN).toInt("        ");
+    }
+
+    @Test
+    public void testToBigDecimal() {
+        FixedWidthFileField field = instance.field(NUMBER_COLUMN);
+
+        assertEquals("5.6700", field.toBigDecimal("00000567").toString());
+        assertEquals("-5.6700", field.toBigDecimal("-0000567").toString());
+        assertEquals("0.0000", field.toBigDecimal("00000000").toString());
+    }
+
+    @Test
+    public void testToScaledCurrency() {
+        FixedWidthFileField field = instance.field(NUMBER_COLUMN);
+
+        assertEquals(56700, field.toScaledCurrency("00000567"));
+        assertEquals(56700, field.toScaledCurrency(line("00000567")));
+    }
+
+    @Test
+    public void testToStringVal() {
+        FixedWidthFileField field = instance.field(STRING_COLUMN);
+
+        assertEquals("abc", field.toStringVal("00000567  abc   YNY"));
+        assertNull(field.toStringVal("00000567         YNY"));
+        assertEquals("abc", field.toStringVal(line("00000567  abc   YNY")));
+    }
+
+    @Test
+    public void testIsFlagSet() {
+        FixedWidthFileField field = instance.field(FLAGS_COLUMN);
+        ByteBufferLine line = line("00000567  abc   YNY");
+
+        assertTrue(field.isFlagSet(line, 1));
+        assertFalse(field.isFlagSet(line, 2));
+        assertTrue(field.isFlagSet(line, 3));
+        assertFalse(field.isFlagSet(line, 4));
+        assertFalse(field.isFlagSet(line, 0));
+    }
+
+    @Test
+    public void testToFlags() {
+        FixedWidthFileField field = instance.field(FLAGS_COLUMN);
+
+        assertEquals(FixedWidthFileFlags.of(FixedWidthFileFlags.mask(1, 3), 3),
+                field.toFlags(line("00000567  abc   YNY")));
+    }
+
+    @Test
+    public void testOptionalField() {
+        FixedWidthFileField field = instance.field(OPTIONAL_COLUMN);
+
+        assertTrue(field.isOptional());
+        assertFalse(field.isPresent("00000567  abc   YNY"));
+        assertTrue(field.isPresent("00000567  abc   YNY  xyz"));
+        assertEquals("xyz", field.toStringVal("00000567  abc   YNY  xyz"));
+    }
+
+    private ByteBufferLine line(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        return new ByteBufferLine(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+}
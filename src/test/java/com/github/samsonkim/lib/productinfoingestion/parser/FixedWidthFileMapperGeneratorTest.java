@@ -0,0 +1,181 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FixedWidthFileMapperGeneratorTest {
+
+    private static final FixedWidthFileColumn ID = column(1, 4, FixedWidthFileColumnType.NUMBER);
+    private static final FixedWidthFileColumn NAME = column(6, 10, FixedWidthFileColumnType.STRING);
+    private static final FixedWidthFileColumn AMOUNT = column(12, 15, FixedWidthFileColumnType.CURRENCY);
+    private static final FixedWidthFileColumn FLAGS = column(17, 18, FixedWidthFileColumnType.FLAGS);
+    private static final FixedWidthFileColumn NOTE = column(20, 23, FixedWidthFileColumnType.STRING);
+
+    private static final FixedWidthFileLayout LAYOUT = FixedWidthFileLayout.builder()
+            .column(ID)
+            .column(NAME)
+            .column(AMOUNT)
+            .column(FLAGS)
+            .optionalColumn(NOTE)
+            .build();
+
+    private static FixedWidthFileColumn column(int start, int end, FixedWidthFileColumnType type) {
+        return FixedWidthFileColumn.builder().start(start).end(end).name(type + " " + start).type(type).build();
+    }
+
+    @Test
+    public void testMapInto() {
+        FileParserLineViewMapper<TestView> instance = FixedWidthFileMapperGenerator.builder(TestView.class, LAYOUT)
+                .property(ID, "id")
+                .property(NAME, "name")
+                .property(AMOUNT, "amount")
+                .property(FLAGS, "flagBits")
+                .flag(FLAGS, 2, "label", "second", "none")
+                .property(NOTE, "note")
+                .build()
+                .generate(Locale.US);
+
+        TestView view = new TestView();
+        assertTrue(instance.mapInto("0042  abc  0150 NY  hey", view));
+        assertEquals(1, view.cleared);
+        assertEquals(42L, view.id);
+        assertEquals("abc", view.name);
+        assertEquals(15000L, view.amount);
+        assertEquals(FixedWidthFileFlags.mask(2), view.flagBits);
+        assertEquals("second", view.label);
+        assertEquals("hey", view.note);
+
+        //optional note missing, blank name
+        assertTrue(instance.mapInto("0043       0150 YN", view));
+        assertEquals(2, view.cleared);
+        assertEquals(43L, view.id);
+        assertNull(view.name);
+        assertEquals("none", view.label);
+        assertNull(view.note);
+
+        //too short
+        assertFalse(instance.mapInto("0044  abc", view));
+        assertEquals(2, view.cleared);
+    }
+
+    @Test
+    public void testPrice() {
+        FileParserLineViewMapper<TestView> instance = FixedWidthFileMapperGenerator.builder(TestView.class, LAYOUT)
+                .price(AMOUNT, AMOUNT, ID, "amount", "name")
+                .build()
+                .generate(Locale.US);
+
+        TestView view = new TestView();
+        assertTrue(instance.mapInto("0000       0150 NN", view));
+        assertEquals(15000L, view.amount);
+        assertEquals("$1.50", view.name);
+
+        assertEquals(1, view.cleared);
+
+        //no price, the view is left as it was
+        view.amount = 7L;
+        assertFalse(instance.mapInto("0000       0000 NN", view));
+        assertEquals(1, view.cleared);
+        assertEquals(7L, view.amount);
+        assertEquals("$1.50", view.name);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testMapIntoInvalidNumber() {
+        FixedWidthFileMapperGenerator.builder(TestView.class, LAYOUT)
+                .property(ID, "id")
+                .build()
+                .generate(Locale.US)
+                .mapInto("00x2  abc  0150 NY", new TestView());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingSetter() {
+        FixedWidthFileMapperGenerator.builder(TestView.class, LAYOUT).property(ID, "missing");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncompatibleSetter() {
+        FixedWidthFileMapperGenerator.builder(TestView.class, LAYOUT).property(AMOUNT, "label");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFlag() {
+        FixedWidthFileMapperGenerator.builder(TestView.class, LAYOUT).flag(FLAGS, 3, "label", "a", "b");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPriceColumnType() {
+        FixedWidthFileMapperGenerator.builder(TestView.class, LAYOUT).price(NAME, AMOUNT, ID, "amount", "name");
+    }
+
+    public static class TestView {
+        private int cleared;
+        private long id;
+        private String name;
+        private long amount;
+        private long flagBits;
+        private String label;
+        private String note;
+
+        public void clear() {
+            cleared++;
+            name = null;
+            note = null;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public void setAmount(long amount) {
+            this.amount = amount;
+        }
+
+        public void setFlagBits(long flagBits) {
+            this.flagBits = flagBits;
+        }
+
+        public void setLabel(String label) {
+            this.label = label;
+        }
+
+        public void setNote(CharSequence source, int start, int end) {
+            this.note = source.subSequence(start, end).toString();
+        }
+    }
+}
@@ -111,6 +111,23 @@ public class FixedWidthFileUtilsTest {
                 FixedWidthFileUtils.toBooleanList(outOfBoundsColumn, "YN"));
     }
 
+    @Test
+    public void testToFlagsFixedWidthColumn(){
+        FixedWidthFileColumn column = FixedWidthFileColumn.builder()
+                .start(1)
+                .end(3)
+                .build();
+
+        FixedWidthFileFlags flags = FixedWidthFileUtils.toFlags(column, "YNY");
+        assertTrue(flags.isSet(1));
+        assertFalse(flags.isSet(2));
+        assertTrue(flags.isSet(3));
+        assertEquals(3, flags.size());
+
+        assertEquals(FixedWidthFileFlags.EMPTY, FixedWidthFileUtils.toFlags(column, "YN"));
+        assertEquals(FixedWidthFileFlags.EMPTY, FixedWidthFileUtils.toFlags(column, null));
+    }
+
     @Test
     public void testToBigDecimalFixedWidthColumn(){
         FixedWidthFileColumn column = FixedWidthFileColumn.builder()
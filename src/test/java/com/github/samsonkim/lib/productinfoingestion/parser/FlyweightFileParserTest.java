@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreFixedWidthFileProductRecordMapper;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecordView;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+public class FlyweightFileParserTest {
+
+    private SampleStoreFixedWidthFileProductRecordMapper mapper;
+    private FlyweightFileParser<ProductRecordView> instance;
+
+    @Before
+    public void setUp() throws Exception {
+        UUID storeId = UUID.randomUUID();
+        UUID storeJournalId = UUID.randomUUID();
+        mapper = new SampleStoreFixedWidthFileProductRecordMapper(storeId, storeJournalId);
+        instance = new FlyweightFileParser<>(mapper, mapper.newView());
+    }
+
+    /**
+     * One view instance is reused for every line and copies out to the same records as the List based parse
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testForEachView() throws IOException, URISyntaxException {
+        Path path = Paths.get(getClass().getClassLoader().getResource("test-sample.txt").toURI());
+
+        List<ProductRecord> expected;
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("test-sample.txt")) {
+            expected = new FileParserImpl<>(mapper).parse(inputStream);
+        }
+
+        List<ProductRecord> records = new ArrayList<>();
+        Map<ProductRecordView, Boolean> views = new IdentityHashMap<>();
+        long count = instance.forEach(path, view -> {
+            views.put(view, Boolean.TRUE);
+            records.add(view.toProductRecord());
+        });
+
+        assertEquals(5, count);
+        assertEquals(1, views.size());
+        assertEquals(expected, records);
+
+        List<ProductRecord> streamed = new ArrayList<>();
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("test-sample.txt")) {
+            instance.forEach(inputStream, view -> streamed.add(view.toProductRecord()));
+        }
+        assertEquals(expected, streamed);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for MappedFileLineReader class
+ */
+public class MappedFileLineReaderTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testReadLines() throws IOException {
+        File file = write("abc\r\ndefg\n\nhi");
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedFileLineReader reader = new MappedFileLineReader(channel);
+
+            assertTrue(reader.next());
+            assertEquals("abc", reader.getLine().toString());
+            assertEquals(0, reader.getLineOffset());
+            assertEquals(1, reader.getLineNumber());
+
+            assertTrue(reader.next());
+            assertEquals("defg", reader.getLine().toString());
+            assertEquals(5, reader.getLineOffset());
+
+            assertTrue(reader.next());
+            assertEquals(0, reader.getLine().length());
+
+            assertTrue(reader.next());
+            assertEquals("hi", reader.getLine().toString());
+            assertEquals(4, reader.getLineNumber());
+
+            assertFalse(reader.next());
+            assertEquals(channel.size(), reader.getPosition());
+        }
+    }
+
+    /**
+     * Window smaller than the file forces lines to be found across remapped windows
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testReadLinesAcrossWindows() throws IOException {
+        File file = write("line1\nline2\nline3\n");
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedFileLineReader reader = new MappedFileLineReader(channel, 0, channel.size(), 8);
+
+            assertEquals(Arrays.asList("line1", "line2", "line3"), readAll(reader));
+        }
+    }
+
+    @Test
+    public void testReadRange() throws IOException {
+        File file = write("line1\nline2\nline3\n");
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedFileLineReader reader = new MappedFileLineReader(channel, 6, 12, 8);
+
+            assertEquals(Arrays.asList("line2"), readAll(reader));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testLineLongerThanWindow() throws IOException {
+        File file = write("a very long line\nshort\n");
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            readAll(new MappedFileLineReader(channel, 0, channel.size(), 4));
+        }
+    }
+
+    private List<String> readAll(MappedFileLineReader reader) throws IOException {
+        List<String> lines = new ArrayList<>();
+        while (reader.next()) {
+            lines.add(reader.getLine().toString());
+        }
+        return lines;
+    }
+
+    private File write(String content) throws IOException {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+}
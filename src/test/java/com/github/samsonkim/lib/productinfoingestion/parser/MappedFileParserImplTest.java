@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreFixedWidthFileProductRecordMapper;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class MappedFileParserImplTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private MappedFileParserImpl<ProductRecord> instance;
+
+    @Before
+    public void setUp() throws Exception {
+        UUID storeId = UUID.randomUUID();
+        UUID storeJournalId = UUID.randomUUID();
+        SampleStoreFixedWidthFileProductRecordMapper mapper = new SampleStoreFixedWidthFileProductRecordMapper(storeId, storeJournalId);
+        //window smaller than the file to exercise remapping
+        instance = new MappedFileParserImpl<>(mapper, 512);
+    }
+
+    /**
+     * Mapped file yields the same records as parsing through an InputStream
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStreamProductRecord() throws IOException, URISyntaxException {
+        Path path = Paths.get(getClass().getClassLoader().getResource("test-sample.txt").toURI());
+
+        List<ProductRecord> expected;
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("test-sample.txt")) {
+            expected = instance.parse(inputStream);
+        }
+
+        try (Stream<ProductRecord> results = instance.stream(path)) {
+            assertEquals(expected, results.collect(Collectors.toList()));
+        }
+        assertEquals(5, expected.size());
+    }
+
+    /**
+     * Gzip compressed file is detected and yields the same records as the plain file
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStreamCompressedProductRecord() throws IOException, URISyntaxException {
+        Path path = Paths.get(getClass().getClassLoader().getResource("test-sample.txt").toURI());
+        Path compressed = temporaryFolder.newFile("test-sample.txt.gz").toPath();
+        try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            Files.copy(path, outputStream);
+        }
+
+        List<ProductRecord> expected;
+        try (Stream<ProductRecord> results = instance.stream(path)) {
+            expected = results.collect(Collectors.toList());
+        }
+
+        try (Stream<ProductRecord> results = instance.stream(compressed)) {
+            assertEquals(expected, results.collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Resuming a memory mapped file from a cursor yields the records after it
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStreamFromCursor() throws IOException, URISyntaxException {
+        Path path = Paths.get(getClass().getClassLoader().getResource("test-sample.txt").toURI());
+
+        FileParserImplTest.assertResumable(instance, path);
+        FileParserImplTest.assertResumable(new MappedFileParserImpl<>(
+                new SampleStoreFixedWidthFileProductRecordMapper(UUID.randomUUID(), UUID.randomUUID()), 512), path);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PipelinedInputStreamTest {
+
+    static byte[] readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1000];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Content spanning many chunks arrives intact and in order
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testRead() throws IOException {
+        byte[] content = new byte[100_000];
+        new Random(42).nextBytes(content);
+
+        try (PipelinedInputStream instance =
+                     new PipelinedInputStream(new ByteArrayInputStream(content), "test", 4096, 2)) {
+            assertEquals(content[0] & 0xFF, instance.read());
+            byte[] rest = readAll(instance);
+            assertEquals(content.length - 1, rest.length);
+            assertArrayEquals(Arrays.copyOfRange(content, 1, content.length), rest);
+            assertEquals(-1, instance.read());
+        }
+    }
+
+    @Test
+    public void testReadEmpty() throws IOException {
+        try (PipelinedInputStream instance =
+                     new PipelinedInputStream(new ByteArrayInputStream(new byte[0]), "test")) {
+            assertEquals(-1, instance.read());
+        }
+    }
+
+    /**
+     * Failures on the reader thread surface to the caller
+     */
+    @Test
+    public void testReadFailure() throws IOException {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("corrupt");
+            }
+        };
+
+        try (PipelinedInputStream instance = new PipelinedInputStream(failing, "test")) {
+            instance.read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertEquals("corrupt", e.getMessage());
+        }
+    }
+
+    /**
+     * A failure after the queue filled up still reaches a slow consumer instead of hanging it
+     *
+     * @throws Exception
+     */
+    @Test(timeout = 10_000)
+    public void testReadFailureWithFullQueue() throws Exception {
+        CountDownLatch failed = new CountDownLatch(1);
+        InputStream failing = new InputStream() {
+            private int remaining = 16 * 5;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining-- == 0) {
+                    failed.countDown();
+                    throw new IOException("corrupt");
+                }
+                return 'x';
+            }
+        };
+
+        try (PipelinedInputStream instance = new PipelinedInputStream(failing, "test", 16, 4)) {
+            assertEquals('x', instance.read());
+            //one chunk taken, four more fill the queue, then the source fails with no room left for END
+            assertTrue(failed.await(5, TimeUnit.SECONDS));
+            readAll(instance);
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertEquals("corrupt", e.getMessage());
+        }
+    }
+
+    /**
+     * Closing before the source is drained stops the blocked reader thread and closes the source
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testCloseEarly() throws Exception {
+        CountDownLatch sourceClosed = new CountDownLatch(1);
+        InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                return 'x';
+            }
+
+            @Override
+            public void close() {
+                sourceClosed.countDown();
+            }
+        };
+
+        PipelinedInputStream instance = new PipelinedInputStream(endless, "test", 16, 1);
+        assertEquals('x', instance.read());
+        instance.close();
+
+        assertTrue(sourceClosed.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.parser;
+
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreFixedWidthFileProductRecordMapper;
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TolerantFileParserImplTest {
+    private static final String VALID_LINE = "80000001 Kimchi-flavored white rice                                  00000567 00000000 00000000 00000000 00000000 00000000 NNNNNNNNN      18oz";
+    private static final String INVALID_PRICE_LINE = "80000002 Some record                                                 000005x7 00000367 00000000 00000000 00000000 00000000 NNNNNNNNN      18oz";
+    private static final String SHORT_LINE = "80000003 Truncated record";
+    private static final String ANOTHER_VALID_LINE = "50133333 Fuji Apples (Organic)                                       00000349 00000000 00000000 00000000 00000000 00000000 NNYNNNNNN        lb";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private SampleStoreFixedWidthFileProductRecordMapper mapper;
+    private List<RejectedLine> rejectedLines;
+
+    @Before
+    public void setUp() throws Exception {
+        mapper = new SampleStoreFixedWidthFileProductRecordMapper(UUID.randomUUID(), UUID.randomUUID());
+        rejectedLines = new ArrayList<>();
+    }
+
+    @Test
+    public void testParseRejectsMalformedLines() throws IOException {
+        TolerantFileParserImpl<ProductRecord> instance = newInstance(ErrorBudget.UNLIMITED);
+
+        List<ProductRecord> results = instance.parse(new ByteArrayInputStream(content().getBytes(StandardCharsets.US_ASCII)));
+
+        assertEquals(2, results.size());
+        assertEquals(2, rejectedLines.size());
+
+        RejectedLine invalidPrice = rejectedLines.get(0);
+        assertEquals(2, invalidPrice.getLineNumber());
+        assertEquals(-1, invalidPrice.getByteOffset());
+        assertEquals("Regular Singular Price", invalidPrice.getColumn());
+        assertEquals(INVALID_PRICE_LINE, invalidPrice.getLine());
+
+        RejectedLine shortLine = rejectedLines.get(1);
+        assertEquals(3, shortLine.getLineNumber());
+        assertNull(shortLine.getColumn());
+        assertTrue(shortLine.getReason().startsWith("Line too short"));
+    }
+
+    @Test
+    public void testStreamPathReportsByteOffsets() throws IOException {
+        TolerantFileParserImpl<ProductRecord> instance = newInstance(ErrorBudget.of(2));
+
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), content().getBytes(StandardCharsets.US_ASCII));
+
+        List<ProductRecord> results;
+        try (Stream<ProductRecord> stream = instance.stream(file.toPath())) {
+            results = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(2, results.size());
+        assertEquals(Arrays.asList((long) VALID_LINE.length() + 1, (long) VALID_LINE.length() + INVALID_PRICE_LINE.length() + 2),
+                rejectedLines.stream().map(RejectedLine::getByteOffset).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testStreamCompressedPathReportsByteOffsets() throws IOException {
+        TolerantFileParserImpl<ProductRecord> instance = newInstance(ErrorBudget.of(2));
+
+        Path compressed = temporaryFolder.newFile("test-sample.txt.gz").toPath();
+        try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            outputStream.write(content().getBytes(StandardCharsets.US_ASCII));
+        }
+
+        List<ProductRecord> results;
+        try (Stream<ProductRecord> stream = instance.stream(compressed)) {
+            results = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(2, results.size());
+        assertEquals(Arrays.asList((long) VALID_LINE.length() + 1, (long) VALID_LINE.length() + INVALID_PRICE_LINE.length() + 2),
+                rejectedLines.stream().map(RejectedLine::getByteOffset).collect(Collectors.toList()));
+    }
+
+    /**
+     * Resuming from the cursor after the first record rejects the same lines with the same line numbers
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStreamPathFromCursor() throws IOException {
+        TolerantFileParserImpl<ProductRecord> instance = newInstance(ErrorBudget.UNLIMITED);
+
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), content().getBytes(StandardCharsets.US_ASCII));
+
+        FileCursor cursor = new FileCursor();
+        List<Integer> productIds;
+        try (Stream<ProductRecord> stream = instance.stream(file.toPath(), cursor)) {
+            productIds = stream.limit(1).map(ProductRecord::getProductID).collect(Collectors.toList());
+        }
+        assertEquals(Arrays.asList(80000001), productIds);
+        assertEquals(VALID_LINE.length() + 1, cursor.getByteOffset());
+        assertEquals(1, cursor.getLineNumber());
+
+        try (Stream<ProductRecord> stream = instance.stream(file.toPath(), cursor)) {
+            productIds = stream.map(ProductRecord::getProductID).collect(Collectors.toList());
+        }
+        assertEquals(Arrays.asList(50133333), productIds);
+        assertEquals(5, cursor.getLineNumber());
+        assertEquals(Arrays.asList(2L, 3L),
+                rejectedLines.stream().map(RejectedLine::getLineNumber).collect(Collectors.toList()));
+    }
+
+    @Test(expected = ErrorBudgetExceededException.class)
+    public void testErrorBudgetExceeded() throws IOException {
+        TolerantFileParserImpl<ProductRecord> instance = newInstance(ErrorBudget.of(1));
+
+        instance.parse(new ByteArrayInputStream(content().getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    public void testErrorBudgetExceededStreamingPath() throws IOException {
+        TolerantFileParserImpl<ProductRecord> instance = newInstance(ErrorBudget.of(0));
+
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), content().getBytes(StandardCharsets.US_ASCII));
+
+        try (Stream<ProductRecord> stream = instance.stream(file.toPath())) {
+            stream.count();
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getCause() instanceof ErrorBudgetExceededException);
+            assertEquals(1, rejectedLines.size());
+            return;
+        }
+        throw new AssertionError("Expected error budget to be exceeded");
+    }
+
+    private TolerantFileParserImpl<ProductRecord> newInstance(ErrorBudget errorBudget) {
+        return new TolerantFileParserImpl<>(mapper, SampleStoreSettings.FIXED_WIDTH_LAYOUT,
+                rejectedLines::add, errorBudget);
+    }
+
+    private String content() {
+        return String.join("\n", VALID_LINE, INVALID_PRICE_LINE, SHORT_LINE, "", ANOTHER_VALID_LINE) + "\n";
+    }
+}
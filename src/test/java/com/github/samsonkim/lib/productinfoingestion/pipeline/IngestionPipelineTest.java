@@ -0,0 +1,178 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.pipeline;
+
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreFixedWidthFileProductRecordMapper;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.parser.FileParserImpl;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class IngestionPipelineTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final UUID storeId = UUID.randomUUID();
+    private final UUID storeJournalId = UUID.randomUUID();
+
+    /**
+     * Records reach the writer in file order even with many small batches spread over several mappers
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testRunPreservesOrder() throws IOException, URISyntaxException {
+        Path sample = Paths.get(getClass().getClassLoader().getResource("test-sample.txt").toURI());
+        List<String> sampleLines = Files.readAllLines(sample);
+        Path path = temporaryFolder.newFile().toPath();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            lines.addAll(sampleLines);
+        }
+        Files.write(path, lines);
+
+        List<ProductRecord> expected;
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            expected = new FileParserImpl<>(new SampleStoreFixedWidthFileProductRecordMapper(storeId, storeJournalId))
+                    .parse(inputStream);
+        }
+
+        IngestionPipeline<ProductRecord> instance = new IngestionPipeline<>(
+                () -> new SampleStoreFixedWidthFileProductRecordMapper(storeId, storeJournalId), 4, 3, 2);
+        List<ProductRecord> written = new ArrayList<>();
+        List<String> enrichedBy = new ArrayList<>();
+
+        long count = instance.run(path, p -> p.setCreatedBy(Thread.currentThread().getName()), written::add);
+
+        assertEquals(2500, count);
+        for (ProductRecord productRecord : written) {
+            enrichedBy.add(productRecord.getCreatedBy());
+            productRecord.setCreatedBy(null);
+        }
+        assertEquals(expected, written);
+        assertTrue(enrichedBy.stream().allMatch(name -> name.startsWith("ingest-mapper-")));
+
+        List<StageMetrics> metrics = instance.getMetrics();
+        assertEquals(3, metrics.size());
+        assertEquals("map", metrics.get(0).getName());
+        assertEquals(1000, metrics.get(0).getItems() - 4);
+        assertEquals("write", metrics.get(1).getName());
+        assertEquals(1000, metrics.get(1).getItems());
+        assertEquals("resequence", metrics.get(2).getName());
+        assertEquals(0, metrics.get(2).getQueueDepth());
+    }
+
+    @Test
+    public void testRunInputStream() throws IOException {
+        IngestionPipeline<ProductRecord> instance = new IngestionPipeline<>(
+                () -> new SampleStoreFixedWidthFileProductRecordMapper(storeId, storeJournalId), 2, 2, 2);
+        List<Integer> productIds = new ArrayList<>();
+
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("test-sample.txt")) {
+            instance.run(inputStream, p -> {
+            }, p -> productIds.add(p.getProductID()));
+        }
+
+        List<Integer> expected;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getClassLoader().getResourceAsStream("test-sample.txt")))) {
+            expected = reader.lines()
+                    .map(new SampleStoreFixedWidthFileProductRecordMapper(storeId, storeJournalId)::map)
+                    .filter(Optional::isPresent)
+                    .map(p -> p.get().getProductID())
+                    .collect(Collectors.toList());
+        }
+        assertEquals(expected, productIds);
+    }
+
+    @Test
+    public void testRunEmptyFile() throws IOException {
+        IngestionPipeline<ProductRecord> instance = new IngestionPipeline<>(
+                () -> new SampleStoreFixedWidthFileProductRecordMapper(storeId, storeJournalId));
+
+        assertEquals(0, instance.run(temporaryFolder.newFile().toPath(), p -> fail()));
+    }
+
+    /**
+     * A failing mapper stops the run and surfaces to the caller, and a pipeline can be run repeatedly
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testRunMapperFailure() throws IOException, URISyntaxException {
+        Path path = Paths.get(getClass().getClassLoader().getResource("test-sample.txt").toURI());
+        IngestionPipeline<String> instance = new IngestionPipeline<>(() -> line -> {
+            if (line.startsWith("1496")) {
+                throw new IllegalStateException("bad line");
+            }
+            return Optional.of(line);
+        }, 2, 1, 1);
+
+        try {
+            instance.run(path, line -> {
+            });
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            assertEquals("bad line", e.getMessage());
+        }
+
+        IngestionPipeline<String> passThrough = new IngestionPipeline<>(() -> Optional::of, 2, 1, 1);
+        assertEquals(6, passThrough.run(path, line -> {
+        }));
+        assertEquals(6, passThrough.run(path, line -> {
+        }));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRunWriterFailure() throws IOException, URISyntaxException {
+        Path path = Paths.get(getClass().getClassLoader().getResource("test-sample.txt").toURI());
+        IngestionPipeline<String> instance = new IngestionPipeline<>(() -> Optional::of, 2, 1, 1);
+
+        instance.run(path, line -> {
+            throw new UncheckedIOException(new IOException("disk full"));
+        });
+    }
+}
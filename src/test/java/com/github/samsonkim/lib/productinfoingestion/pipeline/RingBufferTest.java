@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.pipeline;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RingBufferTest {
+
+    @Test
+    public void testOfferPoll() {
+        RingBuffer<Integer> instance = new RingBuffer<>("test", 3);
+
+        assertEquals(4, instance.getCapacity());
+        assertNull(instance.poll());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(instance.offer(i));
+        }
+        assertFalse(instance.offer(4));
+        assertEquals(4, instance.size());
+
+        assertEquals(0, instance.poll().intValue());
+        assertTrue(instance.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, instance.poll().intValue());
+        }
+        assertNull(instance.poll());
+        assertEquals(0, instance.size());
+    }
+
+    @Test
+    public void testPutTakeCancelled() {
+        RingBuffer<Integer> instance = new RingBuffer<>("test", 1);
+
+        assertEquals(2, instance.getCapacity());
+        assertTrue(instance.put(1, () -> false));
+        assertTrue(instance.put(2, () -> false));
+        assertFalse(instance.put(3, () -> true));
+        assertEquals(1, instance.take(() -> true).intValue());
+        assertEquals(2, instance.take(() -> true).intValue());
+        assertNull(instance.take(() -> true));
+
+        StageMetrics metrics = instance.getMetrics();
+        assertEquals("test", metrics.getName());
+        assertEquals(2, metrics.getItems());
+        assertEquals(1, metrics.getProducerStalls());
+        assertEquals(1, metrics.getConsumerStalls());
+        assertEquals(0, metrics.getQueueDepth());
+    }
+
+    /**
+     * Every element put by several producers is taken exactly once by several consumers
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testConcurrentProducersConsumers() throws InterruptedException {
+        RingBuffer<Long> instance = new RingBuffer<>("test", 8);
+        int producers = 3;
+        int consumers = 3;
+        long perProducer = 20_000;
+        AtomicLong sum = new AtomicLong();
+        AtomicLong taken = new AtomicLong();
+        long total = producers * perProducer;
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            threads.add(new Thread(() -> {
+                for (long i = 1; i <= perProducer; i++) {
+                    instance.put(i, () -> false);
+                }
+            }));
+        }
+        for (int c = 0; c < consumers; c++) {
+            threads.add(new Thread(() -> {
+                Long element;
+                while ((element = instance.take(() -> taken.get() >= total)) != null) {
+                    sum.addAndGet(element);
+                    taken.incrementAndGet();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(total, taken.get());
+        assertEquals(producers * perProducer * (perProducer + 1) / 2, sum.get());
+        assertEquals(total, instance.getMetrics().getItems());
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.service;
+
+import com.github.samsonkim.lib.productinfoingestion.exception.ProductInfoIngestionException;
+import com.github.samsonkim.lib.productinfoingestion.integration.StoreFactoryImpl;
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BatchIngestionServiceImplTest {
+    private static final String FILE_NAME = "src/test/resources/test-sample.txt";
+
+    /**
+     * Every job is ingested and a failing job is reported without affecting the rest
+     *
+     * @throws ProductInfoIngestionException
+     */
+    @Test
+    public void testIngestProductCatalogs() throws ProductInfoIngestionException {
+        BatchIngestionService instance = new BatchIngestionServiceImpl(
+                new ProductCatalogIntegrationServiceImpl(new StoreFactoryImpl()), 2);
+
+        List<List<ProductRecord>> consumed = new ArrayList<>();
+        List<IngestionJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            List<ProductRecord> productRecords = Collections.synchronizedList(new ArrayList<>());
+            consumed.add(productRecords);
+            jobs.add(IngestionJob.builder()
+                    .storeId(SampleStoreSettings.STORE_ID)
+                    .fileName(FILE_NAME)
+                    .user("user" + i)
+                    .consumer(productRecords::add)
+                    .build());
+        }
+        IngestionJob missingFile = IngestionJob.builder()
+                .storeId(SampleStoreSettings.STORE_ID)
+                .fileName("src/test/resources/missing.txt")
+                .user("user")
+                .build();
+        jobs.add(3, missingFile);
+
+        BatchIngestionResult result = instance.ingestProductCatalogs(jobs);
+
+        assertEquals(9, result.getResults().size());
+        assertFalse(result.isSucceeded());
+        assertEquals(40, result.getRecords());
+
+        assertEquals(1, result.getFailures().size());
+        IngestionJobResult failure = result.getFailures().get(0);
+        assertSame(missingFile, failure.getJob());
+        assertTrue(failure.getFailure() instanceof ProductInfoIngestionException);
+        assertEquals(0, failure.getRecords());
+
+        for (int i = 0; i < jobs.size(); i++) {
+            assertSame(jobs.get(i), result.getResults().get(i).getJob());
+        }
+        for (int i = 0; i < consumed.size(); i++) {
+            assertEquals(5, consumed.get(i).size());
+            for (ProductRecord productRecord : consumed.get(i)) {
+                assertEquals("user" + i, productRecord.getCreatedBy());
+            }
+        }
+    }
+
+    /**
+     * No more than maxConcurrentMappings jobs map at the same time
+     *
+     * @throws ProductInfoIngestionException
+     */
+    @Test
+    public void testIngestProductCatalogsConcurrencyLimit() throws ProductInfoIngestionException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ProductCatalogIntegrationService productCatalogIntegrationService = new StubIntegrationService() {
+            @Override
+            public long ingestProductCatalog(UUID storeId, String fileName, String user,
+                                             Consumer<ProductRecord> consumer, Semaphore mappings) {
+                mappings.acquireUninterruptibly();
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                    mappings.release();
+                }
+                if (fileName.equals("boom")) {
+                    throw new IllegalStateException("boom");
+                }
+                return 1;
+            }
+        };
+        BatchIngestionService instance = new BatchIngestionServiceImpl(productCatalogIntegrationService, 3);
+
+        List<IngestionJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            jobs.add(IngestionJob.builder().storeId(UUID.randomUUID()).fileName(i == 5 ? "boom" : "file" + i).build());
+        }
+
+        BatchIngestionResult result = instance.ingestProductCatalogs(jobs);
+
+        assertTrue(maxRunning.get() <= 3);
+        assertEquals(11, result.getRecords());
+        assertEquals(1, result.getFailures().size());
+        assertEquals("boom", result.getFailures().get(0).getFailure().getMessage());
+        assertNull(result.getResults().get(0).getFailure());
+    }
+
+    /**
+     * A job blocked reading its file gives its mapping permit up, so the other jobs still run
+     *
+     * @throws Exception
+     */
+    @Test(timeout = 10_000)
+    public void testIngestProductCatalogsBlockedRead() throws Exception {
+        CountDownLatch othersDone = new CountDownLatch(3);
+        ProductCatalogIntegrationService productCatalogIntegrationService = new StubIntegrationService() {
+            @Override
+            public long ingestProductCatalog(UUID storeId, String fileName, String user,
+                                             Consumer<ProductRecord> consumer, Semaphore mappings)
+                    throws ProductInfoIngestionException {
+                InputStream slowDropFolder = new ByteArrayInputStream(new byte[]{'a', 'b'}) {
+                    @Override
+                    public synchronized int read(byte[] b, int off, int len) {
+                        if (pos > 0) {
+                            try {
+                                othersDone.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                        return super.read(b, off, 1);
+                    }
+                };
+                InputStream source = fileName.equals("slow")
+                        ? slowDropFolder : new ByteArrayInputStream(new byte[]{'a', 'b'});
+
+                long records = 0;
+                try (MappingPermitInputStream inputStream = new MappingPermitInputStream(source, mappings)) {
+                    while (inputStream.read() != -1) {
+                        records++;
+                    }
+                } catch (IOException e) {
+                    throw new ProductInfoIngestionException(e.getMessage(), e);
+                } finally {
+                    if (!fileName.equals("slow")) {
+                        othersDone.countDown();
+                    }
+                }
+                return records;
+            }
+        };
+        BatchIngestionService instance = new BatchIngestionServiceImpl(productCatalogIntegrationService, 1);
+
+        List<IngestionJob> jobs = new ArrayList<>();
+        jobs.add(IngestionJob.builder().storeId(UUID.randomUUID()).fileName("slow").build());
+        for (int i = 0; i < 3; i++) {
+            jobs.add(IngestionJob.builder().storeId(UUID.randomUUID()).fileName("file" + i).build());
+        }
+
+        BatchIngestionResult result = instance.ingestProductCatalogs(jobs);
+
+        assertTrue(result.isSucceeded());
+        assertEquals(8, result.getRecords());
+    }
+
+    @Test
+    public void testIngestProductCatalogsEmpty() throws ProductInfoIngestionException {
+        BatchIngestionService instance = new BatchIngestionServiceImpl(new StubIntegrationService());
+
+        BatchIngestionResult result = instance.ingestProductCatalogs(Collections.emptyList());
+
+        assertTrue(result.isSucceeded());
+        assertEquals(0, result.getRecords());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxConcurrentMappings() {
+        new BatchIngestionServiceImpl(new StubIntegrationService(), 0);
+    }
+
+    private static class StubIntegrationService extends ProductCatalogIntegrationServiceImpl {
+        StubIntegrationService() {
+            super(null);
+        }
+    }
+}
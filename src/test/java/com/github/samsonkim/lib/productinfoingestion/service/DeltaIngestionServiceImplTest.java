@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.service;
+
+import com.github.samsonkim.lib.productinfoingestion.dao.DeltaIndexDao;
+import com.github.samsonkim.lib.productinfoingestion.dao.FileDeltaIndexDao;
+import com.github.samsonkim.lib.productinfoingestion.exception.ProductInfoIngestionException;
+import com.github.samsonkim.lib.productinfoingestion.integration.StoreFactoryImpl;
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.parser.DeltaRecord;
+import com.github.samsonkim.lib.productinfoingestion.parser.DeltaType;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class DeltaIngestionServiceImplTest {
+    private static final String FILE_NAME = "src/test/resources/test-sample.txt";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private DeltaIndexDao deltaIndexDao;
+    private DeltaIngestionService instance;
+
+    @Before
+    public void setUp() throws Exception {
+        deltaIndexDao = new FileDeltaIndexDao(temporaryFolder.getRoot().toPath());
+        instance = new DeltaIngestionServiceImpl(new StoreFactoryImpl(), deltaIndexDao);
+    }
+
+    /**
+     * The first journal is ingested in full, an identical one yields nothing and a changed one only its changes
+     *
+     * @throws ProductInfoIngestionException
+     */
+    @Test
+    public void testIngestProductCatalogDelta() throws ProductInfoIngestionException, IOException {
+        List<DeltaRecord<ProductRecord>> consumed = new ArrayList<>();
+
+        DeltaIngestionResult first = instance.ingestProductCatalogDelta(
+                SampleStoreSettings.STORE_ID, FILE_NAME, "user", consumed::add);
+
+        assertNull(first.getPreviousStoreJournalId());
+        assertEquals(5, first.getNewRecords());
+        assertEquals(5, consumed.size());
+        assertEquals("user", consumed.get(0).getRecord().getCreatedBy());
+        assertEquals(first.getStoreJournalId(), deltaIndexDao.get(SampleStoreSettings.STORE_ID).get().getStoreJournalId());
+
+        consumed.clear();
+        DeltaIngestionResult second = instance.ingestProductCatalogDelta(
+                SampleStoreSettings.STORE_ID, FILE_NAME, "user", consumed::add);
+
+        assertEquals(first.getStoreJournalId(), second.getPreviousStoreJournalId());
+        assertEquals(0, consumed.size());
+        assertEquals(5, second.getUnchangedRecords());
+
+        Path changed = temporaryFolder.newFile("changed.txt").toPath();
+        String sample = new String(Files.readAllBytes(Paths.get(FILE_NAME)), StandardCharsets.ISO_8859_1);
+        Files.write(changed, sample.replaceAll("50133333 [^\r\n]*\r\n", "")
+                .replace("Generic Soda 12-pack", "Generic Soda 24-pack")
+                .getBytes(StandardCharsets.ISO_8859_1));
+
+        consumed.clear();
+        DeltaIngestionResult third = instance.ingestProductCatalogDelta(
+                SampleStoreSettings.STORE_ID, changed.toString(), "user", consumed::add);
+
+        assertEquals(0, third.getNewRecords());
+        assertEquals(1, third.getChangedRecords());
+        assertEquals(1, third.getDeletedRecords());
+        assertEquals(3, third.getUnchangedRecords());
+        assertEquals(DeltaType.CHANGED, consumed.get(0).getType());
+        assertEquals("Generic Soda 24-pack", consumed.get(0).getRecord().getProductDescription());
+        assertEquals(50133333, consumed.get(1).getProductId());
+    }
+
+    /**
+     * A failed ingestion keeps the previous index as the base of the next delta
+     *
+     * @throws ProductInfoIngestionException
+     */
+    @Test
+    public void testIngestProductCatalogDeltaFailure() throws ProductInfoIngestionException {
+        DeltaIngestionResult first = instance.ingestProductCatalogDelta(
+                SampleStoreSettings.STORE_ID, FILE_NAME, "user", d -> {
+                });
+
+        try {
+            instance.ingestProductCatalogDelta(SampleStoreSettings.STORE_ID, "src/test/resources/missing.txt",
+                    "user", d -> {
+                    });
+        } catch (ProductInfoIngestionException e) {
+            assertEquals(first.getStoreJournalId(),
+                    deltaIndexDao.get(SampleStoreSettings.STORE_ID).get().getStoreJournalId());
+            return;
+        }
+        fail("ProductInfoIngestionException expected");
+    }
+}
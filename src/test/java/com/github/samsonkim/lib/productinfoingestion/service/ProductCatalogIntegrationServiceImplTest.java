@@ -24,13 +24,26 @@
 
 package com.github.samsonkim.lib.productinfoingestion.service;
 
+import com.github.samsonkim.lib.productinfoingestion.dao.FileIngestionCheckpointDao;
+import com.github.samsonkim.lib.productinfoingestion.dao.IngestionCheckpointDao;
 import com.github.samsonkim.lib.productinfoingestion.exception.ProductInfoIngestionException;
+import com.github.samsonkim.lib.productinfoingestion.id.TimeOrderedIdGenerator;
 import com.github.samsonkim.lib.productinfoingestion.integration.StoreFactory;
+import com.github.samsonkim.lib.productinfoingestion.integration.StoreFactoryImpl;
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings;
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreFixedWidthFileProductRecordMapper;
+import com.github.samsonkim.lib.productinfoingestion.model.IngestionCheckpoint;
 import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.parser.ErrorBudget;
 import com.github.samsonkim.lib.productinfoingestion.parser.FileParser;
+import com.github.samsonkim.lib.productinfoingestion.parser.RejectedLineHandler;
+import com.github.samsonkim.lib.productinfoingestion.pipeline.IngestionPipeline;
+import com.github.samsonkim.lib.productinfoingestion.pipeline.StageMetrics;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -38,11 +51,20 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
@@ -51,6 +73,9 @@ import static org.mockito.Mockito.when;
 @RunWith(MockitoJUnitRunner.class)
 public class ProductCatalogIntegrationServiceImplTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Mock
     private StoreFactory storeFactory;
 
@@ -96,6 +121,190 @@ public class ProductCatalogIntegrationServiceImplTest {
         verify(fileParser).parse(any(InputStream.class));
     }
 
+    @Test
+    public void testIngestProductCatalogStreaming() throws ProductInfoIngestionException, IOException {
+
+        UUID storeId = UUID.randomUUID();
+        String fileName = "src/test/resources/test-sample.txt";
+        String user = "testUser";
+
+        ProductRecord productRecord = ProductRecord.builder()
+                .build();
+
+        when(fileParser.stream(any(Path.class)))
+                .thenReturn(Stream.of(productRecord));
+
+        when(storeFactory.getFileParser(any(UUID.class), any(UUID.class)))
+                .thenReturn(fileParser);
+
+        List<ProductRecord> consumed = new ArrayList<>();
+        long count = instance.ingestProductCatalog(storeId, fileName, user, consumed::add);
+
+        assertEquals(1, count);
+        assertEquals(Arrays.asList(productRecord), consumed);
+        assertEquals(user, productRecord.getCreatedBy());
+        assertNotNull(productRecord.getCreatedDateTime());
+
+        verify(fileParser).stream(any(Path.class));
+    }
+
+    @Test
+    public void testIngestProductCatalogTolerant() throws ProductInfoIngestionException, IOException {
+
+        UUID storeId = UUID.randomUUID();
+        String fileName = "src/test/resources/test-sample.txt";
+        String user = "testUser";
+        RejectedLineHandler rejectedLineHandler = r -> {};
+
+        ProductRecord productRecord = ProductRecord.builder()
+                .build();
+
+        when(fileParser.stream(any(Path.class)))
+                .thenReturn(Stream.of(productRecord));
+
+        when(storeFactory.getTolerantFileParser(any(UUID.class), any(UUID.class),
+                any(RejectedLineHandler.class), any(ErrorBudget.class)))
+                .thenReturn(fileParser);
+
+        List<ProductRecord> consumed = new ArrayList<>();
+        long count = instance.ingestProductCatalog(storeId, fileName, user, consumed::add,
+                rejectedLineHandler, ErrorBudget.of(10));
+
+        assertEquals(1, count);
+        assertEquals(Arrays.asList(productRecord), consumed);
+
+        verify(storeFactory).getTolerantFileParser(any(UUID.class), any(UUID.class),
+                any(RejectedLineHandler.class), any(ErrorBudget.class));
+    }
+
+    @Test
+    public void testIngestProductCatalogPipelined() throws ProductInfoIngestionException, IOException {
+
+        UUID storeId = UUID.randomUUID();
+        String fileName = "src/test/resources/test-sample.txt";
+        String user = "testUser";
+
+        instance = new ProductCatalogIntegrationServiceImpl(storeFactory, IngestionMode.PIPELINED);
+
+        when(storeFactory.getIngestionPipeline(any(UUID.class), any(UUID.class)))
+                .thenReturn(new IngestionPipeline<>(
+                        () -> new SampleStoreFixedWidthFileProductRecordMapper(storeId, UUID.randomUUID()), 2, 1, 2));
+
+        List<ProductRecord> consumed = new ArrayList<>();
+        long count = instance.ingestProductCatalog(storeId, fileName, user, consumed::add);
+
+        assertEquals(5, count);
+        assertEquals(5, consumed.size());
+        assertEquals(80000001, consumed.get(0).getProductID().intValue());
+        assertEquals(50133333, consumed.get(4).getProductID().intValue());
+        for (ProductRecord productRecord : consumed) {
+            assertEquals(user, productRecord.getCreatedBy());
+            assertNotNull(productRecord.getCreatedDateTime());
+            assertTrue(productRecord.getId().isPresent());
+        }
+
+        verify(storeFactory).getIngestionPipeline(any(UUID.class), any(UUID.class));
+    }
+
+    /**
+     * A PIPELINED ingestion hands the metrics of its stages to the listener once it ends
+     *
+     * @throws ProductInfoIngestionException
+     */
+    @Test
+    public void testIngestProductCatalogPipelinedMetrics() throws ProductInfoIngestionException {
+        UUID storeId = UUID.randomUUID();
+        instance = new ProductCatalogIntegrationServiceImpl(storeFactory, IngestionMode.PIPELINED);
+
+        when(storeFactory.getIngestionPipeline(any(UUID.class), any(UUID.class)))
+                .thenReturn(new IngestionPipeline<>(
+                        () -> new SampleStoreFixedWidthFileProductRecordMapper(storeId, UUID.randomUUID()), 2, 1, 2));
+
+        List<List<StageMetrics>> reported = new ArrayList<>();
+        instance.ingestProductCatalog(storeId, "src/test/resources/test-sample.txt", "testUser", p -> {
+        }, reported::add);
+
+        assertEquals(1, reported.size());
+        assertEquals(Arrays.asList("map", "write", "resequence"),
+                reported.get(0).stream().map(StageMetrics::getName).collect(Collectors.toList()));
+        //one batch per line, plus the markers ending each mapper
+        assertTrue(reported.get(0).get(0).getItems() >= 6);
+        assertEquals(0, reported.get(0).get(0).getQueueDepth());
+    }
+
+    /**
+     * An ingestion failing after its first checkpoint resumes from it and appends the remaining records
+     *
+     * @throws ProductInfoIngestionException
+     */
+    @Test
+    public void testIngestProductCatalogCheckpointedResume() throws ProductInfoIngestionException {
+        for (IngestionMode ingestionMode : Arrays.asList(IngestionMode.SERIAL, IngestionMode.PARALLEL)) {
+            UUID storeJournalId = UUID.randomUUID();
+            String fileName = "src/test/resources/test-sample.txt";
+            IngestionCheckpointDao checkpointDao =
+                    new FileIngestionCheckpointDao(temporaryFolder.getRoot().toPath().resolve(ingestionMode.name()));
+
+            instance = new ProductCatalogIntegrationServiceImpl(new StoreFactoryImpl(), ingestionMode, checkpointDao, 2);
+
+            ListOutput output = new ListOutput(3);
+            try {
+                instance.ingestProductCatalog(SampleStoreSettings.STORE_ID, storeJournalId, fileName, "user", output);
+                fail("ProductInfoIngestionException expected");
+            } catch (ProductInfoIngestionException e) {
+                assertEquals(3, output.records.size());
+            }
+
+            IngestionCheckpoint checkpoint = checkpointDao.get(storeJournalId).get();
+            assertEquals(2, checkpoint.getRecords());
+            assertEquals(2, checkpoint.getLineNumber());
+            assertEquals(2, checkpoint.getOutputPosition());
+            assertFalse(checkpoint.isCompleted());
+
+            output.failAfter = Integer.MAX_VALUE;
+            assertEquals(5, instance.resumeProductCatalog(storeJournalId, "resumed", output));
+
+            assertEquals(Arrays.asList(80000001, 80000002, 14963801, 40123401, 50133333), output.records.stream()
+                    .map(ProductRecord::getProductID)
+                    .collect(Collectors.toList()));
+            assertEquals("resumed", output.records.get(2).getCreatedBy());
+            assertTrue(checkpointDao.get(storeJournalId).get().isCompleted());
+
+            //a completed ingestion is not repeated
+            assertEquals(5, instance.resumeProductCatalog(storeJournalId, "resumed", output));
+            assertEquals(5, output.records.size());
+        }
+    }
+
+    @Test(expected = ProductInfoIngestionException.class)
+    public void testResumeProductCatalogWithoutCheckpoint() throws ProductInfoIngestionException {
+        instance = new ProductCatalogIntegrationServiceImpl(storeFactory, IngestionMode.SERIAL,
+                new FileIngestionCheckpointDao(temporaryFolder.getRoot().toPath()), 2);
+
+        instance.resumeProductCatalog(UUID.randomUUID(), "user", new ListOutput(0));
+    }
+
+    /**
+     * Journal and record ids come from the IdGenerator, so a seeded generator repeats them
+     *
+     * @throws ProductInfoIngestionException
+     */
+    @Test
+    public void testIngestProductCatalogWithIdGenerator() throws ProductInfoIngestionException {
+        String fileName = "src/test/resources/test-sample.txt";
+        List<List<ProductRecord>> runs = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            instance = new ProductCatalogIntegrationServiceImpl(new StoreFactoryImpl(), IngestionMode.SERIAL, null,
+                    ProductCatalogIntegrationServiceImpl.DEFAULT_CHECKPOINT_INTERVAL, TimeOrderedIdGenerator.seeded(7L));
+            runs.add(instance.ingestProductCatalog(SampleStoreSettings.STORE_ID, fileName, "user"));
+        }
+
+        assertEquals(5, runs.get(0).size());
+        assertEquals(TimeOrderedIdGenerator.seeded(7L).nextId(), runs.get(0).get(0).getStoreJournalId());
+        assertEquals(runs.get(0).stream().map(ProductRecord::getId).collect(Collectors.toList()),
+                runs.get(1).stream().map(ProductRecord::getId).collect(Collectors.toList()));
+    }
+
     @Test(expected = ProductInfoIngestionException.class)
     public void testIngestProductCatalogProductInfoIngestionException() throws ProductInfoIngestionException, IOException {
 
@@ -110,4 +319,35 @@ public class ProductCatalogIntegrationServiceImplTest {
 
         verify(storeFactory).getFileParser(any(UUID.class), any(UUID.class));
     }
+
+    /**
+     * Output collecting records in a list, the output position is the list size.
+     * Simulates a crash by failing once failAfter records were accepted
+     */
+    private static class ListOutput implements CheckpointedOutput {
+        private final List<ProductRecord> records = new ArrayList<>();
+        private int failAfter;
+
+        ListOutput(int failAfter) {
+            this.failAfter = failAfter;
+        }
+
+        @Override
+        public void accept(ProductRecord productRecord) {
+            if (records.size() == failAfter) {
+                throw new UncheckedIOException(new IOException("Simulated crash"));
+            }
+            records.add(productRecord);
+        }
+
+        @Override
+        public long commit() {
+            return records.size();
+        }
+
+        @Override
+        public void resume(long outputPosition) {
+            records.subList((int) outputPosition, records.size()).clear();
+        }
+    }
 }
@@ -0,0 +1,171 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.store;
+
+import com.github.samsonkim.lib.productinfoingestion.exception.ProductInfoIngestionException;
+import com.github.samsonkim.lib.productinfoingestion.integration.StoreFactoryImpl;
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreFixedWidthFileProductRecordMapper;
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings;
+import com.github.samsonkim.lib.productinfoingestion.model.Money;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecordView;
+import com.github.samsonkim.lib.productinfoingestion.model.UnitOfMeasure;
+import com.github.samsonkim.lib.productinfoingestion.parser.FileParserImpl;
+import com.github.samsonkim.lib.productinfoingestion.parser.FlyweightFileParser;
+import com.github.samsonkim.lib.productinfoingestion.service.ProductCatalogIntegrationServiceImpl;
+import com.github.samsonkim.lib.productinfoingestion.writer.JacksonJsonWriter;
+import com.github.samsonkim.lib.productinfoingestion.writer.JsonException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class OffHeapProductRecordStoreTest {
+    private static final String FILE_NAME = "src/test/resources/test-sample.txt";
+
+    private List<ProductRecord> productRecords;
+
+    @Before
+    public void setUp() throws ProductInfoIngestionException {
+        productRecords = new ProductCatalogIntegrationServiceImpl(new StoreFactoryImpl())
+                .ingestProductCatalog(SampleStoreSettings.STORE_ID, FILE_NAME, "user");
+    }
+
+    /**
+     * Records copied out of the store equal the records appended, across pages
+     */
+    @Test
+    public void testAppendAndGet() {
+        try (OffHeapProductRecordStore instance = new OffHeapProductRecordStore(2, 64)) {
+            for (ProductRecord productRecord : productRecords) {
+                instance.append(productRecord);
+            }
+
+            assertEquals(5, instance.size());
+            for (int i = 0; i < productRecords.size(); i++) {
+                assertEquals(productRecords.get(i), instance.get(i));
+            }
+            assertEquals(80000001, instance.getProductID(0));
+            assertEquals(56700, instance.getRegularCalculatorPriceScaled(0));
+            assertEquals(productRecords.get(0).getProductDescription(), instance.getProductDescription(0));
+            assertEquals(productRecords.get(0).getId().get().getMostSignificantBits(), instance.getIdMostSignificantBits(0));
+            assertEquals(3 * 2 * OffHeapProductRecordStore.RECORD_SIZE, instance.getAllocatedBytes() - instance.getStrings().getAllocatedBytes());
+        }
+    }
+
+    /**
+     * Null, empty and missing values survive the binary layout
+     */
+    @Test
+    public void testNullAndEmptyFields() {
+        ProductRecord productRecord = ProductRecord.builder()
+                .id(Optional.empty())
+                .productSize(Optional.empty())
+                .taxRate(Optional.of(BigDecimal.ONE))
+                .unitOfMeasure(UnitOfMeasure.POUND)
+                .promotionalCalculatorPrice(Money.ZERO)
+                .build();
+        OffHeapProductRecordStore instance = new OffHeapProductRecordStore();
+        instance.append(productRecord);
+
+        ProductRecord copy = instance.get(0);
+        assertEquals(productRecord, copy);
+        assertEquals(Optional.empty(), copy.getId());
+        assertNull(copy.getProductID());
+        assertNull(copy.getProductDescription());
+        assertNull(copy.getRegularCalculatorPrice());
+        assertEquals(Money.ZERO, copy.getPromotionalCalculatorPrice());
+        assertEquals(Optional.of(BigDecimal.ONE), copy.getTaxRate());
+    }
+
+    /**
+     * A parser appends its reused view straight into the store
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testAppendViews() throws Exception {
+        SampleStoreFixedWidthFileProductRecordMapper mapper =
+                new SampleStoreFixedWidthFileProductRecordMapper(UUID.randomUUID(), UUID.randomUUID());
+        Path path = Paths.get(getClass().getClassLoader().getResource("test-sample.txt").toURI());
+
+        List<ProductRecord> expected;
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("test-sample.txt")) {
+            expected = new FileParserImpl<>(mapper).parse(inputStream);
+        }
+
+        OffHeapProductRecordStore instance = new OffHeapProductRecordStore();
+        new FlyweightFileParser<ProductRecordView>(mapper, mapper.newView()).forEach(path, instance::append);
+
+        List<ProductRecord> records = new ArrayList<>();
+        for (int i = 0; i < instance.size(); i++) {
+            records.add(instance.get(i));
+        }
+        assertEquals(expected, records);
+    }
+
+    /**
+     * The store serializes to the same Json as the List of ProductRecords
+     *
+     * @throws JsonException
+     */
+    @Test
+    public void testJson() throws JsonException {
+        JacksonJsonWriter jsonWriter = new JacksonJsonWriter();
+        OffHeapProductRecordStore instance = new OffHeapProductRecordStore();
+        for (ProductRecord productRecord : productRecords) {
+            instance.append(productRecord);
+        }
+
+        assertEquals(jsonWriter.writeValueAsString(productRecords), jsonWriter.writeValueAsString(instance));
+        assertEquals("[]", jsonWriter.writeValueAsString(new OffHeapProductRecordStore()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAppendFromOtherJournal() {
+        OffHeapProductRecordStore instance = new OffHeapProductRecordStore();
+        instance.append(productRecords.get(0));
+        assertFalse(instance.accepts(ProductRecord.builder().storeJournalId(UUID.randomUUID()).build()));
+        instance.append(ProductRecord.builder().storeJournalId(UUID.randomUUID()).build());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAppendAfterClose() {
+        OffHeapProductRecordStore instance = new OffHeapProductRecordStore();
+        instance.close();
+        instance.append(productRecords.get(0));
+    }
+}
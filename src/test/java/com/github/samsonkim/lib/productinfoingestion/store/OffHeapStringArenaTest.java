@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.store;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class OffHeapStringArenaTest {
+
+    /**
+     * Strings read back the same, whatever their characters
+     */
+    @Test
+    public void testAppendAndGet() {
+        OffHeapStringArena instance = new OffHeapStringArena();
+        String[] values = {"", "Kimchi-flavored white rice", "Crème brûlée", "价格", "🍚 rice"};
+        long[] addresses = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            addresses[i] = instance.append(values[i]);
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], instance.get(addresses[i]));
+            char[] buffer = new char[instance.byteLength(addresses[i])];
+            assertEquals(values[i], new String(buffer, 0, instance.getChars(addresses[i], buffer)));
+        }
+        assertEquals(OffHeapStringArena.NULL, instance.append(null));
+        assertNull(instance.get(OffHeapStringArena.NULL));
+        assertEquals("ice", instance.get(instance.append("rice", 1, 4)));
+    }
+
+    /**
+     * An unpaired surrogate is stored as '?'
+     */
+    @Test
+    public void testUnpairedSurrogate() {
+        OffHeapStringArena instance = new OffHeapStringArena();
+        assertEquals("a?b", instance.get(instance.append("a\uD83Cb")));
+    }
+
+    /**
+     * Strings that do not fit in the current page start a new one
+     */
+    @Test
+    public void testPages() {
+        OffHeapStringArena instance = new OffHeapStringArena(16);
+        long first = instance.append("0123456789");
+        long second = instance.append("abcdefghij");
+
+        assertEquals("0123456789", instance.get(first));
+        assertEquals("abcdefghij", instance.get(second));
+        assertEquals(32, instance.getAllocatedBytes());
+        assertEquals(28, instance.getUsedBytes());
+
+        instance.clear();
+        assertEquals(0, instance.getUsedBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooLong() {
+        new OffHeapStringArena(16).append("0123456789abcdef");
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.util;
+
+import com.github.samsonkim.lib.productinfoingestion.model.Money;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CurrencyFormatterTest {
+    private static final Locale[] LOCALES = {Locale.US, Locale.UK, Locale.GERMANY, Locale.FRANCE, Locale.JAPAN,
+            Locale.CHINA, new Locale("de", "CH"), new Locale("hi", "IN"), new Locale("ar", "EG")};
+
+    private static final long[] VALUES = {0L, 1L, 49L, 50L, 51L, 99L, 100L, 150L, 250L, 350L, 4999L, 5000L, 5001L,
+            15000L, 25000L, 56700L, 99999L, 123456789L, 1234567890123L, Long.MAX_VALUE / 10, -1L, -56700L, -50L,
+            -15000L, -123456789L, Long.MIN_VALUE / 10};
+
+    /**
+     * Display prices are the same as the locale's currency NumberFormat formatting the equivalent BigDecimal
+     */
+    @Test
+    public void testFormat() {
+        for (Locale locale : LOCALES) {
+            NumberFormat expected = NumberFormat.getCurrencyInstance(locale);
+            CurrencyFormatter instance = new CurrencyFormatter(locale, 16);
+
+            for (long value : VALUES) {
+                assertEquals(locale + " " + value,
+                        expected.format(ProductInfoIngestionUtils.toBigDecimal(value)), instance.format(value));
+            }
+            for (long value = -30000; value <= 30000; value += 37) {
+                assertEquals(locale + " " + value,
+                        expected.format(ProductInfoIngestionUtils.toBigDecimal(value)), instance.format(value));
+            }
+        }
+    }
+
+    /**
+     * Split prices are the same as String.format("%s for %s", forX, display price)
+     */
+    @Test
+    public void testFormatForX() {
+        NumberFormat expected = NumberFormat.getCurrencyInstance(Locale.US);
+        CurrencyFormatter instance = new CurrencyFormatter(Locale.US, 16);
+
+        for (int forX : new int[]{1, 2, 3, 10, 999, Integer.MAX_VALUE, -2, Integer.MIN_VALUE}) {
+            for (long value : VALUES) {
+                assertEquals(String.format("%s for %s", forX, expected.format(ProductInfoIngestionUtils.toBigDecimal(value))),
+                        instance.formatForX(forX, value));
+            }
+        }
+        assertEquals("2 for $10.00", instance.formatForX(2, 100000));
+    }
+
+    /**
+     * Repeated prices come from the cache, colliding prices are still formatted correctly
+     */
+    @Test
+    public void testCache() {
+        CurrencyFormatter instance = new CurrencyFormatter(Locale.US, 1);
+
+        String price = instance.format(56700);
+        assertSame(price, instance.format(56700));
+        assertEquals("$1.00", instance.format(10000));
+        assertEquals("$5.67", instance.format(56700));
+
+        String forX = instance.formatForX(2, 56700);
+        assertSame(forX, instance.formatForX(2, 56700));
+        assertEquals("3 for $5.67", instance.formatForX(3, 56700));
+
+        assertEquals("$5.67", instance.format(Money.ofCents(567)));
+        assertEquals("$5.67", instance.format(new BigDecimal("5.67")));
+        assertSame(CurrencyFormatter.getInstance(Locale.US), CurrencyFormatter.getInstance(Locale.US));
+    }
+
+    /**
+     * A shared formatter gives the right display price on every thread
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFormatConcurrently() throws Exception {
+        CurrencyFormatter instance = new CurrencyFormatter(Locale.US, 64);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int seed = thread;
+                futures.add(executor.submit(() -> {
+                    NumberFormat expected = NumberFormat.getCurrencyInstance(Locale.US);
+                    for (int i = 0; i < 20000; i++) {
+                        long value = ((i * 31L + seed) % 500) * 100;
+                        assertEquals(expected.format(ProductInfoIngestionUtils.toBigDecimal(value)),
+                                instance.format(value));
+                        assertEquals(String.format("%s for %s", seed + 1,
+                                expected.format(ProductInfoIngestionUtils.toBigDecimal(value))),
+                                instance.formatForX(seed + 1, value));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCacheSize() {
+        new CurrencyFormatter(Locale.US, 0);
+    }
+}
@@ -24,33 +24,35 @@
 
 package com.github.samsonkim.lib.productinfoingestion.util;
 
-import io.vavr.Tuple2;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.math.BigDecimal;
-import java.text.NumberFormat;
+import java.math.RoundingMode;
 import java.util.Arrays;
 import java.util.Locale;
 import java.util.Optional;
 
-import static com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils.calculateSplitPricing;
-import static com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils.determinePricing;
+import static com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils.NO_PRICE;
+import static com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils.determineCalculatorPrice;
+import static com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils.determineDisplayPrice;
+import static com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils.divideHalfDown;
 import static com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils.hasValue;
 import static com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils.toBigDecimal;
 import static com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils.toBooleanList;
 import static com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils.toInteger;
+import static com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils.toScaledCurrency;
 import static com.github.samsonkim.lib.productinfoingestion.util.ProductInfoIngestionUtils.toStringVal;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class ProductInfoIngestionUtilsTest {
-    private NumberFormat currencyFormatter;
+    private CurrencyFormatter cachedCurrencyFormatter;
 
     @Before
     public void setUp() throws Exception {
-        currencyFormatter = NumberFormat.getCurrencyInstance(Locale.US);
+        cachedCurrencyFormatter = CurrencyFormatter.getInstance(Locale.US);
     }
 
     @Test
@@ -65,55 +67,50 @@ public class ProductInfoIngestionUtilsTest {
     }
 
     @Test
-    public void testCalculateSplitPricing() {
+    public void testDetermineCalculatorPrice() {
+        assertEquals(100000, determineCalculatorPrice(100000, 20000, 2));
 
-        Optional<Tuple2<String, BigDecimal>> splitPricing = calculateSplitPricing(currencyFormatter,
-                BigDecimal.valueOf(10), Optional.of(2));
+        assertEquals(3333, determineCalculatorPrice(0, 10000, 3));
 
-        assertTrue(splitPricing.isPresent());
-        assertEquals("2 for $10.00", splitPricing.map(Tuple2::_1).get());
-        assertEquals("5.0000", splitPricing.map(Tuple2::_2).get().toString());
+        assertEquals(NO_PRICE, determineCalculatorPrice(0, 100000, 0));
 
-        splitPricing = calculateSplitPricing(currencyFormatter,
-                BigDecimal.ZERO, Optional.of(2));
-        assertFalse(splitPricing.isPresent());
-
-        splitPricing = calculateSplitPricing(currencyFormatter,
-                null, Optional.of(2));
-        assertFalse(splitPricing.isPresent());
-
-        splitPricing = calculateSplitPricing(currencyFormatter,
-                BigDecimal.valueOf(10), Optional.empty());
-        assertFalse(splitPricing.isPresent());
+        assertEquals(NO_PRICE, determineCalculatorPrice(-100000, -100000, 2));
     }
 
     @Test
-    public void testDeterminePricing() {
-
-        Optional<Tuple2<String, BigDecimal>> pricingTuple = determinePricing(currencyFormatter,
-                Optional.of(BigDecimal.valueOf(10)),
-                Optional.empty(),
-                Optional.empty());
+    public void testDetermineDisplayPriceCurrencyFormatter() {
+        assertEquals("$10.00", determineDisplayPrice(cachedCurrencyFormatter, 100000, 20000, 2));
+        assertEquals("2 for $2.00", determineDisplayPrice(cachedCurrencyFormatter, 0, 20000, 2));
+        assertEquals(null, determineDisplayPrice(cachedCurrencyFormatter, 0, 20000, 0));
+        assertEquals(null, determineDisplayPrice(cachedCurrencyFormatter, 0, 0, 2));
+    }
 
-        assertTrue(pricingTuple.isPresent());
-        assertEquals("$10.00", pricingTuple.get()._1);
-        assertTrue(BigDecimal.valueOf(10).compareTo(pricingTuple.get()._2) == 0);
+    /**
+     * Scaled division matches BigDecimal HALF_DOWN division
+     */
+    @Test
+    public void testDivideHalfDown() {
+        for (long price = -2000; price <= 2000; price += 7) {
+            for (int x = 1; x <= 9; x++) {
+                BigDecimal expected = BigDecimal.valueOf(price, 4)
+                        .divide(BigDecimal.valueOf(x), 4, RoundingMode.HALF_DOWN);
+                assertEquals(expected.unscaledValue().longValue(), divideHalfDown(price, x));
+            }
+        }
+    }
 
-        pricingTuple = determinePricing(currencyFormatter,
-                Optional.empty(),
-                Optional.of(BigDecimal.valueOf(10)),
-                Optional.of(2));
+    @Test
+    public void testToScaledCurrency() {
+        assertEquals(56700, toScaledCurrency("00000567", 0, 8));
 
-        assertTrue(pricingTuple.isPresent());
-        assertEquals("2 for $10.00", pricingTuple.get()._1);
-        assertTrue(BigDecimal.valueOf(5).compareTo(pricingTuple.get()._2) == 0);
+        assertEquals(-56700, toScaledCurrency("-0000567", 0, 8));
 
-        pricingTuple = determinePricing(currencyFormatter,
-                Optional.empty(),
-                Optional.of(BigDecimal.valueOf(10)),
-                Optional.of(0));
+        assertEquals(1000000, toScaledCurrency("x00010000x", 1, 9));
+    }
 
-        assertFalse(pricingTuple.isPresent());
+    @Test(expected = NumberFormatException.class)
+    public void testToScaledCurrencyInvalid() {
+        toScaledCurrency("0000a567", 0, 8);
     }
 
     @Test
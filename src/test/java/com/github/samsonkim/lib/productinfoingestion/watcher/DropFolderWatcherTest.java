@@ -0,0 +1,261 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.watcher;
+
+import com.github.samsonkim.lib.productinfoingestion.integration.StoreFactoryImpl;
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings;
+import com.github.samsonkim.lib.productinfoingestion.service.ProductCatalogIntegrationService;
+import com.github.samsonkim.lib.productinfoingestion.service.ProductCatalogIntegrationServiceImpl;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DropFolderWatcherTest {
+    private static final Path SAMPLE_FILE = Paths.get("src/test/resources/test-sample.txt");
+    private static final Duration SETTLE_TIME = Duration.ofMillis(100);
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Files dropped in a store folder are ingested in order and moved to the processed folder
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testIngestDroppedFiles() throws Exception {
+        Path root = folder.getRoot().toPath();
+        Path storeFolder = Files.createDirectory(root.resolve("sample"));
+        RecordingListener listener = new RecordingListener();
+        List<String> handled = Collections.synchronizedList(new ArrayList<>());
+        ProductCatalogIntegrationService service = new ProductCatalogIntegrationServiceImpl(new StoreFactoryImpl());
+        List<Long> counts = Collections.synchronizedList(new ArrayList<>());
+
+        try (DropFolderWatcher watcher = new DropFolderWatcher(root, new StoreFactoryImpl(),
+                (storeId, file) -> {
+                    assertEquals(SampleStoreSettings.STORE_ID, storeId);
+                    handled.add(file.getFileName().toString());
+                    counts.add(service.ingestProductCatalog(storeId, file.toString(), "user", productRecord -> {
+                    }));
+                }, listener, 2, SETTLE_TIME)) {
+            watcher.start();
+
+            drop(storeFolder, "a.txt");
+            assertNotNull(listener.ingested.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            drop(storeFolder, "b.txt");
+            assertNotNull(listener.ingested.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+
+        assertEquals(Arrays.asList("a.txt", "b.txt"), handled);
+        assertEquals(Arrays.asList(5L, 5L), counts);
+        assertFalse(Files.exists(storeFolder.resolve("a.txt")));
+        assertTrue(Files.exists(storeFolder.resolve(DropFolderWatcher.PROCESSED_DIRECTORY).resolve("a.txt")));
+        assertTrue(Files.exists(storeFolder.resolve(DropFolderWatcher.PROCESSED_DIRECTORY).resolve("b.txt")));
+        assertTrue(listener.failed.isEmpty());
+    }
+
+    /**
+     * Files left in a store folder before start are ingested,
+     * as are files of store folders created while watching
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testIngestExistingFilesAndNewStoreFolders() throws Exception {
+        Path root = folder.getRoot().toPath();
+        Path storeFolder = Files.createDirectory(root.resolve("sample"));
+        drop(storeFolder, "existing.txt");
+        RecordingListener listener = new RecordingListener();
+
+        try (DropFolderWatcher watcher = new DropFolderWatcher(root, new StoreFactoryImpl(),
+                (storeId, file) -> {
+                }, listener, 1, SETTLE_TIME)) {
+            watcher.start();
+            assertEquals(storeFolder.resolve(DropFolderWatcher.PROCESSED_DIRECTORY).resolve("existing.txt"),
+                    listener.ingested.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+            Path newStoreFolder = Files.createDirectory(root.resolve("sample-2"));
+            //a file landing before the folder is registered is picked up by its listing
+            drop(newStoreFolder, "new.txt");
+            assertEquals(newStoreFolder.resolve(DropFolderWatcher.PROCESSED_DIRECTORY).resolve("new.txt"),
+                    listener.ingested.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Temporary upload files are left until renamed and folders of unknown stores are reported
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testIgnoredFilesAndUnknownStores() throws Exception {
+        Path root = folder.getRoot().toPath();
+        Path storeFolder = Files.createDirectory(root.resolve("sample"));
+        Path unknownFolder = Files.createDirectory(root.resolve("unknown"));
+        drop(unknownFolder, "a.txt");
+        RecordingListener listener = new RecordingListener();
+
+        try (DropFolderWatcher watcher = new DropFolderWatcher(root, new StoreFactoryImpl(),
+                (storeId, file) -> {
+                }, listener, 1, SETTLE_TIME)) {
+            watcher.start();
+            assertEquals(Collections.singletonList(unknownFolder), listener.unknownStores);
+
+            Path upload = drop(storeFolder, "a.txt.part");
+            assertNull(listener.ingested.poll(SETTLE_TIME.toMillis() * 5, TimeUnit.MILLISECONDS));
+
+            Files.move(upload, storeFolder.resolve("a.txt"));
+            assertEquals(storeFolder.resolve(DropFolderWatcher.PROCESSED_DIRECTORY).resolve("a.txt"),
+                    listener.ingested.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+        assertTrue(Files.exists(unknownFolder.resolve("a.txt")));
+    }
+
+    /**
+     * A file the handler fails on is moved to the failed folder and reported
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFailedFile() throws Exception {
+        Path root = folder.getRoot().toPath();
+        Path storeFolder = Files.createDirectory(root.resolve("sample"));
+        RecordingListener listener = new RecordingListener();
+        IllegalStateException failure = new IllegalStateException("failed");
+
+        try (DropFolderWatcher watcher = new DropFolderWatcher(root, new StoreFactoryImpl(),
+                (storeId, file) -> {
+                    throw failure;
+                }, listener, 1, SETTLE_TIME)) {
+            watcher.start();
+            drop(storeFolder, "a.txt");
+            assertEquals(storeFolder.resolve(DropFolderWatcher.FAILED_DIRECTORY).resolve("a.txt"),
+                    listener.failed.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+        assertEquals(Collections.singletonList(failure), listener.failures);
+        assertFalse(Files.exists(storeFolder.resolve("a.txt")));
+        assertTrue(listener.ingested.isEmpty());
+    }
+
+    /**
+     * A store folder that fails to register is reported and retried, the watcher keeps going
+     * and reports when it stops
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testErrorRetried() throws Exception {
+        Path root = folder.getRoot().toPath();
+        RecordingListener listener = new RecordingListener();
+        AtomicBoolean failOnce = new AtomicBoolean(true);
+        IllegalStateException failure = new IllegalStateException("store lookup failed");
+        StoreFactoryImpl storeFactory = new StoreFactoryImpl() {
+            @Override
+            public Optional<UUID> findStoreId(String name) {
+                if (failOnce.getAndSet(false)) {
+                    throw failure;
+                }
+                return super.findStoreId(name);
+            }
+        };
+
+        try (DropFolderWatcher watcher = new DropFolderWatcher(root, storeFactory,
+                (storeId, file) -> {
+                }, listener, 1, SETTLE_TIME)) {
+            watcher.start();
+
+            Path storeFolder = Files.createDirectory(root.resolve("sample"));
+            drop(storeFolder, "a.txt");
+            assertEquals(storeFolder.resolve(DropFolderWatcher.PROCESSED_DIRECTORY).resolve("a.txt"),
+                    listener.ingested.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertEquals(Collections.singletonList(failure), listener.errors);
+            assertTrue(listener.stopped.isEmpty());
+        }
+        assertEquals(Collections.singletonList(Optional.empty()), listener.stopped);
+    }
+
+    private static Path drop(Path storeFolder, String name) throws IOException {
+        return Files.copy(SAMPLE_FILE, storeFolder.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static class RecordingListener implements DropFolderListener {
+        private final BlockingQueue<Path> ingested = new LinkedBlockingQueue<>();
+        private final BlockingQueue<Path> failed = new LinkedBlockingQueue<>();
+        private final List<Exception> failures = Collections.synchronizedList(new ArrayList<>());
+        private final List<Path> unknownStores = Collections.synchronizedList(new ArrayList<>());
+        private final List<Exception> errors = Collections.synchronizedList(new ArrayList<>());
+        private final List<Optional<Exception>> stopped = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onIngested(UUID storeId, Path file) {
+            ingested.add(file);
+        }
+
+        @Override
+        public void onFailed(UUID storeId, Path file, Exception e) {
+            failures.add(e);
+            failed.add(file);
+        }
+
+        @Override
+        public void onUnknownStore(Path directory) {
+            unknownStores.add(directory);
+        }
+
+        @Override
+        public void onError(Exception e) {
+            errors.add(e);
+        }
+
+        @Override
+        public void onStopped(Exception e) {
+            stopped.add(Optional.ofNullable(e));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.watcher;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StoreOrderedExecutorTest {
+
+    /**
+     * Tasks of a store run one at a time in submission order while stores run in parallel
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testExecute() throws InterruptedException {
+        int stores = 4;
+        int tasksPerStore = 200;
+        StoreOrderedExecutor instance = new StoreOrderedExecutor(3, "test-worker-");
+
+        List<UUID> storeIds = new ArrayList<>();
+        Map<UUID, List<Integer>> completed = new HashMap<>();
+        Map<UUID, AtomicInteger> running = new ConcurrentHashMap<>();
+        for (int i = 0; i < stores; i++) {
+            UUID storeId = UUID.randomUUID();
+            storeIds.add(storeId);
+            completed.put(storeId, Collections.synchronizedList(new ArrayList<>()));
+            running.put(storeId, new AtomicInteger());
+        }
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(stores * tasksPerStore);
+
+        for (int task = 0; task < tasksPerStore; task++) {
+            for (UUID storeId : storeIds) {
+                int sequence = task;
+                instance.execute(storeId, () -> {
+                    if (running.get(storeId).incrementAndGet() > 1) {
+                        overlaps.incrementAndGet();
+                    }
+                    int total = running.values().stream().mapToInt(AtomicInteger::get).sum();
+                    maxRunning.accumulateAndGet(total, Math::max);
+                    completed.get(storeId).add(sequence);
+                    running.get(storeId).decrementAndGet();
+                    done.countDown();
+                });
+            }
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        instance.shutdown();
+        assertTrue(instance.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(0, overlaps.get());
+        assertTrue(maxRunning.get() <= 3);
+        for (UUID storeId : storeIds) {
+            List<Integer> sequences = completed.get(storeId);
+            assertEquals(tasksPerStore, sequences.size());
+            for (int i = 0; i < tasksPerStore; i++) {
+                assertEquals(i, (int) sequences.get(i));
+            }
+            assertEquals(0, instance.queued(storeId));
+        }
+    }
+
+    /**
+     * A failing task does not stop the store's later tasks
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testExecuteAfterFailure() throws InterruptedException {
+        StoreOrderedExecutor instance = new StoreOrderedExecutor(1, "test-worker-");
+        UUID storeId = UUID.randomUUID();
+        CountDownLatch done = new CountDownLatch(1);
+
+        instance.execute(storeId, () -> {
+            throw new IllegalStateException("failed");
+        });
+        instance.execute(storeId, done::countDown);
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        instance.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWorkers() {
+        new StoreOrderedExecutor(0, "test-worker-");
+    }
+}
@@ -24,11 +24,21 @@
 
 package com.github.samsonkim.lib.productinfoingestion.writer;
 
+import com.github.samsonkim.lib.productinfoingestion.exception.ProductInfoIngestionException;
+import com.github.samsonkim.lib.productinfoingestion.integration.StoreFactoryImpl;
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.service.ProductCatalogIntegrationServiceImpl;
 import io.vavr.collection.HashMap;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
@@ -48,4 +58,95 @@ public class JacksonJsonWriterTest {
         String response = instance.writeValueAsString(map);
         assertEquals("{\"name\":\"skim\"}", response);
     }
+
+    @Test
+    public void testWriteValue() throws JsonException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        instance.writeValue(outputStream, HashMap.of("name", "skim").toJavaMap());
+        assertEquals("{\"name\":\"skim\"}", new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Elements streamed into an array give the same json as the List written at once
+     *
+     * @throws JsonException
+     * @throws ProductInfoIngestionException
+     */
+    @Test
+    public void testOpenArray() throws JsonException, ProductInfoIngestionException {
+        List<ProductRecord> productRecords = new ProductCatalogIntegrationServiceImpl(new StoreFactoryImpl())
+                .ingestProductCatalog(SampleStoreSettings.STORE_ID, "src/test/resources/test-sample.txt", "user");
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (JsonWriter.ArrayOutput output = instance.openArray(outputStream)) {
+            for (ProductRecord productRecord : productRecords) {
+                output.write(productRecord);
+            }
+            output.finish();
+        }
+        assertEquals(instance.writeValueAsString(productRecords), new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+
+        outputStream.reset();
+        instance.openArray(outputStream).finish();
+        assertEquals("[]", new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Closing without finishing leaves the array unterminated, so a failed ingestion never looks complete
+     *
+     * @throws JsonException
+     */
+    @Test
+    public void testOpenArrayNotFinished() throws JsonException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (JsonWriter.ArrayOutput output = instance.openArray(outputStream)) {
+            output.write(HashMap.of("a", 1).toJavaMap());
+        }
+        assertEquals("[{\"a\":1}", new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Chunks encoded in parallel are written in order, one element per line
+     *
+     * @throws JsonException
+     * @throws ProductInfoIngestionException
+     */
+    @Test
+    public void testOpenLines() throws JsonException, ProductInfoIngestionException {
+        List<ProductRecord> productRecords = new ArrayList<>();
+        ProductCatalogIntegrationServiceImpl service = new ProductCatalogIntegrationServiceImpl(new StoreFactoryImpl());
+        for (int i = 0; i < 20; i++) {
+            productRecords.addAll(service.ingestProductCatalog(SampleStoreSettings.STORE_ID, "src/test/resources/test-sample.txt", "user"));
+        }
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            instance = new JacksonJsonWriter(pool, 3);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            try (JsonWriter.ArrayOutput output = instance.openLines(outputStream)) {
+                for (ProductRecord productRecord : productRecords) {
+                    output.write(productRecord);
+                }
+                output.finish();
+            }
+
+            StringBuilder expected = new StringBuilder();
+            for (ProductRecord productRecord : productRecords) {
+                expected.append(instance.writeValueAsString(productRecord)).append('\n');
+            }
+            assertEquals(expected.toString(), new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+
+            outputStream.reset();
+            instance.openLines(outputStream).finish();
+            assertEquals(0, outputStream.size());
+
+            //lines still being encoded when the output is closed unfinished are dropped
+            outputStream.reset();
+            try (JsonWriter.ArrayOutput output = instance.openLines(outputStream)) {
+                output.write(productRecords.get(0));
+            }
+            assertEquals(0, outputStream.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
 }
@@ -0,0 +1,173 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 samsonkim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.samsonkim.lib.productinfoingestion.writer;
+
+import com.github.samsonkim.lib.productinfoingestion.exception.ProductInfoIngestionException;
+import com.github.samsonkim.lib.productinfoingestion.integration.StoreFactoryImpl;
+import com.github.samsonkim.lib.productinfoingestion.integration.samplestore.SampleStoreSettings;
+import com.github.samsonkim.lib.productinfoingestion.model.Money;
+import com.github.samsonkim.lib.productinfoingestion.model.ProductRecord;
+import com.github.samsonkim.lib.productinfoingestion.model.UnitOfMeasure;
+import com.github.samsonkim.lib.productinfoingestion.service.ProductCatalogIntegrationServiceImpl;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProductRecordBinaryWriterTest {
+    private static final String FILE_NAME = "src/test/resources/test-sample.txt";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private List<ProductRecord> productRecords;
+    private ProductRecordBinaryWriter instance;
+
+    @Before
+    public void setUp() throws ProductInfoIngestionException {
+        productRecords = new ProductCatalogIntegrationServiceImpl(new StoreFactoryImpl())
+                .ingestProductCatalog(SampleStoreSettings.STORE_ID, FILE_NAME, "user");
+        instance = new ProductRecordBinaryWriter();
+    }
+
+    /**
+     * Records read back equal the records written and take less room than Json
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        byte[] bytes = instance.writeValueAsBytes(productRecords);
+
+        assertEquals(productRecords, ProductRecordBinaryReader.readAll(ByteBuffer.wrap(bytes)));
+        int jsonLength = new JacksonJsonWriter().writeValueAsString(productRecords).getBytes(StandardCharsets.UTF_8).length;
+        assertTrue(String.format("binary=%d, json=%d", bytes.length, jsonLength), bytes.length < jsonLength / 2);
+    }
+
+    /**
+     * Records span several blocks, each with its own tables, and are read from a mapped file
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testBlocksFromFile() throws IOException {
+        List<ProductRecord> expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            expected.addAll(productRecords);
+        }
+        Path path = temporaryFolder.newFile("sample.bin").toPath();
+        try (OutputStream outputStream = Files.newOutputStream(path)) {
+            new ProductRecordBinaryWriter(2).write(expected, outputStream);
+        }
+
+        ProductRecordBinaryReader reader = ProductRecordBinaryReader.open(path);
+        assertEquals(ProductRecordBinaryFormat.VERSION, reader.getVersion());
+        List<ProductRecord> records = new ArrayList<>();
+        while (reader.next()) {
+            records.add(reader.toProductRecord());
+        }
+        assertEquals(expected, records);
+        assertFalse(reader.next());
+    }
+
+    /**
+     * The cursor reads fields without copying the record out
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCursor() throws IOException {
+        ProductRecordBinaryReader reader = new ProductRecordBinaryReader(ByteBuffer.wrap(instance.writeValueAsBytes(productRecords)));
+
+        assertTrue(reader.next());
+        ProductRecord expected = productRecords.get(0);
+        assertEquals(80000001, reader.getProductID());
+        assertEquals(56700, reader.getRegularCalculatorPriceScaled());
+        assertEquals(expected.getProductDescription(), reader.getProductDescription());
+        assertEquals(expected.getId(), reader.getId());
+        assertEquals(SampleStoreSettings.STORE_ID, reader.getStoreId());
+        assertEquals(expected.getLocale(), reader.getLocale());
+    }
+
+    /**
+     * Null, empty and missing values survive the encoding
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testNullAndEmptyFields() throws IOException {
+        List<ProductRecord> expected = Arrays.asList(
+                ProductRecord.builder()
+                        .id(Optional.empty())
+                        .productSize(Optional.empty())
+                        .taxRate(Optional.of(new BigDecimal("0.07775")))
+                        .unitOfMeasure(UnitOfMeasure.POUND)
+                        .promotionalCalculatorPrice(Money.ofScaled(-1L))
+                        .createdDateTime(Instant.ofEpochSecond(-1L, 999999999))
+                        .locale(Locale.CANADA_FRENCH)
+                        .build(),
+                ProductRecord.builder()
+                        .id(Optional.of(new UUID(-1L, Long.MIN_VALUE)))
+                        .productID(Integer.MIN_VALUE)
+                        .regularCalculatorPrice(Money.ofScaled(Long.MAX_VALUE))
+                        .productDescription("Crème brûlée 🍮")
+                        .build());
+
+        assertEquals(expected, ProductRecordBinaryReader.readAll(ByteBuffer.wrap(instance.writeValueAsBytes(expected))));
+        assertEquals(Collections.emptyList(),
+                ProductRecordBinaryReader.readAll(ByteBuffer.wrap(instance.writeValueAsBytes(Collections.emptyList()))));
+    }
+
+    @Test(expected = BinaryFormatException.class)
+    public void testNotBinary() throws IOException {
+        new ProductRecordBinaryReader(ByteBuffer.wrap("[{}]".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test(expected = BinaryFormatException.class)
+    public void testTruncated() throws IOException {
+        byte[] bytes = instance.writeValueAsBytes(productRecords);
+        ProductRecordBinaryReader.readAll(ByteBuffer.wrap(bytes, 0, bytes.length - 20).slice());
+    }
+}